@@ -0,0 +1,55 @@
+package com.smartattendance.backend.security;
+
+import com.smartattendance.backend.entity.Organisation;
+import com.smartattendance.backend.entity.Users;
+import com.smartattendance.backend.enums.RoleType;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Token issue on login and token parsing on every authenticated request.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtUtilBenchmark {
+
+    private static final String SECRET = "4e2c75fdbb36258cfd355a1eb6ec9783b9abe7cf202c42d2c24d0ef3798114da";
+
+    private JwtUtil jwtUtil;
+    private Users user;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        jwtUtil = new JwtUtil();
+        ReflectionTestUtils.setField(jwtUtil, "secret", SECRET);
+        ReflectionTestUtils.setField(jwtUtil, "expiration", 7_200_000L);
+
+        Organisation organisation = new Organisation();
+        organisation.setId(42L);
+
+        user = new Users();
+        user.setId(1_000L);
+        user.setEmail("employee@example.com");
+        user.setRole(RoleType.USER);
+        user.setOrganisation(organisation);
+
+        token = jwtUtil.generateToken(user);
+    }
+
+    @Benchmark
+    public String generateToken() {
+        return jwtUtil.generateToken(user);
+    }
+
+    @Benchmark
+    public Object getClaimsFromToken() {
+        return jwtUtil.getClaimsFromToken(token);
+    }
+}
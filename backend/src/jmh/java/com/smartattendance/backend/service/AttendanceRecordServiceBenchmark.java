@@ -0,0 +1,95 @@
+package com.smartattendance.backend.service;
+
+import com.smartattendance.backend.dto.AttendanceRecordResponse;
+import com.smartattendance.backend.dto.OrganisationReport;
+import com.smartattendance.backend.dto.ReportFilters;
+import com.smartattendance.backend.dto.ReportSummary;
+import com.smartattendance.backend.enums.AttendanceMethod;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Geofence distance on check-in, and CSV/PDF report exports at the sizes an
+ * organisation produces for a week, a month and a quarter.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AttendanceRecordServiceBenchmark {
+
+    @Param({"250", "1000", "5000"})
+    private int records;
+
+    private AttendanceRecordService attendanceRecordService;
+    private OrganisationReport report;
+    private List<String> pdfLines;
+
+    @Setup
+    public void setUp() {
+        // Only the pure formatting/geometry helpers are exercised, so no collaborators are needed
+        attendanceRecordService = new AttendanceRecordService(null, null, null, null, null, null, null, null, null, null, null);
+
+        LocalDate start = LocalDate.of(2025, 1, 6);
+        List<AttendanceRecordResponse> responses = new ArrayList<>(records);
+        pdfLines = new ArrayList<>(records + 16);
+        pdfLines.add("##Organisation Attendance Report");
+        pdfLines.add("Organisation ID: 42");
+        pdfLines.add("");
+        pdfLines.add("##Detailed Records");
+
+        for (int i = 0; i < records; i++) {
+            LocalDateTime day = start.plusDays(i / 50).atStartOfDay();
+            LocalDateTime checkIn = day.plusHours(8).plusMinutes(i % 40);
+            LocalDateTime checkOut = i % 7 == 0 ? null : day.plusHours(17).plusMinutes(i % 25);
+            String name = "Employee " + (i % 50);
+            String email = "employee" + (i % 50) + "@example.com";
+
+            responses.add(AttendanceRecordResponse.builder()
+                    .id((long) i)
+                    .attendanceDate(day)
+                    .checkInTime(checkIn)
+                    .checkInMethod(AttendanceMethod.MOBILE_APP)
+                    .checkOutTime(checkOut)
+                    .checkOutMethod(checkOut != null ? AttendanceMethod.WEB : null)
+                    .userId((long) (i % 50))
+                    .userName(name)
+                    .userEmail(email)
+                    .build());
+            pdfLines.add(name + " | " + email + " | " + day.toLocalDate() + " | In: " + checkIn
+                    + " | Out: " + (checkOut != null ? checkOut : "-")
+                    + " | " + (checkOut != null ? "Complete" : "Active"));
+        }
+
+        report = new OrganisationReport(
+                new ReportFilters(42L, start, start.plusDays(records / 50), null, "DETAILED"),
+                new ReportSummary(records, records - records / 7, records / 7, 50, records / 5, records * 8.5, 8.5, 85.7),
+                List.of(),
+                List.of(),
+                responses
+        );
+    }
+
+    @Benchmark
+    public double calculateDistance() {
+        return attendanceRecordService.calculateDistance(5.631155029146822, -0.22219213171956173,
+                5.6318, -0.2215);
+    }
+
+    @Benchmark
+    public byte[] buildOrganisationCsv() {
+        return attendanceRecordService.buildOrganisationCsv(report);
+    }
+
+    @Benchmark
+    public byte[] buildPdfDocument() {
+        return attendanceRecordService.buildPdfDocument(pdfLines);
+    }
+}
@@ -0,0 +1,38 @@
+package com.smartattendance.backend.service;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * PNG rendering of the QR image served to the kiosk screen.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class QrCodeImageServiceBenchmark {
+
+    /** Realistic signed payload, roughly the size produced by QrCodeService. */
+    private static final String PAYLOAD = "{\"qrCodeId\":1000,\"organisationId\":42,"
+            + "\"organisationLatitude\":5.631155029146822,\"organisationLongitude\":-0.22219213171956173,"
+            + "\"expiresAt\":\"2025-01-06T08:05:00Z\","
+            + "\"signature\":\"9f86d081884c7d659a2feaa0c55ad015a3bf4f1b2b0b822cd15d6c15b0f00a08\"}";
+
+    @Param({"300", "600"})
+    private int size;
+
+    private QrCodeImageService qrCodeImageService;
+
+    @Setup
+    public void setUp() {
+        qrCodeImageService = new QrCodeImageService();
+    }
+
+    @Benchmark
+    public String generateQrCodeImage() {
+        return qrCodeImageService.generateQrCodeImage(PAYLOAD, size, size);
+    }
+}
@@ -0,0 +1,63 @@
+package com.smartattendance.backend.service;
+
+import com.smartattendance.backend.entity.Organisation;
+import com.smartattendance.backend.entity.QrCodeRecord;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * QR signing and payload (de)serialisation, run on every QR refresh and scan.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class QrCodeServiceBenchmark {
+
+    private QrCodeService qrCodeService;
+    private QrCodeRecord record;
+    private String rawPayload;
+    private LocalDateTime expiresAt;
+
+    @Setup
+    public void setUp() {
+        qrCodeService = new QrCodeService(null, null);
+
+        Organisation organisation = new Organisation();
+        organisation.setId(42L);
+        organisation.setLatitude(5.631155029146822);
+        organisation.setLongitude(-0.22219213171956173);
+
+        expiresAt = LocalDateTime.now(ZoneOffset.UTC).plusMinutes(5);
+        record = QrCodeRecord.builder()
+                .code("d3b07384-d113-4ec6-a5b5-6f0e1c2b3a4d")
+                .organisation(organisation)
+                .latitude(organisation.getLatitude())
+                .longitude(organisation.getLongitude())
+                .expiresAt(expiresAt)
+                .build();
+        record.setId(1_000L);
+        record.setSignature(qrCodeService.buildSignature(organisation.getId(), expiresAt));
+        rawPayload = qrCodeService.buildPayloadString(record);
+    }
+
+    @Benchmark
+    public String buildSignature() {
+        return qrCodeService.buildSignature(42L, expiresAt);
+    }
+
+    @Benchmark
+    public String buildPayloadString() {
+        return qrCodeService.buildPayloadString(record);
+    }
+
+    @Benchmark
+    public Object parsePayload() {
+        return qrCodeService.parsePayload(rawPayload);
+    }
+}
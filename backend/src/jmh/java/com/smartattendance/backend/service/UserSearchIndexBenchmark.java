@@ -0,0 +1,89 @@
+package com.smartattendance.backend.service;
+
+import com.smartattendance.backend.dto.UserResponse;
+import com.smartattendance.backend.entity.Organisation;
+import com.smartattendance.backend.entity.Users;
+import com.smartattendance.backend.enums.RoleType;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Autocomplete against one organisation of 20k users: first keystrokes,
+ * a longer fragment, and a misspelt surname.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class UserSearchIndexBenchmark {
+
+    private static final String[] SYLLABLES = {
+            "kwa", "me", "ama", "ko", "fi", "na", "yaw", "ab", "en", "sah",
+            "ow", "u", "su", "bo", "at", "eng", "ad", "jei", "an", "ti"
+    };
+
+    @Param("20000")
+    private int users;
+
+    private UserSearchIndex index;
+    private Organisation organisation;
+
+    @Setup
+    public void setUp() {
+        index = new UserSearchIndex(null);
+        organisation = new Organisation();
+        organisation.setId(1L);
+        organisation.setName("Benchmark");
+
+        Random random = new Random(42);
+        for (long id = 1; id <= users; id++) {
+            Users user = new Users();
+            user.setId(id);
+            user.setFirstName(word(random));
+            user.setLastName(word(random));
+            user.setEmail(user.getFirstName().toLowerCase() + "." + user.getLastName().toLowerCase() + id + "@example.com");
+            user.setRole(RoleType.USER);
+            user.setOrganisation(organisation);
+            index.index(user);
+        }
+        // The user the fuzzy query is looking for
+        Users target = new Users();
+        target.setId(users + 1L);
+        target.setFirstName("Kwame");
+        target.setLastName("Mensah");
+        target.setEmail("kwame.mensah@example.com");
+        target.setRole(RoleType.USER);
+        target.setOrganisation(organisation);
+        index.index(target);
+    }
+
+    @Benchmark
+    public List<UserResponse> twoLetterPrefix() {
+        return index.search(organisation, "kw", 20, true);
+    }
+
+    @Benchmark
+    public List<UserResponse> fragment() {
+        return index.search(organisation, "mesah", 20, false);
+    }
+
+    @Benchmark
+    public List<UserResponse> misspelt() {
+        return index.search(organisation, "kwame mensha", 20, true);
+    }
+
+    private static String word(Random random) {
+        StringBuilder word = new StringBuilder();
+        int syllables = 2 + random.nextInt(2);
+        for (int i = 0; i < syllables; i++) {
+            word.append(SYLLABLES[random.nextInt(SYLLABLES.length)]);
+        }
+        word.setCharAt(0, Character.toUpperCase(word.charAt(0)));
+        return word.toString();
+    }
+}
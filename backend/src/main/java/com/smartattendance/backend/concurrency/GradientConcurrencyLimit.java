@@ -0,0 +1,63 @@
+package com.smartattendance.backend.concurrency;
+
+/**
+ * Gradient-style adaptive concurrency limit.
+ *
+ * Keeps a slow moving average of request latency as the "no load" baseline
+ * and compares a fast moving average with it. While latency stays near the
+ * baseline the limit grows by roughly sqrt(limit); once requests start
+ * queueing and latency rises, the limit shrinks in proportion. Not thread
+ * safe: callers serialise access.
+ */
+class GradientConcurrencyLimit {
+
+    private static final double TOLERANCE = 1.5;
+    private static final double SMOOTHING = 0.2;
+    private static final int SHORT_WINDOW = 10;
+    private static final int LONG_WINDOW = 600;
+
+    private final int minLimit;
+    private final int maxLimit;
+
+    private double limit;
+    private double shortRttNanos;
+    private double longRttNanos;
+    private long samples;
+
+    GradientConcurrencyLimit(int initialLimit, int minLimit, int maxLimit) {
+        this.limit = initialLimit;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+    }
+
+    int getLimit() {
+        return (int) limit;
+    }
+
+    void onSample(long rttNanos, int inflight) {
+        if (rttNanos <= 0) {
+            return;
+        }
+        samples++;
+        shortRttNanos = average(shortRttNanos, rttNanos, SHORT_WINDOW);
+        longRttNanos = average(longRttNanos, rttNanos, LONG_WINDOW);
+
+        // Let the baseline recover quickly after a sustained latency increase has passed
+        if (longRttNanos / shortRttNanos > 2.0) {
+            longRttNanos *= 0.95;
+        }
+
+        // Not enough traffic to learn anything about the limit
+        if (inflight < limit / 2) {
+            return;
+        }
+
+        double gradient = Math.max(0.5, Math.min(1.0, TOLERANCE * longRttNanos / shortRttNanos));
+        double target = limit * gradient + Math.sqrt(limit);
+        limit = Math.max(minLimit, Math.min(maxLimit, limit * (1 - SMOOTHING) + target * SMOOTHING));
+    }
+
+    private double average(double current, long sample, int window) {
+        return current == 0 ? sample : current + (sample - current) / Math.min(samples, window);
+    }
+}
@@ -0,0 +1,170 @@
+package com.smartattendance.backend.concurrency;
+
+import com.smartattendance.backend.enums.RequestPriority;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Server-wide in-flight request limit with priorities.
+ *
+ * The limit itself adapts to latency ({@link GradientConcurrencyLimit}).
+ * Each priority may only fill its share of it, so reports and history stop
+ * being admitted well before check-ins do. HIGH requests that find the limit
+ * reached wait briefly for a slot, and while any of them wait no other
+ * request is admitted; everything else is rejected immediately.
+ *
+ * Only HIGH and NORMAL requests feed latency samples: a slow export says
+ * nothing about whether check-ins are queueing.
+ */
+@Component
+public class PriorityConcurrencyLimiter {
+
+    private final GradientConcurrencyLimit limit;
+    private final long highPriorityWaitNanos;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition released = lock.newCondition();
+    private final Map<RequestPriority, Map<Decision, Counter>> decisions = new EnumMap<>(RequestPriority.class);
+
+    private int inflight;
+    private int waitingHighPriority;
+
+    public PriorityConcurrencyLimiter(
+            MeterRegistry meterRegistry,
+            @Value("${attendance.concurrency.initial-limit:40}") int initialLimit,
+            @Value("${attendance.concurrency.min-limit:10}") int minLimit,
+            @Value("${attendance.concurrency.max-limit:400}") int maxLimit,
+            @Value("${attendance.concurrency.high-priority-wait-ms:500}") long highPriorityWaitMillis) {
+        this.limit = new GradientConcurrencyLimit(initialLimit, minLimit, maxLimit);
+        this.highPriorityWaitNanos = TimeUnit.MILLISECONDS.toNanos(highPriorityWaitMillis);
+
+        for (RequestPriority priority : RequestPriority.values()) {
+            Map<Decision, Counter> counters = new EnumMap<>(Decision.class);
+            for (Decision decision : Decision.values()) {
+                counters.put(decision, Counter.builder("attendance.concurrency.admission")
+                        .description("Admission decisions of the adaptive concurrency limiter")
+                        .tag("priority", priority.tagValue())
+                        .tag("decision", decision.tagValue())
+                        .register(meterRegistry));
+            }
+            decisions.put(priority, counters);
+        }
+        Gauge.builder("attendance.concurrency.limit", this, PriorityConcurrencyLimiter::getLimit)
+                .description("Current adaptive concurrency limit")
+                .register(meterRegistry);
+        Gauge.builder("attendance.concurrency.inflight", this, PriorityConcurrencyLimiter::getInflight)
+                .description("Requests currently admitted")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Tries to admit a request. Returns null when it has to be shed, otherwise
+     * a permit that must be released when the request completes.
+     */
+    public Permit tryAcquire(RequestPriority priority) throws InterruptedException {
+        lock.lock();
+        try {
+            if (hasRoom(priority)) {
+                return admit(priority, Decision.ACCEPTED);
+            }
+            if (priority == RequestPriority.HIGH) {
+                waitingHighPriority++;
+                try {
+                    long remaining = highPriorityWaitNanos;
+                    while (remaining > 0 && !hasRoom(priority)) {
+                        remaining = released.awaitNanos(remaining);
+                    }
+                    if (hasRoom(priority)) {
+                        return admit(priority, Decision.QUEUED);
+                    }
+                } finally {
+                    waitingHighPriority--;
+                }
+            }
+            decisions.get(priority).get(Decision.REJECTED).increment();
+            return null;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getLimit() {
+        lock.lock();
+        try {
+            return limit.getLimit();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getInflight() {
+        lock.lock();
+        try {
+            return inflight;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private boolean hasRoom(RequestPriority priority) {
+        if (priority != RequestPriority.HIGH && waitingHighPriority > 0) {
+            // A freed slot goes to the check-in that is already waiting for it
+            return false;
+        }
+        return inflight < Math.max(1, (int) (limit.getLimit() * priority.limitShare()));
+    }
+
+    private Permit admit(RequestPriority priority, Decision decision) {
+        inflight++;
+        decisions.get(priority).get(decision).increment();
+        return new Permit(priority, System.nanoTime());
+    }
+
+    private void release(Permit permit) {
+        long rtt = System.nanoTime() - permit.startNanos;
+        lock.lock();
+        try {
+            if (permit.priority != RequestPriority.LOW) {
+                limit.onSample(rtt, inflight);
+            }
+            inflight--;
+            released.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private enum Decision {
+        ACCEPTED, QUEUED, REJECTED;
+
+        String tagValue() {
+            return name().toLowerCase();
+        }
+    }
+
+    public final class Permit {
+        private final RequestPriority priority;
+        private final long startNanos;
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        private Permit(RequestPriority priority, long startNanos) {
+            this.priority = priority;
+            this.startNanos = startNanos;
+        }
+
+        public void release() {
+            if (released.compareAndSet(false, true)) {
+                PriorityConcurrencyLimiter.this.release(this);
+            }
+        }
+    }
+}
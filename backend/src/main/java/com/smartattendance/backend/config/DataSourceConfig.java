@@ -0,0 +1,101 @@
+package com.smartattendance.backend.config;
+
+import com.smartattendance.backend.datasource.ConnectionPoolRoutingDataSource;
+import com.smartattendance.backend.datasource.ReadWriteSplittingDataSource;
+import com.smartattendance.backend.datasource.ReadYourWritesWindow;
+import com.smartattendance.backend.datasource.ReplicaRoutingDataSource;
+import com.smartattendance.backend.enums.ConnectionPoolType;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Two separately sized Hikari pools behind one routing DataSource, so a burst
+ * of long report exports can only exhaust the reporting pool and never starves
+ * check-ins. Each pool publishes its own hikaricp_* metrics, tagged by pool name.
+ *
+ * When attendance.datasource.replica.urls lists read replicas, read-only
+ * transactions are served from them (see {@link ReadWriteSplittingDataSource}).
+ * Replicas use the primary's credentials.
+ *
+ * Only the reporting pool may open server-side cursors (Connector/J's
+ * useCursorFetch), since the flag makes every statement on its connections
+ * a server-side prepared statement.
+ */
+@Configuration
+public class DataSourceConfig {
+
+    @Bean
+    public DataSource dataSource(
+            DataSourceProperties properties,
+            MeterRegistry meterRegistry,
+            ReadYourWritesWindow readYourWritesWindow,
+            @Value("${attendance.datasource.critical.maximum-pool-size:10}") int criticalPoolSize,
+            @Value("${attendance.datasource.critical.connection-timeout:5000}") long criticalTimeout,
+            @Value("${attendance.datasource.reporting.maximum-pool-size:4}") int reportingPoolSize,
+            @Value("${attendance.datasource.reporting.connection-timeout:30000}") long reportingTimeout,
+            @Value("${attendance.datasource.reporting.cursor-fetch:false}") boolean reportingCursorFetch,
+            @Value("${attendance.datasource.replica.urls:}") List<String> replicaUrls,
+            @Value("${attendance.datasource.replica.maximum-pool-size:10}") int replicaPoolSize,
+            @Value("${attendance.datasource.replica.connection-timeout:2000}") long replicaTimeout,
+            @Value("${attendance.datasource.replica.retry-after-ms:10000}") long replicaRetryAfter) {
+
+        HikariDataSource reporting = pool(properties, meterRegistry, ConnectionPoolType.REPORTING.poolName(),
+                reportingPoolSize, reportingTimeout);
+        if (reportingCursorFetch) {
+            reporting.addDataSourceProperty("useCursorFetch", "true");
+        }
+        ConnectionPoolRoutingDataSource primary = new ConnectionPoolRoutingDataSource(Map.of(
+                ConnectionPoolType.CRITICAL,
+                pool(properties, meterRegistry, ConnectionPoolType.CRITICAL.poolName(), criticalPoolSize, criticalTimeout),
+                ConnectionPoolType.REPORTING, reporting
+        ));
+
+        List<HikariDataSource> replicas = new ArrayList<>();
+        for (String url : replicaUrls) {
+            if (url.isBlank()) {
+                continue;
+            }
+            HikariDataSource replica = pool(properties, meterRegistry, "replica-" + replicas.size(),
+                    replicaPoolSize, replicaTimeout);
+            replica.setJdbcUrl(url.trim());
+            replica.setReadOnly(true);
+            // A replica that is down at startup must not keep the application from starting
+            replica.setInitializationFailTimeout(-1);
+            replicas.add(replica);
+        }
+        if (replicas.isEmpty()) {
+            return primary;
+        }
+
+        return new ReadWriteSplittingDataSource(primary, new ReplicaRoutingDataSource(
+                replicas, primary, readYourWritesWindow, replicaRetryAfter, meterRegistry));
+    }
+
+    private HikariDataSource pool(DataSourceProperties properties,
+                                  MeterRegistry meterRegistry,
+                                  String name,
+                                  int size,
+                                  long connectionTimeout) {
+        HikariDataSource pool = properties.initializeDataSourceBuilder()
+                .type(HikariDataSource.class)
+                .build();
+        pool.setPoolName(name);
+        // Fixed size: connections are only held inside service transactions
+        pool.setMaximumPoolSize(size);
+        pool.setMinimumIdle(size);
+        pool.setConnectionTimeout(connectionTimeout);
+        pool.setAutoCommit(false);
+        pool.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(meterRegistry));
+        return pool;
+    }
+}
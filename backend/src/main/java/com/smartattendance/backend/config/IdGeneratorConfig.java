@@ -0,0 +1,20 @@
+package com.smartattendance.backend.config;
+
+import com.smartattendance.backend.id.TimeOrderedIdGenerator;
+import com.smartattendance.backend.id.TimeOrderedIdHibernateGenerator;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Makes the application's id generator available to Hibernate, so entity
+ * ids and ids assigned in JDBC batch inserts come from one sequence.
+ */
+@Configuration
+public class IdGeneratorConfig {
+
+    @Bean
+    public HibernatePropertiesCustomizer timeOrderedIdCustomizer(TimeOrderedIdGenerator timeOrderedIdGenerator) {
+        return properties -> properties.put(TimeOrderedIdHibernateGenerator.GENERATOR_SETTING, timeOrderedIdGenerator);
+    }
+}
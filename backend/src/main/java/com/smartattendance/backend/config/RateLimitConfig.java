@@ -0,0 +1,13 @@
+package com.smartattendance.backend.config;
+
+import com.smartattendance.backend.ratelimit.RateLimitProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Binds the per-route rate-limit policies; see RateLimitFilter.
+ */
+@Configuration
+@EnableConfigurationProperties(RateLimitProperties.class)
+public class RateLimitConfig {
+}
@@ -0,0 +1,13 @@
+package com.smartattendance.backend.config;
+
+import com.smartattendance.backend.retention.RetentionProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Binds the per-table retention policies; see RetentionService.
+ */
+@Configuration
+@EnableConfigurationProperties(RetentionProperties.class)
+public class RetentionConfig {
+}
@@ -0,0 +1,22 @@
+package com.smartattendance.backend.config;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * With open-in-view disabled a connection is only held inside a transaction,
+ * so code that needs to gather data and then do slow work (rendering PDFs,
+ * CSVs) uses this template to scope the database part explicitly.
+ */
+@Configuration
+public class TransactionConfig {
+
+    @Bean
+    public TransactionTemplate readOnlyTransactionTemplate(PlatformTransactionManager transactionManager) {
+        TransactionTemplate template = new TransactionTemplate(transactionManager);
+        template.setReadOnly(true);
+        return template;
+    }
+}
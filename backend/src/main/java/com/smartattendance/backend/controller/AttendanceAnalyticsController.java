@@ -0,0 +1,179 @@
+package com.smartattendance.backend.controller;
+
+import com.smartattendance.backend.dto.UserAttendanceStats;
+import com.smartattendance.backend.enums.SetOperation;
+import com.smartattendance.backend.security.CustomUserDetails;
+import com.smartattendance.backend.service.AttendanceHistoryIndex;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Cohort, streak and rate queries answered from the in-memory attendance
+ * history index. Date ranges are walked day by day for every user, so they
+ * are capped at MAX_RANGE_DAYS.
+ */
+@RestController
+@RequestMapping("/api/attendance/analytics")
+@RequiredArgsConstructor
+@PreAuthorize("hasAnyRole('SUPER_ADMIN', 'ADMIN')")
+public class AttendanceAnalyticsController {
+
+    static final long MAX_RANGE_DAYS = 366;
+
+    private final AttendanceHistoryIndex attendanceHistoryIndex;
+
+    /**
+     * Users absent on every one of the given dates
+     * GET /api/attendance/analytics/absentees?orgId=5&dates=2025-01-06,2025-01-07
+     */
+    @GetMapping("/absentees")
+    public ResponseEntity<?> getAbsentees(
+            @RequestParam Long orgId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) List<LocalDate> dates,
+            @AuthenticationPrincipal CustomUserDetails currentUser) {
+
+        validateOrganisationAccess(currentUser, orgId);
+
+        List<Long> userIds = attendanceHistoryIndex.findAbsentOnAll(orgId, dates);
+
+        return ResponseEntity.ok(Map.of(
+                "success", true,
+                "count", userIds.size(),
+                "data", userIds
+        ));
+    }
+
+    /**
+     * Users matching a set operation over the given dates
+     * GET /api/attendance/analytics/users?orgId=5&dates=2025-01-06,2025-01-07&op=AND
+     */
+    @GetMapping("/users")
+    public ResponseEntity<?> getUsersByDates(
+            @RequestParam Long orgId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) List<LocalDate> dates,
+            @RequestParam(defaultValue = "AND") String op,
+            @AuthenticationPrincipal CustomUserDetails currentUser) {
+
+        validateOrganisationAccess(currentUser, orgId);
+
+        List<Long> userIds = attendanceHistoryIndex.findUsers(orgId, dates, SetOperation.from(op));
+
+        return ResponseEntity.ok(Map.of(
+                "success", true,
+                "count", userIds.size(),
+                "data", userIds
+        ));
+    }
+
+    /**
+     * Days matching a set operation over the given users
+     * GET /api/attendance/analytics/days?orgId=5&userIds=10,11&op=ANDNOT&startDate=2025-01-01&endDate=2025-03-31
+     */
+    @GetMapping("/days")
+    public ResponseEntity<?> getDaysByUsers(
+            @RequestParam Long orgId,
+            @RequestParam List<Long> userIds,
+            @RequestParam(defaultValue = "AND") String op,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            @AuthenticationPrincipal CustomUserDetails currentUser) {
+
+        validateOrganisationAccess(currentUser, orgId);
+
+        LocalDate end = endDate != null ? endDate : LocalDate.now();
+        LocalDate start = startDate != null ? startDate : end.withDayOfYear(1);
+        if (ChronoUnit.DAYS.between(start, end) >= MAX_RANGE_DAYS) {
+            return rangeTooLong();
+        }
+        List<LocalDate> days = attendanceHistoryIndex.findDays(orgId, userIds, SetOperation.from(op), start, end);
+
+        return ResponseEntity.ok(Map.of(
+                "success", true,
+                "count", days.size(),
+                "data", days
+        ));
+    }
+
+    /**
+     * Attendance rate and longest streak per user (defaults to this year)
+     * GET /api/attendance/analytics/rates?orgId=5&startDate=2025-01-01&endDate=2025-12-31
+     */
+    @GetMapping("/rates")
+    public ResponseEntity<?> getAttendanceRates(
+            @RequestParam Long orgId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            @AuthenticationPrincipal CustomUserDetails currentUser) {
+
+        validateOrganisationAccess(currentUser, orgId);
+
+        LocalDate end = endDate != null ? endDate : LocalDate.now();
+        LocalDate start = startDate != null ? startDate : end.withDayOfYear(1);
+        if (ChronoUnit.DAYS.between(start, end) >= MAX_RANGE_DAYS) {
+            return rangeTooLong();
+        }
+        List<UserAttendanceStats> stats = attendanceHistoryIndex.getStats(orgId, start, end);
+
+        return ResponseEntity.ok(Map.of(
+                "success", true,
+                "count", stats.size(),
+                "data", stats
+        ));
+    }
+
+    /**
+     * Users with a run of at least minLength consecutive work days
+     * GET /api/attendance/analytics/streaks?orgId=5&minLength=20
+     */
+    @GetMapping("/streaks")
+    public ResponseEntity<?> getStreaks(
+            @RequestParam Long orgId,
+            @RequestParam(defaultValue = "20") int minLength,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            @AuthenticationPrincipal CustomUserDetails currentUser) {
+
+        validateOrganisationAccess(currentUser, orgId);
+
+        LocalDate end = endDate != null ? endDate : LocalDate.now();
+        LocalDate start = startDate != null ? startDate : end.withDayOfYear(1);
+        if (ChronoUnit.DAYS.between(start, end) >= MAX_RANGE_DAYS) {
+            return rangeTooLong();
+        }
+        List<UserAttendanceStats> streaks = attendanceHistoryIndex.findStreaks(orgId, minLength, start, end);
+
+        return ResponseEntity.ok(Map.of(
+                "success", true,
+                "count", streaks.size(),
+                "data", streaks
+        ));
+    }
+
+    private static ResponseEntity<?> rangeTooLong() {
+        return ResponseEntity.badRequest().body(Map.of(
+                "success", false,
+                "message", "Date range cannot be longer than " + MAX_RANGE_DAYS + " days"
+        ));
+    }
+
+    private void validateOrganisationAccess(CustomUserDetails currentUser, Long orgId) {
+        if (currentUser.isSuperAdmin()) {
+            // SuperAdmin can access any organisation
+            return;
+        }
+
+        // Regular ADMIN must match their organisation
+        if (!currentUser.getOrganisationId().equals(orgId)) {
+            throw new RuntimeException("Access denied: You cannot access this organisation's data");
+        }
+    }
+}
@@ -1,32 +1,47 @@
 package com.smartattendance.backend.controller;
 
 import com.smartattendance.backend.dto.ApiResponse;
+import com.smartattendance.backend.dto.AttendanceImportResult;
 import com.smartattendance.backend.dto.AttendanceRecordResponse;
 import com.smartattendance.backend.dto.AttendanceReport;
 import com.smartattendance.backend.dto.CheckInRequest;
 import com.smartattendance.backend.dto.CheckOutRequest;
+import com.smartattendance.backend.dto.DashboardResponse;
 import com.smartattendance.backend.dto.OrganisationReport;
+import com.smartattendance.backend.dto.PresenceMember;
+import com.smartattendance.backend.dto.PresenceSummary;
 import com.smartattendance.backend.dto.ReportExportPayload;
+import com.smartattendance.backend.entity.AttendanceImportJob;
 import com.smartattendance.backend.entity.AttendanceRecord;
 import com.smartattendance.backend.entity.Organisation;
 import com.smartattendance.backend.entity.Users;
 import com.smartattendance.backend.enums.AttendanceMethod;
+import com.smartattendance.backend.enums.ImportJobStatus;
 import com.smartattendance.backend.enums.ReportFormat;
+import com.smartattendance.backend.exporter.StreamingJsonResponse;
 import com.smartattendance.backend.security.CustomUserDetails;
+import com.smartattendance.backend.service.AttendanceImportService;
 import com.smartattendance.backend.service.AttendanceRecordService;
+import com.smartattendance.backend.service.AttendanceVersionTracker;
+import com.smartattendance.backend.service.DayCloseService;
 import com.smartattendance.backend.service.OrganisationService;
+import com.smartattendance.backend.service.PresenceBoardService;
 import com.smartattendance.backend.service.UserService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.core.io.ByteArrayResource;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.InputStream;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.HashMap;
@@ -42,6 +57,13 @@ public class AttendanceRecordController {
         private final AttendanceRecordService attendanceRecordService;
         private final OrganisationService organisationService;
         private final UserService userService;
+        private final PresenceBoardService presenceBoardService;
+        private final AttendanceImportService attendanceImportService;
+        private final DayCloseService dayCloseService;
+        private final StreamingJsonResponse streamingJsonResponse;
+        private final AttendanceVersionTracker attendanceVersionTracker;
+
+        private static final int MAX_DASHBOARD_HISTORY = 100;
 
         /**
          * Get all attendance records for an organisation
@@ -49,22 +71,18 @@ public class AttendanceRecordController {
          */
         @GetMapping
         @PreAuthorize("hasAnyRole('SUPER_ADMIN', 'ADMIN')")
-        public ResponseEntity<?> getAllAttendanceRecords(
+        public ResponseEntity<StreamingResponseBody> getAllAttendanceRecords(
                         @RequestParam Long orgId,
                         @AuthenticationPrincipal CustomUserDetails currentUser) {
                 // Validate user can access this organisation
                 validateOrganisationAccess(currentUser, orgId);
 
                 Organisation organisation = organisationService.findById(orgId);
-                List<AttendanceRecord> records = attendanceRecordService.findAttendancesByOrganisation(organisation);
-
-                List<AttendanceRecordResponse> response = attendanceRecordService.toResponseList(records);
 
-                return ResponseEntity.ok(Map.of(
-                                "success", true,
-                                "message", "Attendance records retrieved successfully",
-                                "count", response.size(),
-                                "data", response));
+                // Streamed from a cursor; "count" follows the data array
+                return streamingJsonResponse.<AttendanceRecordResponse>ok(
+                                "Attendance records retrieved successfully",
+                                sink -> attendanceRecordService.streamAttendancesByOrganisation(organisation, sink));
         }
 
         /**
@@ -79,7 +97,8 @@ public class AttendanceRecordController {
                         @RequestParam Long orgId,
                         @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime start,
                         @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime end,
-                        @AuthenticationPrincipal CustomUserDetails currentUser) {
+                        @AuthenticationPrincipal CustomUserDetails currentUser,
+                        ServletWebRequest webRequest) {
                 // Validate organisation access
                 validateOrganisationAccess(currentUser, orgId);
 
@@ -90,6 +109,11 @@ public class AttendanceRecordController {
                                         "message", "You can only view your own attendance records"));
                 }
 
+                if (isNotModified(webRequest, attendanceVersionTracker.forUser(orgId, userId),
+                                "history", userId, orgId, start, end)) {
+                        return null;
+                }
+
                 Organisation organisation = organisationService.findById(orgId);
                 Users user = userService.findByIdInOrganisation(userId, organisation);
 
@@ -245,6 +269,26 @@ public class AttendanceRecordController {
                 }
         }
 
+        private AttendanceVersionTracker.Stamp userVersion(CustomUserDetails currentUser) {
+                return attendanceVersionTracker.forUser(currentUser.getOrganisationId(), currentUser.getId());
+        }
+
+        /**
+         * Conditional GET against the attendance version stamp, checked before
+         * anything is loaded. True means a 304 has been prepared and the handler
+         * returns null; otherwise ETag and Last-Modified are already on the response.
+         */
+        private boolean isNotModified(ServletWebRequest webRequest, AttendanceVersionTracker.Stamp stamp,
+                        Object... qualifiers) {
+                String etag = attendanceVersionTracker.etag(stamp, qualifiers);
+                if (etag == null) {
+                        return false;
+                }
+                // Per-user data: browsers may keep it but must revalidate, shared caches must not
+                webRequest.getResponse().setHeader(HttpHeaders.CACHE_CONTROL, "private, no-cache");
+                return webRequest.checkNotModified(etag, stamp.modifiedAt().toEpochMilli());
+        }
+
         /**
          * Get today's attendance status
          * Shows if user has checked in/out today
@@ -252,13 +296,18 @@ public class AttendanceRecordController {
          */
         @GetMapping("/today")
         public ResponseEntity<?> getTodayAttendance(
-                @AuthenticationPrincipal CustomUserDetails currentUser) {
+                @AuthenticationPrincipal CustomUserDetails currentUser,
+                ServletWebRequest webRequest) {
 
             if (currentUser == null) {
                 return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
                         .body(Map.of("success", false, "message", "User not authenticated"));
             }
 
+            if (isNotModified(webRequest, userVersion(currentUser), "today", currentUser.getId(), LocalDate.now())) {
+                return null;
+            }
+
             AttendanceRecordResponse attendance = attendanceRecordService.getTodayAttendance(currentUser);
 
             Map<String, Object> response = new HashMap<>();
@@ -285,13 +334,18 @@ public class AttendanceRecordController {
          */
         @GetMapping("/last7")
         public ResponseEntity<?> getLast7AttendanceRecords(
-                        @AuthenticationPrincipal CustomUserDetails currentUser) {
+                        @AuthenticationPrincipal CustomUserDetails currentUser,
+                        ServletWebRequest webRequest) {
 
                 if (currentUser == null) {
                         return ResponseEntity.status(401)
                                         .body(Map.of("success", false, "message", "Unauthenticated"));
                 }
 
+                if (isNotModified(webRequest, userVersion(currentUser), "last7", currentUser.getId())) {
+                        return null;
+                }
+
                 List<AttendanceRecordResponse> last7 = attendanceRecordService.getLast7Records(currentUser);
 
                 return ResponseEntity.ok(Map.of(
@@ -307,13 +361,19 @@ public class AttendanceRecordController {
     @GetMapping("/reports")
     public ResponseEntity<?> getAttendanceReports(
             @RequestParam String period,
-            @AuthenticationPrincipal CustomUserDetails currentUser) {
+            @AuthenticationPrincipal CustomUserDetails currentUser,
+            ServletWebRequest webRequest) {
 
         if (currentUser == null) {
             return ResponseEntity.status(401)
                     .body(Map.of("success", false, "message", "Unauthenticated"));
         }
 
+        if (isNotModified(webRequest, userVersion(currentUser),
+                "report", currentUser.getId(), period, LocalDate.now())) {
+            return null;
+        }
+
         AttendanceReport report = attendanceRecordService.generateReport(currentUser, period);
 
         return ResponseEntity.ok(Map.of(
@@ -333,10 +393,16 @@ public class AttendanceRecordController {
             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
             @RequestParam(required = false) Long userId,
             @RequestParam(defaultValue = "all") String reportType,
-            @AuthenticationPrincipal CustomUserDetails currentUser) {
+            @AuthenticationPrincipal CustomUserDetails currentUser,
+            ServletWebRequest webRequest) {
 
         validateOrganisationAccess(currentUser, orgId);
 
+        if (isNotModified(webRequest, attendanceVersionTracker.forOrganisation(orgId),
+                "organisation-report", orgId, startDate, endDate, userId, reportType, LocalDate.now())) {
+            return null;
+        }
+
         OrganisationReport report = attendanceRecordService.generateOrganisationReport(
                 orgId,
                 startDate,
@@ -411,6 +477,208 @@ public class AttendanceRecordController {
                 .body(resource);
     }
 
+    /**
+     * Live presence counts for today (served from memory)
+     * GET /api/attendance/presence?orgId=5
+     */
+    @GetMapping("/presence")
+    @PreAuthorize("hasAnyRole('SUPER_ADMIN', 'ADMIN')")
+    public ResponseEntity<?> getPresenceSummary(
+            @RequestParam Long orgId,
+            @AuthenticationPrincipal CustomUserDetails currentUser) {
+
+        validateOrganisationAccess(currentUser, orgId);
+
+        PresenceSummary summary = presenceBoardService.getSummary(orgId);
+
+        return ResponseEntity.ok(Map.of(
+                "success", true,
+                "data", summary
+        ));
+    }
+
+    /**
+     * Users who have not checked in today
+     * GET /api/attendance/presence/absentees?orgId=5
+     */
+    @GetMapping("/presence/absentees")
+    @PreAuthorize("hasAnyRole('SUPER_ADMIN', 'ADMIN')")
+    public ResponseEntity<?> getAbsentees(
+            @RequestParam Long orgId,
+            @AuthenticationPrincipal CustomUserDetails currentUser) {
+
+        validateOrganisationAccess(currentUser, orgId);
+
+        List<PresenceMember> absentees = presenceBoardService.getAbsentees(orgId);
+
+        return ResponseEntity.ok(Map.of(
+                "success", true,
+                "count", absentees.size(),
+                "data", absentees
+        ));
+    }
+
+    /**
+     * Users who are checked in and have not checked out yet
+     * GET /api/attendance/presence/present?orgId=5
+     */
+    @GetMapping("/presence/present")
+    @PreAuthorize("hasAnyRole('SUPER_ADMIN', 'ADMIN')")
+    public ResponseEntity<?> getPresentMembers(
+            @RequestParam Long orgId,
+            @AuthenticationPrincipal CustomUserDetails currentUser) {
+
+        validateOrganisationAccess(currentUser, orgId);
+
+        List<PresenceMember> present = presenceBoardService.getPresentMembers(orgId);
+
+        return ResponseEntity.ok(Map.of(
+                "success", true,
+                "count", present.size(),
+                "data", present
+        ));
+    }
+
+    /**
+     * Users recorded absent on a closed day
+     * GET /api/attendance/absences?orgId=5&date=2024-03-04
+     */
+    @GetMapping("/absences")
+    @PreAuthorize("hasAnyRole('SUPER_ADMIN', 'ADMIN')")
+    public ResponseEntity<?> getAbsences(
+            @RequestParam Long orgId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date,
+            @AuthenticationPrincipal CustomUserDetails currentUser) {
+
+        validateOrganisationAccess(currentUser, orgId);
+
+        List<PresenceMember> absentees = dayCloseService.findAbsentees(orgId, date);
+
+        return ResponseEntity.ok(Map.of(
+                "success", true,
+                "count", absentees.size(),
+                "data", absentees
+        ));
+    }
+
+    /**
+     * Close a past day now instead of waiting for the scheduled close (no-op if already closed)
+     * POST /api/attendance/day-close?orgId=5&date=2024-03-04
+     */
+    @PostMapping("/day-close")
+    @PreAuthorize("hasAnyRole('SUPER_ADMIN', 'ADMIN')")
+    public ResponseEntity<?> closeDay(
+            @RequestParam Long orgId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date,
+            @AuthenticationPrincipal CustomUserDetails currentUser) {
+
+        validateOrganisationAccess(currentUser, orgId);
+
+        DayCloseService.DayCloseResult result = dayCloseService.closeDay(organisationService.findById(orgId), date);
+
+        return ResponseEntity.ok(Map.of(
+                "success", true,
+                "message", result.alreadyClosed() ? "Day was already closed" : "Day closed",
+                "data", result
+        ));
+    }
+
+    /**
+     * Import historical attendance from a CSV export of a legacy system
+     * (columns: email, checkInTime[, checkOutTime, latitude, longitude, method]).
+     * Pass the jobId of a failed import with the same file to resume it.
+     * POST /api/attendance/import?orgId=5[&jobId=12]
+     */
+    @PostMapping(value = "/import", consumes = "text/csv")
+    @PreAuthorize("hasAnyRole('SUPER_ADMIN', 'ADMIN')")
+    public ResponseEntity<?> importAttendance(
+            @RequestParam Long orgId,
+            @RequestParam(required = false) Long jobId,
+            InputStream body,
+            @AuthenticationPrincipal CustomUserDetails currentUser) {
+
+        validateOrganisationAccess(currentUser, orgId);
+
+        Organisation organisation = organisationService.findById(orgId);
+        AttendanceImportResult result = attendanceImportService.importRecords(
+                organisation, currentUser.getId(), body, jobId);
+
+        if (result.status() != ImportJobStatus.COMPLETED) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(Map.of(
+                    "success", false,
+                    "message", "Import stopped; send the same file with jobId=" + result.jobId() + " to resume",
+                    "data", result
+            ));
+        }
+        return ResponseEntity.ok(Map.of(
+                "success", true,
+                "message", "Imported " + result.report().imported() + " attendance records",
+                "data", result
+        ));
+    }
+
+    /**
+     * Progress of an attendance import job
+     * GET /api/attendance/import/12?orgId=5
+     */
+    @GetMapping("/import/{jobId}")
+    @PreAuthorize("hasAnyRole('SUPER_ADMIN', 'ADMIN')")
+    public ResponseEntity<?> getImportJob(
+            @PathVariable Long jobId,
+            @RequestParam Long orgId,
+            @AuthenticationPrincipal CustomUserDetails currentUser) {
+
+        validateOrganisationAccess(currentUser, orgId);
+
+        AttendanceImportJob job = attendanceImportService.getJob(jobId, organisationService.findById(orgId));
+        Map<String, Object> data = new HashMap<>();
+        data.put("jobId", job.getId());
+        data.put("status", job.getStatus());
+        data.put("rowsCommitted", job.getRowsCommitted());
+        data.put("imported", job.getImported());
+        data.put("skipped", job.getSkipped());
+        data.put("failed", job.getFailed());
+        data.put("lastError", job.getLastError());
+        data.put("startedAt", job.getCreatedAt());
+        data.put("finishedAt", job.getFinishedAt());
+
+        return ResponseEntity.ok(Map.of(
+                "success", true,
+                "data", data
+        ));
+    }
+
+    /**
+     * Dashboard bootstrap: today's status, last 7 records, weekly report and
+     * the first history page in one request
+     * GET /api/attendance/dashboard?size=20
+     */
+    @GetMapping("/dashboard")
+    @PreAuthorize("hasAnyRole('SUPER_ADMIN', 'ADMIN', 'USER')")
+    public ResponseEntity<?> getDashboard(
+            @RequestParam(defaultValue = "20") int size,
+            @AuthenticationPrincipal CustomUserDetails currentUser,
+            ServletWebRequest webRequest) {
+
+        if (currentUser == null) {
+            return ResponseEntity.status(401)
+                    .body(Map.of("success", false, "message", "Unauthenticated"));
+        }
+
+        int historySize = Math.clamp(size, 1, MAX_DASHBOARD_HISTORY);
+        if (isNotModified(webRequest, userVersion(currentUser),
+                "dashboard", currentUser.getId(), historySize, LocalDate.now())) {
+            return null;
+        }
+
+        DashboardResponse dashboard = attendanceRecordService.getDashboard(currentUser, historySize);
+
+        return ResponseEntity.ok(Map.of(
+                "success", true,
+                "data", dashboard
+        ));
+    }
+
     @GetMapping("/history")
     @PreAuthorize("hasAnyRole('SUPER_ADMIN', 'ADMIN', 'USER')")
     public ResponseEntity<Page<AttendanceRecordResponse>> getAttendanceHistory(
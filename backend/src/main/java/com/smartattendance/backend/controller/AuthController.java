@@ -2,8 +2,10 @@ package com.smartattendance.backend.controller;
 
 import com.smartattendance.backend.dto.LoginRequest;
 import com.smartattendance.backend.dto.LoginResponse;
+import com.smartattendance.backend.dto.RefreshTokenRequest;
 import com.smartattendance.backend.entity.Organisation;
 import com.smartattendance.backend.entity.Users;
+import com.smartattendance.backend.exception.LoginBusyException;
 import com.smartattendance.backend.repository.OrganisationRepository;
 import com.smartattendance.backend.repository.UserRepository;
 import com.smartattendance.backend.security.CustomUserDetails;
@@ -11,14 +13,17 @@ import com.smartattendance.backend.security.JwtUtil;
 import com.smartattendance.backend.service.AuthService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
-import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.core.AuthenticationException;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 @RestController
 @RequestMapping("/api/auth")
@@ -32,30 +37,78 @@ public class AuthController {
     private final UserRepository userRepository;
     private final JwtUtil jwtUtil;
 
+    /**
+     * Password checks complete on the hashing pool; the request thread is
+     * released while a login waits there.
+     * POST /api/auth/login
+     */
     @PostMapping("/login")
-    public ResponseEntity<?> login(@RequestBody LoginRequest request) {
+    public CompletableFuture<ResponseEntity<?>> login(@RequestBody LoginRequest request) {
         try {
-            LoginResponse response = authService.login(request);
-
-            return ResponseEntity.ok(Map.of(
-                    "success", true,
-                    "message", "Login successful",
-                    "data", response
-            ));
+            return authService.login(request)
+                    .<ResponseEntity<?>>thenApply(response -> ResponseEntity.ok(Map.of(
+                            "success", true,
+                            "message", "Login successful",
+                            "data", response
+                    )))
+                    .exceptionally(e -> loginFailed(request, e));
+        } catch (RuntimeException e) {
+            return CompletableFuture.completedFuture(loginFailed(request, e));
+        }
+    }
 
-        } catch (BadCredentialsException e) {
+    private ResponseEntity<?> loginFailed(LoginRequest request, Throwable error) {
+        Throwable e = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+        if (e instanceof AuthenticationException) {
             log.warn("Failed login attempt for email: {}", request.getEmail());
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(Map.of(
                     "success", false,
                     "message", "Invalid email or password"
             ));
-        } catch (Exception e) {
-            log.error("Login error for email: {}", request.getEmail(), e);
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(Map.of(
-                    "success", false,
-                    "message", "Login failed. Please try again."
-            ));
         }
+        if (e instanceof LoginBusyException) {
+            log.warn("Login rejected for email: {} ({})", request.getEmail(), e.getMessage());
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, "1")
+                    .body(Map.of(
+                            "success", false,
+                            "message", e.getMessage()
+                    ));
+        }
+        log.error("Login error for email: {}", request.getEmail(), e);
+        return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(Map.of(
+                "success", false,
+                "message", "Login failed. Please try again."
+        ));
+    }
+
+    /**
+     * Exchange a refresh token for a new access token and the next refresh token
+     * POST /api/auth/refresh
+     */
+    @PostMapping("/refresh")
+    public ResponseEntity<?> refresh(@RequestBody RefreshTokenRequest request) {
+        LoginResponse response = authService.refresh(request);
+
+        return ResponseEntity.ok(Map.of(
+                "success", true,
+                "message", "Token refreshed",
+                "data", response
+        ));
+    }
+
+    /**
+     * Revoke the caller's refresh token (and every token rotated from it)
+     * POST /api/auth/logout
+     */
+    @PostMapping("/logout")
+    public ResponseEntity<?> logout(@RequestBody RefreshTokenRequest request) {
+        authService.logout(request);
+
+        return ResponseEntity.ok(Map.of(
+                "success", true,
+                "message", "Logged out"
+        ));
     }
 
     /**
@@ -94,7 +147,7 @@ public class AuthController {
                 .organisationId(superAdmin.getOrganisation() != null ?
                         superAdmin.getOrganisation().getId() : null)
                 .organisationName(org.getName()) // The selected org
-                .expiresIn(7200000L)
+                .expiresIn(jwtUtil.getExpiration())
                 .build();
 
         log.info("SuperAdmin {} switched to organisation: {}", currentUser.getEmail(), org.getName());
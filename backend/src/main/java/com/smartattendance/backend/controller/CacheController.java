@@ -0,0 +1,32 @@
+package com.smartattendance.backend.controller;
+
+import com.smartattendance.backend.service.ReferenceDataCache;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/admin/cache")
+@RequiredArgsConstructor
+@PreAuthorize("hasRole('SUPER_ADMIN')")
+public class CacheController {
+
+    private final ReferenceDataCache referenceDataCache;
+
+    /**
+     * Second-level cache hit/miss statistics
+     * GET /api/admin/cache/stats
+     */
+    @GetMapping("/stats")
+    public ResponseEntity<?> getStatistics() {
+        return ResponseEntity.ok(Map.of(
+                "success", true,
+                "data", referenceDataCache.getStatistics()
+        ));
+    }
+}
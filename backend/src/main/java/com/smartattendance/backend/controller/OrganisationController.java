@@ -72,7 +72,7 @@ public class OrganisationController {
     @GetMapping("/{id}")
     @PreAuthorize("hasAnyRole('SUPER_ADMIN', 'ADMIN')")
     public ResponseEntity<?> getOrganisationById(@PathVariable Long id) {
-        Organisation organisation = organisationService.findById(id);
+        Organisation organisation = organisationService.findWithCreatorById(id);
 
         OrganisationResponse response = OrganisationResponse.fromEntity(organisation);
 
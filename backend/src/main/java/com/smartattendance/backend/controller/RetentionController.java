@@ -0,0 +1,56 @@
+package com.smartattendance.backend.controller;
+
+import com.smartattendance.backend.dto.RetentionReport;
+import com.smartattendance.backend.retention.RetentionService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.HashMap;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/admin/retention")
+@RequiredArgsConstructor
+@PreAuthorize("hasRole('SUPER_ADMIN')")
+public class RetentionController {
+
+    private final RetentionService retentionService;
+
+    /**
+     * Rows reclaimed by the most recent retention run on this instance
+     * GET /api/admin/retention/last
+     */
+    @GetMapping("/last")
+    public ResponseEntity<?> getLastReport() {
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", true);
+        response.put("data", retentionService.getLastReport());
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * Run retention now instead of waiting for the schedule
+     * POST /api/admin/retention/run
+     */
+    @PostMapping("/run")
+    public ResponseEntity<?> run() {
+        RetentionReport report = retentionService.run();
+        if (report == null) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of(
+                    "success", false,
+                    "message", "A retention run is already in progress"
+            ));
+        }
+        return ResponseEntity.ok(Map.of(
+                "success", true,
+                "message", "Retention run completed, " + report.totalRows() + " rows reclaimed",
+                "data", report
+        ));
+    }
+}
@@ -1,20 +1,27 @@
 package com.smartattendance.backend.controller;
 
 import com.smartattendance.backend.dto.AdminCreateUserRequest;
+import com.smartattendance.backend.dto.ImportReport;
 import com.smartattendance.backend.dto.SuperAdminCreateUserRequest;
 import com.smartattendance.backend.dto.UserResponse;
 import com.smartattendance.backend.entity.Organisation;
 import com.smartattendance.backend.entity.Users;
+import com.smartattendance.backend.exporter.StreamingJsonResponse;
 import com.smartattendance.backend.security.CustomUserDetails;
 import com.smartattendance.backend.service.OrganisationService;
+import com.smartattendance.backend.service.UserImportService;
 import com.smartattendance.backend.service.UserService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.InputStream;
 import java.util.List;
 import java.util.Map;
 
@@ -25,6 +32,8 @@ public class UserController {
 
     private final UserService userService;
     private final OrganisationService organisationService;
+    private final UserImportService userImportService;
+    private final StreamingJsonResponse streamingJsonResponse;
 
     /**
      * Get all users in a specific organisation
@@ -33,7 +42,7 @@ public class UserController {
      */
     @GetMapping
     @PreAuthorize("hasAnyRole('SUPER_ADMIN', 'ADMIN')")
-    public ResponseEntity<?> getAllUsers(
+    public ResponseEntity<StreamingResponseBody> getAllUsers(
             @RequestParam Long orgId,
             @AuthenticationPrincipal CustomUserDetails currentUser
     ) {
@@ -41,18 +50,10 @@ public class UserController {
         validateOrganisationAccess(currentUser, orgId);
 
         Organisation organisation = organisationService.findById(orgId);
-        List<Users> users = userService.findAllUsersInOrganisation(organisation);
-        List<UserResponse> responseList = users.stream()
-                .map(UserResponse::fromEntity)
-                .toList();
 
-
-        return ResponseEntity.ok(Map.of(
-                "success", true,
-                "message", "Users retrieved successfully",
-                "count", users.size(),
-                "data", responseList
-        ));
+        // Streamed from a cursor; "count" follows the data array
+        return streamingJsonResponse.<UserResponse>ok("Users retrieved successfully",
+                sink -> userService.streamUsersInOrganisation(organisation, sink));
     }
 
     /**
@@ -116,6 +117,34 @@ public class UserController {
         ));
     }
 
+    /**
+     * Bulk-create users from a CSV file (header: firstName,lastName,email,password[,role])
+     * or a JSON array of the same fields. Invalid rows are listed in the report.
+     * POST /api/users/import?orgId=5
+     */
+    @PostMapping(value = "/import", consumes = {"text/csv", MediaType.APPLICATION_JSON_VALUE})
+    @PreAuthorize("hasAnyRole('SUPER_ADMIN', 'ADMIN')")
+    public ResponseEntity<?> importUsers(
+            @RequestParam Long orgId,
+            @RequestHeader(HttpHeaders.CONTENT_TYPE) MediaType contentType,
+            InputStream body,
+            @AuthenticationPrincipal CustomUserDetails currentUser
+    ) {
+        validateOrganisationAccess(currentUser, orgId);
+
+        Organisation organisation = organisationService.findById(orgId);
+        UserImportService.Format format = MediaType.APPLICATION_JSON.isCompatibleWith(contentType)
+                ? UserImportService.Format.JSON
+                : UserImportService.Format.CSV;
+        ImportReport report = userImportService.importUsers(organisation, body, format);
+
+        return ResponseEntity.ok(Map.of(
+                "success", true,
+                "message", "Imported " + report.imported() + " of " + report.rowsRead() + " users",
+                "data", report
+        ));
+    }
+
     /**
      * Update a user within an organisation
      * PUT /api/users/10?orgId=5
@@ -168,29 +197,29 @@ public class UserController {
     }
 
     /**
-     * Search users by name within an organisation
-     * GET /api/users/search?name=John&orgId=5
+     * Search users by name or email within an organisation (autocomplete).
+     * Best matches first; fuzzy=true also returns names a typo or two away.
+     * GET /api/users/search?name=John&orgId=5&limit=20
      */
     @GetMapping("/search")
     @PreAuthorize("hasAnyRole('SUPER_ADMIN', 'ADMIN')")
     public ResponseEntity<?> searchUsers(
             @RequestParam String name,
             @RequestParam Long orgId,
+            @RequestParam(defaultValue = "50") int limit,
+            @RequestParam(defaultValue = "true") boolean fuzzy,
             @AuthenticationPrincipal CustomUserDetails currentUser
     ) {
         validateOrganisationAccess(currentUser, orgId);
 
         Organisation organisation = organisationService.findById(orgId);
-        List<Users> results = userService.searchByNameAndOrganisation(name, organisation);
-        List<UserResponse> responseList = results.stream()
-                .map(UserResponse::fromEntity)
-                .toList();
-
+        List<UserResponse> responseList = userService.searchInOrganisation(name, organisation,
+                Math.min(limit, 200), fuzzy);
 
         return ResponseEntity.ok(Map.of(
                 "success", true,
                 "message", "Search completed successfully",
-                "count", results.size(),
+                "count", responseList.size(),
                 "data", responseList
         ));
     }
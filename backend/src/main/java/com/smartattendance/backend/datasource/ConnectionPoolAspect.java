@@ -0,0 +1,54 @@
+package com.smartattendance.backend.datasource;
+
+import com.smartattendance.backend.enums.ConnectionPoolType;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+/**
+ * Applies {@link UseConnectionPool} and {@link ReadFromPrimary}. Ordered ahead
+ * of the transaction interceptor so the target is chosen before a transaction
+ * fetches its connection.
+ */
+@Aspect
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class ConnectionPoolAspect {
+
+    @Around("@annotation(com.smartattendance.backend.datasource.UseConnectionPool) "
+            + "|| @within(com.smartattendance.backend.datasource.UseConnectionPool)")
+    public Object route(ProceedingJoinPoint joinPoint) throws Throwable {
+        ConnectionPoolType previous = ConnectionPoolRoutingDataSource.use(resolve(joinPoint));
+        try {
+            return joinPoint.proceed();
+        } finally {
+            ConnectionPoolRoutingDataSource.restore(previous);
+        }
+    }
+
+    @Around("@annotation(com.smartattendance.backend.datasource.ReadFromPrimary)")
+    public Object readFromPrimary(ProceedingJoinPoint joinPoint) throws Throwable {
+        Boolean previous = ReplicaRoutingDataSource.requirePrimary();
+        try {
+            return joinPoint.proceed();
+        } finally {
+            ReplicaRoutingDataSource.restore(previous);
+        }
+    }
+
+    private ConnectionPoolType resolve(ProceedingJoinPoint joinPoint) {
+        MethodSignature signature = (MethodSignature) joinPoint.getSignature();
+        UseConnectionPool annotation = AnnotatedElementUtils.findMergedAnnotation(
+                signature.getMethod(), UseConnectionPool.class);
+        if (annotation == null) {
+            annotation = AnnotatedElementUtils.findMergedAnnotation(
+                    joinPoint.getTarget().getClass(), UseConnectionPool.class);
+        }
+        return annotation != null ? annotation.value() : ConnectionPoolType.CRITICAL;
+    }
+}
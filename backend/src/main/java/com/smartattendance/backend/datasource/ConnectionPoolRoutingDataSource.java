@@ -0,0 +1,60 @@
+package com.smartattendance.backend.datasource;
+
+import com.smartattendance.backend.enums.ConnectionPoolType;
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Hands out connections from the pool selected for the current thread by
+ * {@link ConnectionPoolAspect}, falling back to the CRITICAL pool.
+ */
+public class ConnectionPoolRoutingDataSource extends AbstractRoutingDataSource implements AutoCloseable {
+
+    private static final ThreadLocal<ConnectionPoolType> CURRENT = new ThreadLocal<>();
+
+    private final Map<ConnectionPoolType, HikariDataSource> pools;
+
+    public ConnectionPoolRoutingDataSource(Map<ConnectionPoolType, HikariDataSource> pools) {
+        this.pools = new EnumMap<>(pools);
+        setTargetDataSources(new HashMap<>(this.pools));
+        setDefaultTargetDataSource(this.pools.get(ConnectionPoolType.CRITICAL));
+        afterPropertiesSet();
+    }
+
+    /**
+     * Selects the pool for the current thread and returns the previous choice,
+     * which the caller must hand back to {@link #restore(ConnectionPoolType)}.
+     */
+    static ConnectionPoolType use(ConnectionPoolType type) {
+        ConnectionPoolType previous = CURRENT.get();
+        CURRENT.set(type);
+        return previous;
+    }
+
+    static void restore(ConnectionPoolType previous) {
+        if (previous == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(previous);
+        }
+    }
+
+    public static ConnectionPoolType current() {
+        ConnectionPoolType type = CURRENT.get();
+        return type != null ? type : ConnectionPoolType.CRITICAL;
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        return current();
+    }
+
+    @Override
+    public void close() {
+        pools.values().forEach(HikariDataSource::close);
+    }
+}
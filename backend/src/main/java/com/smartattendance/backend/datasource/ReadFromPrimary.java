@@ -0,0 +1,18 @@
+package com.smartattendance.backend.datasource;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Keeps read-only work of a method on the primary even when read replicas
+ * are configured, for reads that must not lag behind the latest writes
+ * (e.g. rebuilding in-memory state that live events then keep up to date).
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface ReadFromPrimary {
+}
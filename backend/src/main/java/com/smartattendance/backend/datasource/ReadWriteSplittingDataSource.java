@@ -0,0 +1,27 @@
+package com.smartattendance.backend.datasource;
+
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+/**
+ * Defers fetching the physical connection until the first statement, by which
+ * point the transaction has marked it read-only or not. Read-only work goes
+ * to the replicas, everything else to the primary pools.
+ */
+public class ReadWriteSplittingDataSource extends LazyConnectionDataSourceProxy implements AutoCloseable {
+
+    private final ConnectionPoolRoutingDataSource primary;
+    private final ReplicaRoutingDataSource replicas;
+
+    public ReadWriteSplittingDataSource(ConnectionPoolRoutingDataSource primary, ReplicaRoutingDataSource replicas) {
+        super(primary);
+        setReadOnlyDataSource(replicas);
+        this.primary = primary;
+        this.replicas = replicas;
+    }
+
+    @Override
+    public void close() {
+        replicas.close();
+        primary.close();
+    }
+}
@@ -0,0 +1,53 @@
+package com.smartattendance.backend.datasource;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.smartattendance.backend.security.CustomUserDetails;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Remembers which users wrote recently (their own check-in/out), so that
+ * their reads stay on the primary until the replicas have caught up.
+ * A window of 0 disables it. Entries expire with the window, so only the
+ * users who wrote within it are held.
+ *
+ * The window is kept per instance: it assumes a user's write and the reads
+ * that follow it reach the same instance, as with a single instance or
+ * sticky sessions. Otherwise those reads may still go to a lagging replica.
+ */
+@Component
+public class ReadYourWritesWindow {
+
+    private final Cache<Long, Boolean> recentWriters;
+
+    public ReadYourWritesWindow(@Value("${attendance.datasource.replica.read-your-writes-ms:5000}") long windowMillis) {
+        this.recentWriters = windowMillis > 0
+                ? Caffeine.newBuilder().expireAfterWrite(Duration.ofMillis(windowMillis)).build()
+                : null;
+    }
+
+    public void recordWrite(Long userId) {
+        if (recentWriters != null && userId != null) {
+            recentWriters.put(userId, Boolean.TRUE);
+        }
+    }
+
+    /**
+     * True when the authenticated user of the current thread wrote within the window.
+     */
+    public boolean isActiveForCurrentUser() {
+        if (recentWriters == null) {
+            return false;
+        }
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || !(authentication.getPrincipal() instanceof CustomUserDetails user)) {
+            return false;
+        }
+        return recentWriters.getIfPresent(user.getId()) != null;
+    }
+}
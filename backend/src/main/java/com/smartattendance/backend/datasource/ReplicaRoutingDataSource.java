@@ -0,0 +1,168 @@
+package com.smartattendance.backend.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Read-only connections from the replicas, round robin.
+ *
+ * A replica that fails to hand out a connection is taken out of rotation and
+ * retried after a back-off; with no healthy replica, or while the current
+ * user is inside their read-your-writes window, reads go to the primary.
+ */
+@Slf4j
+public class ReplicaRoutingDataSource extends AbstractDataSource implements AutoCloseable {
+
+    private static final ThreadLocal<Boolean> PRIMARY_REQUIRED = new ThreadLocal<>();
+
+    private final List<Replica> replicas;
+    private final DataSource primary;
+    private final ReadYourWritesWindow readYourWritesWindow;
+    private final long retryAfterNanos;
+    private final AtomicInteger next = new AtomicInteger();
+    private final Counter primaryFallbacks;
+    private final Counter readYourWrites;
+    private final Counter primaryRequired;
+
+    public ReplicaRoutingDataSource(List<HikariDataSource> replicas,
+                                    DataSource primary,
+                                    ReadYourWritesWindow readYourWritesWindow,
+                                    long retryAfterMillis,
+                                    MeterRegistry meterRegistry) {
+        this.replicas = replicas.stream().map(Replica::new).toList();
+        this.primary = primary;
+        this.readYourWritesWindow = readYourWritesWindow;
+        this.retryAfterNanos = TimeUnit.MILLISECONDS.toNanos(retryAfterMillis);
+
+        for (Replica replica : this.replicas) {
+            Gauge.builder("attendance.datasource.replica.healthy", replica, r -> r.isAvailable() ? 1 : 0)
+                    .description("1 while the replica is in rotation")
+                    .tag("replica", replica.pool.getPoolName())
+                    .register(meterRegistry);
+        }
+        this.primaryFallbacks = Counter.builder("attendance.datasource.replica.reads")
+                .description("Read-only connections served by the primary instead of a replica")
+                .tag("reason", "no_healthy_replica")
+                .register(meterRegistry);
+        this.readYourWrites = Counter.builder("attendance.datasource.replica.reads")
+                .description("Read-only connections served by the primary instead of a replica")
+                .tag("reason", "read_your_writes")
+                .register(meterRegistry);
+        this.primaryRequired = Counter.builder("attendance.datasource.replica.reads")
+                .description("Read-only connections served by the primary instead of a replica")
+                .tag("reason", "primary_required")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Sends read-only work of the current thread to the primary until
+     * restored; returns the previous setting for {@link #restore(Boolean)}.
+     */
+    static Boolean requirePrimary() {
+        Boolean previous = PRIMARY_REQUIRED.get();
+        PRIMARY_REQUIRED.set(Boolean.TRUE);
+        return previous;
+    }
+
+    static void restore(Boolean previous) {
+        if (previous == null) {
+            PRIMARY_REQUIRED.remove();
+        } else {
+            PRIMARY_REQUIRED.set(previous);
+        }
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return route(DataSource::getConnection);
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return route(dataSource -> dataSource.getConnection(username, password));
+    }
+
+    private Connection route(Connector connector) throws SQLException {
+        if (Boolean.TRUE.equals(PRIMARY_REQUIRED.get())) {
+            primaryRequired.increment();
+            return connector.connect(primary);
+        }
+        if (readYourWritesWindow.isActiveForCurrentUser()) {
+            readYourWrites.increment();
+            return connector.connect(primary);
+        }
+
+        int start = Math.floorMod(next.getAndIncrement(), replicas.size());
+        for (int i = 0; i < replicas.size(); i++) {
+            Replica replica = replicas.get((start + i) % replicas.size());
+            if (!replica.isAvailable()) {
+                continue;
+            }
+            try {
+                Connection connection = connector.connect(replica.pool);
+                replica.markUp();
+                return connection;
+            } catch (SQLFeatureNotSupportedException e) {
+                // The pool refused the call itself; the replica is fine
+                throw e;
+            } catch (SQLException e) {
+                replica.markDown(e);
+            }
+        }
+
+        primaryFallbacks.increment();
+        return connector.connect(primary);
+    }
+
+    @FunctionalInterface
+    private interface Connector {
+        Connection connect(DataSource dataSource) throws SQLException;
+    }
+
+    @Override
+    public void close() {
+        replicas.forEach(replica -> replica.pool.close());
+    }
+
+    private final class Replica {
+        private final HikariDataSource pool;
+        private final AtomicLong downUntil = new AtomicLong();
+        private volatile boolean down;
+
+        private Replica(HikariDataSource pool) {
+            this.pool = pool;
+        }
+
+        boolean isAvailable() {
+            return !down || downUntil.get() - System.nanoTime() <= 0;
+        }
+
+        void markUp() {
+            if (down) {
+                down = false;
+                log.info("Replica {} is back in rotation", pool.getPoolName());
+            }
+        }
+
+        void markDown(SQLException cause) {
+            downUntil.set(System.nanoTime() + retryAfterNanos);
+            if (!down) {
+                down = true;
+                log.warn("Replica {} taken out of rotation: {}", pool.getPoolName(), cause.getMessage());
+            }
+        }
+    }
+}
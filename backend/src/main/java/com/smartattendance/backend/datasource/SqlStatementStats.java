@@ -0,0 +1,45 @@
+package com.smartattendance.backend.datasource;
+
+import lombok.Getter;
+
+/**
+ * JDBC activity accumulated for one HTTP request (or any other unit of work
+ * bracketed by {@link SqlStatementTracker#begin()} / {@link SqlStatementTracker#end()}).
+ * An async request feeds it from more than one thread, so updates are synchronized.
+ */
+@Getter
+public class SqlStatementStats {
+
+    private volatile int statements;
+    private volatile long rows;
+    private volatile long elapsedMillis;
+    private volatile long connectionHoldNanos;
+
+    private int openConnections;
+    private long connectionAcquiredAt;
+
+    synchronized void recordStatements(int count, long elapsedMillis) {
+        this.statements += count;
+        this.elapsedMillis += elapsedMillis;
+    }
+
+    synchronized void recordRow() {
+        this.rows++;
+    }
+
+    synchronized void connectionAcquired() {
+        if (openConnections++ == 0) {
+            connectionAcquiredAt = System.nanoTime();
+        }
+    }
+
+    synchronized void connectionReleased() {
+        if (openConnections > 0 && --openConnections == 0) {
+            connectionHoldNanos += System.nanoTime() - connectionAcquiredAt;
+        }
+    }
+
+    public long getConnectionHoldMillis() {
+        return connectionHoldNanos / 1_000_000;
+    }
+}
@@ -0,0 +1,120 @@
+package com.smartattendance.backend.datasource;
+
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.MethodExecutionContext;
+import net.ttddyy.dsproxy.listener.MethodExecutionListener;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import org.springframework.core.task.TaskDecorator;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+/**
+ * Counts statements, fetched rows, database time and how long a pooled
+ * connection was held for the current thread.
+ * Fed by the datasource proxy; nothing is recorded outside a begin/end bracket.
+ *
+ * As the task decorator of Spring's task executor it carries the submitting
+ * thread's stats over to the worker, so async request work (login token
+ * issue, streamed lists) is counted against the request that started it.
+ */
+@Component
+public class SqlStatementTracker implements QueryExecutionListener, MethodExecutionListener, TaskDecorator {
+
+    private final ThreadLocal<SqlStatementStats> current = new ThreadLocal<>();
+
+    public SqlStatementStats begin() {
+        return resume(new SqlStatementStats());
+    }
+
+    /**
+     * Attaches stats begun earlier, e.g. on a previous dispatch of the same async request.
+     */
+    public SqlStatementStats resume(SqlStatementStats stats) {
+        current.set(stats);
+        return stats;
+    }
+
+    public SqlStatementStats end() {
+        SqlStatementStats stats = current.get();
+        current.remove();
+        return stats;
+    }
+
+    public SqlStatementStats current() {
+        return current.get();
+    }
+
+    @Override
+    public Runnable decorate(Runnable task) {
+        return bind(current.get(), task);
+    }
+
+    /**
+     * Runs tasks on the executor with the calling thread's stats, for work
+     * submitted later from a thread that has none (a callback of another pool).
+     */
+    public Executor propagating(Executor executor) {
+        SqlStatementStats stats = current.get();
+        return stats == null ? executor : task -> executor.execute(bind(stats, task));
+    }
+
+    private Runnable bind(SqlStatementStats stats, Runnable task) {
+        if (stats == null) {
+            return task;
+        }
+        return () -> {
+            SqlStatementStats previous = current.get();
+            current.set(stats);
+            try {
+                task.run();
+            } finally {
+                current.set(previous);
+            }
+        };
+    }
+
+    @Override
+    public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+    }
+
+    @Override
+    public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        SqlStatementStats stats = current.get();
+        if (stats != null) {
+            // A JDBC batch is a single round trip
+            stats.recordStatements(execInfo.isBatch() ? 1 : queryInfoList.size(), execInfo.getElapsedTime());
+        }
+    }
+
+    @Override
+    public void beforeMethod(MethodExecutionContext executionContext) {
+    }
+
+    @Override
+    public void afterMethod(MethodExecutionContext executionContext) {
+        SqlStatementStats stats = current.get();
+        if (stats == null) {
+            return;
+        }
+        Object target = executionContext.getTarget();
+        String method = executionContext.getMethod().getName();
+
+        if (target instanceof ResultSet) {
+            if ("next".equals(method) && Boolean.TRUE.equals(executionContext.getResult())) {
+                stats.recordRow();
+            }
+        } else if (target instanceof DataSource) {
+            if ("getConnection".equals(method) && executionContext.getThrown() == null) {
+                stats.connectionAcquired();
+            }
+        } else if (target instanceof Connection && "close".equals(method)) {
+            stats.connectionReleased();
+        }
+    }
+}
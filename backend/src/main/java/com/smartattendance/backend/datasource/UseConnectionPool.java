@@ -0,0 +1,24 @@
+package com.smartattendance.backend.datasource;
+
+import com.smartattendance.backend.enums.ConnectionPoolType;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Routes the connections used by a service method (or every method of a
+ * class) to the given pool. Unannotated code runs on the CRITICAL pool.
+ *
+ * The choice only matters where a transaction starts: once a connection is
+ * bound, nested calls keep using it whatever their annotation says.
+ */
+@Target({ElementType.METHOD, ElementType.TYPE})
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface UseConnectionPool {
+
+    ConnectionPoolType value();
+}
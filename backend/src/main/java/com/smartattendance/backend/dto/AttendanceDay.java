@@ -0,0 +1,13 @@
+package com.smartattendance.backend.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * Lightweight projection of an attendance record: who attended, for which
+ * organisation, on which day.
+ */
+public record AttendanceDay(
+        Long userId,
+        Long organisationId,
+        LocalDateTime attendanceDate
+) {}
@@ -0,0 +1,14 @@
+package com.smartattendance.backend.dto;
+
+import com.smartattendance.backend.enums.ImportJobStatus;
+
+/**
+ * One run of a historical attendance import. {@code report} covers this run
+ * only; rows before {@code resumedAfterRow} were committed by an earlier one.
+ */
+public record AttendanceImportResult(
+        Long jobId,
+        ImportJobStatus status,
+        long resumedAfterRow,
+        ImportReport report
+) {}
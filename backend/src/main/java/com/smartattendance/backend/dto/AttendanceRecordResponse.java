@@ -22,6 +22,7 @@ public class AttendanceRecordResponse {
     private AttendanceMethod checkInMethod;
     private LocalDateTime checkOutTime;
     private AttendanceMethod checkOutMethod;
+    private boolean autoClosed;
     private Double latitude;
     private Double longitude;
     private LocalDateTime attendanceDate;
@@ -0,0 +1,18 @@
+package com.smartattendance.backend.dto;
+
+import org.springframework.data.domain.Page;
+
+import java.util.List;
+
+/**
+ * Landing screen of the user dashboard: what /today, /last7,
+ * /reports?period=week and the first page of /history return, in one response.
+ */
+public record DashboardResponse(
+        AttendanceRecordResponse today,
+        boolean hasCheckedIn,
+        boolean hasCheckedOut,
+        List<AttendanceRecordResponse> last7,
+        AttendanceReport weeklyReport,
+        Page<AttendanceRecordResponse> history
+) {}
@@ -0,0 +1,19 @@
+package com.smartattendance.backend.dto;
+
+import java.util.List;
+
+/**
+ * Outcome of a bulk import. Only the first errors are listed in full;
+ * {@code errorsTruncated} says whether more rows failed than are shown.
+ */
+public record ImportReport(
+        long rowsRead,
+        long imported,
+        long skipped,
+        long failed,
+        List<RowError> errors,
+        boolean errorsTruncated,
+        long durationMillis
+) {
+    public record RowError(long row, String key, String message) {}
+}
@@ -22,4 +22,5 @@ public class LoginResponse {
     private Long organisationId;
     private String organisationName;
     private Long expiresIn;
+    private String refreshToken;
 }
\ No newline at end of file
@@ -13,6 +13,7 @@ public record OrganisationResponse(
         String contactEmail,
         String contactPhone,
         LocalTime startWorkTime,
+        String timeZone,
         String createdByEmail
 ) {
     public static OrganisationResponse fromEntity(Organisation org) {
@@ -25,6 +26,7 @@ public record OrganisationResponse(
                 org.getContactEmail(),
                 org.getContactPhone(),
                 org.getStartWorkTime(),
+                org.getTimeZone(),
                 org.getCreatedBy() != null ? org.getCreatedBy().getEmail() : null
         );
     }
@@ -0,0 +1,7 @@
+package com.smartattendance.backend.dto;
+
+public record PresenceMember(
+        Long userId,
+        String fullName,
+        String email
+) {}
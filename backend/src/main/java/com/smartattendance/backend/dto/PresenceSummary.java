@@ -0,0 +1,14 @@
+package com.smartattendance.backend.dto;
+
+import java.time.LocalDate;
+
+public record PresenceSummary(
+        Long organisationId,
+        LocalDate date,
+        int totalUsers,
+        int checkedIn,
+        int present,
+        int checkedOut,
+        int absent,
+        int late
+) {}
@@ -0,0 +1,10 @@
+package com.smartattendance.backend.dto;
+
+import lombok.Data;
+
+@Data
+public class RefreshTokenRequest {
+    private String refreshToken;
+    // SuperAdmin only: keep working in the selected organisation
+    private Long organisationId;
+}
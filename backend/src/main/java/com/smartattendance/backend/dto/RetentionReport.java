@@ -0,0 +1,23 @@
+package com.smartattendance.backend.dto;
+
+import com.smartattendance.backend.enums.RetentionMode;
+import com.smartattendance.backend.enums.RetentionTarget;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Rows reclaimed by one retention run. A target that is not {@code complete}
+ * ran out of time and continues on the next run.
+ */
+public record RetentionReport(
+        LocalDateTime startedAt,
+        long durationMillis,
+        List<TargetResult> targets
+) {
+    public record TargetResult(RetentionTarget target, RetentionMode mode, long rows, int chunks, boolean complete) {}
+
+    public long totalRows() {
+        return targets.stream().mapToLong(TargetResult::rows).sum();
+    }
+}
@@ -0,0 +1,9 @@
+package com.smartattendance.backend.dto;
+
+public record UserAttendanceStats(
+        Long userId,
+        int attendedDays,
+        int workDays,
+        double attendanceRate,
+        int longestStreak
+) {}
@@ -1,6 +1,7 @@
 package com.smartattendance.backend.dto;
 
 import com.smartattendance.backend.entity.Users;
+import com.smartattendance.backend.enums.RoleType;
 
 import java.time.LocalDateTime;
 
@@ -15,6 +16,12 @@ public record UserResponse(
         LocalDateTime createdAt
 
 ) {
+    /** Used by JPQL constructor expressions, which select the role as its enum. */
+    public UserResponse(Long id, String firstName, String lastName, String email, RoleType role,
+                        Long organisationId, String organisationName, LocalDateTime createdAt) {
+        this(id, firstName, lastName, email, role.name(), organisationId, organisationName, createdAt);
+    }
+
     public static UserResponse fromEntity(Users user) {
         return new UserResponse(
                 user.getId(),
@@ -0,0 +1,63 @@
+package com.smartattendance.backend.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * An attendance record moved out of attendance_records by the retention job,
+ * either soft-deleted past its grace period or belonging to a user who was.
+ */
+@Entity
+@Getter
+@Setter
+@NoArgsConstructor
+@Table(name = "attendance_records_archive",
+        indexes = @Index(name = "idx_attendance_archive_user", columnList = "user_id"))
+public class ArchivedAttendanceRecord {
+
+    // Same id as the row it was archived from
+    @Id
+    private Long id;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Column(name = "organisation_id")
+    private Long organisationId;
+
+    @Column(name = "check_in_time", nullable = false)
+    private LocalDateTime checkInTime;
+
+    @Column(name = "check_out_time")
+    private LocalDateTime checkOutTime;
+
+    private Double latitude;
+
+    private Double longitude;
+
+    @Column(name = "check_in_method", length = 20)
+    private String checkInMethod;
+
+    @Column(name = "check_out_method", length = 20)
+    private String checkOutMethod;
+
+    @Column(name = "attendance_date", nullable = false)
+    private LocalDateTime attendanceDate;
+
+    @Column(name = "auto_closed", nullable = false)
+    private boolean autoClosed;
+
+    @Column(name = "is_deleted", nullable = false)
+    private boolean deleted;
+
+    @Column(name = "created_at")
+    private LocalDateTime createdAt;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    @Column(name = "archived_at", nullable = false)
+    private LocalDateTime archivedAt;
+}
@@ -0,0 +1,56 @@
+package com.smartattendance.backend.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+
+/**
+ * A soft-deleted organisation moved out of organisations by the retention
+ * job once none of its users or QR codes remain.
+ */
+@Entity
+@Getter
+@Setter
+@NoArgsConstructor
+@Table(name = "organisations_archive")
+public class ArchivedOrganisation {
+
+    // Same id as the row it was archived from
+    @Id
+    private Long id;
+
+    @Column(nullable = false)
+    private String name;
+
+    private String location;
+
+    private Double latitude;
+
+    private Double longitude;
+
+    @Column(name = "contact_email")
+    private String contactEmail;
+
+    @Column(name = "contact_phone")
+    private String contactPhone;
+
+    @Column(name = "start_work_time")
+    private LocalTime startWorkTime;
+
+    @Column(name = "time_zone", length = 64)
+    private String timeZone;
+
+    @Column(name = "created_by_id")
+    private Long createdById;
+
+    @Column(name = "created_at")
+    private LocalDateTime createdAt;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    @Column(name = "archived_at", nullable = false)
+    private LocalDateTime archivedAt;
+}
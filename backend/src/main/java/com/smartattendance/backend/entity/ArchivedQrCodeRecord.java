@@ -0,0 +1,44 @@
+package com.smartattendance.backend.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * A QR code moved out of qr_code_records by the retention job. Keeps the
+ * columns needed to answer "which code was this scan for" and nothing the
+ * code could still be redeemed with (no payload or signature).
+ */
+@Entity
+@Getter
+@Setter
+@NoArgsConstructor
+@Table(name = "qr_code_records_archive")
+public class ArchivedQrCodeRecord {
+
+    // Same id as the row it was archived from
+    @Id
+    private Long id;
+
+    @Column(nullable = false, length = 128)
+    private String code;
+
+    @Column(name = "organisation_id", nullable = false)
+    private Long organisationId;
+
+    @Column(name = "created_by_admin_id")
+    private Long createdByAdminId;
+
+    @Column(name = "expires_at")
+    private LocalDateTime expiresAt;
+
+    @Column(name = "scan_count")
+    private Integer scanCount;
+
+    @Column(name = "created_at")
+    private LocalDateTime createdAt;
+
+    @Column(name = "archived_at", nullable = false)
+    private LocalDateTime archivedAt;
+}
@@ -0,0 +1,53 @@
+package com.smartattendance.backend.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * A soft-deleted user moved out of users by the retention job. The password
+ * hash is not carried over, and the email is no longer unique so it can be
+ * registered again.
+ */
+@Entity
+@Getter
+@Setter
+@NoArgsConstructor
+@Table(name = "users_archive")
+public class ArchivedUser {
+
+    // Same id as the row it was archived from
+    @Id
+    private Long id;
+
+    @Column(name = "first_name", nullable = false)
+    private String firstName;
+
+    @Column(name = "last_name", nullable = false)
+    private String lastName;
+
+    @Column(nullable = false)
+    private String email;
+
+    @Column(length = 20)
+    private String role;
+
+    @Column(name = "organization_id")
+    private Long organisationId;
+
+    @Column(length = 20)
+    private String status;
+
+    @Column(name = "last_login")
+    private LocalDateTime lastLogin;
+
+    @Column(name = "created_at")
+    private LocalDateTime createdAt;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    @Column(name = "archived_at", nullable = false)
+    private LocalDateTime archivedAt;
+}
@@ -0,0 +1,31 @@
+package com.smartattendance.backend.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDate;
+
+/**
+ * A work day on which an active user had no attendance record, written by
+ * the end-of-day close so reports do not have to work absences out again.
+ */
+@Entity
+@Getter
+@Setter
+@NoArgsConstructor
+@Table(name = "attendance_absences",
+        uniqueConstraints = @UniqueConstraint(name = "uk_absence_user_date", columnNames = {"user_id", "absence_date"}),
+        indexes = @Index(name = "idx_absence_org_date", columnList = "organisation_id, absence_date"))
+public class AttendanceAbsence extends BaseEntity {
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "user_id", nullable = false)
+    private Users user;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "organisation_id", nullable = false)
+    private Organisation organisation;
+
+    @Column(name = "absence_date", nullable = false)
+    private LocalDate absenceDate;
+}
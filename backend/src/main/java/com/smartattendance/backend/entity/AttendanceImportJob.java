@@ -0,0 +1,56 @@
+package com.smartattendance.backend.entity;
+
+import com.smartattendance.backend.enums.ImportJobStatus;
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Progress of a historical attendance import. The checkpoint is the number
+ * of data rows whose outcome has been committed, together with a digest of
+ * those rows; resending the same file resumes after them.
+ */
+@Entity
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "attendance_import_jobs")
+public class AttendanceImportJob extends BaseEntity {
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "organisation_id", nullable = false)
+    private Organisation organisation;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "started_by_id")
+    private Users startedBy;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false, length = 20)
+    private ImportJobStatus status;
+
+    @Column(name = "rows_committed", nullable = false)
+    private long rowsCommitted;
+
+    // SHA-256 over the first rowsCommitted rows, to recognise the file on resume
+    @Column(name = "checkpoint_digest", length = 64)
+    private String checkpointDigest;
+
+    @Column(name = "imported", nullable = false)
+    private long imported;
+
+    @Column(name = "skipped", nullable = false)
+    private long skipped;
+
+    @Column(name = "failed", nullable = false)
+    private long failed;
+
+    @Column(name = "last_error", length = 500)
+    private String lastError;
+
+    @Column(name = "finished_at")
+    private LocalDateTime finishedAt;
+}
@@ -11,12 +11,17 @@ import java.time.LocalDateTime;
 @Setter
 @Entity
 @Table(name = "attendance_records")
-public class AttendanceRecord extends BaseEntity implements Serializable {
+public class AttendanceRecord extends TimeOrderedEntity implements Serializable {
 
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id", nullable = false)
     private Users user;
 
+    // Copy of user.organisation, so per-organisation queries need no join through users
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "organisation_id", nullable = false)
+    private Organisation organisation;
+
     @Column(name = "check_in_time", nullable = false)
     private LocalDateTime checkInTime;
 
@@ -40,4 +45,16 @@ public class AttendanceRecord extends BaseEntity implements Serializable {
 
     @Column(name = "attendance_date", nullable = false)
     private LocalDateTime attendanceDate; // can be used for quick filtering
+
+    // Checked out by the end-of-day close rather than by the user
+    @Column(name = "auto_closed", nullable = false)
+    private boolean autoClosed;
+
+    @Override
+    protected void onCreate() {
+        super.onCreate();
+        if (organisation == null && user != null) {
+            organisation = user.getOrganisation();
+        }
+    }
 }
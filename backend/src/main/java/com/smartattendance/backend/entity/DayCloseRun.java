@@ -0,0 +1,38 @@
+package com.smartattendance.backend.entity;
+
+import com.smartattendance.backend.enums.DayClosePolicy;
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDate;
+
+/**
+ * Marks an organisation's day as closed. Written in the same transaction as
+ * the close itself, so a day is either fully closed and recorded here or
+ * not closed at all.
+ */
+@Entity
+@Getter
+@Setter
+@NoArgsConstructor
+@Table(name = "day_close_runs",
+        uniqueConstraints = @UniqueConstraint(name = "uk_day_close_org_date", columnNames = {"organisation_id", "close_date"}))
+public class DayCloseRun extends BaseEntity {
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "organisation_id", nullable = false)
+    private Organisation organisation;
+
+    @Column(name = "close_date", nullable = false)
+    private LocalDate closeDate;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "policy", nullable = false, length = 20)
+    private DayClosePolicy policy;
+
+    @Column(name = "closed_sessions", nullable = false)
+    private int closedSessions;
+
+    @Column(name = "absentees", nullable = false)
+    private int absentees;
+}
@@ -2,6 +2,8 @@ package com.smartattendance.backend.entity;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import java.io.Serializable;
 import java.time.LocalTime;
@@ -11,6 +13,7 @@ import java.time.LocalTime;
 @Setter
 @Entity
 @Table(name = "organisations")
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "organisations")
 public class Organisation extends BaseEntity implements Serializable {
 
     @Column(nullable = false)
@@ -32,6 +35,10 @@ public class Organisation extends BaseEntity implements Serializable {
     @Column
     private LocalTime startWorkTime = LocalTime.of(8,15);
 
+    // IANA zone id, e.g. Africa/Accra; the server's zone when not set
+    @Column(name = "time_zone", length = 64)
+    private String timeZone;
+
     // The super admin who created this organization
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "created_by_id")
@@ -14,7 +14,7 @@ import java.time.LocalDateTime;
 @NoArgsConstructor
 @AllArgsConstructor
 @Table(name = "qr_code_records")
-public class QrCodeRecord extends BaseEntity implements Serializable {
+public class QrCodeRecord extends TimeOrderedEntity implements Serializable {
 
     @Column(nullable = false, unique = true, length = 128)
     private String code;
@@ -0,0 +1,48 @@
+package com.smartattendance.backend.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Opaque refresh token. Only the SHA-256 of the token is stored; every
+ * token issued from one login shares a family id so that a replayed token
+ * can revoke the whole chain.
+ */
+@Entity
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "refresh_tokens", indexes = {
+        @Index(name = "idx_refresh_tokens_family", columnList = "family_id"),
+        @Index(name = "idx_refresh_tokens_user", columnList = "user_id")
+})
+public class RefreshToken extends BaseEntity {
+
+    @Column(name = "token_hash", nullable = false, unique = true, length = 64)
+    private String tokenHash;
+
+    @Column(name = "family_id", nullable = false, length = 36)
+    private String familyId;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "user_id", nullable = false)
+    private Users user;
+
+    @Column(name = "expires_at", nullable = false)
+    private LocalDateTime expiresAt;
+
+    // Set when the token is exchanged for a new one
+    @Column(name = "consumed_at")
+    private LocalDateTime consumedAt;
+
+    // Set when a replay within the reuse grace window was answered with a sibling; only one is
+    @Column(name = "reissued_at")
+    private LocalDateTime reissuedAt;
+
+    @Column(name = "revoked_at")
+    private LocalDateTime revokedAt;
+}
@@ -0,0 +1,38 @@
+package com.smartattendance.backend.entity;
+
+import com.smartattendance.backend.id.TimeOrderedId;
+import jakarta.persistence.*;
+import lombok.*;
+import org.springframework.data.domain.Persistable;
+
+/**
+ * Entity whose id is assigned by the application before the insert rather
+ * than by an auto-increment column, so its inserts can be batched.
+ *
+ * Because the id may already be set on a new entity, "new" is tracked
+ * explicitly for Spring Data: save() persists until the entity has been
+ * stored or loaded once, and merges after that.
+ */
+@MappedSuperclass
+public abstract class TimeOrderedEntity extends AuditedEntity implements Persistable<Long> {
+
+    @Id
+    @TimeOrderedId
+    @Getter
+    @Setter
+    private Long id;
+
+    @Transient
+    private boolean stored;
+
+    @Override
+    public boolean isNew() {
+        return !stored;
+    }
+
+    @PostPersist
+    @PostLoad
+    void markStored() {
+        stored = true;
+    }
+}
@@ -4,6 +4,10 @@ import com.smartattendance.backend.enums.RoleType;
 import com.smartattendance.backend.enums.UserStatus;
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.NaturalId;
+import org.hibernate.annotations.NaturalIdCache;
 
 import java.io.Serializable;
 import java.time.LocalDateTime;
@@ -12,7 +16,9 @@ import java.time.LocalDateTime;
 @Setter
 @Entity
 @Table(name = "users")
-public class Users extends BaseEntity implements Serializable {
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "users")
+@NaturalIdCache(region = "users-by-email")
+public class Users extends TimeOrderedEntity implements Serializable {
 
     @Column(nullable = false)
     private String firstName;
@@ -20,6 +26,7 @@ public class Users extends BaseEntity implements Serializable {
     @Column(nullable = false)
     private String lastName;
 
+    @NaturalId(mutable = true)
     @Column(nullable = false, unique = true)
     private String email;
 
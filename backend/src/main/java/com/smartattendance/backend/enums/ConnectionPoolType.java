@@ -0,0 +1,15 @@
+package com.smartattendance.backend.enums;
+
+/**
+ * Connection pool a unit of work runs against.
+ * CRITICAL serves auth, check-in/out and QR traffic; REPORTING serves
+ * reports, exports, history listings and index rebuilds.
+ */
+public enum ConnectionPoolType {
+    CRITICAL,
+    REPORTING;
+
+    public String poolName() {
+        return name().toLowerCase();
+    }
+}
@@ -0,0 +1,13 @@
+package com.smartattendance.backend.enums;
+
+/**
+ * Check-out time given to sessions still open when a day is closed.
+ */
+public enum DayClosePolicy {
+    // The organisation's closing time, or the check-in time if that was later
+    FIXED_TIME,
+    // Check-in plus a standard shift, but no later than the end of the day
+    SHIFT_LENGTH,
+    // Check-out equals check-in, so the session counts zero hours
+    CHECK_IN
+}
@@ -0,0 +1,7 @@
+package com.smartattendance.backend.enums;
+
+public enum ImportJobStatus {
+    RUNNING,
+    COMPLETED,
+    FAILED
+}
@@ -0,0 +1,13 @@
+package com.smartattendance.backend.enums;
+
+/**
+ * What a rate-limit bucket is keyed by.
+ */
+public enum RateLimitKey {
+    // Client address, for routes that are called before sign-in
+    IP,
+    // Authenticated user id from the JWT
+    USER,
+    // Organisation the caller is working in, for shared screens such as the QR display
+    ORGANISATION
+}
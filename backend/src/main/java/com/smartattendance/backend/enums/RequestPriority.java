@@ -0,0 +1,25 @@
+package com.smartattendance.backend.enums;
+
+/**
+ * Admission priority of an API route under overload. Lower-priority routes
+ * may only use a share of the concurrency limit, so they are shed first.
+ */
+public enum RequestPriority {
+    HIGH(1.0),
+    NORMAL(0.8),
+    LOW(0.5);
+
+    private final double limitShare;
+
+    RequestPriority(double limitShare) {
+        this.limitShare = limitShare;
+    }
+
+    public double limitShare() {
+        return limitShare;
+    }
+
+    public String tagValue() {
+        return name().toLowerCase();
+    }
+}
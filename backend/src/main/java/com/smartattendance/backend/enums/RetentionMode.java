@@ -0,0 +1,7 @@
+package com.smartattendance.backend.enums;
+
+public enum RetentionMode {
+    // Copy to the *_archive table, then delete
+    ARCHIVE,
+    DELETE
+}
@@ -0,0 +1,13 @@
+package com.smartattendance.backend.enums;
+
+/**
+ * Tables the retention job reclaims, in the order it processes them:
+ * rows that reference users and organisations go before the rows they
+ * reference.
+ */
+public enum RetentionTarget {
+    QR_CODES,
+    ATTENDANCE_RECORDS,
+    USERS,
+    ORGANISATIONS
+}
@@ -0,0 +1,19 @@
+package com.smartattendance.backend.enums;
+
+public enum SetOperation {
+    AND,
+    OR,
+    ANDNOT;
+
+    public static SetOperation from(String value) {
+        if (value == null) {
+            return AND;
+        }
+
+        try {
+            return SetOperation.valueOf(value.trim().toUpperCase());
+        } catch (IllegalArgumentException ex) {
+            return AND;
+        }
+    }
+}
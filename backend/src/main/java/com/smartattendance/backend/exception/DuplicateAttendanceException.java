@@ -0,0 +1,7 @@
+package com.smartattendance.backend.exception;
+
+public class DuplicateAttendanceException extends RuntimeException {
+    public DuplicateAttendanceException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,7 @@
+package com.smartattendance.backend.exception;
+
+public class ExpiredQrCodeException extends QrCodeException {
+    public ExpiredQrCodeException(String message) {
+        super(message);
+    }
+}
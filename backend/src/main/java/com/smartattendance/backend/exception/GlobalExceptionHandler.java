@@ -32,6 +32,13 @@ public class GlobalExceptionHandler {
                 .body(ApiResponse.failure(ex.getMessage(), "QR_CODE_ERROR"));
     }
 
+    @ExceptionHandler(DuplicateAttendanceException.class)
+    public ResponseEntity<ApiResponse<Void>> handleDuplicate(DuplicateAttendanceException ex) {
+        log.warn("Duplicate attendance: {}", ex.getMessage());
+        return ResponseEntity.status(HttpStatus.CONFLICT)
+                .body(ApiResponse.failure(ex.getMessage(), "DUPLICATE_CHECK_IN"));
+    }
+
     @ExceptionHandler(ResourceNotFoundException.class)
     public ResponseEntity<ApiResponse<Void>> handleNotFound(ResourceNotFoundException ex) {
         log.warn("Resource not found: {}", ex.getMessage());
@@ -46,6 +53,20 @@ public class GlobalExceptionHandler {
                 .body(ApiResponse.failure(ex.getMessage(), "UNAUTHORIZED"));
     }
 
+    @ExceptionHandler(ImportFormatException.class)
+    public ResponseEntity<ApiResponse<Void>> handleImportFormat(ImportFormatException ex) {
+        log.warn("Import rejected: {}", ex.getMessage());
+        return ResponseEntity.badRequest()
+                .body(ApiResponse.failure(ex.getMessage(), "INVALID_IMPORT"));
+    }
+
+    @ExceptionHandler(InvalidRefreshTokenException.class)
+    public ResponseEntity<ApiResponse<Void>> handleRefreshToken(InvalidRefreshTokenException ex) {
+        log.warn("Refresh token rejected: {}", ex.getMessage());
+        return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                .body(ApiResponse.failure(ex.getMessage(), "INVALID_REFRESH_TOKEN"));
+    }
+
     @ExceptionHandler(RuntimeException.class)
     public ResponseEntity<ApiResponse<Void>> handleRuntime(RuntimeException ex) {
         log.error("Unexpected error", ex);
@@ -0,0 +1,11 @@
+package com.smartattendance.backend.exception;
+
+public class LoginBusyException extends RuntimeException {
+    public LoginBusyException(String message) {
+        super(message);
+    }
+
+    public LoginBusyException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,75 @@
+package com.smartattendance.backend.exporter;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.function.Consumer;
+
+/**
+ * Writes the usual {"success", "message", "data"} envelope with the data
+ * array streamed row by row through a JsonGenerator, so a list endpoint
+ * holds one row in memory instead of the whole result. The row count is not
+ * known up front and is written as a "count" field after the array.
+ *
+ * The rows are produced on the async request thread, so the producer must
+ * open its own read-only transaction (a @Transactional service method).
+ * Once the first bytes are out the status is committed: a failure half way
+ * leaves the JSON unterminated rather than closing it as if it were complete.
+ */
+@Component
+@RequiredArgsConstructor
+public class StreamingJsonResponse {
+
+    static final int FLUSH_EVERY_ROWS = 500;
+
+    private final ObjectMapper objectMapper;
+
+    public <T> ResponseEntity<StreamingResponseBody> ok(String message, Consumer<Consumer<T>> rows) {
+        StreamingResponseBody body = out -> write(out, message, rows);
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(body);
+    }
+
+    <T> void write(OutputStream out, String message, Consumer<Consumer<T>> rows) throws IOException {
+        try (JsonGenerator json = objectMapper.getFactory().createGenerator(out)) {
+            json.disable(JsonGenerator.Feature.AUTO_CLOSE_JSON_CONTENT);
+            json.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+
+            json.writeStartObject();
+            json.writeBooleanField("success", true);
+            json.writeStringField("message", message);
+            json.writeArrayFieldStart("data");
+            // Headers and the envelope go out before the query has produced a row
+            json.flush();
+
+            long[] count = {0};
+            try {
+                rows.accept(row -> {
+                    try {
+                        json.writeObject(row);
+                        if (++count[0] % FLUSH_EVERY_ROWS == 0) {
+                            json.flush();
+                        }
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+
+            json.writeEndArray();
+            json.writeNumberField("count", count[0]);
+            json.writeEndObject();
+        }
+    }
+}
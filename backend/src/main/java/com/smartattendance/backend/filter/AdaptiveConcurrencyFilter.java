@@ -0,0 +1,162 @@
+package com.smartattendance.backend.filter;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.smartattendance.backend.concurrency.PriorityConcurrencyLimiter;
+import com.smartattendance.backend.dto.ApiResponse;
+import com.smartattendance.backend.enums.RequestPriority;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Admits /api requests through the {@link PriorityConcurrencyLimiter} before
+ * any authentication or database work happens. Shed requests get 429 with a
+ * Retry-After header.
+ *
+ * HIGH: login, check-in/out, today, the QR kiosk endpoints.
+ * LOW: reports, exports, history, analytics, the streamed organisation-wide
+ * lists and bulk imports; these hold their permit for as long as they run.
+ * Everything else under /api is NORMAL; actuator endpoints are never limited.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 20)
+@Slf4j
+public class AdaptiveConcurrencyFilter extends OncePerRequestFilter {
+
+    private static final List<String> HIGH_PRIORITY = List.of(
+            "/api/auth/login",
+            "/api/auth/refresh",
+            "/api/attendance/check-in",
+            "/api/attendance/check-in-qr",
+            "/api/attendance/check-out",
+            "/api/attendance/check-out/*",
+            "/api/attendance/check-out-qr",
+            "/api/attendance/today",
+            "/api/admin/qr-codes/**"
+    );
+
+    private static final List<String> LOW_PRIORITY = List.of(
+            "/api/attendance/reports/**",
+            "/api/attendance/history/**",
+            "/api/attendance/analytics/**",
+            "/api/attendance/user/*",
+            "/api/users/import",
+            "/api/attendance/import",
+            // Streamed lists keep the permit until the async response completes
+            "/api/attendance",
+            "/api/users"
+    );
+
+    private final PriorityConcurrencyLimiter limiter;
+    private final ObjectMapper objectMapper;
+    private final AntPathMatcher pathMatcher = new AntPathMatcher();
+    private final boolean enabled;
+    private final int retryAfterSeconds;
+    private final int lowPriorityRetryAfterSeconds;
+
+    public AdaptiveConcurrencyFilter(PriorityConcurrencyLimiter limiter,
+                                     ObjectMapper objectMapper,
+                                     @Value("${attendance.concurrency.enabled:true}") boolean enabled,
+                                     @Value("${attendance.concurrency.retry-after-seconds:1}") int retryAfterSeconds,
+                                     @Value("${attendance.concurrency.low-priority-retry-after-seconds:10}")
+                                     int lowPriorityRetryAfterSeconds) {
+        this.limiter = limiter;
+        this.objectMapper = objectMapper;
+        this.enabled = enabled;
+        this.retryAfterSeconds = retryAfterSeconds;
+        this.lowPriorityRetryAfterSeconds = lowPriorityRetryAfterSeconds;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !enabled || !request.getRequestURI().startsWith("/api/");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        RequestPriority priority = priorityOf(request.getRequestURI());
+
+        PriorityConcurrencyLimiter.Permit permit;
+        try {
+            permit = limiter.tryAcquire(priority);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            permit = null;
+        }
+
+        if (permit == null) {
+            shed(response, priority);
+            return;
+        }
+
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            if (request.isAsyncStarted()) {
+                request.getAsyncContext().addListener(new ReleaseOnComplete(permit));
+            } else {
+                permit.release();
+            }
+        }
+    }
+
+    RequestPriority priorityOf(String path) {
+        if (HIGH_PRIORITY.stream().anyMatch(pattern -> pathMatcher.match(pattern, path))) {
+            return RequestPriority.HIGH;
+        }
+        if (LOW_PRIORITY.stream().anyMatch(pattern -> pathMatcher.match(pattern, path))) {
+            return RequestPriority.LOW;
+        }
+        return RequestPriority.NORMAL;
+    }
+
+    private void shed(HttpServletResponse response, RequestPriority priority) throws IOException {
+        log.debug("Shedding {} priority request, limit {}", priority, limiter.getLimit());
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader("Retry-After", String.valueOf(
+                priority == RequestPriority.LOW ? lowPriorityRetryAfterSeconds : retryAfterSeconds));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(),
+                ApiResponse.failure("Server is busy, please retry shortly", "TOO_MANY_REQUESTS"));
+    }
+
+    private record ReleaseOnComplete(PriorityConcurrencyLimiter.Permit permit) implements AsyncListener {
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            permit.release();
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+            permit.release();
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+            permit.release();
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+            event.getAsyncContext().addListener(this);
+        }
+    }
+}
@@ -0,0 +1,280 @@
+package com.smartattendance.backend.filter;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.smartattendance.backend.dto.ApiResponse;
+import com.smartattendance.backend.idempotency.IdempotencyStore;
+import com.smartattendance.backend.idempotency.StoredResponse;
+import com.smartattendance.backend.security.CustomUserDetails;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.security.SecurityProperties;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.util.StringUtils;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Honours an Idempotency-Key header on check-in and check-out.
+ *
+ * The first request with a key runs normally and its response is kept; a
+ * retry with the same key gets that response back without touching the
+ * service layer. A retry that arrives while the first is still running waits
+ * for it. Keys are scoped to the authenticated user, so this runs after the
+ * Spring Security chain.
+ */
+@Component
+@Order(SecurityProperties.DEFAULT_FILTER_ORDER + 10)
+@Slf4j
+public class IdempotencyFilter extends OncePerRequestFilter {
+
+    public static final String KEY_HEADER = "Idempotency-Key";
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+
+    private static final int MAX_KEY_LENGTH = 128;
+    private static final List<String> IDEMPOTENT_PATHS = List.of(
+            "/api/attendance/check-in",
+            "/api/attendance/check-in-qr",
+            "/api/attendance/check-out",
+            "/api/attendance/check-out/*",
+            "/api/attendance/check-out-qr"
+    );
+
+    private final IdempotencyStore store;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+    private final AntPathMatcher pathMatcher = new AntPathMatcher();
+    private final long waitMillis;
+
+    public IdempotencyFilter(IdempotencyStore store,
+                             ObjectMapper objectMapper,
+                             MeterRegistry meterRegistry,
+                             @Value("${attendance.idempotency.wait-ms:10000}") long waitMillis) {
+        this.store = store;
+        this.objectMapper = objectMapper;
+        this.meterRegistry = meterRegistry;
+        this.waitMillis = waitMillis;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String method = request.getMethod();
+        return !StringUtils.hasText(request.getHeader(KEY_HEADER))
+                || !("POST".equals(method) || "PUT".equals(method))
+                || IDEMPOTENT_PATHS.stream().noneMatch(pattern -> pathMatcher.match(pattern, request.getRequestURI()));
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        String key = request.getHeader(KEY_HEADER).trim();
+        Long userId = currentUserId();
+        if (userId == null || key.length() > MAX_KEY_LENGTH) {
+            // Unauthenticated requests are rejected further down; odd keys are ignored
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        CachedBodyRequest cachedRequest = new CachedBodyRequest(request);
+        String fingerprint = fingerprint(cachedRequest);
+        String scopedKey = userId + ":" + key;
+
+        while (true) {
+            CompletableFuture<StoredResponse> execution = new CompletableFuture<>();
+            CompletableFuture<StoredResponse> earlier = store.claim(scopedKey, execution);
+            if (earlier == null) {
+                execute(cachedRequest, response, filterChain, scopedKey, fingerprint, execution);
+                return;
+            }
+
+            StoredResponse stored;
+            try {
+                stored = earlier.isDone() ? earlier.get() : waitFor(earlier);
+            } catch (TimeoutException e) {
+                count("in_progress");
+                reject(response, HttpStatus.CONFLICT, "A request with this Idempotency-Key is still being processed",
+                        "IDEMPOTENCY_KEY_IN_PROGRESS");
+                return;
+            } catch (ExecutionException e) {
+                stored = null;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new ServletException("Interrupted while waiting for idempotent request", e);
+            }
+
+            if (stored == null) {
+                // The earlier attempt left nothing to replay; claim the key again
+                continue;
+            }
+            if (!stored.fingerprint().equals(fingerprint)) {
+                count("mismatch");
+                reject(response, HttpStatus.UNPROCESSABLE_ENTITY,
+                        "Idempotency-Key was already used for a different request", "IDEMPOTENCY_KEY_MISMATCH");
+                return;
+            }
+            count("replayed");
+            replay(response, stored);
+            return;
+        }
+    }
+
+    private void execute(CachedBodyRequest request, HttpServletResponse response, FilterChain filterChain,
+                         String scopedKey, String fingerprint,
+                         CompletableFuture<StoredResponse> execution) throws ServletException, IOException {
+        ContentCachingResponseWrapper wrapped = new ContentCachingResponseWrapper(response);
+        StoredResponse stored = null;
+        try {
+            filterChain.doFilter(request, wrapped);
+            if (isReplayable(wrapped.getStatus())) {
+                stored = new StoredResponse(fingerprint, wrapped.getStatus(), wrapped.getContentType(),
+                        wrapped.getContentAsByteArray());
+            }
+        } finally {
+            store.complete(scopedKey, execution, stored);
+            count(stored != null ? "stored" : "not_stored");
+            wrapped.copyBodyToResponse();
+        }
+    }
+
+    private StoredResponse waitFor(CompletableFuture<StoredResponse> earlier)
+            throws InterruptedException, ExecutionException, TimeoutException {
+        count("waited");
+        return earlier.get(waitMillis, TimeUnit.MILLISECONDS);
+    }
+
+    // Server errors and shed requests are retried for real; everything else is a final answer
+    private boolean isReplayable(int status) {
+        return status < 500 && status != HttpStatus.TOO_MANY_REQUESTS.value();
+    }
+
+    private void replay(HttpServletResponse response, StoredResponse stored) throws IOException {
+        response.setStatus(stored.status());
+        response.setHeader(REPLAYED_HEADER, "true");
+        if (stored.contentType() != null) {
+            response.setContentType(stored.contentType());
+        }
+        response.setContentLength(stored.body().length);
+        response.getOutputStream().write(stored.body());
+    }
+
+    private void reject(HttpServletResponse response, HttpStatus status, String message, String code)
+            throws IOException {
+        response.setStatus(status.value());
+        if (status == HttpStatus.CONFLICT) {
+            response.setHeader("Retry-After", "1");
+        }
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(), ApiResponse.failure(message, code));
+    }
+
+    private Long currentUserId() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.getPrincipal() instanceof CustomUserDetails user) {
+            return user.getId();
+        }
+        return null;
+    }
+
+    private String fingerprint(CachedBodyRequest request) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update((request.getMethod() + " " + request.getRequestURI() + "\n").getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest.digest(request.body));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("Unable to fingerprint request", e);
+        }
+    }
+
+    private void count(String outcome) {
+        meterRegistry.counter("attendance.idempotency.requests", "outcome", outcome).increment();
+    }
+
+    /**
+     * Reads the (small, JSON) body up front so it can be fingerprinted and
+     * still be read by the controller.
+     */
+    private static final class CachedBodyRequest extends HttpServletRequestWrapper {
+
+        private final byte[] body;
+
+        CachedBodyRequest(HttpServletRequest request) throws IOException {
+            super(request);
+            this.body = request.getInputStream().readAllBytes();
+        }
+
+        @Override
+        public ServletInputStream getInputStream() {
+            ByteArrayInputStream input = new ByteArrayInputStream(body);
+            return new ServletInputStream() {
+                @Override
+                public boolean isFinished() {
+                    return input.available() == 0;
+                }
+
+                @Override
+                public boolean isReady() {
+                    return true;
+                }
+
+                // Everything is already buffered: hand it over at once, then signal the end
+                @Override
+                public void setReadListener(ReadListener readListener) {
+                    try {
+                        if (!isFinished()) {
+                            readListener.onDataAvailable();
+                        }
+                        readListener.onAllDataRead();
+                    } catch (IOException e) {
+                        readListener.onError(e);
+                    }
+                }
+
+                @Override
+                public int read() {
+                    return input.read();
+                }
+
+                @Override
+                public int read(byte[] buffer, int offset, int length) {
+                    return input.read(buffer, offset, length);
+                }
+            };
+        }
+
+        @Override
+        public BufferedReader getReader() {
+            String encoding = getCharacterEncoding();
+            return new BufferedReader(new InputStreamReader(getInputStream(),
+                    encoding != null ? Charset.forName(encoding) : StandardCharsets.UTF_8));
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package com.smartattendance.backend.filter;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.smartattendance.backend.dto.ApiResponse;
+import com.smartattendance.backend.ratelimit.RateLimitProperties;
+import com.smartattendance.backend.ratelimit.RateLimiter;
+import com.smartattendance.backend.security.CustomUserDetails;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.security.SecurityProperties;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * Applies the configured token-bucket policies (attendance.rate-limit.*).
+ *
+ * Runs after the Spring Security chain so that user and organisation keys
+ * come from the validated JWT. The first policy whose path matches applies;
+ * requests without a usable key (e.g. no token on a USER route) pass
+ * through and are left to security.
+ */
+@Component
+@Order(SecurityProperties.DEFAULT_FILTER_ORDER + 5)
+@Slf4j
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    private final RateLimiter rateLimiter;
+    private final RateLimitProperties properties;
+    private final ObjectMapper objectMapper;
+    private final AntPathMatcher pathMatcher = new AntPathMatcher();
+
+    public RateLimitFilter(RateLimiter rateLimiter, RateLimitProperties properties, ObjectMapper objectMapper) {
+        this.rateLimiter = rateLimiter;
+        this.properties = properties;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !properties.isEnabled() || !request.getRequestURI().startsWith("/api/");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        String path = request.getRequestURI();
+        for (Map.Entry<String, RateLimitProperties.Policy> entry : properties.getPolicies().entrySet()) {
+            RateLimitProperties.Policy policy = entry.getValue();
+            if (policy.getPaths().stream().noneMatch(pattern -> pathMatcher.match(pattern, path))) {
+                continue;
+            }
+            String key = keyFor(policy, request);
+            if (key == null) {
+                break;
+            }
+            RateLimiter.Decision decision = rateLimiter.tryConsume(entry.getKey(), policy, key);
+            response.setHeader("X-RateLimit-Limit", String.valueOf(decision.limit()));
+            response.setHeader("X-RateLimit-Remaining", String.valueOf(decision.remaining()));
+            if (!decision.allowed()) {
+                log.debug("Rate limited {} {} for {} ({})", request.getMethod(), path, key, entry.getKey());
+                reject(response, decision);
+                return;
+            }
+            break;
+        }
+        filterChain.doFilter(request, response);
+    }
+
+    private String keyFor(RateLimitProperties.Policy policy, HttpServletRequest request) {
+        return switch (policy.getKey()) {
+            case IP -> request.getRemoteAddr();
+            case USER -> {
+                CustomUserDetails user = currentUser();
+                yield user != null ? String.valueOf(user.getId()) : null;
+            }
+            case ORGANISATION -> {
+                CustomUserDetails user = currentUser();
+                if (user == null) {
+                    yield null;
+                }
+                Long organisationId = user.getCurrentOrganisationId() != null
+                        ? user.getCurrentOrganisationId() : user.getOrganisationId();
+                yield organisationId != null ? String.valueOf(organisationId) : "user-" + user.getId();
+            }
+        };
+    }
+
+    private CustomUserDetails currentUser() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return authentication != null && authentication.getPrincipal() instanceof CustomUserDetails user
+                ? user : null;
+    }
+
+    private void reject(HttpServletResponse response, RateLimiter.Decision decision) throws IOException {
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader("Retry-After", String.valueOf(decision.retryAfterSeconds()));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(),
+                ApiResponse.failure("Too many requests, please slow down", "RATE_LIMITED"));
+    }
+}
@@ -0,0 +1,152 @@
+package com.smartattendance.backend.filter;
+
+import com.smartattendance.backend.datasource.SqlStatementStats;
+import com.smartattendance.backend.datasource.SqlStatementTracker;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.security.web.util.OnCommittedResponseWrapper;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.time.Duration;
+
+/**
+ * Brackets every request with SQL statement accounting.
+ *
+ * Statement count, fetched rows, DB time and connection hold time are always
+ * published as metrics per endpoint pattern; with attendance.sql-stats.headers=true
+ * (development) they are also returned as response headers, which is what the
+ * statement budget tests assert on.
+ *
+ * An async request (login, streamed lists) keeps one set of stats across its
+ * dispatches and is recorded on the dispatch that completes it; work on the
+ * task executor in between is counted through the tracker's task decorator.
+ * Streamed lists commit before their rows are read, so their headers only
+ * cover the first dispatch; the metrics cover the whole request.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 10)
+@Slf4j
+public class SqlStatementBudgetFilter extends OncePerRequestFilter {
+
+    public static final String STATEMENTS_HEADER = "X-SQL-Statements";
+    public static final String ROWS_HEADER = "X-SQL-Rows";
+    public static final String TIME_HEADER = "X-SQL-Time-Ms";
+    public static final String CONNECTION_HEADER = "X-DB-Connection-Ms";
+
+    private static final String STATS_ATTRIBUTE = SqlStatementBudgetFilter.class.getName() + ".stats";
+
+    private final SqlStatementTracker tracker;
+    private final MeterRegistry meterRegistry;
+    private final boolean headersEnabled;
+    private final int warnThreshold;
+
+    public SqlStatementBudgetFilter(SqlStatementTracker tracker,
+                                    MeterRegistry meterRegistry,
+                                    @Value("${attendance.sql-stats.headers:false}") boolean headersEnabled,
+                                    @Value("${attendance.sql-stats.warn-threshold:25}") int warnThreshold) {
+        this.tracker = tracker;
+        this.meterRegistry = meterRegistry;
+        this.headersEnabled = headersEnabled;
+        this.warnThreshold = warnThreshold;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        SqlStatementStats stats = request.getAttribute(STATS_ATTRIBUTE) instanceof SqlStatementStats started
+                ? tracker.resume(started)
+                : tracker.begin();
+        request.setAttribute(STATS_ATTRIBUTE, stats);
+        StatsHeaderResponse wrapped = headersEnabled ? new StatsHeaderResponse(response, stats) : null;
+        try {
+            filterChain.doFilter(request, wrapped != null ? wrapped : response);
+        } finally {
+            tracker.end();
+            // Set here, on the request thread; a later dispatch overwrites them while the response is open
+            if (wrapped != null) {
+                wrapped.writeHeaders();
+            }
+            if (!isAsyncStarted(request)) {
+                record(request, stats);
+            }
+        }
+    }
+
+    @Override
+    protected boolean shouldNotFilterAsyncDispatch() {
+        return false;
+    }
+
+    private void record(HttpServletRequest request, SqlStatementStats stats) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        String endpoint = request.getMethod() + " " + (pattern != null ? pattern : "UNMAPPED");
+
+        DistributionSummary.builder("attendance.http.sql.statements")
+                .description("JDBC statements executed per request")
+                .tag("endpoint", endpoint)
+                .register(meterRegistry)
+                .record(stats.getStatements());
+        DistributionSummary.builder("attendance.http.sql.rows")
+                .description("Result set rows fetched per request")
+                .tag("endpoint", endpoint)
+                .register(meterRegistry)
+                .record(stats.getRows());
+        Timer.builder("attendance.http.sql.time")
+                .description("Database time per request")
+                .tag("endpoint", endpoint)
+                .register(meterRegistry)
+                .record(Duration.ofMillis(stats.getElapsedMillis()));
+        Timer.builder("attendance.http.db.connection.hold")
+                .description("Time a pooled connection was checked out per request")
+                .tag("endpoint", endpoint)
+                .register(meterRegistry)
+                .record(Duration.ofNanos(stats.getConnectionHoldNanos()));
+
+        if (stats.getStatements() > warnThreshold) {
+            log.warn("{} executed {} SQL statements ({} rows, {} ms)",
+                    endpoint, stats.getStatements(), stats.getRows(), stats.getElapsedMillis());
+        }
+    }
+
+    /**
+     * Adds the stats headers at the last moment they can still be set.
+     */
+    private static final class StatsHeaderResponse extends OnCommittedResponseWrapper {
+        private final SqlStatementStats stats;
+        private boolean written;
+
+        private StatsHeaderResponse(HttpServletResponse response, SqlStatementStats stats) {
+            super(response);
+            this.stats = stats;
+        }
+
+        @Override
+        protected void onResponseCommitted() {
+            writeHeaders();
+        }
+
+        private void writeHeaders() {
+            if (written || getResponse().isCommitted()) {
+                return;
+            }
+            written = true;
+            setHeader(STATEMENTS_HEADER, String.valueOf(stats.getStatements()));
+            setHeader(ROWS_HEADER, String.valueOf(stats.getRows()));
+            setHeader(TIME_HEADER, String.valueOf(stats.getElapsedMillis()));
+            setHeader(CONNECTION_HEADER, String.valueOf(stats.getConnectionHoldMillis()));
+        }
+    }
+}
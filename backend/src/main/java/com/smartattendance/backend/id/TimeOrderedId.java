@@ -0,0 +1,18 @@
+package com.smartattendance.backend.id;
+
+import org.hibernate.annotations.IdGeneratorType;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks an id attribute as assigned by {@link TimeOrderedIdGenerator} when
+ * the entity is persisted, unless the caller already assigned one.
+ */
+@IdGeneratorType(TimeOrderedIdHibernateGenerator.class)
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.FIELD, ElementType.METHOD})
+public @interface TimeOrderedId {
+}
@@ -0,0 +1,53 @@
+package com.smartattendance.backend.id;
+
+import org.hibernate.engine.config.spi.ConfigurationService;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.generator.AnnotationBasedGenerator;
+import org.hibernate.generator.BeforeExecutionGenerator;
+import org.hibernate.generator.EventType;
+import org.hibernate.generator.EventTypeSets;
+import org.hibernate.generator.GeneratorCreationContext;
+
+import java.lang.reflect.Member;
+import java.util.EnumSet;
+
+/**
+ * Hibernate side of {@link TimeOrderedId}. Hands out ids from the
+ * application's single {@link TimeOrderedIdGenerator}, which Spring passes
+ * in through the Hibernate settings (see IdGeneratorConfig), so JPA and
+ * JDBC inserts draw from the same sequence.
+ */
+public class TimeOrderedIdHibernateGenerator implements BeforeExecutionGenerator, AnnotationBasedGenerator<TimeOrderedId> {
+
+    public static final String GENERATOR_SETTING = "attendance.ids.generator";
+
+    private TimeOrderedIdGenerator ids;
+
+    @Override
+    public void initialize(TimeOrderedId annotation, Member member, GeneratorCreationContext context) {
+        Object generator = context.getServiceRegistry().requireService(ConfigurationService.class)
+                .getSettings().get(GENERATOR_SETTING);
+        if (!(generator instanceof TimeOrderedIdGenerator timeOrderedIdGenerator)) {
+            throw new IllegalStateException("Hibernate setting " + GENERATOR_SETTING
+                    + " must hold the TimeOrderedIdGenerator");
+        }
+        this.ids = timeOrderedIdGenerator;
+    }
+
+    @Override
+    public Object generate(SharedSessionContractImplementor session, Object owner, Object currentValue,
+                           EventType eventType) {
+        return currentValue != null ? currentValue : ids.nextId();
+    }
+
+    // Services that need the id before saving, e.g. to sign a QR payload, assign it themselves
+    @Override
+    public boolean allowAssignedIdentifiers() {
+        return true;
+    }
+
+    @Override
+    public EnumSet<EventType> getEventTypes() {
+        return EventTypeSets.INSERT_ONLY;
+    }
+}
@@ -0,0 +1,52 @@
+package com.smartattendance.backend.idempotency;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Bounded in-memory record of Idempotency-Key executions.
+ *
+ * Each key maps to a future that the first request completes with its
+ * response. Later requests with the same key either replay the stored
+ * response or, while the first is still running, wait on the same future.
+ * A future completed with null means the outcome was not worth keeping
+ * (server error, shed request) and the next attempt should run again.
+ */
+@Component
+public class IdempotencyStore {
+
+    private final Cache<String, CompletableFuture<StoredResponse>> entries;
+
+    public IdempotencyStore(MeterRegistry meterRegistry,
+                            @Value("${attendance.idempotency.max-entries:10000}") long maxEntries,
+                            @Value("${attendance.idempotency.ttl-seconds:86400}") long ttlSeconds) {
+        this.entries = Caffeine.newBuilder()
+                .maximumSize(maxEntries)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, entries, "idempotency-keys");
+    }
+
+    /**
+     * Claims the key for this request. Returns null when the caller is the
+     * first and must execute; otherwise the future of the earlier execution.
+     */
+    public CompletableFuture<StoredResponse> claim(String key, CompletableFuture<StoredResponse> execution) {
+        return entries.asMap().putIfAbsent(key, execution);
+    }
+
+    public void complete(String key, CompletableFuture<StoredResponse> execution, StoredResponse response) {
+        if (response == null) {
+            entries.asMap().remove(key, execution);
+        }
+        execution.complete(response);
+    }
+}
@@ -0,0 +1,7 @@
+package com.smartattendance.backend.idempotency;
+
+/**
+ * The parts of a completed response needed to replay it for a repeated key.
+ */
+public record StoredResponse(String fingerprint, int status, String contentType, byte[] body) {
+}
@@ -0,0 +1,151 @@
+package com.smartattendance.backend.importer;
+
+import com.smartattendance.backend.exception.ImportFormatException;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Streaming RFC 4180 reader: one record in memory at a time, quoted fields
+ * may contain commas, doubled quotes and line breaks. The first record is
+ * the header; columns are looked up by case-insensitive name so files may
+ * order them freely and carry extra columns.
+ */
+public class CsvReader implements Closeable {
+
+    private final BufferedReader reader;
+    private final Map<String, Integer> columns = new HashMap<>();
+    private long recordNumber;
+
+    public CsvReader(Reader reader) {
+        this.reader = reader instanceof BufferedReader buffered ? buffered : new BufferedReader(reader, 64 * 1024);
+        List<String> header = readRecord();
+        if (header == null) {
+            throw new ImportFormatException("The file is empty");
+        }
+        for (int i = 0; i < header.size(); i++) {
+            String name = header.get(i).strip();
+            if (i == 0 && name.startsWith("\uFEFF")) {
+                name = name.substring(1);
+            }
+            columns.put(name.toLowerCase(Locale.ROOT), i);
+        }
+    }
+
+    public void requireColumns(String... names) {
+        for (String name : names) {
+            if (!columns.containsKey(name.toLowerCase(Locale.ROOT))) {
+                throw new ImportFormatException("Missing column: " + name);
+            }
+        }
+    }
+
+    /** Next data record, or null at the end of the file. Blank lines are skipped. */
+    public Row next() {
+        List<String> values;
+        do {
+            values = readRecord();
+            if (values == null) {
+                return null;
+            }
+        } while (values.size() == 1 && values.getFirst().isBlank());
+        return new Row(recordNumber - 1, values);
+    }
+
+    private List<String> readRecord() {
+        try {
+            int c = reader.read();
+            if (c == -1) {
+                return null;
+            }
+            recordNumber++;
+            List<String> values = new ArrayList<>();
+            StringBuilder field = new StringBuilder();
+            boolean quoted = false;
+            boolean fieldWasQuoted = false;
+            while (true) {
+                if (quoted) {
+                    if (c == -1) {
+                        throw new ImportFormatException("Unterminated quoted field in record " + recordNumber);
+                    }
+                    if (c == '"') {
+                        reader.mark(1);
+                        int nextChar = reader.read();
+                        if (nextChar == '"') {
+                            field.append('"');
+                        } else {
+                            quoted = false;
+                            reader.reset();
+                        }
+                    } else {
+                        field.append((char) c);
+                    }
+                } else if (c == '"' && field.isEmpty() && !fieldWasQuoted) {
+                    quoted = true;
+                    fieldWasQuoted = true;
+                } else if (c == ',') {
+                    values.add(field.toString());
+                    field.setLength(0);
+                    fieldWasQuoted = false;
+                } else if (c == '\r' || c == '\n' || c == -1) {
+                    if (c == '\r') {
+                        reader.mark(1);
+                        if (reader.read() != '\n') {
+                            reader.reset();
+                        }
+                    }
+                    values.add(field.toString());
+                    return values;
+                } else {
+                    field.append((char) c);
+                }
+                c = reader.read();
+            }
+        } catch (IOException e) {
+            throw new ImportFormatException("Could not read the uploaded file", e);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    /** A data record; {@code number} counts data rows from 1, excluding the header. */
+    public final class Row {
+
+        private final long number;
+        private final List<String> values;
+
+        private Row(long number, List<String> values) {
+            this.number = number;
+            this.values = values;
+        }
+
+        public long number() {
+            return number;
+        }
+
+        /** Raw field values in file order. */
+        public List<String> values() {
+            return values;
+        }
+
+        /** Trimmed value of the named column, or null when absent or blank. */
+        public String get(String column) {
+            Integer index = columns.get(column.toLowerCase(Locale.ROOT));
+            if (index == null || index >= values.size()) {
+                return null;
+            }
+            String value = values.get(index).strip();
+            return value.isEmpty() ? null : value;
+        }
+    }
+}
@@ -0,0 +1,144 @@
+package com.smartattendance.backend.metrics;
+
+import com.smartattendance.backend.enums.ReportFormat;
+import com.smartattendance.backend.exception.DuplicateAttendanceException;
+import com.smartattendance.backend.exception.ExpiredQrCodeException;
+import com.smartattendance.backend.exception.InvalidSignatureException;
+import com.smartattendance.backend.exception.LocationValidationException;
+import com.smartattendance.backend.exception.QrCodeException;
+import com.smartattendance.backend.exception.ResourceNotFoundException;
+import com.smartattendance.backend.exception.UnauthorizedException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.MultiGauge;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * Micrometer meters for the check-in, QR and report pipelines.
+ *
+ * Tags are kept low-cardinality: outcomes and formats are fixed sets, and the
+ * only per-organisation meter is the active QR gauge.
+ */
+@Component
+public class AttendanceMetrics {
+
+    private static final Duration[] CHECK_IN_SLOS = {
+            Duration.ofMillis(100), Duration.ofMillis(250), Duration.ofMillis(500),
+            Duration.ofSeconds(1), Duration.ofSeconds(2)
+    };
+
+    private final MeterRegistry meterRegistry;
+    private final MultiGauge activeQrCodes;
+
+    public AttendanceMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+        this.activeQrCodes = MultiGauge.builder("attendance.qr.active")
+                .description("Active QR codes per organisation")
+                .register(meterRegistry);
+    }
+
+    public <T> T timeCheckIn(Supplier<T> action) {
+        return timeAttendance("check_in", action);
+    }
+
+    public <T> T timeCheckOut(Supplier<T> action) {
+        return timeAttendance("check_out", action);
+    }
+
+    public <T> T timeQrValidation(Supplier<T> action) {
+        return time(Timer.builder("attendance.qr.validate")
+                .description("QR payload validation"), action);
+    }
+
+    public <T> T timeOrganisationReport(Supplier<T> action) {
+        return time(Timer.builder("attendance.report.generate")
+                .description("Organisation report aggregation"), action);
+    }
+
+    public <T> T timeExport(String report, ReportFormat format, Supplier<T> action) {
+        return time(Timer.builder("attendance.report.render")
+                .description("Report export rendering")
+                .tag("report", report)
+                .tag("format", format.name().toLowerCase()), action);
+    }
+
+    public void timeQrSweep(Runnable sweep) {
+        time(Timer.builder("attendance.qr.sweep")
+                .description("Expired QR code sweep"), () -> {
+            sweep.run();
+            return null;
+        });
+    }
+
+    /**
+     * Records time spent resolving the JWT into an authenticated principal.
+     * Outcome is one of none, authenticated or rejected.
+     */
+    public void recordJwtFilter(long nanos, String outcome) {
+        Timer.builder("attendance.security.jwt")
+                .description("JWT authentication filter")
+                .tag("outcome", outcome)
+                .register(meterRegistry)
+                .record(Duration.ofNanos(nanos));
+    }
+
+    public void updateActiveQrCodes(Map<Long, Long> countsByOrganisation) {
+        activeQrCodes.register(countsByOrganisation.entrySet().stream()
+                .map(entry -> MultiGauge.Row.of(Tags.of("organisation", entry.getKey().toString()), entry.getValue()))
+                .collect(Collectors.toList()), true);
+    }
+
+    private <T> T timeAttendance(String operation, Supplier<T> action) {
+        return time(Timer.builder("attendance.checkin")
+                .description("QR check-in and check-out requests")
+                .tag("operation", operation)
+                .publishPercentileHistogram()
+                .serviceLevelObjectives(CHECK_IN_SLOS), action);
+    }
+
+    private <T> T time(Timer.Builder timer, Supplier<T> action) {
+        long start = System.nanoTime();
+        String outcome = "success";
+        try {
+            return action.get();
+        } catch (RuntimeException e) {
+            outcome = outcomeOf(e);
+            throw e;
+        } finally {
+            timer.tag("outcome", outcome)
+                    .register(meterRegistry)
+                    .record(Duration.ofNanos(System.nanoTime() - start));
+        }
+    }
+
+    private String outcomeOf(RuntimeException e) {
+        if (e instanceof LocationValidationException) {
+            return "geofence_reject";
+        }
+        if (e instanceof ExpiredQrCodeException) {
+            return "expired_qr";
+        }
+        if (e instanceof InvalidSignatureException) {
+            return "invalid_signature";
+        }
+        if (e instanceof DuplicateAttendanceException) {
+            return "duplicate";
+        }
+        if (e instanceof UnauthorizedException) {
+            return "wrong_organisation";
+        }
+        if (e instanceof QrCodeException) {
+            return "qr_rejected";
+        }
+        if (e instanceof ResourceNotFoundException) {
+            return "not_found";
+        }
+        return "error";
+    }
+}
@@ -0,0 +1,38 @@
+package com.smartattendance.backend.ratelimit;
+
+import com.smartattendance.backend.enums.RateLimitKey;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * attendance.rate-limit.* — one token bucket policy per route group.
+ */
+@Data
+@ConfigurationProperties(prefix = "attendance.rate-limit")
+public class RateLimitProperties {
+
+    private boolean enabled = true;
+
+    // Buckets untouched this long are dropped; keep it above the slowest full refill
+    private long idleEvictionSeconds = 600;
+
+    private long maxBuckets = 100_000;
+
+    private Map<String, Policy> policies = new LinkedHashMap<>();
+
+    @Data
+    public static class Policy {
+        // Ant patterns matched against the request path
+        private List<String> paths = new ArrayList<>();
+        private RateLimitKey key = RateLimitKey.IP;
+        // Burst size
+        private int capacity = 10;
+        // Sustained rate
+        private double refillPerMinute = 10;
+    }
+}
@@ -0,0 +1,48 @@
+package com.smartattendance.backend.ratelimit;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * In-memory token buckets, one per policy and key. Idle buckets expire so
+ * the number of tracked clients stays bounded.
+ */
+@Component
+public class RateLimiter {
+
+    private final Cache<String, TokenBucket> buckets;
+    private final MeterRegistry meterRegistry;
+
+    public RateLimiter(RateLimitProperties properties, MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+        this.buckets = Caffeine.newBuilder()
+                .maximumSize(properties.getMaxBuckets())
+                .expireAfterAccess(Duration.ofSeconds(properties.getIdleEvictionSeconds()))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, buckets, "rate-limit-buckets");
+    }
+
+    public Decision tryConsume(String policyName, RateLimitProperties.Policy policy, String key) {
+        long now = System.nanoTime();
+        TokenBucket bucket = buckets.get(policyName + ":" + key,
+                ignored -> new TokenBucket(policy.getCapacity(), policy.getRefillPerMinute(), now));
+        double result = bucket.tryConsume(now);
+        boolean allowed = result >= 0;
+        meterRegistry.counter("attendance.rate-limit.requests",
+                "policy", policyName, "decision", allowed ? "allowed" : "limited").increment();
+        return allowed
+                ? new Decision(true, bucket.capacity(), (int) result, 0)
+                : new Decision(false, bucket.capacity(), 0,
+                Math.max(1, TimeUnit.NANOSECONDS.toSeconds((long) Math.ceil(-result)) + 1));
+    }
+
+    public record Decision(boolean allowed, int limit, int remaining, long retryAfterSeconds) {
+    }
+}
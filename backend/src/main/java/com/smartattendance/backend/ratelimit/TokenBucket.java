@@ -0,0 +1,46 @@
+package com.smartattendance.backend.ratelimit;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Token bucket refilled continuously from elapsed time. The state is one
+ * immutable snapshot swapped with compare-and-set, so concurrent requests
+ * for the same key never block each other.
+ */
+final class TokenBucket {
+
+    private final int capacity;
+    private final double tokensPerNano;
+    private final AtomicReference<State> state;
+
+    TokenBucket(int capacity, double refillPerMinute, long nowNanos) {
+        this.capacity = capacity;
+        this.tokensPerNano = refillPerMinute / 60_000_000_000d;
+        this.state = new AtomicReference<>(new State(capacity, nowNanos));
+    }
+
+    /**
+     * Takes one token if available. Returns the tokens left, or a negative
+     * value when the request must wait: minus the nanoseconds until the next token.
+     */
+    double tryConsume(long nowNanos) {
+        while (true) {
+            State current = state.get();
+            double available = Math.min(capacity,
+                    current.tokens + Math.max(0, nowNanos - current.updatedNanos) * tokensPerNano);
+            if (available < 1) {
+                return -Math.max(1, (1 - available) / tokensPerNano);
+            }
+            if (state.compareAndSet(current, new State(available - 1, nowNanos))) {
+                return available - 1;
+            }
+        }
+    }
+
+    int capacity() {
+        return capacity;
+    }
+
+    private record State(double tokens, long updatedNanos) {
+    }
+}
@@ -0,0 +1,40 @@
+package com.smartattendance.backend.repository;
+
+import com.smartattendance.backend.entity.AttendanceImportJob;
+import com.smartattendance.backend.enums.ImportJobStatus;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+@Repository
+public interface AttendanceImportJobRepository extends JpaRepository<AttendanceImportJob, Long> {
+
+    Optional<AttendanceImportJob> findByIdAndOrganisationId(Long id, Long organisationId);
+
+    // Locked so two uploads cannot resume the same job at once
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT j FROM AttendanceImportJob j WHERE j.id = :id AND j.organisation.id = :organisationId")
+    Optional<AttendanceImportJob> lockByIdAndOrganisationId(@Param("id") Long id,
+                                                            @Param("organisationId") Long organisationId);
+
+    @Modifying
+    @Query("UPDATE AttendanceImportJob j SET j.rowsCommitted = :rows, j.checkpointDigest = :digest, "
+            + "j.imported = :imported, j.skipped = :skipped, j.failed = :failed, j.updatedAt = :now "
+            + "WHERE j.id = :id")
+    int checkpoint(@Param("id") Long id, @Param("rows") long rows, @Param("digest") String digest,
+                   @Param("imported") long imported, @Param("skipped") long skipped,
+                   @Param("failed") long failed, @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query("UPDATE AttendanceImportJob j SET j.status = :status, j.lastError = :error, "
+            + "j.finishedAt = :now, j.updatedAt = :now WHERE j.id = :id")
+    int finish(@Param("id") Long id, @Param("status") ImportJobStatus status,
+               @Param("error") String error, @Param("now") LocalDateTime now);
+}
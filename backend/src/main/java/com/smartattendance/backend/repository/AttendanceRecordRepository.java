@@ -1,32 +1,63 @@
 package com.smartattendance.backend.repository;
 
-import com.smartattendance.backend.entity.AttendanceRecord;
+import com.smartattendance.backend.dto.AttendanceDay;
+import com.smartattendance.backend.dto.AttendanceRecordResponse;
 import com.smartattendance.backend.entity.AttendanceRecord;
 import com.smartattendance.backend.entity.Organisation;
 import com.smartattendance.backend.entity.Users;
 import com.smartattendance.backend.enums.AttendanceMethod;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface AttendanceRecordRepository extends JpaRepository<AttendanceRecord, Long> {
+    // Finders that feed toResponse() fetch the user up front; there is no open session to lazy-load it later
+    @Override
+    @EntityGraph(attributePaths = "user")
+    List<AttendanceRecord> findAll();
+
+    @EntityGraph(attributePaths = "user")
     List<AttendanceRecord> findByUserAndAttendanceDateBetween(Users user, LocalDateTime start, LocalDateTime end);
 
+    @EntityGraph(attributePaths = "user")
     Optional<AttendanceRecord> findByIdAndDeletedFalse(Long id);
 
+    @EntityGraph(attributePaths = "user")
     List<AttendanceRecord> findByDeletedFalse();
 
-    @Query("SELECT ar FROM AttendanceRecord ar WHERE ar.user.organisation = :organisation AND ar.deleted = false")
+    @EntityGraph(attributePaths = "user")
+    List<AttendanceRecord> findByAttendanceDateBetweenAndDeletedFalse(LocalDateTime start, LocalDateTime end);
+
+    @Query("SELECT new com.smartattendance.backend.dto.AttendanceDay(u.id, u.organisation.id, ar.attendanceDate) " +
+            "FROM AttendanceRecord ar JOIN ar.user u WHERE ar.deleted = false")
+    Stream<AttendanceDay> streamAttendanceDays();
+
+    // Rows come straight from a cursor (useCursorFetch on the MySQL reporting pool) as DTOs, so nothing piles up in the session
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("SELECT new com.smartattendance.backend.dto.AttendanceRecordResponse(ar.id, ar.checkInTime, " +
+            "ar.checkInMethod, ar.checkOutTime, ar.checkOutMethod, ar.autoClosed, ar.latitude, ar.longitude, " +
+            "ar.attendanceDate, ar.createdAt, ar.updatedAt, u.id, CONCAT(u.firstName, ' ', u.lastName), u.email) " +
+            "FROM AttendanceRecord ar JOIN ar.user u WHERE ar.organisation = :organisation AND ar.deleted = false")
+    Stream<AttendanceRecordResponse> streamResponsesByOrganisation(@Param("organisation") Organisation organisation);
+
+    @EntityGraph(attributePaths = "user")
+    @Query("SELECT ar FROM AttendanceRecord ar WHERE ar.organisation = :organisation AND ar.deleted = false")
     List<AttendanceRecord> findByOrganisationAndNotDeleted(@Param("organisation") Organisation organisation);
 
+    @EntityGraph(attributePaths = "user")
     @Query("SELECT ar FROM AttendanceRecord ar WHERE ar.user = :user " +
             "AND ar.deleted = false " +
             "AND DATE(ar.attendanceDate) = DATE(:date)")
@@ -38,6 +69,7 @@ public interface AttendanceRecordRepository extends JpaRepository<AttendanceReco
             "AND DATE(ar.attendanceDate) = DATE(:today)")
     boolean hasCheckedInToday(@Param("user") Users user, @Param("today") LocalDateTime today);
 
+    @EntityGraph(attributePaths = "user")
     @Query("SELECT a FROM AttendanceRecord a " +
             "WHERE a.user = :user AND a.deleted = false " +
             "ORDER BY a.attendanceDate DESC, a.checkInTime DESC")
@@ -46,9 +78,16 @@ public interface AttendanceRecordRepository extends JpaRepository<AttendanceReco
             Pageable pageable
     );
 
+    @EntityGraph(attributePaths = "user")
     @Query("SELECT a FROM AttendanceRecord a WHERE a.user = :user AND a.deleted = false ORDER BY a.attendanceDate DESC")
     Page<AttendanceRecord> findAllByUser(@Param("user") Users user, Pageable pageable);
 
+    // Newest first, each row carrying the user's total so a page and its count cost one round trip
+    @Query("SELECT a, COUNT(a) OVER () FROM AttendanceRecord a WHERE a.user = :user AND a.deleted = false " +
+            "ORDER BY a.attendanceDate DESC, a.checkInTime DESC")
+    List<Object[]> findLatestWithTotalByUser(@Param("user") Users user, Pageable pageable);
+
+    @EntityGraph(attributePaths = "user")
     @Query("SELECT a FROM AttendanceRecord a WHERE a.user = :user " +
             "AND a.deleted = false " +
             "AND a.attendanceDate BETWEEN :start AND :end " +
@@ -62,8 +101,9 @@ public interface AttendanceRecordRepository extends JpaRepository<AttendanceReco
             Pageable pageable
     );
 
+    @EntityGraph(attributePaths = "user")
     @Query("SELECT a FROM AttendanceRecord a WHERE a.deleted = false " +
-            "AND a.user.organisation = :organisation " +
+            "AND a.organisation = :organisation " +
             "AND a.attendanceDate BETWEEN :start AND :end " +
             "AND (:userId IS NULL OR a.user.id = :userId) " +
             "ORDER BY a.attendanceDate DESC")
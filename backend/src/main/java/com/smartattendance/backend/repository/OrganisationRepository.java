@@ -2,6 +2,7 @@ package com.smartattendance.backend.repository;
 
 import com.smartattendance.backend.entity.Organisation;
 import com.smartattendance.backend.entity.Users;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
@@ -12,8 +13,17 @@ import java.util.Optional;
 public interface OrganisationRepository extends JpaRepository<Organisation, Long> {
     Optional <Organisation> findByIdAndDeletedFalse(Long id);
 
+    @EntityGraph(attributePaths = "createdBy")
     List<Organisation> findByDeletedFalse();
 
+    @Override
+    @EntityGraph(attributePaths = "createdBy")
+    List<Organisation> findAll();
+
+    // For responses that show the creator; plain findById stays on the second-level cache
+    @EntityGraph(attributePaths = "createdBy")
+    Optional<Organisation> findWithCreatorById(Long id);
+
 
 }
 
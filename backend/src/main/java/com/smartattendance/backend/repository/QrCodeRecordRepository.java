@@ -3,6 +3,7 @@ package com.smartattendance.backend.repository;
 import com.smartattendance.backend.entity.Organisation;
 import com.smartattendance.backend.entity.QrCodeRecord;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -17,5 +18,8 @@ public interface QrCodeRecordRepository extends JpaRepository<QrCodeRecord, Long
     List<QrCodeRecord> findByActiveTrueAndIsAutoGeneratingTrue();
 
     boolean existsByOrganisationAndActiveTrueAndIsAutoGeneratingTrue(Organisation organisation);
+
+    @Query("SELECT q.organisation.id, COUNT(q) FROM QrCodeRecord q WHERE q.active = true GROUP BY q.organisation.id")
+    List<Object[]> countActiveByOrganisation();
 }
 
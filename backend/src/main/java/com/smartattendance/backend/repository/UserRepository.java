@@ -1,49 +1,71 @@
 package com.smartattendance.backend.repository;
 
+import com.smartattendance.backend.dto.UserResponse;
 import com.smartattendance.backend.entity.Users;
 import com.smartattendance.backend.entity.Organisation;
 import com.smartattendance.backend.enums.RoleType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
-public interface UserRepository extends JpaRepository<Users, Long> {
+public interface UserRepository extends JpaRepository<Users, Long>, UserRepositoryCustom {
 
+    @EntityGraph(attributePaths = "organisation")
     Optional<Users> findByEmail(String email);
 
+    @EntityGraph(attributePaths = "organisation")
     List<Users> findByEmailAndOrganisation(String email, Organisation org);
 
+    @EntityGraph(attributePaths = "organisation")
     List<Users> findByOrganisation(Organisation organisation);
 
+    @EntityGraph(attributePaths = "organisation")
     @Query("SELECT u FROM Users u WHERE LOWER(CONCAT(u.firstName, ' ', u.lastName)) LIKE LOWER(CONCAT('%', :name, '%'))")
     List<Users> searchByName(@Param("name") String name);
 
+    @EntityGraph(attributePaths = "organisation")
     List<Users> findByDeletedFalse();
 
+    @EntityGraph(attributePaths = "organisation")
     Optional<Users> findByIdAndDeletedFalse(Long id);
 
+    @EntityGraph(attributePaths = "organisation")
     Optional<Users> findByEmailAndDeletedFalse(String email);
 
+    @EntityGraph(attributePaths = "organisation")
     List<Users> findByOrganisationAndDeletedFalse(Organisation organisation);
 
+    // Cursor-backed DTO rows for the organisation-wide listing, see AttendanceRecordRepository
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("SELECT new com.smartattendance.backend.dto.UserResponse(u.id, u.firstName, u.lastName, u.email, " +
+            "u.role, o.id, o.name, u.createdAt) " +
+            "FROM Users u JOIN u.organisation o WHERE o = :organisation AND u.deleted = false")
+    Stream<UserResponse> streamResponsesByOrganisation(@Param("organisation") Organisation organisation);
+
+    @EntityGraph(attributePaths = "organisation")
     @Query("SELECT u FROM Users u WHERE u.deleted = false AND LOWER(CONCAT(u.firstName, ' ', u.lastName)) LIKE LOWER(CONCAT('%', :name, '%'))")
     List<Users> searchByNameAndNotDeleted(@Param("name") String name);
 
+    @EntityGraph(attributePaths = "organisation")
     Optional<Users> findByEmailAndOrganisationAndDeletedFalse(String email, Organisation organisation);
 
+    @EntityGraph(attributePaths = "organisation")
     Optional<Users> findByIdAndOrganisation(Long id, Organisation organisation);
 
-    @Query("SELECT u FROM Users u " +
-            "WHERE u.deleted = false " +
-            "AND u.organisation = :organisation " +
-            "AND LOWER(CONCAT(u.firstName, ' ', u.lastName)) LIKE LOWER(CONCAT('%', :name, '%'))")
-    List<Users> searchByNameAndOrganisation(@Param("name") String name,
-                                            @Param("organisation") Organisation organisation);
+    @EntityGraph(attributePaths = "organisation")
+    List<Users> findByOrganisationAndEmailIn(Organisation organisation, Collection<String> emails);
+
     boolean existsByEmailAndDeletedFalse(String email);
 
     //  Check if email exists in specific org
@@ -0,0 +1,14 @@
+package com.smartattendance.backend.repository;
+
+import com.smartattendance.backend.entity.Users;
+
+import java.util.Optional;
+
+public interface UserRepositoryCustom {
+
+    /**
+     * Look a user up by email through the natural-id cache, falling back to the
+     * database only on a cache miss. Deleted users are returned as well.
+     */
+    Optional<Users> findCachedByEmail(String email);
+}
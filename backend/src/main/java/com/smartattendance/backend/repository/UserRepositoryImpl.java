@@ -0,0 +1,23 @@
+package com.smartattendance.backend.repository;
+
+import com.smartattendance.backend.entity.Users;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.Session;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Optional;
+
+public class UserRepositoryImpl implements UserRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    @Transactional(readOnly = true)
+    public Optional<Users> findCachedByEmail(String email) {
+        return entityManager.unwrap(Session.class)
+                .bySimpleNaturalId(Users.class)
+                .loadOptional(email);
+    }
+}
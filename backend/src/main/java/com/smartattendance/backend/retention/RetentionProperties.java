@@ -0,0 +1,39 @@
+package com.smartattendance.backend.retention;
+
+import com.smartattendance.backend.enums.RetentionMode;
+import com.smartattendance.backend.enums.RetentionTarget;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * attendance.retention.* — how long reclaimable rows stay in the hot tables
+ * and how hard the job may work at once.
+ */
+@Data
+@ConfigurationProperties(prefix = "attendance.retention")
+public class RetentionProperties {
+
+    private boolean enabled = true;
+
+    // Rows handled per transaction; keeps row locks short
+    private int chunkSize = 500;
+
+    // Sleep between chunks so replication and foreground traffic keep up
+    private long pauseMs = 100;
+
+    // The run stops after this long and continues on the next schedule
+    private long maxRunSeconds = 1800;
+
+    private Map<RetentionTarget, Policy> policies = new EnumMap<>(RetentionTarget.class);
+
+    @Data
+    public static class Policy {
+        private boolean enabled = true;
+        // Inactive (QR codes) or soft-deleted (everything else) for at least this long
+        private int afterDays = 90;
+        private RetentionMode mode = RetentionMode.ARCHIVE;
+    }
+}
@@ -0,0 +1,292 @@
+package com.smartattendance.backend.retention;
+
+import com.smartattendance.backend.datasource.ReadFromPrimary;
+import com.smartattendance.backend.datasource.UseConnectionPool;
+import com.smartattendance.backend.dto.RetentionReport;
+import com.smartattendance.backend.dto.RetentionReport.TargetResult;
+import com.smartattendance.backend.enums.ConnectionPoolType;
+import com.smartattendance.backend.enums.RetentionMode;
+import com.smartattendance.backend.enums.RetentionTarget;
+import com.smartattendance.backend.service.AttendanceVersionTracker;
+import com.smartattendance.backend.service.ReferenceDataCache;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Reclaims rows that no query serves any more: inactive QR codes past their
+ * retention window, and soft-deleted attendance records, users and
+ * organisations past their grace period. Depending on the policy a row is
+ * copied to its *_archive table first or just deleted.
+ *
+ * Work is done in keyed chunks (id order, chunk-size rows) with one short
+ * transaction per chunk and a pause in between, so locks are held briefly
+ * and replicas keep up. The candidate condition is re-checked under lock in
+ * each chunk, so a row restored in the meantime is left alone. A run stops
+ * at max-run-seconds and the next run continues where the data left off.
+ *
+ * Soft-deleting only sets is_deleted and refreshes updated_at, so updated_at
+ * is taken as the deletion time. Users of a deleted organisation are retired
+ * with it, as are the organisation's attendance records. Deleting a user
+ * alone leaves their records live, so a user is only removed once no
+ * attendance records or QR codes reference them, and an organisation once
+ * it has no users, attendance records or QR codes; anything else that
+ * points at them (tokens, absences, day-close runs, import jobs) is removed
+ * or unlinked in the same chunk.
+ */
+@Service
+@Slf4j
+public class RetentionService {
+
+    private static final LocalDateTime NEVER = LocalDateTime.of(1970, 1, 1, 0, 0);
+
+    private static final String RETIRED_ORGANISATIONS = "SELECT o.id FROM organisations o "
+            + "WHERE o.is_deleted = TRUE AND o.updated_at < :organisationCutoff";
+
+    private static final String RETIRED_USERS = "SELECT u.id FROM users u "
+            + "WHERE (u.is_deleted = TRUE AND u.updated_at < :userCutoff) "
+            + "OR u.organization_id IN (" + RETIRED_ORGANISATIONS + ")";
+
+    private static final Map<RetentionTarget, Spec> SPECS = Map.of(
+            RetentionTarget.QR_CODES, new Spec("qr_code_records",
+                    "((active = FALSE AND (COALESCE(expires_at, created_at) < :qrCutoff "
+                            + "OR created_by_admin_id IN (" + RETIRED_USERS + "))) "
+                            + "OR organisation_id IN (" + RETIRED_ORGANISATIONS + "))",
+                    "qr_code_records_archive",
+                    "id, code, organisation_id, created_by_admin_id, expires_at, scan_count, created_at",
+                    null, List.of()),
+            RetentionTarget.ATTENDANCE_RECORDS, new Spec("attendance_records",
+                    "((is_deleted = TRUE AND updated_at < :recordCutoff) "
+                            + "OR organisation_id IN (" + RETIRED_ORGANISATIONS + "))",
+                    "attendance_records_archive",
+                    "id, user_id, organisation_id, check_in_time, check_out_time, latitude, longitude, "
+                            + "check_in_method, check_out_method, attendance_date, auto_closed, is_deleted, "
+                            + "created_at, updated_at",
+                    "organisation_id", List.of()),
+            RetentionTarget.USERS, new Spec("users",
+                    "((is_deleted = TRUE AND updated_at < :userCutoff) "
+                            + "OR organization_id IN (" + RETIRED_ORGANISATIONS + ")) "
+                            + "AND NOT EXISTS (SELECT 1 FROM attendance_records r WHERE r.user_id = users.id) "
+                            + "AND NOT EXISTS (SELECT 1 FROM qr_code_records q WHERE q.created_by_admin_id = users.id)",
+                    "users_archive",
+                    "id, first_name, last_name, email, role, organization_id, status, last_login, created_at, updated_at",
+                    "organization_id", List.of("DELETE FROM refresh_tokens WHERE user_id IN (:ids)",
+                            "DELETE FROM attendance_absences WHERE user_id IN (:ids)",
+                            "UPDATE attendance_import_jobs SET started_by_id = NULL WHERE started_by_id IN (:ids)",
+                            "UPDATE organisations SET created_by_id = NULL WHERE created_by_id IN (:ids)")),
+            RetentionTarget.ORGANISATIONS, new Spec("organisations",
+                    "is_deleted = TRUE AND updated_at < :organisationCutoff "
+                            + "AND NOT EXISTS (SELECT 1 FROM users u WHERE u.organization_id = organisations.id) "
+                            + "AND NOT EXISTS (SELECT 1 FROM attendance_records r WHERE r.organisation_id = organisations.id) "
+                            + "AND NOT EXISTS (SELECT 1 FROM qr_code_records q WHERE q.organisation_id = organisations.id)",
+                    "organisations_archive",
+                    "id, name, location, latitude, longitude, contact_email, contact_phone, start_work_time, "
+                            + "time_zone, created_by_id, created_at, updated_at",
+                    "id", List.of("DELETE FROM attendance_absences WHERE organisation_id IN (:ids)",
+                            "DELETE FROM day_close_runs WHERE organisation_id IN (:ids)",
+                            "DELETE FROM attendance_import_jobs WHERE organisation_id IN (:ids)"))
+    );
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ReferenceDataCache referenceDataCache;
+    private final AttendanceVersionTracker attendanceVersionTracker;
+    private final RetentionProperties properties;
+    private final MeterRegistry meterRegistry;
+    private final AtomicBoolean running = new AtomicBoolean();
+    private final AtomicReference<RetentionReport> lastReport = new AtomicReference<>();
+
+    public RetentionService(NamedParameterJdbcTemplate jdbcTemplate,
+                            PlatformTransactionManager transactionManager,
+                            ReferenceDataCache referenceDataCache,
+                            AttendanceVersionTracker attendanceVersionTracker,
+                            RetentionProperties properties,
+                            MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.referenceDataCache = referenceDataCache;
+        this.attendanceVersionTracker = attendanceVersionTracker;
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+    }
+
+    // organisationColumn: whose attendance views change when a row goes, or null if none do
+    private record Spec(String table, String condition, String archiveTable, String archiveColumns,
+                        String organisationColumn, List<String> dependents) {}
+
+    /**
+     * One retention pass over every enabled target, in dependency order.
+     * Returns null if a run is already in progress on this instance.
+     */
+    @UseConnectionPool(ConnectionPoolType.REPORTING)
+    @ReadFromPrimary
+    public RetentionReport run() {
+        if (!running.compareAndSet(false, true)) {
+            return null;
+        }
+        try {
+            LocalDateTime startedAt = LocalDateTime.now();
+            long started = System.nanoTime();
+            long deadline = started + Duration.ofSeconds(properties.getMaxRunSeconds()).toNanos();
+            MapSqlParameterSource cutoffs = cutoffs(startedAt);
+
+            List<TargetResult> results = new ArrayList<>();
+            for (RetentionTarget target : RetentionTarget.values()) {
+                RetentionProperties.Policy policy = properties.getPolicies().get(target);
+                if (policy != null && policy.isEnabled()) {
+                    results.add(reclaim(target, policy.getMode(), cutoffs, deadline));
+                }
+            }
+
+            RetentionReport report = new RetentionReport(startedAt,
+                    Duration.ofNanos(System.nanoTime() - started).toMillis(), List.copyOf(results));
+            lastReport.set(report);
+            log.info("Retention run reclaimed {} rows in {} ms: {}", report.totalRows(), report.durationMillis(),
+                    results.stream().map(result -> result.target() + "=" + result.rows()).toList());
+            return report;
+        } finally {
+            running.set(false);
+        }
+    }
+
+    public RetentionReport getLastReport() {
+        return lastReport.get();
+    }
+
+    private TargetResult reclaim(RetentionTarget target, RetentionMode mode, MapSqlParameterSource cutoffs,
+                                 long deadline) {
+        Spec spec = SPECS.get(target);
+        String select = "SELECT id FROM " + spec.table() + " WHERE " + spec.condition()
+                + " AND id > :after ORDER BY id LIMIT :limit";
+        int chunkSize = Math.max(properties.getChunkSize(), 1);
+        long after = 0;
+        long rows = 0;
+        int chunks = 0;
+
+        try {
+            while (System.nanoTime() < deadline) {
+                MapSqlParameterSource params = new MapSqlParameterSource(cutoffs.getValues())
+                        .addValue("after", after)
+                        .addValue("limit", chunkSize);
+                List<Long> candidates = transactionTemplate.execute(status ->
+                        jdbcTemplate.queryForList(select, params, Long.class));
+                if (candidates.isEmpty()) {
+                    return result(target, mode, rows, chunks, true);
+                }
+
+                List<Long> reclaimed = transactionTemplate.execute(status ->
+                        reclaimChunk(spec, mode, candidates, cutoffs));
+                rows += reclaimed.size();
+                chunks++;
+                evict(target, reclaimed);
+                if (candidates.size() < chunkSize) {
+                    return result(target, mode, rows, chunks, true);
+                }
+                after = candidates.get(candidates.size() - 1);
+                pause();
+            }
+        } catch (DataAccessException e) {
+            log.warn("Retention of {} stopped after {} rows: {}", target, rows, e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return result(target, mode, rows, chunks, false);
+    }
+
+    private List<Long> reclaimChunk(Spec spec, RetentionMode mode, List<Long> candidates,
+                                    MapSqlParameterSource cutoffs) {
+        MapSqlParameterSource params = new MapSqlParameterSource(cutoffs.getValues())
+                .addValue("ids", candidates);
+        // Re-check under lock: a row may have been restored or gained a reference since it was selected
+        List<Long> ids = jdbcTemplate.queryForList("SELECT id FROM " + spec.table() + " WHERE id IN (:ids) AND "
+                + spec.condition() + " FOR UPDATE", params, Long.class);
+        if (ids.isEmpty()) {
+            return ids;
+        }
+
+        MapSqlParameterSource locked = new MapSqlParameterSource("ids", ids)
+                .addValue("archivedAt", Timestamp.valueOf(LocalDateTime.now()));
+        if (mode == RetentionMode.ARCHIVE) {
+            jdbcTemplate.update("INSERT INTO " + spec.archiveTable() + " (" + spec.archiveColumns()
+                    + ", archived_at) SELECT " + spec.archiveColumns() + ", :archivedAt FROM " + spec.table()
+                    + " WHERE id IN (:ids)", locked);
+        }
+        if (spec.organisationColumn() != null) {
+            // Bumped once this chunk commits, so conditional GETs stop answering 304 for the removed rows
+            jdbcTemplate.queryForList("SELECT DISTINCT " + spec.organisationColumn() + " FROM " + spec.table()
+                            + " WHERE id IN (:ids) AND " + spec.organisationColumn() + " IS NOT NULL", locked, Long.class)
+                    .forEach(attendanceVersionTracker::recordOrganisationWrite);
+        }
+        for (String dependent : spec.dependents()) {
+            jdbcTemplate.update(dependent, locked);
+        }
+        jdbcTemplate.update("DELETE FROM " + spec.table() + " WHERE id IN (:ids)", locked);
+        return ids;
+    }
+
+    private MapSqlParameterSource cutoffs(LocalDateTime now) {
+        return new MapSqlParameterSource()
+                .addValue("qrCutoff", cutoff(RetentionTarget.QR_CODES, now))
+                .addValue("recordCutoff", cutoff(RetentionTarget.ATTENDANCE_RECORDS, now))
+                .addValue("userCutoff", cutoff(RetentionTarget.USERS, now))
+                .addValue("organisationCutoff", cutoff(RetentionTarget.ORGANISATIONS, now));
+    }
+
+    // A disabled target gets a cutoff nothing is older than, so it retires nothing for the others either
+    private Timestamp cutoff(RetentionTarget target, LocalDateTime now) {
+        RetentionProperties.Policy policy = properties.getPolicies().get(target);
+        if (policy == null || !policy.isEnabled()) {
+            return Timestamp.valueOf(NEVER);
+        }
+        return Timestamp.valueOf(now.minusDays(policy.getAfterDays()));
+    }
+
+    private void evict(RetentionTarget target, List<Long> ids) {
+        switch (target) {
+            case USERS -> {
+                ids.forEach(referenceDataCache::evictUser);
+                if (!ids.isEmpty()) {
+                    // Their emails may be reused, and organisations they created lost created_by
+                    referenceDataCache.evictUserEmails();
+                    referenceDataCache.evictOrganisations();
+                }
+            }
+            case ORGANISATIONS -> ids.forEach(referenceDataCache::evictOrganisation);
+            default -> { }
+        }
+    }
+
+    private void pause() throws InterruptedException {
+        if (properties.getPauseMs() > 0) {
+            Thread.sleep(properties.getPauseMs());
+        }
+    }
+
+    private TargetResult result(RetentionTarget target, RetentionMode mode, long rows, int chunks,
+                                boolean complete) {
+        if (rows > 0) {
+            Counter.builder("attendance.retention.rows")
+                    .description("Rows reclaimed by the retention job")
+                    .tag("target", target.name().toLowerCase())
+                    .tag("mode", mode.name().toLowerCase())
+                    .register(meterRegistry)
+                    .increment(rows);
+        }
+        return new TargetResult(target, mode, rows, chunks, complete);
+    }
+}
@@ -0,0 +1,104 @@
+package com.smartattendance.backend.scheduler;
+
+import com.smartattendance.backend.service.DayCloseService;
+import com.smartattendance.backend.service.DayCloseService.DayCloseResult;
+import com.smartattendance.backend.service.DayCloseService.OrganisationDay;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Closes ended days for every organisation. Organisations are independent
+ * and run in parallel; within one organisation days close oldest first. A
+ * failing organisation is logged and picked up again on the next run.
+ */
+@Component
+@Slf4j
+public class DayCloseScheduler {
+
+    private final DayCloseService dayCloseService;
+    private final ExecutorService executor;
+    private final Timer runTimer;
+    private final boolean enabled;
+
+    public DayCloseScheduler(DayCloseService dayCloseService,
+                             MeterRegistry meterRegistry,
+                             @Value("${attendance.day-close.enabled:true}") boolean enabled,
+                             @Value("${attendance.day-close.threads:4}") int threads) {
+        this.dayCloseService = dayCloseService;
+        this.enabled = enabled;
+        AtomicInteger threadIds = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(Math.max(threads, 1), runnable -> {
+            Thread thread = new Thread(runnable, "day-close-" + threadIds.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.runTimer = Timer.builder("attendance.day-close.duration")
+                .description("Time taken to close all due organisation days")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(cron = "${attendance.day-close.cron:0 */15 * * * *}")
+    public void closeEndedDays() {
+        if (!enabled) {
+            return;
+        }
+        runTimer.record(() -> {
+            List<OrganisationDay> due = dayCloseService.findDueDays(Instant.now());
+            if (due.isEmpty()) {
+                return;
+            }
+            List<DayCloseResult> results = closeAll(due);
+            log.info("Day close: {} organisation days closed, {} sessions checked out, {} absences recorded",
+                    results.stream().filter(result -> !result.alreadyClosed()).count(),
+                    results.stream().mapToInt(DayCloseResult::closedSessions).sum(),
+                    results.stream().mapToInt(DayCloseResult::absentees).sum());
+        });
+    }
+
+    /** Closes the given days, one task per organisation. */
+    public List<DayCloseResult> closeAll(List<OrganisationDay> days) {
+        Map<Long, List<OrganisationDay>> byOrganisation = new LinkedHashMap<>();
+        days.forEach(day -> byOrganisation.computeIfAbsent(day.organisationId(), id -> new ArrayList<>()).add(day));
+
+        List<CompletableFuture<List<DayCloseResult>>> tasks = byOrganisation.values().stream()
+                .map(organisationDays -> CompletableFuture.supplyAsync(() -> closeInOrder(organisationDays), executor))
+                .toList();
+        return tasks.stream()
+                .flatMap(task -> task.join().stream())
+                .toList();
+    }
+
+    private List<DayCloseResult> closeInOrder(List<OrganisationDay> days) {
+        List<DayCloseResult> results = new ArrayList<>();
+        for (OrganisationDay day : days) {
+            try {
+                results.add(dayCloseService.closeDay(day));
+            } catch (RuntimeException e) {
+                // Later days wait until this one has closed
+                log.warn("Day close failed for organisation {} on {}, will retry", day.organisationId(), day.date(), e);
+                break;
+            }
+        }
+        return results;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+}
@@ -2,6 +2,7 @@ package com.smartattendance.backend.scheduler;
 
 import com.smartattendance.backend.entity.Organisation;
 import com.smartattendance.backend.entity.QrCodeRecord;
+import com.smartattendance.backend.metrics.AttendanceMetrics;
 import com.smartattendance.backend.repository.QrCodeRecordRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -20,11 +21,25 @@ import java.util.stream.Collectors;
 public class QrCodeAutoGenerationScheduler {
 
     private final QrCodeRecordRepository qrCodeRepository;
+    private final AttendanceMetrics attendanceMetrics;
 
     // Runs every 5 minutes (300,000 milliseconds)
     // This job is now ONLY responsible for cleaning up expired codes.
     @Scheduled(fixedRate = 300000)
     public void deactivateExpiredQrCodes() {
+        attendanceMetrics.timeQrSweep(this::sweepExpiredQrCodes);
+        refreshActiveQrCodeGauge();
+    }
+
+    // Keeps the per-organisation active QR gauge current between sweeps
+    @Scheduled(fixedRate = 30000)
+    public void refreshActiveQrCodeGauge() {
+        Map<Long, Long> counts = qrCodeRepository.countActiveByOrganisation().stream()
+                .collect(Collectors.toMap(row -> (Long) row[0], row -> (Long) row[1]));
+        attendanceMetrics.updateActiveQrCodes(counts);
+    }
+
+    private void sweepExpiredQrCodes() {
         // Find all active QR codes that were set for auto-generation.
         // NOTE: This repository query does not sort. We rely on the service layer to handle the current/new code.
         List<QrCodeRecord> activeAutoGenQrs = qrCodeRepository
@@ -0,0 +1,34 @@
+package com.smartattendance.backend.scheduler;
+
+import com.smartattendance.backend.retention.RetentionProperties;
+import com.smartattendance.backend.retention.RetentionService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Nightly retention pass; see RetentionService.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class RetentionScheduler {
+
+    private final RetentionService retentionService;
+    private final RetentionProperties properties;
+
+    @Scheduled(cron = "${attendance.retention.cron:0 30 2 * * *}")
+    public void reclaim() {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        try {
+            if (retentionService.run() == null) {
+                log.info("Retention run skipped, previous run still in progress");
+            }
+        } catch (Exception e) {
+            log.error("Retention run failed", e);
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package com.smartattendance.backend.security;
 
+import com.smartattendance.backend.metrics.AttendanceMetrics;
 import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
@@ -24,6 +25,7 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     private final JwtUtil jwtUtil;
     private final CustomUserDetailsService customUserDetailsService;
+    private final AttendanceMetrics attendanceMetrics;
 
     @Override
     protected void doFilterInternal(
@@ -32,6 +34,8 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
             FilterChain filterChain
     ) throws ServletException, IOException {
 
+        long start = System.nanoTime();
+        String outcome = "none";
         String jwt = getJwtFromRequest(request);
 
         // Check if token exists and is valid before processing
@@ -61,16 +65,22 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
                 authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
 
                 SecurityContextHolder.getContext().setAuthentication(authentication);
+                outcome = "authenticated";
                 log.debug("Authenticated user: {} | Current Org ID: {}", email, currentOrgId);
 
             } catch (Exception ex) {
                 // Catch exceptions during user loading/context setup (e.g., DisabledException)
+                outcome = "rejected";
                 log.error("Authentication setup failed for user with token", ex);
                 // We let the request proceed with an empty context, which will be caught by
                 // .anyRequest().authenticated() and result in 403/401
             }
+        } else if (StringUtils.hasText(jwt)) {
+            outcome = "rejected";
         }
 
+        attendanceMetrics.recordJwtFilter(System.nanoTime() - start, outcome);
+
         // This is the CRITICAL step. The request proceeds. If context is empty,
         // Spring Security will reject it based on configuration.
         filterChain.doFilter(request, response);
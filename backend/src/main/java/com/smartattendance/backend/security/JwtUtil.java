@@ -21,6 +21,13 @@ public class JwtUtil {
     @Value("${jwt.expiration}")
     private Long expiration;
 
+    /**
+     * Access token lifetime in milliseconds
+     */
+    public long getExpiration() {
+        return expiration;
+    }
+
     /**
      * Generate JWT token from user details
      */
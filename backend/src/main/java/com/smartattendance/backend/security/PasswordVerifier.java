@@ -0,0 +1,82 @@
+package com.smartattendance.backend.security;
+
+import com.smartattendance.backend.exception.LoginBusyException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs BCrypt comparisons on a small fixed pool with a bounded queue. A
+ * login storm then queues here instead of pinning every request thread,
+ * and once the queue is full further logins are turned away immediately.
+ */
+@Component
+@Slf4j
+public class PasswordVerifier {
+
+    private final PasswordEncoder passwordEncoder;
+    private final ThreadPoolExecutor pool;
+    private final ExecutorService executor;
+    private final Counter rejected;
+    // Compared against when the email is unknown so both outcomes take as long
+    private final String unknownUserHash;
+
+    public PasswordVerifier(PasswordEncoder passwordEncoder,
+                            MeterRegistry meterRegistry,
+                            @Value("${attendance.auth.hash-threads:0}") int threads,
+                            @Value("${attendance.auth.hash-queue:100}") int queueCapacity) {
+        this.passwordEncoder = passwordEncoder;
+        int size = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        AtomicInteger threadIds = new AtomicInteger();
+        this.pool = new ThreadPoolExecutor(size, size, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "password-hash-" + threadIds.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+        this.executor = ExecutorServiceMetrics.monitor(meterRegistry, pool, "password.hash");
+        this.rejected = Counter.builder("attendance.auth.hash.rejected")
+                .description("Logins turned away because the password hashing queue was full")
+                .register(meterRegistry);
+        this.unknownUserHash = passwordEncoder.encode("unknown-user-" + System.nanoTime());
+        log.info("Password hashing pool: {} threads, queue of {}", size, queueCapacity);
+    }
+
+    /**
+     * Completes with whether the raw password matches; a null hash (unknown
+     * user) is checked against a throwaway hash and never matches.
+     */
+    public CompletableFuture<Boolean> matches(String rawPassword, String encodedPassword) {
+        try {
+            return CompletableFuture.supplyAsync(() -> {
+                boolean matches = passwordEncoder.matches(rawPassword,
+                        encodedPassword != null ? encodedPassword : unknownUserHash);
+                return matches && encodedPassword != null;
+            }, executor);
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            return CompletableFuture.failedFuture(
+                    new LoginBusyException("Too many logins in progress, please retry shortly", e));
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        pool.shutdown();
+    }
+}
@@ -0,0 +1,393 @@
+package com.smartattendance.backend.service;
+
+import com.smartattendance.backend.datasource.ReadFromPrimary;
+import com.smartattendance.backend.datasource.UseConnectionPool;
+import com.smartattendance.backend.dto.AttendanceDay;
+import com.smartattendance.backend.dto.UserAttendanceStats;
+import com.smartattendance.backend.entity.Users;
+import com.smartattendance.backend.enums.ConnectionPoolType;
+import com.smartattendance.backend.enums.SetOperation;
+import com.smartattendance.backend.repository.AttendanceRecordRepository;
+import com.smartattendance.backend.repository.UserRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * In-memory bitmap index of attendance history: one bit per calendar day per
+ * (organisation, user), set when the user has a non-deleted attendance record
+ * on that day.
+ *
+ * Each user's bitmap only stores words from its first attended day onwards,
+ * so a year of history costs a few dozen bytes per user. Cohort, streak and
+ * rate questions are answered from here without going back to MySQL.
+ * Weekends are not counted as work days.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class AttendanceHistoryIndex {
+
+    private final AttendanceRecordRepository attendanceRecordRepository;
+    private final UserRepository userRepository;
+
+    // Swapped in one assignment on rebuild; never cleared in place
+    private volatile ConcurrentMap<Long, OrganisationIndex> organisations = new ConcurrentHashMap<>();
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    @UseConnectionPool(ConnectionPoolType.REPORTING)
+    @ReadFromPrimary
+    public void rebuild() {
+        ConcurrentMap<Long, OrganisationIndex> rebuilt = new ConcurrentHashMap<>();
+
+        for (Users user : userRepository.findByDeletedFalse()) {
+            if (user.getOrganisation() != null) {
+                rebuilt.computeIfAbsent(user.getOrganisation().getId(), id -> new OrganisationIndex())
+                        .register(user.getId());
+            }
+        }
+
+        AtomicLong indexed = new AtomicLong();
+        try (Stream<AttendanceDay> days = attendanceRecordRepository.streamAttendanceDays()) {
+            days.forEach(day -> {
+                OrganisationIndex index = rebuilt.get(day.organisationId());
+                if (index != null && day.attendanceDate() != null) {
+                    index.mark(day.userId(), day.attendanceDate().toLocalDate());
+                    indexed.incrementAndGet();
+                }
+            });
+        }
+
+        organisations = rebuilt;
+        log.info("Attendance history index rebuilt for {} organisations from {} records",
+                rebuilt.size(), indexed.get());
+    }
+
+    public void recordAttendance(Long organisationId, Long userId, LocalDateTime attendanceDate) {
+        if (attendanceDate != null) {
+            AfterCommit.run(() -> {
+                OrganisationIndex index = index(organisationId);
+                index.write(() -> index.mark(userId, attendanceDate.toLocalDate()));
+            });
+        }
+    }
+
+    public void removeAttendance(Long organisationId, Long userId, LocalDateTime attendanceDate) {
+        if (attendanceDate != null) {
+            AfterCommit.run(() -> {
+                OrganisationIndex index = index(organisationId);
+                index.write(() -> index.unmark(userId, attendanceDate.toLocalDate()));
+            });
+        }
+    }
+
+    public void registerUser(Long organisationId, Long userId) {
+        AfterCommit.run(() -> {
+            OrganisationIndex index = index(organisationId);
+            index.write(() -> index.register(userId));
+        });
+    }
+
+    public void unregisterUser(Long organisationId, Long userId) {
+        AfterCommit.run(() -> {
+            OrganisationIndex index = organisations.get(organisationId);
+            if (index != null) {
+                index.write(() -> index.unregister(userId));
+            }
+        });
+    }
+
+    public void removeOrganisation(Long organisationId) {
+        AfterCommit.run(() -> organisations.remove(organisationId));
+    }
+
+    public boolean hasAttended(Long organisationId, Long userId, LocalDate date) {
+        OrganisationIndex index = organisations.get(organisationId);
+        return index != null && index.read(() -> {
+            DayBitmap bitmap = index.users.get(userId);
+            return bitmap != null && bitmap.get(date);
+        });
+    }
+
+    /**
+     * Users of the organisation who attended none of the given dates.
+     */
+    public List<Long> findAbsentOnAll(Long organisationId, Collection<LocalDate> dates) {
+        OrganisationIndex index = organisations.get(organisationId);
+        if (index == null) {
+            return List.of();
+        }
+        return index.read(() -> {
+            List<Long> result = new ArrayList<>();
+            index.users.forEach((userId, bitmap) -> {
+                if (dates.stream().noneMatch(bitmap::get)) {
+                    result.add(userId);
+                }
+            });
+            result.sort(Comparator.naturalOrder());
+            return result;
+        });
+    }
+
+    /**
+     * Users whose attendance on the given dates satisfies the operation:
+     * AND - present on every date, OR - present on any date,
+     * ANDNOT - present on the first date and absent on all the others.
+     */
+    public List<Long> findUsers(Long organisationId, List<LocalDate> dates, SetOperation operation) {
+        OrganisationIndex index = organisations.get(organisationId);
+        if (index == null || dates.isEmpty()) {
+            return List.of();
+        }
+        return index.read(() -> {
+            List<Long> result = new ArrayList<>();
+            index.users.forEach((userId, bitmap) -> {
+                boolean matches = switch (operation) {
+                    case AND -> dates.stream().allMatch(bitmap::get);
+                    case OR -> dates.stream().anyMatch(bitmap::get);
+                    case ANDNOT -> bitmap.get(dates.getFirst())
+                            && dates.stream().skip(1).noneMatch(bitmap::get);
+                };
+                if (matches) {
+                    result.add(userId);
+                }
+            });
+            result.sort(Comparator.naturalOrder());
+            return result;
+        });
+    }
+
+    /**
+     * Days in the range on which the given users' attendance satisfies the
+     * operation: AND - all attended, OR - any attended,
+     * ANDNOT - the first user attended and none of the others did.
+     */
+    public List<LocalDate> findDays(Long organisationId, List<Long> userIds, SetOperation operation,
+                                    LocalDate from, LocalDate to) {
+        OrganisationIndex index = organisations.get(organisationId);
+        if (index == null || userIds.isEmpty() || to.isBefore(from)) {
+            return List.of();
+        }
+
+        BitSet combined = index.read(() -> {
+            BitSet result = window(index.users.get(userIds.getFirst()), from, to);
+            for (Long userId : userIds.subList(1, userIds.size())) {
+                BitSet other = window(index.users.get(userId), from, to);
+                switch (operation) {
+                    case AND -> result.and(other);
+                    case OR -> result.or(other);
+                    case ANDNOT -> result.andNot(other);
+                }
+            }
+            return result;
+        });
+
+        List<LocalDate> days = new ArrayList<>(combined.cardinality());
+        for (int i = combined.nextSetBit(0); i >= 0; i = combined.nextSetBit(i + 1)) {
+            days.add(from.plusDays(i));
+        }
+        return days;
+    }
+
+    /**
+     * Attendance rate and longest work-day streak for every user in the range.
+     */
+    public List<UserAttendanceStats> getStats(Long organisationId, LocalDate from, LocalDate to) {
+        OrganisationIndex index = organisations.get(organisationId);
+        if (index == null || to.isBefore(from)) {
+            return List.of();
+        }
+
+        BitSet workDays = workDayMask(from, to);
+        int workDayCount = workDays.cardinality();
+
+        return index.read(() -> {
+            List<UserAttendanceStats> result = new ArrayList<>(index.users.size());
+            index.users.forEach((userId, bitmap) -> {
+                BitSet attended = window(bitmap, from, to);
+                attended.and(workDays);
+                int attendedDays = attended.cardinality();
+                double rate = workDayCount == 0 ? 0.0 : (double) attendedDays / workDayCount * 100.0;
+                result.add(new UserAttendanceStats(
+                        userId,
+                        attendedDays,
+                        workDayCount,
+                        Math.round(rate * 10.0) / 10.0,
+                        longestRun(attended, workDays)));
+            });
+            result.sort(Comparator.comparing(UserAttendanceStats::userId));
+            return result;
+        });
+    }
+
+    /**
+     * Users whose longest run of consecutive attended work days in the range
+     * is at least {@code minLength}.
+     */
+    public List<UserAttendanceStats> findStreaks(Long organisationId, int minLength, LocalDate from, LocalDate to) {
+        return getStats(organisationId, from, to).stream()
+                .filter(stats -> stats.longestStreak() >= minLength)
+                .sorted(Comparator.comparingInt(UserAttendanceStats::longestStreak).reversed())
+                .toList();
+    }
+
+    // Writers only: reads of an organisation the index has never seen must not add it
+    private OrganisationIndex index(Long organisationId) {
+        return organisations.computeIfAbsent(organisationId, id -> new OrganisationIndex());
+    }
+
+    private static BitSet window(DayBitmap bitmap, LocalDate from, LocalDate to) {
+        return bitmap != null ? bitmap.window(from, to) : new BitSet();
+    }
+
+    private static BitSet workDayMask(LocalDate from, LocalDate to) {
+        BitSet mask = new BitSet();
+        int offset = 0;
+        for (LocalDate day = from; !day.isAfter(to); day = day.plusDays(1), offset++) {
+            DayOfWeek dayOfWeek = day.getDayOfWeek();
+            if (dayOfWeek != DayOfWeek.SATURDAY && dayOfWeek != DayOfWeek.SUNDAY) {
+                mask.set(offset);
+            }
+        }
+        return mask;
+    }
+
+    private static int longestRun(BitSet attended, BitSet workDays) {
+        int longest = 0;
+        int current = 0;
+        for (int i = workDays.nextSetBit(0); i >= 0; i = workDays.nextSetBit(i + 1)) {
+            if (attended.get(i)) {
+                current++;
+                longest = Math.max(longest, current);
+            } else {
+                current = 0;
+            }
+        }
+        return longest;
+    }
+
+    private static final class OrganisationIndex {
+        private final Map<Long, DayBitmap> users = new HashMap<>();
+        private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+        void register(Long userId) {
+            users.computeIfAbsent(userId, id -> new DayBitmap());
+        }
+
+        void unregister(Long userId) {
+            users.remove(userId);
+        }
+
+        void mark(Long userId, LocalDate date) {
+            users.computeIfAbsent(userId, id -> new DayBitmap()).set(date);
+        }
+
+        void unmark(Long userId, LocalDate date) {
+            DayBitmap bitmap = users.get(userId);
+            if (bitmap != null) {
+                bitmap.clear(date);
+            }
+        }
+
+        <T> T read(Supplier<T> action) {
+            lock.readLock().lock();
+            try {
+                return action.get();
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        void write(Runnable action) {
+            lock.writeLock().lock();
+            try {
+                action.run();
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+    }
+
+    /**
+     * Day bitset that starts at the first 64-day word containing attendance,
+     * so users who joined recently do not pay for years of leading zeros.
+     */
+    private static final class DayBitmap {
+        private long baseDay = Long.MIN_VALUE;
+        private BitSet bits = new BitSet();
+
+        boolean get(LocalDate date) {
+            long offset = date.toEpochDay() - baseDay;
+            return baseDay != Long.MIN_VALUE && offset >= 0 && offset < Integer.MAX_VALUE && bits.get((int) offset);
+        }
+
+        void set(LocalDate date) {
+            long epochDay = date.toEpochDay();
+            long alignedDay = Math.floorDiv(epochDay, 64) * 64;
+            if (baseDay == Long.MIN_VALUE) {
+                baseDay = alignedDay;
+            } else if (alignedDay < baseDay) {
+                int shiftWords = (int) ((baseDay - alignedDay) / 64);
+                long[] existing = bits.toLongArray();
+                long[] shifted = new long[existing.length + shiftWords];
+                System.arraycopy(existing, 0, shifted, shiftWords, existing.length);
+                bits = BitSet.valueOf(shifted);
+                baseDay = alignedDay;
+            }
+            bits.set((int) (epochDay - baseDay));
+        }
+
+        void clear(LocalDate date) {
+            long offset = date.toEpochDay() - baseDay;
+            if (baseDay != Long.MIN_VALUE && offset >= 0 && offset < Integer.MAX_VALUE) {
+                bits.clear((int) offset);
+            }
+        }
+
+        /**
+         * Bits for [from, to] re-based so that bit 0 is {@code from}.
+         */
+        BitSet window(LocalDate from, LocalDate to) {
+            if (baseDay == Long.MIN_VALUE) {
+                return new BitSet();
+            }
+            long start = from.toEpochDay() - baseDay;
+            long end = to.toEpochDay() - baseDay + 1;
+            if (end <= 0) {
+                return new BitSet();
+            }
+            BitSet slice = bits.get((int) Math.max(start, 0), (int) end);
+            if (start >= 0) {
+                return slice;
+            }
+            BitSet shifted = new BitSet();
+            int lead = (int) -start;
+            for (int i = slice.nextSetBit(0); i >= 0; i = slice.nextSetBit(i + 1)) {
+                shifted.set(i + lead);
+            }
+            return shifted;
+        }
+    }
+}
@@ -0,0 +1,449 @@
+package com.smartattendance.backend.service;
+
+import com.smartattendance.backend.datasource.ReadFromPrimary;
+import com.smartattendance.backend.datasource.UseConnectionPool;
+import com.smartattendance.backend.dto.AttendanceImportResult;
+import com.smartattendance.backend.dto.ImportReport;
+import com.smartattendance.backend.entity.AttendanceImportJob;
+import com.smartattendance.backend.entity.Organisation;
+import com.smartattendance.backend.entity.Users;
+import com.smartattendance.backend.enums.AttendanceMethod;
+import com.smartattendance.backend.enums.ConnectionPoolType;
+import com.smartattendance.backend.enums.ImportJobStatus;
+import com.smartattendance.backend.exception.ImportFormatException;
+import com.smartattendance.backend.id.TimeOrderedIdGenerator;
+import com.smartattendance.backend.importer.CsvReader;
+import com.smartattendance.backend.repository.AttendanceImportJobRepository;
+import com.smartattendance.backend.repository.UserRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Streaming import of historical attendance from legacy systems.
+ *
+ * The CSV is read one row at a time; emails are resolved through a map of
+ * the organisation's users loaded once, and a (user, day) that already has
+ * a record, in the database or earlier in the file, is skipped using the
+ * attendance history index rather than a lookup per row. The INSERT itself
+ * re-checks the day, so a record the index has not seen (a concurrent
+ * check-in, another instance) is skipped as well. Records go in as
+ * JDBC batches, and each batch commits together with the job checkpoint,
+ * so memory stays flat however long the file is and a failed run can be
+ * resumed by sending the same file with the job id.
+ *
+ * Columns: email, checkInTime, and optionally checkOutTime, latitude,
+ * longitude, method. Times are local, e.g. 2023-04-03T08:57 or
+ * 2023-04-03 08:57:00.
+ */
+@Service
+@Slf4j
+public class AttendanceImportService {
+
+    // Re-checks the (user, day) in the database: the history index only knows this instance's writes
+    private static final String INSERT_SQL = "INSERT INTO attendance_records "
+            + "(user_id, check_in_time, check_out_time, latitude, longitude, check_in_method, check_out_method, "
+            + "attendance_date, created_at, updated_at, organisation_id, id, auto_closed, is_deleted) "
+            + "SELECT ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, FALSE, FALSE FROM DUAL "
+            + "WHERE NOT EXISTS (SELECT 1 FROM attendance_records "
+            + "WHERE user_id = ? AND is_deleted = FALSE AND attendance_date >= ? AND attendance_date < ?)";
+    private static final DateTimeFormatter TIME_FORMAT =
+            DateTimeFormatter.ofPattern("uuuu-MM-dd[' ']['T']HH:mm[:ss][.SSS]");
+    private static final int MAX_ERROR_LENGTH = 500;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TimeOrderedIdGenerator idGenerator;
+    private final TransactionTemplate transactionTemplate;
+    private final AttendanceImportJobRepository jobRepository;
+    private final UserRepository userRepository;
+    private final AttendanceHistoryIndex attendanceHistoryIndex;
+    private final PresenceBoardService presenceBoardService;
+    private final AttendanceVersionTracker attendanceVersionTracker;
+    private final Counter importedRows;
+    private final Counter skippedRows;
+    private final Counter failedRows;
+    private final int batchSize;
+    private final int maxErrors;
+    private final long staleAfterSeconds;
+
+    public AttendanceImportService(JdbcTemplate jdbcTemplate,
+                                   TimeOrderedIdGenerator idGenerator,
+                                   PlatformTransactionManager transactionManager,
+                                   AttendanceImportJobRepository jobRepository,
+                                   UserRepository userRepository,
+                                   AttendanceHistoryIndex attendanceHistoryIndex,
+                                   PresenceBoardService presenceBoardService,
+                                   AttendanceVersionTracker attendanceVersionTracker,
+                                   MeterRegistry meterRegistry,
+                                   @Value("${attendance.attendance-import.batch-size:5000}") int batchSize,
+                                   @Value("${attendance.attendance-import.max-errors:1000}") int maxErrors,
+                                   @Value("${attendance.attendance-import.stale-after-seconds:300}")
+                                   long staleAfterSeconds) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.idGenerator = idGenerator;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.jobRepository = jobRepository;
+        this.userRepository = userRepository;
+        this.attendanceHistoryIndex = attendanceHistoryIndex;
+        this.presenceBoardService = presenceBoardService;
+        this.attendanceVersionTracker = attendanceVersionTracker;
+        this.batchSize = batchSize;
+        this.maxErrors = maxErrors;
+        this.staleAfterSeconds = staleAfterSeconds;
+        this.importedRows = rowCounter(meterRegistry, "imported");
+        this.skippedRows = rowCounter(meterRegistry, "skipped");
+        this.failedRows = rowCounter(meterRegistry, "failed");
+    }
+
+    private static Counter rowCounter(MeterRegistry meterRegistry, String outcome) {
+        return Counter.builder("attendance.records.import.rows")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Imports the file into the organisation. With a job id the run resumes
+     * after that job's checkpoint; the file must be the one it was started with.
+     */
+    @UseConnectionPool(ConnectionPoolType.REPORTING)
+    @ReadFromPrimary
+    public AttendanceImportResult importRecords(Organisation organisation, Long startedByUserId,
+                                                InputStream body, Long resumeJobId) {
+        long started = System.nanoTime();
+        Checkpoint checkpoint = resumeJobId == null
+                ? startJob(organisation, startedByUserId)
+                : claimJob(resumeJobId, organisation);
+        Map<String, Long> userIds = loadUserIds(organisation);
+        Progress progress = new Progress();
+        MessageDigest digest = sha256();
+        long row = 0;
+
+        try (CsvReader reader = new CsvReader(new InputStreamReader(body, StandardCharsets.UTF_8))) {
+            reader.requireColumns("email", "checkInTime");
+            Batch batch = new Batch();
+            CsvReader.Row csvRow;
+            while ((csvRow = reader.next()) != null) {
+                row++;
+                for (String value : csvRow.values()) {
+                    digest.update(value.getBytes(StandardCharsets.UTF_8));
+                    digest.update((byte) 0x1f);
+                }
+                digest.update((byte) '\n');
+                if (row <= checkpoint.rows) {
+                    if (row == checkpoint.rows) {
+                        verifyCheckpoint(digest, checkpoint);
+                    }
+                    continue;
+                }
+                progress.rowsRead++;
+                stage(organisation, csvRow, row, userIds, batch, progress);
+                if (batch.records.size() >= batchSize) {
+                    commit(organisation, checkpoint, batch, row, digest, progress);
+                }
+            }
+            if (row < checkpoint.rows) {
+                throw new ImportFormatException("The file has fewer rows than import job "
+                        + checkpoint.jobId + " already committed");
+            }
+            commit(organisation, checkpoint, batch, row, digest, progress);
+        } catch (RuntimeException | IOException e) {
+            String error = e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName();
+            finish(checkpoint.jobId, ImportJobStatus.FAILED, error);
+            log.warn("Attendance import job {} failed after row {}: {}", checkpoint.jobId, row, error);
+            if (e instanceof ImportFormatException formatException) {
+                throw formatException;
+            }
+            return result(checkpoint, ImportJobStatus.FAILED, progress, started);
+        }
+
+        finish(checkpoint.jobId, ImportJobStatus.COMPLETED, null);
+        log.info("Attendance import job {}: {} imported, {} skipped, {} failed of {} rows",
+                checkpoint.jobId, progress.imported, progress.skipped, progress.failed, progress.rowsRead);
+        return result(checkpoint, ImportJobStatus.COMPLETED, progress, started);
+    }
+
+    public AttendanceImportJob getJob(Long jobId, Organisation organisation) {
+        return jobRepository.findByIdAndOrganisationId(jobId, organisation.getId())
+                .orElseThrow(() -> new ImportFormatException("Import job " + jobId + " not found"));
+    }
+
+    private void stage(Organisation organisation, CsvReader.Row csvRow, long row, Map<String, Long> userIds,
+                       Batch batch, Progress progress) {
+        String email = csvRow.get("email");
+        Long userId = email != null ? userIds.get(email.toLowerCase(Locale.ROOT)) : null;
+        if (userId == null) {
+            progress.fail(row, email, "Unknown user email");
+            return;
+        }
+        PendingRecord record;
+        try {
+            LocalDateTime checkIn = parseTime(csvRow.get("checkInTime"));
+            LocalDateTime checkOut = parseTime(csvRow.get("checkOutTime"));
+            if (checkIn == null) {
+                progress.fail(row, email, "checkInTime is required");
+                return;
+            }
+            if (checkIn.isAfter(LocalDateTime.now())) {
+                progress.fail(row, email, "checkInTime is in the future");
+                return;
+            }
+            if (checkOut != null && checkOut.isBefore(checkIn)) {
+                progress.fail(row, email, "checkOutTime is before checkInTime");
+                return;
+            }
+            String method = csvRow.get("method");
+            record = new PendingRecord(userId, checkIn, checkOut,
+                    parseCoordinate(csvRow.get("latitude")), parseCoordinate(csvRow.get("longitude")),
+                    method != null ? AttendanceMethod.valueOf(method.toUpperCase(Locale.ROOT)) : AttendanceMethod.MANUAL);
+        } catch (DateTimeParseException e) {
+            progress.fail(row, email, "Invalid time: " + e.getParsedString());
+            return;
+        } catch (IllegalArgumentException e) {
+            progress.fail(row, email, "Invalid method or coordinates");
+            return;
+        }
+
+        LocalDate day = record.checkIn.toLocalDate();
+        if (attendanceHistoryIndex.hasAttended(organisation.getId(), userId, day)
+                || !batch.days.add(new UserDay(userId, day))) {
+            progress.skipped++;
+            return;
+        }
+        batch.records.add(record);
+    }
+
+    /**
+     * Writes the batch and moves the checkpoint in one transaction, then
+     * brings the in-memory history index and presence board up to date.
+     */
+    private void commit(Organisation organisation, Checkpoint checkpoint, Batch batch, long row,
+                        MessageDigest digest, Progress progress) {
+        List<PendingRecord> records = List.copyOf(batch.records);
+        String rowsDigest = HexFormat.of().formatHex(snapshot(digest));
+        LocalDateTime now = LocalDateTime.now();
+        Timestamp nowTimestamp = Timestamp.valueOf(now);
+        List<PendingRecord> inserted = transactionTemplate.execute(status -> {
+            List<PendingRecord> written = records.isEmpty()
+                    ? List.of()
+                    : insert(records, organisation.getId(), nowTimestamp);
+            jobRepository.checkpoint(checkpoint.jobId, row, rowsDigest,
+                    checkpoint.imported + progress.imported + written.size(),
+                    checkpoint.skipped + progress.skipped + records.size() - written.size(),
+                    checkpoint.failed + progress.failed, now);
+            return written;
+        });
+
+        progress.imported += inserted.size();
+        progress.skipped += records.size() - inserted.size();
+        importedRows.increment(inserted.size());
+        skippedRows.increment(progress.skipped - progress.skippedCounted);
+        failedRows.increment(progress.failed - progress.failedCounted);
+        progress.skippedCounted = progress.skipped;
+        progress.failedCounted = progress.failed;
+
+        for (PendingRecord record : inserted) {
+            attendanceHistoryIndex.recordAttendance(organisation.getId(), record.userId, record.checkIn);
+            presenceBoardService.recordCheckIn(organisation.getId(), record.userId, record.checkIn);
+            if (record.checkOut != null) {
+                presenceBoardService.recordCheckOut(organisation.getId(), record.userId, record.checkIn);
+            }
+        }
+        attendanceVersionTracker.recordOrganisationWrite(organisation.getId());
+        batch.records.clear();
+        batch.days.clear();
+    }
+
+    /**
+     * The records the database accepted; a row whose day already had a
+     * record reports an update count of 0.
+     */
+    private List<PendingRecord> insert(List<PendingRecord> records, Long organisationId, Timestamp now) {
+        int[] counts = jdbcTemplate.batchUpdate(INSERT_SQL, records, records.size(),
+                (statement, record) -> bind(statement, record, organisationId, now))[0];
+        List<PendingRecord> inserted = new ArrayList<>(records.size());
+        for (int i = 0; i < records.size(); i++) {
+            // SUCCESS_NO_INFO (-2) from a driver-side batch still means the row went in
+            if (counts[i] != 0) {
+                inserted.add(records.get(i));
+            }
+        }
+        return inserted;
+    }
+
+    private void bind(PreparedStatement statement, PendingRecord record, Long organisationId, Timestamp now)
+            throws SQLException {
+        statement.setLong(1, record.userId);
+        statement.setTimestamp(2, Timestamp.valueOf(record.checkIn));
+        if (record.checkOut != null) {
+            statement.setTimestamp(3, Timestamp.valueOf(record.checkOut));
+            statement.setString(7, record.method.name());
+        } else {
+            statement.setNull(3, Types.TIMESTAMP);
+            statement.setNull(7, Types.VARCHAR);
+        }
+        setCoordinate(statement, 4, record.latitude);
+        setCoordinate(statement, 5, record.longitude);
+        statement.setString(6, record.method.name());
+        statement.setTimestamp(8, Timestamp.valueOf(record.checkIn));
+        statement.setTimestamp(9, now);
+        statement.setTimestamp(10, now);
+        statement.setLong(11, organisationId);
+        statement.setLong(12, idGenerator.nextId());
+        LocalDate day = record.checkIn.toLocalDate();
+        statement.setLong(13, record.userId);
+        statement.setTimestamp(14, Timestamp.valueOf(day.atStartOfDay()));
+        statement.setTimestamp(15, Timestamp.valueOf(day.plusDays(1).atStartOfDay()));
+    }
+
+    private static void setCoordinate(PreparedStatement statement, int index, Double value) throws SQLException {
+        if (value != null) {
+            statement.setDouble(index, value);
+        } else {
+            statement.setNull(index, Types.DOUBLE);
+        }
+    }
+
+    private Checkpoint startJob(Organisation organisation, Long startedByUserId) {
+        AttendanceImportJob job = transactionTemplate.execute(status -> jobRepository.save(AttendanceImportJob.builder()
+                .organisation(organisation)
+                .startedBy(startedByUserId != null ? userRepository.getReferenceById(startedByUserId) : null)
+                .status(ImportJobStatus.RUNNING)
+                .build()));
+        return new Checkpoint(job.getId(), 0, null, 0, 0, 0);
+    }
+
+    private Checkpoint claimJob(Long jobId, Organisation organisation) {
+        return transactionTemplate.execute(status -> {
+            AttendanceImportJob job = jobRepository.lockByIdAndOrganisationId(jobId, organisation.getId())
+                    .orElseThrow(() -> new ImportFormatException("Import job " + jobId + " not found"));
+            if (job.getStatus() == ImportJobStatus.COMPLETED) {
+                throw new ImportFormatException("Import job " + jobId + " has already completed");
+            }
+            // A RUNNING job that has not checkpointed for a while belongs to a run that died
+            if (job.getStatus() == ImportJobStatus.RUNNING
+                    && job.getUpdatedAt().isAfter(LocalDateTime.now().minusSeconds(staleAfterSeconds))) {
+                throw new ImportFormatException("Import job " + jobId + " is still running");
+            }
+            job.setStatus(ImportJobStatus.RUNNING);
+            job.setLastError(null);
+            job.setFinishedAt(null);
+            return new Checkpoint(job.getId(), job.getRowsCommitted(), job.getCheckpointDigest(),
+                    job.getImported(), job.getSkipped(), job.getFailed());
+        });
+    }
+
+    private void finish(Long jobId, ImportJobStatus status, String error) {
+        String truncated = error != null && error.length() > MAX_ERROR_LENGTH
+                ? error.substring(0, MAX_ERROR_LENGTH)
+                : error;
+        transactionTemplate.executeWithoutResult(tx ->
+                jobRepository.finish(jobId, status, truncated, LocalDateTime.now()));
+    }
+
+    private void verifyCheckpoint(MessageDigest digest, Checkpoint checkpoint) {
+        String actual = HexFormat.of().formatHex(snapshot(digest));
+        if (!actual.equals(checkpoint.digest)) {
+            throw new ImportFormatException("The file does not match the rows already imported by job "
+                    + checkpoint.jobId);
+        }
+    }
+
+    private Map<String, Long> loadUserIds(Organisation organisation) {
+        Map<String, Long> userIds = new HashMap<>();
+        for (Users user : userRepository.findByOrganisationAndDeletedFalse(organisation)) {
+            userIds.put(user.getEmail().toLowerCase(Locale.ROOT), user.getId());
+        }
+        return userIds;
+    }
+
+    private AttendanceImportResult result(Checkpoint checkpoint, ImportJobStatus status, Progress progress,
+                                          long started) {
+        long durationMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started);
+        ImportReport report = new ImportReport(progress.rowsRead, progress.imported, progress.skipped,
+                progress.failed, progress.errors, progress.failed > progress.errors.size(), durationMillis);
+        return new AttendanceImportResult(checkpoint.jobId, status, checkpoint.rows, report);
+    }
+
+    private static LocalDateTime parseTime(String value) {
+        return value != null ? LocalDateTime.parse(value, TIME_FORMAT) : null;
+    }
+
+    private static Double parseCoordinate(String value) {
+        return value != null ? Double.valueOf(value) : null;
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private static byte[] snapshot(MessageDigest digest) {
+        try {
+            return ((MessageDigest) digest.clone()).digest();
+        } catch (CloneNotSupportedException e) {
+            throw new IllegalStateException("SHA-256 digest cannot be cloned", e);
+        }
+    }
+
+    private record Checkpoint(Long jobId, long rows, String digest, long imported, long skipped, long failed) {}
+
+    private record PendingRecord(Long userId, LocalDateTime checkIn, LocalDateTime checkOut,
+                                 Double latitude, Double longitude, AttendanceMethod method) {}
+
+    private record UserDay(Long userId, LocalDate day) {}
+
+    private static final class Batch {
+        final List<PendingRecord> records = new ArrayList<>();
+        // Days taken by rows of this batch; earlier batches are already in the history index
+        final Set<UserDay> days = new HashSet<>();
+    }
+
+    private final class Progress {
+        long rowsRead;
+        long imported;
+        long skipped;
+        long failed;
+        long skippedCounted;
+        long failedCounted;
+        final List<ImportReport.RowError> errors = new ArrayList<>();
+
+        void fail(long row, String email, String message) {
+            failed++;
+            if (errors.size() < maxErrors) {
+                errors.add(new ImportReport.RowError(row, email, message));
+            }
+        }
+    }
+}
@@ -1,23 +1,32 @@
 package com.smartattendance.backend.service;
 
+import com.smartattendance.backend.datasource.ReadFromPrimary;
+import com.smartattendance.backend.datasource.ReadYourWritesWindow;
+import com.smartattendance.backend.datasource.UseConnectionPool;
 import com.smartattendance.backend.dto.*;
 import com.smartattendance.backend.entity.AttendanceRecord;
 import com.smartattendance.backend.entity.Organisation;
 import com.smartattendance.backend.entity.QrCodeRecord;
 import com.smartattendance.backend.entity.Users;
 import com.smartattendance.backend.enums.AttendanceMethod;
+import com.smartattendance.backend.enums.ConnectionPoolType;
 import com.smartattendance.backend.enums.ReportFormat;
+import com.smartattendance.backend.exception.DuplicateAttendanceException;
+import com.smartattendance.backend.exception.ExpiredQrCodeException;
 import com.smartattendance.backend.exception.LocationValidationException;
 import com.smartattendance.backend.exception.UnauthorizedException;
+import com.smartattendance.backend.metrics.AttendanceMetrics;
 import com.smartattendance.backend.repository.AttendanceRecordRepository;
 import com.smartattendance.backend.repository.QrCodeRecordRepository;
 import com.smartattendance.backend.security.CustomUserDetails;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 
@@ -35,7 +44,9 @@ import java.util.Collections;
 import java.util.Comparator;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import org.apache.pdfbox.pdmodel.PDDocument;
 import org.apache.pdfbox.pdmodel.PDPage;
@@ -52,6 +63,12 @@ public class AttendanceRecordService {
     private final OrganisationService organisationService;
     private final QrCodeService qrCodeService;
     private final QrCodeRecordRepository qrCodeRepository;
+    private final PresenceBoardService presenceBoardService;
+    private final AttendanceHistoryIndex attendanceHistoryIndex;
+    private final AttendanceMetrics attendanceMetrics;
+    private final TransactionTemplate readOnlyTransactionTemplate;
+    private final ReadYourWritesWindow readYourWritesWindow;
+    private final AttendanceVersionTracker attendanceVersionTracker;
 
     private static final LocalTime LATE_THRESHOLD = LocalTime.of(8, 0);
     private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ISO_LOCAL_DATE;
@@ -61,22 +78,44 @@ public class AttendanceRecordService {
         return attendanceRecordRepository.save(record);
     }
 
+    @Transactional(readOnly = true)
     public List<AttendanceRecord> findByUserAndDateRange(Users user, LocalDateTime start, LocalDateTime end) {
         return attendanceRecordRepository.findByUserAndAttendanceDateBetween(user, start, end);
     }
+    @UseConnectionPool(ConnectionPoolType.REPORTING)
+    @Transactional(readOnly = true)
     public List<AttendanceRecord> findAllAttendanceRecordsDeletedIncluded(){
         return attendanceRecordRepository.findByDeletedFalse();
     }
 
+    @UseConnectionPool(ConnectionPoolType.REPORTING)
+    @Transactional(readOnly = true)
     public List <AttendanceRecord> findAllAttendances(){
         return attendanceRecordRepository.findAll();
     }
 
+    @UseConnectionPool(ConnectionPoolType.REPORTING)
+    @Transactional(readOnly = true)
     public List <AttendanceRecord> findAttendancesByOrganisation (Organisation org){
         return attendanceRecordRepository.findByOrganisationAndNotDeleted(org);
     }
 
+    /**
+     * Hands every non-deleted record of the organisation to the sink as it is
+     * read from the database cursor, without loading entities. Only the
+     * primary's reporting pool opens cursors, so replicas are not used.
+     */
+    @UseConnectionPool(ConnectionPoolType.REPORTING)
+    @ReadFromPrimary
+    @Transactional(readOnly = true)
+    public void streamAttendancesByOrganisation(Organisation org, Consumer<AttendanceRecordResponse> sink) {
+        try (Stream<AttendanceRecordResponse> records = attendanceRecordRepository.streamResponsesByOrganisation(org)) {
+            records.forEach(sink);
+        }
+    }
+
     //consider soft deleting attendance
+    @Transactional
     public AttendanceRecord softDelete(Long id, Organisation org) {
         AttendanceRecord record = attendanceRecordRepository.findByIdAndDeletedFalse(id)
                 .orElseThrow(() -> new RuntimeException("Attendance record not found"));
@@ -87,9 +126,24 @@ public class AttendanceRecordService {
         }
 
         record.setDeleted(true);
-        return attendanceRecordRepository.save(record);
+        AttendanceRecord saved = attendanceRecordRepository.save(record);
+        attendanceVersionTracker.recordUserWrite(org.getId(), record.getUser().getId());
+        presenceBoardService.recordRemoval(org.getId(), record.getUser().getId(), record.getAttendanceDate());
+        if (!hasOtherRecordOnDay(record)) {
+            attendanceHistoryIndex.removeAttendance(org.getId(), record.getUser().getId(), record.getAttendanceDate());
+        }
+        return saved;
     }
 
+    private boolean hasOtherRecordOnDay(AttendanceRecord record) {
+        LocalDate day = record.getAttendanceDate().toLocalDate();
+        return attendanceRecordRepository
+                .findByUserAndAttendanceDateBetween(record.getUser(), day.atStartOfDay(), day.atTime(LocalTime.MAX))
+                .stream()
+                .anyMatch(other -> !other.isDeleted() && !other.getId().equals(record.getId()));
+    }
+
+    @Transactional(readOnly = true)
     public AttendanceRecord findById(Long id) {
         return attendanceRecordRepository.findByIdAndDeletedFalse(id)
                 .orElseThrow(() -> new RuntimeException("Attendance record not found"));
@@ -101,7 +155,7 @@ public class AttendanceRecordService {
         LocalDateTime now = LocalDateTime.now();
 
         if (attendanceRecordRepository.hasCheckedInToday(user, now)) {
-            throw new RuntimeException("You have already checked in today. Please check-out first if you want to leave.");
+            throw new DuplicateAttendanceException("You have already checked in today. Please check-out first if you want to leave.");
         }
 
         Long orgId = currentUser.isSuperAdmin() ? currentUser.getCurrentOrganisationId() : currentUser.getOrganisationId();
@@ -116,6 +170,7 @@ public class AttendanceRecordService {
 
         AttendanceRecord record = new AttendanceRecord();
         record.setUser(user);
+        record.setOrganisation(user.getOrganisation());
         record.setCheckInTime(now);
         record.setAttendanceDate(now);
         record.setLatitude(request.getLatitude());
@@ -124,7 +179,12 @@ public class AttendanceRecordService {
                 request.getCheckInMethod() : AttendanceMethod.WEB);
 
         log.info("User {} checked in at {}", user.getEmail(), now);
-        return attendanceRecordRepository.save(record);
+        AttendanceRecord saved = attendanceRecordRepository.save(record);
+        readYourWritesWindow.recordWrite(user.getId());
+        attendanceVersionTracker.recordUserWrite(orgId, user.getId());
+        presenceBoardService.recordCheckIn(orgId, user.getId(), now);
+        attendanceHistoryIndex.recordAttendance(orgId, user.getId(), now);
+        return saved;
     }
 
     @Transactional
@@ -164,9 +224,14 @@ public class AttendanceRecordService {
                 request.getCheckOutMethod() : AttendanceMethod.WEB);
 
         log.info("User {} checked out at {}", user.getEmail(), checkOutTime);
-        return attendanceRecordRepository.save(record);
+        AttendanceRecord saved = attendanceRecordRepository.save(record);
+        readYourWritesWindow.recordWrite(user.getId());
+        attendanceVersionTracker.recordUserWrite(orgId, user.getId());
+        presenceBoardService.recordCheckOut(orgId, user.getId(), record.getAttendanceDate());
+        return saved;
     }
 
+    @Transactional(readOnly = true)
     public AttendanceRecordResponse getTodayAttendance(CustomUserDetails currentUser) {
         Users user = userService.findByEmail(currentUser.getEmail());
         LocalDateTime now = LocalDateTime.now();
@@ -179,6 +244,7 @@ public class AttendanceRecordService {
                         .build());
     }
 
+    @Transactional
     public AttendanceRecord updateCheckOut(Long id, LocalDateTime checkOutTime, Organisation org) {
         AttendanceRecord record = attendanceRecordRepository.findByIdAndDeletedFalse(id)
                 .orElseThrow(() -> new RuntimeException("Attendance record not found"));
@@ -190,9 +256,13 @@ public class AttendanceRecordService {
 
         record.setCheckOutTime(checkOutTime);
         log.info("Updating check-out time for attendance ID: {} to: {}", id, checkOutTime);
-        return attendanceRecordRepository.save(record);
+        AttendanceRecord saved = attendanceRecordRepository.save(record);
+        attendanceVersionTracker.recordUserWrite(org.getId(), record.getUser().getId());
+        presenceBoardService.recordCheckOut(org.getId(), record.getUser().getId(), record.getAttendanceDate());
+        return saved;
     }
 
+    @Transactional(readOnly = true)
     public List<AttendanceRecordResponse> getLast7Records(CustomUserDetails currentUser) {
         Users user = userService.findById(currentUser.getId());
 
@@ -213,6 +283,7 @@ public class AttendanceRecordService {
                 .checkInMethod(record.getCheckInMethod())
                 .checkOutTime(record.getCheckOutTime())
                 .checkOutMethod(record.getCheckOutMethod())
+                .autoClosed(record.isAutoClosed())
                 .latitude(record.getLatitude())
                 .longitude(record.getLongitude())
                 .attendanceDate(record.getAttendanceDate())
@@ -233,6 +304,8 @@ public class AttendanceRecordService {
                 .collect(Collectors.toList());
     }
 
+    @UseConnectionPool(ConnectionPoolType.REPORTING)
+    @Transactional(readOnly = true)
     public AttendanceReport generateReport(CustomUserDetails userDetails, String period) {
         Users user = userService.findById(userDetails.getId());
         LocalDate end = LocalDate.now();
@@ -251,6 +324,60 @@ public class AttendanceRecordService {
         List<AttendanceRecord> records = attendanceRecordRepository
                 .findByUserAndAttendanceDateBetween(user, startOfDay, endOfDay);
 
+        return buildReport(records, start, end);
+    }
+
+    /**
+     * Today's status, the last 7 records, the weekly report and the first
+     * history page for the dashboard. They all come from the user's newest
+     * records, so one query (with the total for paging) fetches them; only a
+     * user with more than a page of records this week needs a second one.
+     */
+    @UseConnectionPool(ConnectionPoolType.REPORTING)
+    @Transactional(readOnly = true)
+    public DashboardResponse getDashboard(CustomUserDetails currentUser, int historySize) {
+        Users user = userService.findById(currentUser.getId());
+        LocalDate today = LocalDate.now();
+        LocalDate weekStart = today.minusDays(6);
+
+        List<Object[]> rows = attendanceRecordRepository
+                .findLatestWithTotalByUser(user, PageRequest.of(0, Math.max(historySize, 7)));
+        List<AttendanceRecord> latest = rows.stream().map(row -> (AttendanceRecord) row[0]).toList();
+        long total = rows.isEmpty() ? 0 : ((Number) rows.get(0)[1]).longValue();
+
+        List<AttendanceRecord> week;
+        if (latest.size() < total && !dayOf(latest.get(latest.size() - 1)).isBefore(weekStart)) {
+            // The newest records do not reach back to the start of the week
+            week = attendanceRecordRepository.findByUserAndAttendanceDateBetween(
+                            user, weekStart.atStartOfDay(), today.atTime(LocalTime.MAX)).stream()
+                    .filter(record -> !record.isDeleted())
+                    .toList();
+        } else {
+            week = latest.stream()
+                    .filter(record -> !dayOf(record).isBefore(weekStart))
+                    .toList();
+        }
+
+        AttendanceRecordResponse todays = latest.stream()
+                .filter(record -> dayOf(record).equals(today))
+                .findFirst()
+                .map(this::toResponse)
+                .orElse(null);
+        List<AttendanceRecordResponse> last7 = toResponseList(latest.subList(0, Math.min(7, latest.size())));
+        Page<AttendanceRecordResponse> history = new PageImpl<>(
+                toResponseList(latest.subList(0, Math.min(historySize, latest.size()))),
+                PageRequest.of(0, historySize, Sort.by("attendanceDate").descending()),
+                total);
+
+        return new DashboardResponse(todays, todays != null, todays != null && todays.getCheckOutTime() != null,
+                last7, buildReport(week, weekStart, today), history);
+    }
+
+    private static LocalDate dayOf(AttendanceRecord record) {
+        return record.getAttendanceDate().toLocalDate();
+    }
+
+    private AttendanceReport buildReport(List<AttendanceRecord> records, LocalDate start, LocalDate end) {
         List<DailyAttendance> daily = buildDailyAttendance(records);
         List<MethodCount> methods = buildMethodCounts(records);
 
@@ -266,12 +393,24 @@ public class AttendanceRecordService {
         return new AttendanceReport(daily, methods, totalDays, presentDays, lateArrivals, avgHours, responseRecords);
     }
 
+    @UseConnectionPool(ConnectionPoolType.REPORTING)
+    @Transactional(readOnly = true)
     public OrganisationReport generateOrganisationReport(
             Long orgId,
             LocalDate startDate,
             LocalDate endDate,
             String reportType,
             Long userId) {
+        return attendanceMetrics.timeOrganisationReport(
+                () -> buildOrganisationReport(orgId, startDate, endDate, reportType, userId));
+    }
+
+    private OrganisationReport buildOrganisationReport(
+            Long orgId,
+            LocalDate startDate,
+            LocalDate endDate,
+            String reportType,
+            Long userId) {
 
         Organisation organisation = organisationService.findById(orgId);
 
@@ -308,6 +447,7 @@ public class AttendanceRecordService {
         return new OrganisationReport(filters, summary, daily, methods, responses);
     }
 
+    @UseConnectionPool(ConnectionPoolType.REPORTING)
     public ReportExportPayload exportOrganisationReport(
             Long orgId,
             LocalDate startDate,
@@ -316,12 +456,14 @@ public class AttendanceRecordService {
             Long userId,
             ReportFormat format) {
 
-        OrganisationReport report = generateOrganisationReport(orgId, startDate, endDate, reportType, userId);
+        // Gather inside a short read-only transaction; rendering runs without a connection
+        OrganisationReport report = readOnlyTransactionTemplate.execute(status ->
+                generateOrganisationReport(orgId, startDate, endDate, reportType, userId));
 
-        byte[] content = switch (format) {
+        byte[] content = attendanceMetrics.timeExport("organisation", format, () -> switch (format) {
             case PDF -> buildOrganisationPdf(report);
             case CSV -> buildOrganisationCsv(report);
-        };
+        });
 
         String fileName = "organisation-attendance-report-"
                 + report.filters().startDate()
@@ -331,18 +473,19 @@ public class AttendanceRecordService {
         return new ReportExportPayload(content, fileName, format.mediaType());
     }
 
+    @UseConnectionPool(ConnectionPoolType.REPORTING)
     public ReportExportPayload exportUserReport(
             CustomUserDetails currentUser,
             String period,
             ReportFormat format) {
 
-        AttendanceReport report = generateReport(currentUser, period);
+        AttendanceReport report = readOnlyTransactionTemplate.execute(status -> generateReport(currentUser, period));
         Users user = userService.findById(currentUser.getId());
 
-        byte[] content = switch (format) {
+        byte[] content = attendanceMetrics.timeExport("user", format, () -> switch (format) {
             case PDF -> buildUserPdf(user, report, period);
             case CSV -> buildUserCsv(user, report, period);
-        };
+        });
 
         String fileName = "attendance-report-" + period + "." + format.extension();
 
@@ -352,6 +495,8 @@ public class AttendanceRecordService {
     /**
      * Get all attendance records for a user with pagination
      */
+    @UseConnectionPool(ConnectionPoolType.REPORTING)
+    @Transactional(readOnly = true)
     public Page<AttendanceRecordResponse> getAllUserAttendance(
             CustomUserDetails currentUser,
             int page,
@@ -368,6 +513,8 @@ public class AttendanceRecordService {
     /**
      * Get all attendance records for a user with optional filters
      */
+    @UseConnectionPool(ConnectionPoolType.REPORTING)
+    @Transactional(readOnly = true)
     public Page<AttendanceRecordResponse>
     getUserAttendanceWithFilters(
             CustomUserDetails currentUser,
@@ -393,7 +540,12 @@ public class AttendanceRecordService {
         return records.map(this::toResponse);
     }
 
+    @Transactional(noRollbackFor = ExpiredQrCodeException.class)
     public AttendanceRecordResponse checkInWithQrCode(CustomUserDetails currentUser, CheckInRequest request) {
+        return attendanceMetrics.timeCheckIn(() -> doCheckInWithQrCode(currentUser, request));
+    }
+
+    private AttendanceRecordResponse doCheckInWithQrCode(CustomUserDetails currentUser, CheckInRequest request) {
         Users user = userService.findByEmail(currentUser.getEmail());
 
         if (request.getLatitude() == null || request.getLongitude() == null) {
@@ -402,7 +554,7 @@ public class AttendanceRecordService {
 
         log.info("Received QR payload length: {}", request.getQrCode() != null ? request.getQrCode().length() : "null");
 
-        var validated = qrCodeService.validateQrCode(request.getQrCode());
+        var validated = attendanceMetrics.timeQrValidation(() -> qrCodeService.validateQrCode(request.getQrCode()));
         QrCodeRecord qrCode = validated.qrCodeRecord();
 
         if (!user.getOrganisation().getId().equals(qrCode.getOrganisation().getId())) {
@@ -412,7 +564,7 @@ public class AttendanceRecordService {
         LocalDateTime todayStart = LocalDateTime.now().toLocalDate().atStartOfDay();
 
         if (attendanceRecordRepository.hasCheckedInToday(user, todayStart)) {
-            throw new RuntimeException("You have already checked in today. Please check-out first if you want to leave.");
+            throw new DuplicateAttendanceException("You have already checked in today. Please check-out first if you want to leave.");
         }
 
         double orgLat = qrCode.getLatitude() != null ? qrCode.getLatitude() : validated.payload().organisationLatitude();
@@ -432,6 +584,7 @@ public class AttendanceRecordService {
 
         AttendanceRecord attendance = new AttendanceRecord();
         attendance.setUser(user);
+        attendance.setOrganisation(qrCode.getOrganisation());
         attendance.setCheckInTime(LocalDateTime.now());
         attendance.setAttendanceDate(LocalDateTime.now());
         attendance.setLatitude(userLat);
@@ -439,6 +592,10 @@ public class AttendanceRecordService {
         attendance.setCheckInMethod(AttendanceMethod.WEB);
 
         attendance = attendanceRecordRepository.save(attendance);
+        readYourWritesWindow.recordWrite(user.getId());
+        attendanceVersionTracker.recordUserWrite(qrCode.getOrganisation().getId(), user.getId());
+        presenceBoardService.recordCheckIn(qrCode.getOrganisation().getId(), user.getId(), attendance.getCheckInTime());
+        attendanceHistoryIndex.recordAttendance(qrCode.getOrganisation().getId(), user.getId(), attendance.getAttendanceDate());
 
         qrCode.setScanCount(qrCode.getScanCount() + 1);
         qrCodeRepository.save(qrCode);
@@ -551,7 +708,7 @@ public class AttendanceRecordService {
         return Math.round(value * 10.0) / 10.0;
     }
 
-    private byte[] buildOrganisationCsv(OrganisationReport report) {
+    byte[] buildOrganisationCsv(OrganisationReport report) {
         StringBuilder builder = new StringBuilder();
         builder.append("Organisation Attendance Report").append("\n");
         builder.append("Organisation ID,").append(report.filters().organisationId()).append("\n");
@@ -687,7 +844,7 @@ public class AttendanceRecordService {
         return buildPdfDocument(lines);
     }
 
-    private byte[] buildPdfDocument(List<String> lines) {
+    byte[] buildPdfDocument(List<String> lines) {
         try (PDDocument document = new PDDocument()) {
             PDPage page = new PDPage(PDRectangle.LETTER);
             document.addPage(page);
@@ -779,13 +936,18 @@ public class AttendanceRecordService {
     }
 
     // Check-out using QR code
+    @Transactional(noRollbackFor = ExpiredQrCodeException.class)
     public AttendanceRecordResponse checkOutWithQrCode(CustomUserDetails currentUser, CheckOutRequest request) {
+        return attendanceMetrics.timeCheckOut(() -> doCheckOutWithQrCode(currentUser, request));
+    }
+
+    private AttendanceRecordResponse doCheckOutWithQrCode(CustomUserDetails currentUser, CheckOutRequest request) {
         Users user = userService.findByEmail(currentUser.getEmail());
         if (request.getLatitude() == null || request.getLongitude() == null) {
             throw new LocationValidationException("Device location is required to complete check-out");
         }
 
-        var validated = qrCodeService.validateQrCode(request.getQrCode());
+        var validated = attendanceMetrics.timeQrValidation(() -> qrCodeService.validateQrCode(request.getQrCode()));
         QrCodeRecord qrCode = validated.qrCodeRecord();
 
         if (!user.getOrganisation().getId().equals(qrCode.getOrganisation().getId())) {
@@ -816,6 +978,9 @@ public class AttendanceRecordService {
         attendance.setCheckOutMethod(AttendanceMethod.WEB);
 
         attendance = attendanceRecordRepository.save(attendance);
+        readYourWritesWindow.recordWrite(user.getId());
+        attendanceVersionTracker.recordUserWrite(qrCode.getOrganisation().getId(), user.getId());
+        presenceBoardService.recordCheckOut(qrCode.getOrganisation().getId(), user.getId(), attendance.getAttendanceDate());
 
         qrCode.setScanCount(qrCode.getScanCount() + 1);
         qrCodeRepository.save(qrCode);
@@ -823,7 +988,7 @@ public class AttendanceRecordService {
         return toResponse(attendance);
     }
 
-    private double calculateDistance(double lat1, double lon1, double lat2, double lon2) {
+    double calculateDistance(double lat1, double lon1, double lat2, double lon2) {
         double R = 6371e3;
         double φ1 = Math.toRadians(lat1);
         double φ2 = Math.toRadians(lat2);
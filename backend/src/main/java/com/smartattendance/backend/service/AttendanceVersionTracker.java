@@ -0,0 +1,133 @@
+package com.smartattendance.backend.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Clock;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Version stamps for conditional GETs of attendance data, kept in memory
+ * per user and per organisation.
+ *
+ * Every attendance write bumps the writer's user stamp and its
+ * organisation's stamp; writes that touch every member at once (day close,
+ * imports, a new start-of-work time) bump an organisation-wide stamp that
+ * all of its users' stamps include. Stamps come from one increasing
+ * sequence and are bumped only after the transaction commits, so a new
+ * stamp is never paired with old data.
+ *
+ * Like the presence board the stamps live in this instance only; the ETag
+ * carries a per-start token so a restart never matches an old tag. Another
+ * instance never sees this one's writes, so validators are only handed out
+ * when attendance.conditional-get.enabled says this is the only instance;
+ * otherwise every response is a full 200. Retention bumps the stamps of the
+ * organisations whose rows it removed. A stamp younger than the settle
+ * window gets no ETag at all, because a replica may not have the write yet.
+ */
+@Component
+public class AttendanceVersionTracker {
+
+    private final String instance = HexFormat.of().toHexDigits(ThreadLocalRandom.current().nextInt());
+    private final AtomicLong sequence = new AtomicLong();
+    private final Stamp initial;
+    private final Clock clock;
+    private final long settleMillis;
+    private final boolean enabled;
+
+    private final ConcurrentMap<Long, Stamp> users = new ConcurrentHashMap<>();
+    private final ConcurrentMap<Long, Stamp> organisations = new ConcurrentHashMap<>();
+    private final ConcurrentMap<Long, Stamp> organisationWide = new ConcurrentHashMap<>();
+
+    @Autowired
+    public AttendanceVersionTracker(@Value("${attendance.conditional-get.settle-ms:5000}") long settleMillis,
+                                    @Value("${attendance.conditional-get.enabled:false}") boolean enabled) {
+        this(Clock.systemUTC(), settleMillis, enabled);
+    }
+
+    AttendanceVersionTracker(Clock clock, long settleMillis, boolean enabled) {
+        this.clock = clock;
+        this.settleMillis = settleMillis;
+        this.enabled = enabled;
+        this.initial = new Stamp(0, now());
+    }
+
+    public record Stamp(long sequence, Instant modifiedAt) {
+        // Concurrent bumps may land out of order; a stamp never moves backwards
+        private Stamp newer(Stamp other) {
+            return other != null && other.sequence > sequence ? other : this;
+        }
+    }
+
+    /** One user's attendance changed (check-in/out, correction, removal, profile). */
+    public void recordUserWrite(Long organisationId, Long userId) {
+        AfterCommit.run(() -> {
+            Stamp stamp = next();
+            users.merge(userId, stamp, Stamp::newer);
+            if (organisationId != null) {
+                organisations.merge(organisationId, stamp, Stamp::newer);
+            }
+        });
+    }
+
+    /** Something that can change every member's data in the organisation. */
+    public void recordOrganisationWrite(Long organisationId) {
+        AfterCommit.run(() -> {
+            Stamp stamp = next();
+            organisations.merge(organisationId, stamp, Stamp::newer);
+            organisationWide.merge(organisationId, stamp, Stamp::newer);
+        });
+    }
+
+    public Stamp forUser(Long organisationId, Long userId) {
+        Stamp stamp = initial.newer(users.get(userId));
+        return organisationId != null ? stamp.newer(organisationWide.get(organisationId)) : stamp;
+    }
+
+    public Stamp forOrganisation(Long organisationId) {
+        return initial.newer(organisations.get(organisationId));
+    }
+
+    /**
+     * Weak ETag for a response built from the stamp and the request's own
+     * inputs (who asked, query parameters, today's date), or null while the
+     * stamp is still settling or when validators are disabled.
+     */
+    public String etag(Stamp stamp, Object... qualifiers) {
+        if (!enabled) {
+            return null;
+        }
+        if (now().toEpochMilli() - stamp.modifiedAt().toEpochMilli() < settleMillis && stamp != initial) {
+            return null;
+        }
+        return "W/\"" + instance + "-" + stamp.sequence() + "-" + digest(qualifiers) + "\"";
+    }
+
+    private static String digest(Object[] qualifiers) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256")
+                    .digest(Arrays.deepToString(qualifiers).getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(hash, 0, 8);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private Stamp next() {
+        return new Stamp(sequence.incrementAndGet(), now());
+    }
+
+    private Instant now() {
+        return clock.instant();
+    }
+}
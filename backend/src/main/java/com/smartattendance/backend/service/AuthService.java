@@ -1,57 +1,107 @@
 package com.smartattendance.backend.service;
 
+import com.smartattendance.backend.datasource.SqlStatementTracker;
 import com.smartattendance.backend.dto.LoginRequest;
 import com.smartattendance.backend.dto.LoginResponse;
+import com.smartattendance.backend.dto.RefreshTokenRequest;
+import com.smartattendance.backend.entity.Organisation;
 import com.smartattendance.backend.entity.Users;
-import com.smartattendance.backend.repository.UserRepository;
+import com.smartattendance.backend.enums.RoleType;
+import com.smartattendance.backend.exception.InvalidRefreshTokenException;
+import com.smartattendance.backend.security.CustomUserDetails;
 import com.smartattendance.backend.security.JwtUtil;
+import com.smartattendance.backend.security.PasswordVerifier;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.security.authentication.AuthenticationManager;
-import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
-import org.springframework.security.core.Authentication;
+import org.springframework.security.authentication.AccountStatusUserDetailsChecker;
+import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class AuthService {
 
-    private final UserRepository userRepository;
+    private final UserService userService;
     private final JwtUtil jwtUtil;
-    private final AuthenticationManager authenticationManager;
+    private final PasswordVerifier passwordVerifier;
+    private final LastLoginRecorder lastLoginRecorder;
+    private final RefreshTokenService refreshTokenService;
+    private final OrganisationService organisationService;
+    // Spring's general task executor; keeps the refresh-token INSERT off the hashing pool
+    private final Executor applicationTaskExecutor;
+    // Submitted from a hashing thread, so the request's SQL stats are handed over explicitly
+    private final SqlStatementTracker sqlStatementTracker;
+    private final AccountStatusUserDetailsChecker accountStatusChecker = new AccountStatusUserDetailsChecker();
 
     /**
-     * Authenticate user and generate JWT token
+     * Authenticate user and generate JWT token.
+     * The user is loaded once, the password is checked on the hashing pool
+     * and last login is recorded write-behind, so no database connection is
+     * held while BCrypt runs. Tokens are issued on the task executor, so
+     * hashing threads never wait on the database either.
      */
-    public LoginResponse login(LoginRequest request) {
+    public CompletableFuture<LoginResponse> login(LoginRequest request) {
         log.info("Login attempt for email: {}", request.getEmail());
 
-        // 1. Authenticate using Spring Security
-        Authentication authentication = authenticationManager.authenticate(
-                new UsernamePasswordAuthenticationToken(
-                        request.getEmail(),
-                        request.getPassword()
-                )
-        );
+        // 1. Load user (normally from the second-level cache)
+        Optional<Users> found = userService.findForLogin(request.getEmail());
+        found.ifPresent(user -> accountStatusChecker.check(new CustomUserDetails(user)));
 
-        // 2. Load user from database
-        Users user = userRepository.findByEmail(request.getEmail())
-                .orElseThrow(() -> new RuntimeException("User not found"));
+        // 2. Verify password off the request thread
+        return passwordVerifier.matches(request.getPassword(), found.map(Users::getPassword).orElse(null))
+                .thenApplyAsync(matches -> {
+                    if (!matches) {
+                        throw new BadCredentialsException("Bad credentials");
+                    }
+                    Users user = found.orElseThrow();
 
-        // 3. Update last login time
-        user.setLastLogin(LocalDateTime.now());
-        userRepository.save(user);
+                    // 3. Update last login time (batched)
+                    lastLoginRecorder.record(user.getId(), LocalDateTime.now());
 
-        // 4. Generate JWT token
-        String token = jwtUtil.generateToken(user);
+                    // 4. Generate access and refresh tokens
+                    String token = jwtUtil.generateToken(user);
+                    String refreshToken = refreshTokenService.issue(user);
 
-        // 5. Build response
-        log.info("Login successful for user: {} with role: {}",
-                user.getEmail(), user.getRole());
+                    log.info("Login successful for user: {} with role: {}",
+                            user.getEmail(), user.getRole());
 
+                    return buildResponse(user, token, refreshToken, user.getOrganisation());
+                }, sqlStatementTracker.propagating(applicationTaskExecutor));
+    }
+
+    /**
+     * Re-issue an access token from a refresh token, without a password check.
+     * A SuperAdmin may pass the organisation they had selected to keep it.
+     */
+    public LoginResponse refresh(RefreshTokenRequest request) {
+        RefreshTokenService.Rotation rotation = refreshTokenService.rotate(request.getRefreshToken());
+
+        Users user = userService.findActiveById(rotation.userId())
+                .filter(found -> new CustomUserDetails(found).isEnabled())
+                .orElseThrow(() -> new InvalidRefreshTokenException("Account is no longer active"));
+
+        if (user.getRole() == RoleType.SUPER_ADMIN && request.getOrganisationId() != null) {
+            Organisation selected = organisationService.findById(request.getOrganisationId());
+            return buildResponse(user, jwtUtil.generateTokenWithOrg(user, selected.getId()),
+                    rotation.refreshToken(), selected);
+        }
+        return buildResponse(user, jwtUtil.generateToken(user), rotation.refreshToken(), user.getOrganisation());
+    }
+
+    /**
+     * Revoke the refresh token family the client holds
+     */
+    public void logout(RefreshTokenRequest request) {
+        refreshTokenService.revoke(request.getRefreshToken());
+    }
+
+    private LoginResponse buildResponse(Users user, String token, String refreshToken, Organisation organisation) {
         return LoginResponse.builder()
                 .token(token)
                 .type("Bearer")
@@ -62,9 +112,9 @@ public class AuthService {
                 .role(user.getRole())
                 .organisationId(user.getOrganisation() != null ?
                         user.getOrganisation().getId() : null)
-                .organisationName(user.getOrganisation() != null ?
-                        user.getOrganisation().getName() : null)
-                .expiresIn(7200000L)
+                .organisationName(organisation != null ? organisation.getName() : null)
+                .expiresIn(jwtUtil.getExpiration())
+                .refreshToken(refreshToken)
                 .build();
     }
-}
\ No newline at end of file
+}
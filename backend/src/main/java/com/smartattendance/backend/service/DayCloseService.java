@@ -0,0 +1,247 @@
+package com.smartattendance.backend.service;
+
+import com.smartattendance.backend.datasource.ReadFromPrimary;
+import com.smartattendance.backend.datasource.UseConnectionPool;
+import com.smartattendance.backend.dto.PresenceMember;
+import com.smartattendance.backend.entity.Organisation;
+import com.smartattendance.backend.enums.AttendanceMethod;
+import com.smartattendance.backend.enums.ConnectionPoolType;
+import com.smartattendance.backend.enums.DayClosePolicy;
+import com.smartattendance.backend.enums.RoleType;
+import com.smartattendance.backend.enums.UserStatus;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.DayOfWeek;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * End-of-day close, per organisation and per day of the organisation's own
+ * time zone. Closing a day is three set-based statements in one transaction:
+ * check out every session still open under the configured policy, record an
+ * absence for each active user with no record on a work day, and mark the
+ * day closed in day_close_runs. Each statement only touches rows not yet
+ * handled, and the run row is unique per organisation and day, so running a
+ * day again, from this or another instance, changes nothing.
+ *
+ * Attendance timestamps are server-local, so an organisation's day is
+ * translated into the server's zone before querying.
+ */
+@Service
+public class DayCloseService {
+
+    private static final String INSERT_RUN_SQL = "INSERT INTO day_close_runs "
+            + "(organisation_id, close_date, policy, closed_sessions, absentees, created_at, updated_at, is_deleted) "
+            + "VALUES (?, ?, ?, 0, 0, ?, ?, FALSE)";
+
+    private static final String UPDATE_RUN_SQL = "UPDATE day_close_runs SET closed_sessions = ?, absentees = ?, "
+            + "updated_at = ? WHERE organisation_id = ? AND close_date = ?";
+
+    private static final String OPEN_SESSIONS_FILTER = " WHERE organisation_id = ? AND is_deleted = FALSE "
+            + "AND attendance_date >= ? AND attendance_date < ? AND check_out_time IS NULL";
+
+    private static final String INSERT_ABSENCES_SQL = "INSERT INTO attendance_absences "
+            + "(user_id, organisation_id, absence_date, created_at, updated_at, is_deleted) "
+            + "SELECT u.id, u.organization_id, ?, ?, ?, FALSE FROM users u "
+            + "WHERE u.organization_id = ? AND u.is_deleted = FALSE AND u.status = ? AND u.role <> ? "
+            + "AND u.created_at < ? "
+            + "AND NOT EXISTS (SELECT 1 FROM attendance_records r WHERE r.user_id = u.id AND r.is_deleted = FALSE "
+            + "AND r.attendance_date >= ? AND r.attendance_date < ?) "
+            + "AND NOT EXISTS (SELECT 1 FROM attendance_absences a WHERE a.user_id = u.id AND a.absence_date = ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final AttendanceVersionTracker attendanceVersionTracker;
+    private final DayClosePolicy policy;
+    private final LocalTime closeTime;
+    private final int shiftMinutes;
+    private final int graceMinutes;
+    private final int catchUpDays;
+    private final Counter closedSessions;
+    private final Counter absentees;
+
+    public DayCloseService(JdbcTemplate jdbcTemplate,
+                           PlatformTransactionManager transactionManager,
+                           AttendanceVersionTracker attendanceVersionTracker,
+                           MeterRegistry meterRegistry,
+                           @Value("${attendance.day-close.policy:FIXED_TIME}") DayClosePolicy policy,
+                           @Value("${attendance.day-close.close-time:17:00}") LocalTime closeTime,
+                           @Value("${attendance.day-close.shift-hours:8}") double shiftHours,
+                           @Value("${attendance.day-close.grace-minutes:60}") int graceMinutes,
+                           @Value("${attendance.day-close.catch-up-days:7}") int catchUpDays) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.attendanceVersionTracker = attendanceVersionTracker;
+        this.policy = policy;
+        this.closeTime = closeTime;
+        this.shiftMinutes = (int) Math.round(shiftHours * 60);
+        this.graceMinutes = graceMinutes;
+        this.catchUpDays = Math.max(catchUpDays, 1);
+        this.closedSessions = Counter.builder("attendance.day-close.sessions")
+                .description("Open sessions checked out by the end-of-day close")
+                .register(meterRegistry);
+        this.absentees = Counter.builder("attendance.day-close.absences")
+                .description("Absences recorded by the end-of-day close")
+                .register(meterRegistry);
+    }
+
+    public record OrganisationDay(Long organisationId, LocalDate date, ZoneId zone) {}
+
+    public record DayCloseResult(Long organisationId, LocalDate date, int closedSessions, int absentees,
+                                 boolean alreadyClosed) {}
+
+    /**
+     * Organisation days that have ended (plus the grace period) in their own
+     * zone and are not closed yet, oldest first, going back at most
+     * catch-up-days and never before the organisation existed.
+     */
+    @UseConnectionPool(ConnectionPoolType.REPORTING)
+    @ReadFromPrimary
+    public List<OrganisationDay> findDueDays(Instant now) {
+        LocalDate oldest = now.atZone(ZoneId.systemDefault()).toLocalDate().minusDays(catchUpDays + 1L);
+        Set<String> closed = new HashSet<>();
+        List<OrganisationDay> due = new ArrayList<>();
+
+        transactionTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.query("SELECT organisation_id, close_date FROM day_close_runs WHERE close_date >= ?",
+                    resultSet -> {
+                        closed.add(resultSet.getLong(1) + "/" + resultSet.getDate(2).toLocalDate());
+                    }, Date.valueOf(oldest));
+
+            jdbcTemplate.query("SELECT id, time_zone, created_at FROM organisations WHERE is_deleted = FALSE "
+                    + "ORDER BY id", resultSet -> {
+                long organisationId = resultSet.getLong(1);
+                ZoneId zone = OrganisationZones.of(resultSet.getString(2));
+                LocalDate created = resultSet.getTimestamp(3).toLocalDateTime()
+                        .atZone(ZoneId.systemDefault()).withZoneSameInstant(zone).toLocalDate();
+                LocalDate lastEnded = now.atZone(zone).minusMinutes(graceMinutes).toLocalDate().minusDays(1);
+                LocalDate first = lastEnded.minusDays(catchUpDays - 1L);
+                for (LocalDate date = first.isBefore(created) ? created : first;
+                     !date.isAfter(lastEnded); date = date.plusDays(1)) {
+                    if (!closed.contains(organisationId + "/" + date)) {
+                        due.add(new OrganisationDay(organisationId, date, zone));
+                    }
+                }
+            });
+        });
+        return due;
+    }
+
+    /**
+     * Closes one organisation day. Safe to call again for a day that is
+     * already closed or being closed elsewhere.
+     */
+    @UseConnectionPool(ConnectionPoolType.REPORTING)
+    @ReadFromPrimary
+    public DayCloseResult closeDay(OrganisationDay day) {
+        ZoneId server = ZoneId.systemDefault();
+        LocalDateTime start = day.date().atStartOfDay(day.zone()).withZoneSameInstant(server).toLocalDateTime();
+        LocalDateTime end = day.date().plusDays(1).atStartOfDay(day.zone())
+                .withZoneSameInstant(server).toLocalDateTime();
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+
+        DayCloseResult result = transactionTemplate.execute(status -> {
+            try {
+                jdbcTemplate.update(INSERT_RUN_SQL, day.organisationId(), Date.valueOf(day.date()),
+                        policy.name(), now, now);
+            } catch (DuplicateKeyException e) {
+                return new DayCloseResult(day.organisationId(), day.date(), 0, 0, true);
+            }
+
+            int closed = closeOpenSessions(day, start, end, now);
+            int absent = isWorkDay(day.date())
+                    ? jdbcTemplate.update(INSERT_ABSENCES_SQL,
+                            Date.valueOf(day.date()), now, now,
+                            day.organisationId(), UserStatus.ACTIVE.name(), RoleType.SUPER_ADMIN.name(),
+                            Timestamp.valueOf(end),
+                            Timestamp.valueOf(start), Timestamp.valueOf(end),
+                            Date.valueOf(day.date()))
+                    : 0;
+
+            jdbcTemplate.update(UPDATE_RUN_SQL, closed, absent, now, day.organisationId(),
+                    Date.valueOf(day.date()));
+            return new DayCloseResult(day.organisationId(), day.date(), closed, absent, false);
+        });
+
+        closedSessions.increment(result.closedSessions());
+        absentees.increment(result.absentees());
+        if (result.closedSessions() > 0 || result.absentees() > 0) {
+            attendanceVersionTracker.recordOrganisationWrite(day.organisationId());
+        }
+        return result;
+    }
+
+    /** Closes a past day of one organisation on request, e.g. after fixing its time zone. */
+    @UseConnectionPool(ConnectionPoolType.REPORTING)
+    @ReadFromPrimary
+    public DayCloseResult closeDay(Organisation organisation, LocalDate date) {
+        ZoneId zone = OrganisationZones.of(organisation.getTimeZone());
+        if (!date.isBefore(LocalDate.now(zone))) {
+            throw new RuntimeException("Only days that have ended can be closed");
+        }
+        return closeDay(new OrganisationDay(organisation.getId(), date, zone));
+    }
+
+    /** Absences recorded for the organisation on the given day, by name. */
+    @UseConnectionPool(ConnectionPoolType.REPORTING)
+    public List<PresenceMember> findAbsentees(Long organisationId, LocalDate date) {
+        return transactionTemplate.execute(status -> jdbcTemplate.query(
+                "SELECT u.id, u.first_name, u.last_name, u.email FROM attendance_absences a "
+                        + "JOIN users u ON u.id = a.user_id "
+                        + "WHERE a.organisation_id = ? AND a.absence_date = ? AND a.is_deleted = FALSE "
+                        + "ORDER BY u.first_name, u.last_name",
+                (resultSet, rowNum) -> new PresenceMember(resultSet.getLong(1),
+                        resultSet.getString(2) + " " + resultSet.getString(3), resultSet.getString(4)),
+                organisationId, Date.valueOf(date)));
+    }
+
+    private int closeOpenSessions(OrganisationDay day, LocalDateTime start, LocalDateTime end, Timestamp now) {
+        String checkOutExpression;
+        List<Object> params = new ArrayList<>();
+        switch (policy) {
+            case FIXED_TIME -> {
+                Timestamp closeAt = Timestamp.valueOf(day.date().atTime(closeTime).atZone(day.zone())
+                        .withZoneSameInstant(ZoneId.systemDefault()).toLocalDateTime());
+                checkOutExpression = "CASE WHEN check_in_time > ? THEN check_in_time ELSE ? END";
+                params.add(closeAt);
+                params.add(closeAt);
+            }
+            case SHIFT_LENGTH -> {
+                checkOutExpression = "LEAST(TIMESTAMPADD(MINUTE, ?, check_in_time), ?)";
+                params.add(shiftMinutes);
+                params.add(Timestamp.valueOf(end.minusSeconds(1)));
+            }
+            default -> checkOutExpression = "check_in_time";
+        }
+        params.add(AttendanceMethod.MANUAL.name());
+        params.add(now);
+        params.add(day.organisationId());
+        params.add(Timestamp.valueOf(start));
+        params.add(Timestamp.valueOf(end));
+
+        return jdbcTemplate.update("UPDATE attendance_records SET check_out_time = " + checkOutExpression
+                + ", check_out_method = ?, auto_closed = TRUE, updated_at = ?" + OPEN_SESSIONS_FILTER,
+                params.toArray());
+    }
+
+    private static boolean isWorkDay(LocalDate date) {
+        DayOfWeek dayOfWeek = date.getDayOfWeek();
+        return dayOfWeek != DayOfWeek.SATURDAY && dayOfWeek != DayOfWeek.SUNDAY;
+    }
+}
@@ -0,0 +1,87 @@
+package com.smartattendance.backend.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Write-behind for users.last_login. Logins only record the timestamp in
+ * memory; a scheduled flush writes everything collected since the last run
+ * as one JDBC batch. Repeated logins by the same user collapse into a single
+ * row update, and a crash loses at most one flush interval of timestamps.
+ */
+@Component
+@Slf4j
+public class LastLoginRecorder {
+
+    private static final String UPDATE_SQL = "UPDATE users SET last_login = ? WHERE id = ?";
+
+    private final Map<Long, LocalDateTime> pending = new ConcurrentHashMap<>();
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ReferenceDataCache referenceDataCache;
+    private final Counter flushed;
+
+    public LastLoginRecorder(JdbcTemplate jdbcTemplate,
+                             PlatformTransactionManager transactionManager,
+                             ReferenceDataCache referenceDataCache,
+                             MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.referenceDataCache = referenceDataCache;
+        this.flushed = Counter.builder("attendance.auth.last-login.flushed")
+                .description("last_login values written by the write-behind flush")
+                .register(meterRegistry);
+        Gauge.builder("attendance.auth.last-login.pending", pending, Map::size)
+                .description("Logins whose last_login has not been written yet")
+                .register(meterRegistry);
+    }
+
+    public void record(Long userId, LocalDateTime loginTime) {
+        pending.merge(userId, loginTime, (previous, latest) -> latest.isAfter(previous) ? latest : previous);
+    }
+
+    @Scheduled(fixedDelayString = "${attendance.auth.last-login-flush-ms:5000}")
+    public void flush() {
+        if (pending.isEmpty()) {
+            return;
+        }
+        List<Object[]> batch = new ArrayList<>();
+        for (Long userId : List.copyOf(pending.keySet())) {
+            LocalDateTime loginTime = pending.remove(userId);
+            if (loginTime != null) {
+                batch.add(new Object[]{Timestamp.valueOf(loginTime), userId});
+            }
+        }
+        try {
+            transactionTemplate.executeWithoutResult(status -> jdbcTemplate.batchUpdate(UPDATE_SQL, batch));
+        } catch (RuntimeException e) {
+            // Put the values back unless a newer login arrived meanwhile
+            batch.forEach(row -> record((Long) row[1], ((Timestamp) row[0]).toLocalDateTime()));
+            log.warn("Failed to flush {} last-login updates, will retry", batch.size(), e);
+            return;
+        }
+        batch.forEach(row -> referenceDataCache.evictUser((Long) row[1]));
+        flushed.increment(batch.size());
+        log.debug("Flushed {} last-login updates", batch.size());
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        flush();
+    }
+}
@@ -11,7 +11,9 @@ import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.DateTimeException;
 import java.time.LocalTime;
+import java.time.ZoneId;
 import java.util.List;
 
 @Service
@@ -19,6 +21,11 @@ import java.util.List;
 public class OrganisationService {
     private final OrganisationRepository organisationRepository;
     private final UserRepository userRepository;
+    private final PresenceBoardService presenceBoardService;
+    private final AttendanceHistoryIndex attendanceHistoryIndex;
+    private final UserSearchIndex userSearchIndex;
+    private final ReferenceDataCache referenceDataCache;
+    private final AttendanceVersionTracker attendanceVersionTracker;
 
     private static final double DEFAULT_LATITUDE = 5.631155029146822;
     private static final double DEFAULT_LONGITUDE = -0.22219213171956173;
@@ -45,6 +52,10 @@ public class OrganisationService {
             organisation.setStartWorkTime(LocalTime.of(8, 15)); // Use your default time
         }
 
+        if (organisation.getTimeZone() != null) {
+            organisation.setTimeZone(validTimeZone(organisation.getTimeZone()));
+        }
+
         if (organisation.getLatitude() == null) {
             organisation.setLatitude(DEFAULT_LATITUDE);
         }
@@ -55,29 +66,48 @@ public class OrganisationService {
         return organisationRepository.save(organisation);
     }
 
+    @Transactional(readOnly = true)
     public List<Organisation> getAllActiveOrganisations() {
         return organisationRepository.findByDeletedFalse();
     }
 
+    @Transactional(readOnly = true)
     public List<Organisation> findOrganisations() {
         return organisationRepository.findAll();
     }
 
+    @Transactional(readOnly = true)
     public Organisation findById(Long id) {
         return organisationRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Organisation not found"));
     }
 
+    /**
+     * Same as findById but with the creator loaded, for OrganisationResponse
+     */
+    @Transactional(readOnly = true)
+    public Organisation findWithCreatorById(Long id) {
+        return organisationRepository.findWithCreatorById(id)
+                .orElseThrow(() -> new RuntimeException("Organisation not found"));
+    }
+
+    @Transactional
     public Organisation softDeleteOrganisation(Long id) {
-        Organisation organisation = organisationRepository.findById(id)
+        Organisation organisation = organisationRepository.findWithCreatorById(id)
                 .orElseThrow(() -> new RuntimeException("Organisation not found"));
 
         organisation.setDeleted(true); // mark as deleted
-        return organisationRepository.save(organisation); // save updates only the deleted flag
+        Organisation saved = organisationRepository.save(organisation); // save updates only the deleted flag
+        referenceDataCache.evictOrganisation(id);
+        presenceBoardService.removeOrganisation(id);
+        attendanceHistoryIndex.removeOrganisation(id);
+        userSearchIndex.removeOrganisation(id);
+        return saved;
     }
 
+    @Transactional
     public Organisation updateOrganisation(Long id, Organisation updatedOrg) {
-        Organisation existing = organisationRepository.findById(id)
+        Organisation existing = organisationRepository.findWithCreatorById(id)
                 .orElseThrow(() -> new RuntimeException("Organisation not found"));
 
         existing.setName(updatedOrg.getName());
@@ -90,9 +120,17 @@ public class OrganisationService {
         if (updatedOrg.getLongitude() != null) {
             existing.setLongitude(updatedOrg.getLongitude());
         }
-        return organisationRepository.save(existing);
+        if (updatedOrg.getTimeZone() != null) {
+            existing.setTimeZone(validTimeZone(updatedOrg.getTimeZone()));
+        }
+        Organisation saved = organisationRepository.save(existing);
+        referenceDataCache.evictOrganisation(id);
+        presenceBoardService.updateTimeZone(id, saved.getTimeZone());
+        attendanceVersionTracker.recordOrganisationWrite(id);
+        return saved;
     }
 
+    @Transactional(readOnly = true)
     public LocalTime getDefaultStartTime(Long organisationId) {
         return organisationRepository.findById(organisationId)
                 .map(Organisation::getStartWorkTime)
@@ -102,12 +140,23 @@ public class OrganisationService {
     @Transactional
     public Organisation updateStartWorkTime(Long organisationId, LocalTime newStartTime) {
         // 1. Find the Organisation by ID
-        Organisation organisation = organisationRepository.findById(organisationId)
+        Organisation organisation = organisationRepository.findWithCreatorById(organisationId)
                 .orElseThrow(() -> new ResourceNotFoundException("Organisation not found"));
 
         // 2. Update the field and save
         organisation.setStartWorkTime(newStartTime);
-        return organisationRepository.save(organisation);
+        Organisation saved = organisationRepository.save(organisation);
+        referenceDataCache.evictOrganisation(organisationId);
+        presenceBoardService.updateStartWorkTime(organisationId, newStartTime);
+        attendanceVersionTracker.recordOrganisationWrite(organisationId);
+        return saved;
     }
 
+    private static String validTimeZone(String timeZone) {
+        try {
+            return ZoneId.of(timeZone.trim()).getId();
+        } catch (DateTimeException e) {
+            throw new RuntimeException("Unknown time zone: " + timeZone);
+        }
+    }
 }
@@ -0,0 +1,30 @@
+package com.smartattendance.backend.service;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.DateTimeException;
+import java.time.ZoneId;
+
+/**
+ * Resolves an organisation's configured time zone, shared by day close and
+ * the presence board so both agree on where an organisation's day begins.
+ */
+@Slf4j
+final class OrganisationZones {
+
+    private OrganisationZones() {
+    }
+
+    /** An organisation's zone, falling back to the server's when it is unset or unknown. */
+    static ZoneId of(String timeZone) {
+        if (timeZone == null || timeZone.isBlank()) {
+            return ZoneId.systemDefault();
+        }
+        try {
+            return ZoneId.of(timeZone);
+        } catch (DateTimeException e) {
+            log.warn("Organisation has an unknown time zone '{}', using the server zone", timeZone);
+            return ZoneId.systemDefault();
+        }
+    }
+}
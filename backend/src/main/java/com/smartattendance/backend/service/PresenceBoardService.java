@@ -0,0 +1,366 @@
+package com.smartattendance.backend.service;
+
+import com.smartattendance.backend.datasource.ReadFromPrimary;
+import com.smartattendance.backend.datasource.UseConnectionPool;
+import com.smartattendance.backend.dto.PresenceMember;
+import com.smartattendance.backend.dto.PresenceSummary;
+import com.smartattendance.backend.entity.AttendanceRecord;
+import com.smartattendance.backend.entity.Organisation;
+import com.smartattendance.backend.entity.Users;
+import com.smartattendance.backend.enums.ConnectionPoolType;
+import com.smartattendance.backend.enums.UserStatus;
+import com.smartattendance.backend.repository.AttendanceRecordRepository;
+import com.smartattendance.backend.repository.OrganisationRepository;
+import com.smartattendance.backend.repository.UserRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Consumer;
+
+/**
+ * Live "who is in right now" board kept in memory per organisation.
+ *
+ * Every user of an organisation gets a dense ordinal, and the day's check-ins,
+ * check-outs and late arrivals are tracked as bitsets over those ordinals, so
+ * present/absent counts and absentee lists never touch the database.
+ * The board is rebuilt from the database at startup and resets itself the
+ * first time it is touched on a new day of the organisation's own time zone.
+ * Writes reach the board only once their transaction has committed.
+ *
+ * Attendance timestamps are server-local, so they are moved into the
+ * organisation's zone before deciding which day, and how late, they are.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class PresenceBoardService {
+
+    private static final LocalTime DEFAULT_START_WORK_TIME = LocalTime.of(8, 15);
+
+    private final OrganisationRepository organisationRepository;
+    private final UserRepository userRepository;
+    private final AttendanceRecordRepository attendanceRecordRepository;
+
+    // Replaced wholesale by rebuild(), so readers never see it half filled
+    private volatile ConcurrentMap<Long, OrganisationBoard> boards = new ConcurrentHashMap<>();
+
+    @EventListener(ApplicationReadyEvent.class)
+    @UseConnectionPool(ConnectionPoolType.REPORTING)
+    @ReadFromPrimary
+    public void rebuild() {
+        ConcurrentMap<Long, OrganisationBoard> rebuilt = new ConcurrentHashMap<>();
+
+        // One query covering every organisation's today; each board keeps only its own day
+        LocalDateTime from = LocalDate.now().atStartOfDay();
+        LocalDateTime to = LocalDate.now().atTime(LocalTime.MAX);
+        for (Organisation organisation : organisationRepository.findByDeletedFalse()) {
+            OrganisationBoard board = newBoard(organisation);
+            rebuilt.put(organisation.getId(), board);
+            LocalDateTime start = board.startOfDay();
+            LocalDateTime end = board.startOfNextDay().minusNanos(1);
+            from = start.isBefore(from) ? start : from;
+            to = end.isAfter(to) ? end : to;
+        }
+
+        Map<Long, Long> organisationByUser = new HashMap<>();
+        for (Users user : userRepository.findByDeletedFalse()) {
+            if (user.getOrganisation() == null) {
+                continue;
+            }
+            OrganisationBoard board = rebuilt.get(user.getOrganisation().getId());
+            if (board != null) {
+                board.register(user);
+                organisationByUser.put(user.getId(), user.getOrganisation().getId());
+            }
+        }
+
+        List<AttendanceRecord> todaysRecords = attendanceRecordRepository
+                .findByAttendanceDateBetweenAndDeletedFalse(from, to);
+
+        for (AttendanceRecord record : todaysRecords) {
+            Long organisationId = organisationByUser.get(record.getUser().getId());
+            OrganisationBoard board = organisationId != null ? rebuilt.get(organisationId) : null;
+            if (board == null) {
+                continue;
+            }
+            board.checkIn(record.getUser().getId(), record.getCheckInTime());
+            if (record.getCheckOutTime() != null) {
+                board.checkOut(record.getUser().getId(), record.getAttendanceDate());
+            }
+        }
+
+        boards = rebuilt;
+        log.info("Presence board rebuilt for {} organisations from {} attendance records",
+                rebuilt.size(), todaysRecords.size());
+    }
+
+    public void recordCheckIn(Long organisationId, Long userId, LocalDateTime checkInTime) {
+        if (checkInTime == null) {
+            return;
+        }
+        AfterCommit.run(() -> withBoard(organisationId, board -> board.checkIn(userId, checkInTime)));
+    }
+
+    public void recordCheckOut(Long organisationId, Long userId, LocalDateTime attendanceDate) {
+        if (attendanceDate == null) {
+            return;
+        }
+        AfterCommit.run(() -> withBoard(organisationId, board -> board.checkOut(userId, attendanceDate)));
+    }
+
+    public void recordRemoval(Long organisationId, Long userId, LocalDateTime attendanceDate) {
+        if (attendanceDate == null) {
+            return;
+        }
+        AfterCommit.run(() -> withBoard(organisationId, board -> board.clearAttendance(userId, attendanceDate)));
+    }
+
+    public void registerUser(Users user) {
+        if (user.getOrganisation() == null) {
+            return;
+        }
+        Long organisationId = user.getOrganisation().getId();
+        AfterCommit.run(() -> withBoard(organisationId, board -> {
+            if (user.isDeleted()) {
+                board.unregister(user.getId());
+            } else {
+                board.register(user);
+            }
+        }));
+    }
+
+    public void unregisterUser(Long organisationId, Long userId) {
+        AfterCommit.run(() -> {
+            OrganisationBoard board = boards.get(organisationId);
+            if (board != null) {
+                board.unregister(userId);
+            }
+        });
+    }
+
+    public void updateStartWorkTime(Long organisationId, LocalTime startWorkTime) {
+        LocalTime lateAfter = startWorkTime != null ? startWorkTime : DEFAULT_START_WORK_TIME;
+        AfterCommit.run(() -> withBoard(organisationId, board -> board.setLateAfter(lateAfter)));
+    }
+
+    public void updateTimeZone(Long organisationId, String timeZone) {
+        ZoneId zone = OrganisationZones.of(timeZone);
+        AfterCommit.run(() -> withBoard(organisationId, board -> board.setZone(zone)));
+    }
+
+    public void removeOrganisation(Long organisationId) {
+        AfterCommit.run(() -> boards.remove(organisationId));
+    }
+
+    public PresenceSummary getSummary(Long organisationId) {
+        OrganisationBoard board = boards.get(organisationId);
+        return board != null
+                ? board.summary(organisationId)
+                : new PresenceSummary(organisationId, LocalDate.now(), 0, 0, 0, 0, 0, 0);
+    }
+
+    public List<PresenceMember> getAbsentees(Long organisationId) {
+        OrganisationBoard board = boards.get(organisationId);
+        return board != null ? board.absentees() : List.of();
+    }
+
+    public List<PresenceMember> getPresentMembers(Long organisationId) {
+        OrganisationBoard board = boards.get(organisationId);
+        return board != null ? board.present() : List.of();
+    }
+
+    // Writers only: reads of an organisation without a board must not create one
+    private void withBoard(Long organisationId, Consumer<OrganisationBoard> update) {
+        OrganisationBoard board = boards.computeIfAbsent(organisationId, id -> organisationRepository.findById(id)
+                .filter(organisation -> !organisation.isDeleted())
+                .map(this::newBoard)
+                .orElse(null));
+        if (board != null) {
+            update.accept(board);
+        }
+    }
+
+    private OrganisationBoard newBoard(Organisation organisation) {
+        return new OrganisationBoard(lateAfter(organisation), OrganisationZones.of(organisation.getTimeZone()));
+    }
+
+    private LocalTime lateAfter(Organisation organisation) {
+        return organisation.getStartWorkTime() != null ? organisation.getStartWorkTime() : DEFAULT_START_WORK_TIME;
+    }
+
+    /**
+     * Day state for a single organisation. Ordinals are never reused until the
+     * next rebuild, so a removed user simply drops out of the roster bitset.
+     */
+    private static final class OrganisationBoard {
+        private final Map<Long, Integer> ordinals = new HashMap<>();
+        private final List<PresenceMember> members = new ArrayList<>();
+        private final BitSet roster = new BitSet();
+        private final BitSet checkedIn = new BitSet();
+        private final BitSet checkedOut = new BitSet();
+        private final BitSet late = new BitSet();
+        private LocalTime lateAfter;
+        private ZoneId zone;
+        private LocalDate day;
+
+        private OrganisationBoard(LocalTime lateAfter, ZoneId zone) {
+            this.lateAfter = lateAfter;
+            this.zone = zone;
+            this.day = LocalDate.now(zone);
+        }
+
+        synchronized void register(Users user) {
+            int ordinal = ordinalFor(user.getId());
+            members.set(ordinal, new PresenceMember(user.getId(), user.getFullName(), user.getEmail()));
+            roster.set(ordinal, user.getStatus() == UserStatus.ACTIVE);
+        }
+
+        synchronized void unregister(Long userId) {
+            Integer ordinal = ordinals.get(userId);
+            if (ordinal != null) {
+                roster.clear(ordinal);
+            }
+        }
+
+        synchronized void setLateAfter(LocalTime lateAfter) {
+            this.lateAfter = lateAfter;
+        }
+
+        synchronized void setZone(ZoneId zone) {
+            this.zone = zone;
+        }
+
+        synchronized LocalDateTime startOfDay() {
+            return serverTime(LocalDate.now(zone));
+        }
+
+        synchronized LocalDateTime startOfNextDay() {
+            return serverTime(LocalDate.now(zone).plusDays(1));
+        }
+
+        synchronized void checkIn(Long userId, LocalDateTime checkInTime) {
+            LocalDateTime local = local(checkInTime);
+            if (!isToday(local)) {
+                return;
+            }
+            int ordinal = ordinalFor(userId);
+            checkedIn.set(ordinal);
+            checkedOut.clear(ordinal);
+            late.set(ordinal, local.toLocalTime().isAfter(lateAfter));
+        }
+
+        synchronized void checkOut(Long userId, LocalDateTime attendanceDate) {
+            if (isToday(local(attendanceDate))) {
+                checkedOut.set(ordinalFor(userId));
+            }
+        }
+
+        synchronized void clearAttendance(Long userId, LocalDateTime attendanceDate) {
+            if (!isToday(local(attendanceDate))) {
+                return;
+            }
+            Integer ordinal = ordinals.get(userId);
+            if (ordinal != null) {
+                checkedIn.clear(ordinal);
+                checkedOut.clear(ordinal);
+                late.clear(ordinal);
+            }
+        }
+
+        synchronized PresenceSummary summary(Long organisationId) {
+            rollOver();
+            BitSet in = inRoster(checkedIn);
+            BitSet out = inRoster(checkedOut);
+            BitSet present = (BitSet) in.clone();
+            present.andNot(out);
+            BitSet absent = (BitSet) roster.clone();
+            absent.andNot(in);
+
+            return new PresenceSummary(
+                    organisationId,
+                    day,
+                    roster.cardinality(),
+                    in.cardinality(),
+                    present.cardinality(),
+                    out.cardinality(),
+                    absent.cardinality(),
+                    inRoster(late).cardinality()
+            );
+        }
+
+        synchronized List<PresenceMember> absentees() {
+            rollOver();
+            BitSet absent = (BitSet) roster.clone();
+            absent.andNot(checkedIn);
+            return membersOf(absent);
+        }
+
+        synchronized List<PresenceMember> present() {
+            rollOver();
+            BitSet present = inRoster(checkedIn);
+            present.andNot(checkedOut);
+            return membersOf(present);
+        }
+
+        private BitSet inRoster(BitSet bits) {
+            BitSet result = (BitSet) bits.clone();
+            result.and(roster);
+            return result;
+        }
+
+        private List<PresenceMember> membersOf(BitSet bits) {
+            List<PresenceMember> result = new ArrayList<>(bits.cardinality());
+            for (int i = bits.nextSetBit(0); i >= 0; i = bits.nextSetBit(i + 1)) {
+                result.add(members.get(i));
+            }
+            return result;
+        }
+
+        private int ordinalFor(Long userId) {
+            Integer ordinal = ordinals.get(userId);
+            if (ordinal == null) {
+                ordinal = members.size();
+                ordinals.put(userId, ordinal);
+                members.add(new PresenceMember(userId, null, null));
+            }
+            return ordinal;
+        }
+
+        private LocalDateTime local(LocalDateTime serverTime) {
+            return serverTime.atZone(ZoneId.systemDefault()).withZoneSameInstant(zone).toLocalDateTime();
+        }
+
+        private LocalDateTime serverTime(LocalDate date) {
+            return date.atStartOfDay(zone).withZoneSameInstant(ZoneId.systemDefault()).toLocalDateTime();
+        }
+
+        private boolean isToday(LocalDateTime local) {
+            rollOver();
+            return local.toLocalDate().equals(day);
+        }
+
+        private void rollOver() {
+            LocalDate today = LocalDate.now(zone);
+            if (!today.equals(day)) {
+                checkedIn.clear();
+                checkedOut.clear();
+                late.clear();
+                day = today;
+            }
+        }
+    }
+}
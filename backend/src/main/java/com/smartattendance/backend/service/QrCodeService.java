@@ -9,13 +9,16 @@ import com.smartattendance.backend.dto.ValidatedQrCode;
 import com.smartattendance.backend.entity.Organisation;
 import com.smartattendance.backend.entity.QrCodeRecord;
 import com.smartattendance.backend.entity.Users;
+import com.smartattendance.backend.exception.ExpiredQrCodeException;
 import com.smartattendance.backend.exception.InvalidSignatureException;
 import com.smartattendance.backend.exception.QrCodeException;
 import com.smartattendance.backend.exception.ResourceNotFoundException;
+import com.smartattendance.backend.id.TimeOrderedIdGenerator;
 import com.smartattendance.backend.repository.QrCodeRecordRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.nio.charset.StandardCharsets;
 import java.security.MessageDigest;
@@ -36,8 +39,10 @@ public class QrCodeService {
     private static final double DEFAULT_LONGITUDE = -0.22219213171956173;
 
     private final QrCodeRecordRepository qrCodeRepository;
+    private final TimeOrderedIdGenerator idGenerator;
     private final ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
 
+    @Transactional
     public QrCodeRecord startAutoGeneration(Users admin, QrCodeRequest request) {
         List<QrCodeRecord> existingQrs = qrCodeRepository
                 .findByOrganisationAndActiveTrue(admin.getOrganisation());
@@ -61,6 +66,7 @@ public class QrCodeService {
         return persistWithPayload(qrCode);
     }
 
+    @Transactional
     public void stopAutoGeneration(Users admin) {
         List<QrCodeRecord> activeQrs = qrCodeRepository
                 .findByOrganisationAndActiveTrue(admin.getOrganisation());
@@ -75,6 +81,7 @@ public class QrCodeService {
         log.info("Stopped auto-generation for org {}", admin.getOrganisation().getId());
     }
 
+    @Transactional
     public QrCodeRecord getCurrentActiveQrCode(Organisation organisation) {
         List<QrCodeRecord> activeQrs = qrCodeRepository
                 .findByOrganisationAndActiveTrue(organisation);
@@ -95,6 +102,7 @@ public class QrCodeService {
         return current;
     }
 
+    @Transactional(readOnly = true)
     public boolean isAutoGenerating(Organisation organisation) {
         return qrCodeRepository.existsByOrganisationAndActiveTrueAndIsAutoGeneratingTrue(organisation);
     }
@@ -122,7 +130,7 @@ public class QrCodeService {
         if (record.getExpiresAt().isBefore(LocalDateTime.now(ZoneOffset.UTC))) {
             record.setActive(false);
             qrCodeRepository.save(record);
-            throw new QrCodeException("Expired QR Code");
+            throw new ExpiredQrCodeException("Expired QR Code");
         }
 
         return new ValidatedQrCode(record, payload);
@@ -152,10 +160,12 @@ public class QrCodeService {
     }
 
     private QrCodeRecord persistWithPayload(QrCodeRecord record) {
-        QrCodeRecord saved = qrCodeRepository.save(record);
-        saved.setSignature(buildSignature(saved.getOrganisation().getId(), saved.getExpiresAt()));
-        saved.setPayload(buildPayloadString(saved));
-        return qrCodeRepository.save(saved);
+        // The id is assigned up front so the payload can carry it and the row
+        // is written by a single INSERT
+        record.setId(idGenerator.nextId());
+        record.setSignature(buildSignature(record.getOrganisation().getId(), record.getExpiresAt()));
+        record.setPayload(buildPayloadString(record));
+        return qrCodeRepository.save(record);
     }
 
     private void ensurePayload(QrCodeRecord record) {
@@ -186,7 +196,7 @@ public class QrCodeService {
         return DEFAULT_LONGITUDE;
     }
 
-    private QrCodePayload parsePayload(String rawPayload) {
+    QrCodePayload parsePayload(String rawPayload) {
         try {
             return objectMapper.readValue(rawPayload, QrCodePayload.class);
         } catch (JsonProcessingException e) {
@@ -195,7 +205,7 @@ public class QrCodeService {
         }
     }
 
-    private String buildPayloadString(QrCodeRecord record) {
+    String buildPayloadString(QrCodeRecord record) {
         double lat = record.getLatitude() != null ? record.getLatitude() :
                 resolveLatitude(record.getOrganisation(), null);
         double lon = record.getLongitude() != null ? record.getLongitude() :
@@ -220,7 +230,7 @@ public class QrCodeService {
         }
     }
 
-    private String buildSignature(Long organisationId, LocalDateTime expiresAt) {
+    String buildSignature(Long organisationId, LocalDateTime expiresAt) {
         try {
             MessageDigest digest = MessageDigest.getInstance("SHA-256");
             String payload = QR_PREFIX + organisationId + expiresAt.toInstant(ZoneOffset.UTC).toEpochMilli();
@@ -0,0 +1,105 @@
+package com.smartattendance.backend.service;
+
+import com.smartattendance.backend.entity.Organisation;
+import com.smartattendance.backend.entity.Users;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.NaturalIdStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.stereotype.Service;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Explicit control over the second-level cache regions holding Organisation
+ * and Users rows. Entries are keyed by primary key (and users additionally
+ * by email through the natural-id region), so one tenant's rows can never be
+ * served for another tenant's id.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ReferenceDataCache {
+
+    private static final String ORGANISATION_REGION = "organisations";
+    private static final String USER_REGION = "users";
+
+    private final EntityManagerFactory entityManagerFactory;
+
+    public void evictOrganisation(Long organisationId) {
+        entityManagerFactory.getCache().evict(Organisation.class, organisationId);
+        log.debug("Evicted organisation {} from second-level cache", organisationId);
+    }
+
+    public void evictUser(Long userId) {
+        entityManagerFactory.getCache().evict(Users.class, userId);
+        log.debug("Evicted user {} from second-level cache", userId);
+    }
+
+    /**
+     * Drops every cached email lookup. Hibernate only evicts the natural-id
+     * region as a whole, so this is for bulk removals, where an email left
+     * behind would resolve to a deleted id and hide a new user with that email.
+     */
+    public void evictUserEmails() {
+        sessionFactory().getCache().evictNaturalIdData(Users.class);
+        log.debug("Evicted all user email lookups from second-level cache");
+    }
+
+    public void evictOrganisations() {
+        entityManagerFactory.getCache().evict(Organisation.class);
+        log.debug("Evicted all organisations from second-level cache");
+    }
+
+    /**
+     * Hit/miss counters per cache region, plus the natural-id lookups by email.
+     */
+    public Map<String, Object> getStatistics() {
+        Statistics statistics = sessionFactory().getStatistics();
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("organisations", regionStatistics(statistics.getDomainDataRegionStatistics(ORGANISATION_REGION)));
+        result.put("users", regionStatistics(statistics.getDomainDataRegionStatistics(USER_REGION)));
+
+        NaturalIdStatistics naturalId = statistics.getNaturalIdStatistics(Users.class.getName());
+        result.put("usersByEmail", Map.of(
+                "hits", naturalId.getCacheHitCount(),
+                "misses", naturalId.getCacheMissCount(),
+                "puts", naturalId.getCachePutCount(),
+                "hitRatio", hitRatio(naturalId.getCacheHitCount(), naturalId.getCacheMissCount()),
+                "databaseLoads", naturalId.getExecutionCount()
+        ));
+        result.put("overall", Map.of(
+                "hits", statistics.getSecondLevelCacheHitCount(),
+                "misses", statistics.getSecondLevelCacheMissCount(),
+                "hitRatio", hitRatio(statistics.getSecondLevelCacheHitCount(),
+                        statistics.getSecondLevelCacheMissCount())
+        ));
+        return result;
+    }
+
+    private Map<String, Object> regionStatistics(CacheRegionStatistics region) {
+        if (region == null) {
+            return Map.of();
+        }
+        return Map.of(
+                "hits", region.getHitCount(),
+                "misses", region.getMissCount(),
+                "puts", region.getPutCount(),
+                "hitRatio", hitRatio(region.getHitCount(), region.getMissCount()),
+                "entriesInMemory", region.getElementCountInMemory()
+        );
+    }
+
+    private double hitRatio(long hits, long misses) {
+        long total = hits + misses;
+        return total == 0 ? 0.0 : Math.round((double) hits / total * 1000.0) / 10.0;
+    }
+
+    private SessionFactory sessionFactory() {
+        return entityManagerFactory.unwrap(SessionFactory.class);
+    }
+}
@@ -0,0 +1,162 @@
+package com.smartattendance.backend.service;
+
+import com.smartattendance.backend.entity.RefreshToken;
+import com.smartattendance.backend.entity.Users;
+import com.smartattendance.backend.exception.InvalidRefreshTokenException;
+import com.smartattendance.backend.repository.RefreshTokenRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.UUID;
+
+/**
+ * Rotating refresh tokens. Each refresh consumes the presented token and
+ * issues the next one in the same family. Presenting a consumed token again
+ * means it was copied, so the whole family is revoked and the user has to
+ * sign in with a password.
+ *
+ * Browser tabs share one stored token, so two tabs can present it at the
+ * same moment. A consumed token presented again within a few seconds is
+ * answered once with another token of the same family instead; the
+ * consumed row records that, so a second replay, even inside the window,
+ * revokes the family like any other reuse.
+ */
+@Service
+@Slf4j
+public class RefreshTokenService {
+
+    private final RefreshTokenRepository refreshTokenRepository;
+    private final MeterRegistry meterRegistry;
+    private final long refreshExpiration;
+    private final Duration reuseGrace;
+    private final SecureRandom secureRandom = new SecureRandom();
+
+    public RefreshTokenService(RefreshTokenRepository refreshTokenRepository,
+                               MeterRegistry meterRegistry,
+                               @Value("${jwt.refresh-expiration}") long refreshExpiration,
+                               @Value("${attendance.auth.refresh-reuse-grace-ms:10000}") long reuseGraceMillis) {
+        this.refreshTokenRepository = refreshTokenRepository;
+        this.meterRegistry = meterRegistry;
+        this.refreshExpiration = refreshExpiration;
+        this.reuseGrace = Duration.ofMillis(reuseGraceMillis);
+    }
+
+    /**
+     * Start a new token family, called after a password login
+     */
+    @Transactional
+    public String issue(Users user) {
+        return issue(user, UUID.randomUUID().toString());
+    }
+
+    /**
+     * Exchange a refresh token for the next one in its family
+     */
+    @Transactional(noRollbackFor = InvalidRefreshTokenException.class)
+    public Rotation rotate(String rawToken) {
+        if (rawToken == null || rawToken.isBlank()) {
+            throw rejected("invalid", "Refresh token is required");
+        }
+        RefreshToken token = refreshTokenRepository.findByTokenHash(hash(rawToken))
+                .orElseThrow(() -> rejected("invalid", "Invalid refresh token"));
+        LocalDateTime now = LocalDateTime.now();
+
+        if (token.getConsumedAt() != null && token.getRevokedAt() == null && token.getReissuedAt() == null
+                && token.getConsumedAt().isAfter(now.minus(reuseGrace))) {
+            token.setReissuedAt(now);
+            String sibling = issue(token.getUser(), token.getFamilyId());
+            meterRegistry.counter("attendance.auth.refresh", "outcome", "concurrent").increment();
+            return new Rotation(token.getUser().getId(), sibling);
+        }
+        if (token.getConsumedAt() != null) {
+            int revoked = refreshTokenRepository.revokeFamily(token.getFamilyId(), now);
+            log.warn("Refresh token reuse for user {}; revoked {} tokens in family {}",
+                    token.getUser().getId(), revoked, token.getFamilyId());
+            throw rejected("reused", "Refresh token has already been used");
+        }
+        if (token.getRevokedAt() != null) {
+            throw rejected("revoked", "Refresh token has been revoked");
+        }
+        if (token.getExpiresAt().isBefore(now)) {
+            throw rejected("expired", "Refresh token has expired");
+        }
+
+        token.setConsumedAt(now);
+        String next = issue(token.getUser(), token.getFamilyId());
+        meterRegistry.counter("attendance.auth.refresh", "outcome", "rotated").increment();
+        return new Rotation(token.getUser().getId(), next);
+    }
+
+    /**
+     * Sign out of one device: revoke the family the token belongs to
+     */
+    @Transactional
+    public void revoke(String rawToken) {
+        if (rawToken == null || rawToken.isBlank()) {
+            return;
+        }
+        refreshTokenRepository.findByTokenHash(hash(rawToken))
+                .ifPresent(token -> refreshTokenRepository.revokeFamily(token.getFamilyId(), LocalDateTime.now()));
+    }
+
+    /**
+     * Sign a user out everywhere, e.g. when the account is deleted
+     */
+    @Transactional
+    public void revokeAllForUser(Long userId) {
+        int revoked = refreshTokenRepository.revokeAllForUser(userId, LocalDateTime.now());
+        log.info("Revoked {} refresh tokens for user {}", revoked, userId);
+    }
+
+    // Runs daily at 03:30
+    @Scheduled(cron = "0 30 3 * * *")
+    @Transactional
+    public void purgeExpired() {
+        int deleted = refreshTokenRepository.deleteExpiredBefore(LocalDateTime.now());
+        log.info("Purged {} expired refresh tokens", deleted);
+    }
+
+    private String issue(Users user, String familyId) {
+        byte[] bytes = new byte[32];
+        secureRandom.nextBytes(bytes);
+        String rawToken = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+
+        refreshTokenRepository.save(RefreshToken.builder()
+                .tokenHash(hash(rawToken))
+                .familyId(familyId)
+                .user(user)
+                .expiresAt(LocalDateTime.now().plus(Duration.ofMillis(refreshExpiration)))
+                .build());
+        return rawToken;
+    }
+
+    private InvalidRefreshTokenException rejected(String outcome, String message) {
+        meterRegistry.counter("attendance.auth.refresh", "outcome", outcome).increment();
+        return new InvalidRefreshTokenException(message);
+    }
+
+    // Tokens carry 256 random bits, so a plain digest is enough to keep them unusable at rest
+    private String hash(String rawToken) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(rawToken.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("Unable to hash refresh token", e);
+        }
+    }
+
+    public record Rotation(Long userId, String refreshToken) {
+    }
+}
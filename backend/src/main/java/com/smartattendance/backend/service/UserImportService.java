@@ -0,0 +1,428 @@
+package com.smartattendance.backend.service;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.smartattendance.backend.datasource.ReadFromPrimary;
+import com.smartattendance.backend.datasource.UseConnectionPool;
+import com.smartattendance.backend.dto.ImportReport;
+import com.smartattendance.backend.entity.Organisation;
+import com.smartattendance.backend.entity.Users;
+import com.smartattendance.backend.enums.ConnectionPoolType;
+import com.smartattendance.backend.enums.RoleType;
+import com.smartattendance.backend.enums.UserStatus;
+import com.smartattendance.backend.exception.ImportFormatException;
+import com.smartattendance.backend.id.TimeOrderedIdGenerator;
+import com.smartattendance.backend.importer.CsvReader;
+import com.smartattendance.backend.repository.UserRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Pattern;
+
+/**
+ * Bulk user provisioning. The upload is read one row at a time and checked
+ * in memory against the emails already in the database, loaded once up
+ * front. Passwords of valid rows are hashed on a bounded pool while reading
+ * continues, and rows are written with plain JDBC batches instead of one
+ * entity save per user. Rows that fail are reported, not fatal.
+ */
+@Service
+@Slf4j
+public class UserImportService {
+
+    public enum Format { CSV, JSON }
+
+    private static final String INSERT_SQL = "INSERT INTO users "
+            + "(id, first_name, last_name, email, password, role, organization_id, status, created_at, updated_at, "
+            + "is_deleted) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, FALSE)";
+    private static final Pattern EMAIL = Pattern.compile("^[^@\\s]+@[^@\\s]+\\.[^@\\s]+$");
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TimeOrderedIdGenerator idGenerator;
+    private final TransactionTemplate transactionTemplate;
+    private final TransactionTemplate readOnlyTransactionTemplate;
+    private final PasswordEncoder passwordEncoder;
+    private final UserRepository userRepository;
+    private final PresenceBoardService presenceBoardService;
+    private final AttendanceVersionTracker attendanceVersionTracker;
+    private final AttendanceHistoryIndex attendanceHistoryIndex;
+    private final UserSearchIndex userSearchIndex;
+    private final ObjectMapper objectMapper;
+    private final ThreadPoolExecutor pool;
+    private final ExecutorService hashExecutor;
+    private final Counter importedRows;
+    private final Counter failedRows;
+    private final int batchSize;
+    private final int maxErrors;
+
+    public UserImportService(JdbcTemplate jdbcTemplate,
+                             TimeOrderedIdGenerator idGenerator,
+                             PlatformTransactionManager transactionManager,
+                             TransactionTemplate readOnlyTransactionTemplate,
+                             PasswordEncoder passwordEncoder,
+                             UserRepository userRepository,
+                             PresenceBoardService presenceBoardService,
+                             AttendanceVersionTracker attendanceVersionTracker,
+                             AttendanceHistoryIndex attendanceHistoryIndex,
+                             UserSearchIndex userSearchIndex,
+                             ObjectMapper objectMapper,
+                             MeterRegistry meterRegistry,
+                             @Value("${attendance.user-import.batch-size:500}") int batchSize,
+                             @Value("${attendance.user-import.hash-threads:0}") int hashThreads,
+                             @Value("${attendance.user-import.max-errors:1000}") int maxErrors) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.idGenerator = idGenerator;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.readOnlyTransactionTemplate = readOnlyTransactionTemplate;
+        this.passwordEncoder = passwordEncoder;
+        this.userRepository = userRepository;
+        this.presenceBoardService = presenceBoardService;
+        this.attendanceVersionTracker = attendanceVersionTracker;
+        this.attendanceHistoryIndex = attendanceHistoryIndex;
+        this.userSearchIndex = userSearchIndex;
+        this.objectMapper = objectMapper;
+        this.batchSize = batchSize;
+        this.maxErrors = maxErrors;
+
+        int size = hashThreads > 0 ? hashThreads : Runtime.getRuntime().availableProcessors();
+        AtomicInteger threadIds = new AtomicInteger();
+        // When the queue is full the reading thread hashes the next row itself,
+        // which keeps it from racing ahead of the pool
+        this.pool = new ThreadPoolExecutor(size, size, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(batchSize),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "user-import-hash-" + threadIds.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.CallerRunsPolicy());
+        this.hashExecutor = ExecutorServiceMetrics.monitor(meterRegistry, pool, "user.import.hash");
+        this.importedRows = Counter.builder("attendance.users.import.rows")
+                .tag("outcome", "imported")
+                .register(meterRegistry);
+        this.failedRows = Counter.builder("attendance.users.import.rows")
+                .tag("outcome", "failed")
+                .register(meterRegistry);
+    }
+
+    @UseConnectionPool(ConnectionPoolType.REPORTING)
+    @ReadFromPrimary
+    public ImportReport importUsers(Organisation organisation, InputStream body, Format format) {
+        long started = System.nanoTime();
+        Set<String> existingEmails = loadExistingEmails();
+        Set<String> seenEmails = new HashSet<>();
+        Progress progress = new Progress();
+        List<Candidate> chunk = new ArrayList<>(batchSize);
+
+        try (RowSource source = format == Format.CSV ? csvSource(body) : jsonSource(body)) {
+            Candidate candidate;
+            while ((candidate = nextOrStop(source, progress)) != null) {
+                progress.rowsRead++;
+                String error = validate(candidate);
+                if (error == null) {
+                    String email = candidate.email.toLowerCase(Locale.ROOT);
+                    if (existingEmails.contains(email)) {
+                        error = "Email already in use";
+                    } else if (!seenEmails.add(email)) {
+                        error = "Email appears more than once in the file";
+                    }
+                }
+                if (error != null) {
+                    progress.fail(candidate, error);
+                    continue;
+                }
+                String rawPassword = candidate.password;
+                candidate.encodedPassword = CompletableFuture.supplyAsync(
+                        () -> passwordEncoder.encode(rawPassword), hashExecutor);
+                candidate.password = null;
+                chunk.add(candidate);
+                if (chunk.size() == batchSize) {
+                    insert(organisation, chunk, progress);
+                    chunk = new ArrayList<>(batchSize);
+                }
+            }
+        } catch (IOException e) {
+            throw new ImportFormatException("Could not read the uploaded file", e);
+        }
+        if (!chunk.isEmpty()) {
+            insert(organisation, chunk, progress);
+        }
+
+        long durationMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started);
+        log.info("Imported {} of {} users into organisation {} in {} ms",
+                progress.imported, progress.rowsRead, organisation.getId(), durationMillis);
+        return new ImportReport(progress.rowsRead, progress.imported, 0, progress.failed,
+                progress.errors, progress.failed > progress.errors.size(), durationMillis);
+    }
+
+    /**
+     * A file that turns malformed part-way is not an all-or-nothing failure:
+     * rows read so far are still imported and the break is reported as a row.
+     */
+    private Candidate nextOrStop(RowSource source, Progress progress) throws IOException {
+        try {
+            return source.next();
+        } catch (ImportFormatException | JsonProcessingException e) {
+            Candidate broken = new Candidate(progress.rowsRead + 1, null, null, null, null, null);
+            progress.fail(broken, "Malformed input, import stopped here");
+            log.warn("Import stopped at row {}: {}", broken.row, e.getMessage());
+            return null;
+        }
+    }
+
+    private Set<String> loadExistingEmails() {
+        Set<String> emails = new HashSet<>();
+        readOnlyTransactionTemplate.executeWithoutResult(status ->
+                jdbcTemplate.query("SELECT email FROM users", resultSet -> {
+                    emails.add(resultSet.getString(1).toLowerCase(Locale.ROOT));
+                }));
+        return emails;
+    }
+
+    private String validate(Candidate candidate) {
+        if (candidate.parseError != null) {
+            return candidate.parseError;
+        }
+        if (candidate.firstName == null || candidate.firstName.length() < 2 || candidate.firstName.length() > 50) {
+            return "First name must be between 2 and 50 characters";
+        }
+        if (candidate.lastName == null || candidate.lastName.length() < 2 || candidate.lastName.length() > 50) {
+            return "Last name must be between 2 and 50 characters";
+        }
+        if (candidate.email == null || !EMAIL.matcher(candidate.email).matches()) {
+            return "Email must be valid";
+        }
+        if (candidate.password == null || candidate.password.length() < 6) {
+            return "Password must be at least 6 characters";
+        }
+        if (candidate.role == RoleType.SUPER_ADMIN) {
+            return "Cannot create SUPER_ADMIN";
+        }
+        return null;
+    }
+
+    private void insert(Organisation organisation, List<Candidate> chunk, Progress progress) {
+        List<Candidate> hashed = new ArrayList<>(chunk.size());
+        for (Candidate candidate : chunk) {
+            try {
+                candidate.encodedPassword.join();
+                hashed.add(candidate);
+            } catch (CompletionException e) {
+                log.warn("Hashing failed for import row {}", candidate.row, e.getCause());
+                progress.fail(candidate, "Password could not be processed");
+            }
+        }
+        if (hashed.isEmpty()) {
+            return;
+        }
+
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Candidate> inserted;
+        try {
+            transactionTemplate.executeWithoutResult(status -> jdbcTemplate.batchUpdate(INSERT_SQL, hashed,
+                    hashed.size(), (statement, candidate) -> bind(statement, candidate, organisation, now)));
+            inserted = hashed;
+        } catch (DataAccessException e) {
+            // Most likely a user created concurrently with one of these emails;
+            // go row by row so only the offending rows are reported
+            log.warn("Batch insert of {} users failed, retrying row by row: {}", hashed.size(), e.getMessage());
+            inserted = new ArrayList<>(hashed.size());
+            for (Candidate candidate : hashed) {
+                try {
+                    transactionTemplate.executeWithoutResult(status -> jdbcTemplate.update(INSERT_SQL,
+                            statement -> bind(statement, candidate, organisation, now)));
+                    inserted.add(candidate);
+                } catch (DuplicateKeyException duplicate) {
+                    progress.fail(candidate, "Email already in use");
+                } catch (DataAccessException rowFailure) {
+                    log.warn("Import row {} could not be saved: {}", candidate.row, rowFailure.getMessage());
+                    progress.fail(candidate, "Could not be saved");
+                }
+            }
+        }
+        progress.imported += inserted.size();
+        importedRows.increment(inserted.size());
+        registerImported(organisation, inserted);
+    }
+
+    private void bind(PreparedStatement statement, Candidate candidate, Organisation organisation, Timestamp now)
+            throws SQLException {
+        statement.setLong(1, idGenerator.nextId());
+        statement.setString(2, candidate.firstName);
+        statement.setString(3, candidate.lastName);
+        statement.setString(4, candidate.email);
+        statement.setString(5, candidate.encodedPassword.join());
+        statement.setString(6, candidate.role.name());
+        statement.setLong(7, organisation.getId());
+        statement.setString(8, UserStatus.ACTIVE.name());
+        statement.setTimestamp(9, now);
+        statement.setTimestamp(10, now);
+    }
+
+    /** The in-memory board, history and search indexes learn about the new users in one query per batch. */
+    private void registerImported(Organisation organisation, List<Candidate> inserted) {
+        if (inserted.isEmpty()) {
+            return;
+        }
+        List<String> emails = inserted.stream().map(candidate -> candidate.email).toList();
+        List<Users> users = readOnlyTransactionTemplate.execute(status ->
+                userRepository.findByOrganisationAndEmailIn(organisation, emails));
+        for (Users user : users) {
+            presenceBoardService.registerUser(user);
+            attendanceHistoryIndex.registerUser(organisation.getId(), user.getId());
+            userSearchIndex.index(user);
+        }
+        attendanceVersionTracker.recordOrganisationWrite(organisation.getId());
+    }
+
+    private RowSource csvSource(InputStream body) {
+        CsvReader reader = new CsvReader(new InputStreamReader(body, StandardCharsets.UTF_8));
+        reader.requireColumns("firstName", "lastName", "email", "password");
+        return new RowSource() {
+            @Override
+            public Candidate next() {
+                CsvReader.Row row = reader.next();
+                if (row == null) {
+                    return null;
+                }
+                return new Candidate(row.number(), row.get("firstName"), row.get("lastName"),
+                        row.get("email"), row.get("password"), row.get("role"));
+            }
+
+            @Override
+            public void close() throws IOException {
+                reader.close();
+            }
+        };
+    }
+
+    private RowSource jsonSource(InputStream body) {
+        try {
+            JsonParser parser = objectMapper.getFactory().createParser(body);
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                throw new ImportFormatException("Expected a JSON array of users");
+            }
+            return new RowSource() {
+                private long row;
+
+                @Override
+                public Candidate next() throws IOException {
+                    JsonToken token = parser.nextToken();
+                    if (token == null || token == JsonToken.END_ARRAY) {
+                        return null;
+                    }
+                    row++;
+                    JsonNode node = objectMapper.readTree(parser);
+                    if (!node.isObject()) {
+                        Candidate candidate = new Candidate(row, null, null, null, null, null);
+                        candidate.parseError = "Expected a JSON object";
+                        return candidate;
+                    }
+                    return new Candidate(row, text(node, "firstName"), text(node, "lastName"),
+                            text(node, "email"), text(node, "password"), text(node, "role"));
+                }
+
+                @Override
+                public void close() throws IOException {
+                    parser.close();
+                }
+            };
+        } catch (IOException e) {
+            throw new ImportFormatException("Expected a JSON array of users", e);
+        }
+    }
+
+    private static String text(JsonNode node, String field) {
+        JsonNode value = node.get(field);
+        if (value == null || value.isNull()) {
+            return null;
+        }
+        String text = value.asText().strip();
+        return text.isEmpty() ? null : text;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        pool.shutdown();
+    }
+
+    private interface RowSource extends Closeable {
+        Candidate next() throws IOException;
+    }
+
+    private static final class Candidate {
+        final long row;
+        final String firstName;
+        final String lastName;
+        final String email;
+        String password;
+        RoleType role = RoleType.USER;
+        String parseError;
+        CompletableFuture<String> encodedPassword;
+
+        Candidate(long row, String firstName, String lastName, String email, String password, String role) {
+            this.row = row;
+            this.firstName = firstName;
+            this.lastName = lastName;
+            this.email = email;
+            this.password = password;
+            if (role != null) {
+                try {
+                    this.role = RoleType.valueOf(role.toUpperCase(Locale.ROOT));
+                } catch (IllegalArgumentException e) {
+                    this.parseError = "Unknown role: " + role;
+                }
+            }
+        }
+    }
+
+    private final class Progress {
+        long rowsRead;
+        long imported;
+        long failed;
+        final List<ImportReport.RowError> errors = new ArrayList<>();
+
+        void fail(Candidate candidate, String message) {
+            failed++;
+            failedRows.increment();
+            if (errors.size() < maxErrors) {
+                errors.add(new ImportReport.RowError(candidate.row, candidate.email, message));
+            }
+        }
+    }
+}
@@ -0,0 +1,387 @@
+package com.smartattendance.backend.service;
+
+import com.smartattendance.backend.datasource.ReadFromPrimary;
+import com.smartattendance.backend.datasource.UseConnectionPool;
+import com.smartattendance.backend.dto.UserResponse;
+import com.smartattendance.backend.entity.Organisation;
+import com.smartattendance.backend.entity.Users;
+import com.smartattendance.backend.enums.ConnectionPoolType;
+import com.smartattendance.backend.repository.UserRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.text.Normalizer;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
+import java.util.regex.Pattern;
+
+/**
+ * In-memory user search per organisation, for the admin autocomplete.
+ *
+ * Names and emails are normalised (lower case, accents stripped) and split
+ * into trigram posting lists, plus one- and two-letter prefixes of every
+ * word for the first keystrokes. A query intersects the posting lists of its
+ * trigrams, then ranks what is left: whole-name prefix, word prefix,
+ * substring, and finally (when fuzzy) names within one or two edits of
+ * the query.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class UserSearchIndex {
+
+    private static final Pattern MARKS = Pattern.compile("\\p{M}+");
+    private static final Pattern SPACES = Pattern.compile("\\s+");
+    private static final Pattern WORD_SEPARATORS = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    private static final Comparator<Match> RANKING = Comparator
+            .comparingInt(Match::tier)
+            .thenComparingInt(Match::distance)
+            .thenComparingInt(match -> match.user().name().length())
+            .thenComparing(match -> match.user().name())
+            .thenComparing(match -> match.user().id());
+
+    private final UserRepository userRepository;
+
+    private volatile ConcurrentMap<Long, OrganisationIndex> organisations = new ConcurrentHashMap<>();
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    @UseConnectionPool(ConnectionPoolType.REPORTING)
+    @ReadFromPrimary
+    public void rebuild() {
+        ConcurrentMap<Long, OrganisationIndex> rebuilt = new ConcurrentHashMap<>();
+        int indexed = 0;
+        for (Users user : userRepository.findByDeletedFalse()) {
+            if (user.getOrganisation() != null) {
+                rebuilt.computeIfAbsent(user.getOrganisation().getId(), id -> new OrganisationIndex())
+                        .add(IndexedUser.of(user));
+                indexed++;
+            }
+        }
+        organisations = rebuilt;
+        log.info("User search index rebuilt for {} organisations, {} users", rebuilt.size(), indexed);
+    }
+
+    /**
+     * Adds the user, or replaces the entry after a name or email change
+     */
+    public void index(Users user) {
+        if (user.getOrganisation() == null || user.isDeleted()) {
+            return;
+        }
+        IndexedUser entry = IndexedUser.of(user);
+        Long organisationId = user.getOrganisation().getId();
+        AfterCommit.run(() -> {
+            OrganisationIndex index = organisations.computeIfAbsent(organisationId, id -> new OrganisationIndex());
+            index.write(() -> index.add(entry));
+        });
+    }
+
+    public void remove(Long organisationId, Long userId) {
+        AfterCommit.run(() -> {
+            OrganisationIndex index = organisations.get(organisationId);
+            if (index != null) {
+                index.write(() -> index.remove(userId));
+            }
+        });
+    }
+
+    public void removeOrganisation(Long organisationId) {
+        AfterCommit.run(() -> organisations.remove(organisationId));
+    }
+
+    /**
+     * Best matches first; at most limit results.
+     */
+    public List<UserResponse> search(Organisation organisation, String query, int limit, boolean fuzzy) {
+        OrganisationIndex index = organisations.get(organisation.getId());
+        String normalised = normalise(query);
+        if (index == null || normalised.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+        return index.read(() -> index.search(normalised, limit, fuzzy)).stream()
+                .map(user -> user.toResponse(organisation))
+                .toList();
+    }
+
+    static String normalise(String value) {
+        if (value == null) {
+            return "";
+        }
+        String stripped = MARKS.matcher(Normalizer.normalize(value, Normalizer.Form.NFD)).replaceAll("");
+        return SPACES.matcher(stripped.toLowerCase(Locale.ROOT).trim()).replaceAll(" ");
+    }
+
+    // One edit for short queries, two for long ones; none while the query is too short to mean anything
+    static int allowedEdits(String query) {
+        if (query.length() >= 8) {
+            return 2;
+        }
+        return query.length() >= 4 ? 1 : 0;
+    }
+
+    /**
+     * Smallest edit distance between the query and any prefix of the text,
+     * or max + 1 when it exceeds max.
+     */
+    static int prefixDistance(String query, String text, int max) {
+        int columns = Math.min(text.length(), query.length() + max);
+        int[] previous = new int[columns + 1];
+        int[] current = new int[columns + 1];
+        for (int j = 0; j <= columns; j++) {
+            previous[j] = j;
+        }
+        for (int i = 1; i <= query.length(); i++) {
+            current[0] = i;
+            int rowMin = i;
+            for (int j = 1; j <= columns; j++) {
+                int cost = query.charAt(i - 1) == text.charAt(j - 1) ? 0 : 1;
+                current[j] = Math.min(Math.min(current[j - 1] + 1, previous[j] + 1), previous[j - 1] + cost);
+                rowMin = Math.min(rowMin, current[j]);
+            }
+            if (rowMin > max) {
+                return max + 1;
+            }
+            int[] swap = previous;
+            previous = current;
+            current = swap;
+        }
+        int best = max + 1;
+        for (int j = 0; j <= columns; j++) {
+            best = Math.min(best, previous[j]);
+        }
+        return best;
+    }
+
+    private static List<String> trigrams(String value) {
+        List<String> grams = new ArrayList<>();
+        for (int i = 0; i + 3 <= value.length(); i++) {
+            grams.add(value.substring(i, i + 3));
+        }
+        return grams;
+    }
+
+    private record IndexedUser(Long id, String firstName, String lastName, String email, String role,
+                               LocalDateTime createdAt, String name, String normalisedEmail, String[] words) {
+
+        static IndexedUser of(Users user) {
+            String name = normalise(user.getFirstName() + " " + user.getLastName());
+            String email = normalise(user.getEmail());
+            Set<String> words = new LinkedHashSet<>(Arrays.asList(name.split(" ")));
+            words.add(email);
+            words.addAll(Arrays.asList(WORD_SEPARATORS.split(email)));
+            words.remove("");
+            return new IndexedUser(user.getId(), user.getFirstName(), user.getLastName(), user.getEmail(),
+                    user.getRole().name(), user.getCreatedAt(), name, email, words.toArray(String[]::new));
+        }
+
+        Set<String> keys() {
+            Set<String> keys = new LinkedHashSet<>(trigrams(name));
+            keys.addAll(trigrams(normalisedEmail));
+            for (String word : words) {
+                keys.add("^" + word.charAt(0));
+                if (word.length() >= 2) {
+                    keys.add("^" + word.substring(0, 2));
+                }
+            }
+            return keys;
+        }
+
+        UserResponse toResponse(Organisation organisation) {
+            return new UserResponse(id, firstName, lastName, email, role,
+                    organisation.getId(), organisation.getName(), createdAt);
+        }
+    }
+
+    private record Match(IndexedUser user, int tier, int distance) {
+    }
+
+    private static final class OrganisationIndex {
+        // Slot numbers only grow, so posting lists stay sorted by appending
+        private final List<IndexedUser> slots = new ArrayList<>();
+        private final Map<Long, Integer> slotByUser = new HashMap<>();
+        private final Map<String, Postings> postings = new HashMap<>();
+        private final ReadWriteLock lock = new ReentrantReadWriteLock();
+        private int removed;
+
+        void add(IndexedUser user) {
+            remove(user.id());
+            int slot = slots.size();
+            slots.add(user);
+            slotByUser.put(user.id(), slot);
+            for (String key : user.keys()) {
+                postings.computeIfAbsent(key, k -> new Postings()).append(slot);
+            }
+        }
+
+        void remove(Long userId) {
+            Integer slot = slotByUser.remove(userId);
+            if (slot == null) {
+                return;
+            }
+            IndexedUser user = slots.set(slot, null);
+            for (String key : user.keys()) {
+                Postings list = postings.get(key);
+                if (list != null && list.remove(slot) && list.size == 0) {
+                    postings.remove(key);
+                }
+            }
+            if (++removed > 1024 && removed > slotByUser.size()) {
+                compact();
+            }
+        }
+
+        List<IndexedUser> search(String query, int limit, boolean fuzzy) {
+            int edits = fuzzy ? allowedEdits(query) : 0;
+            PriorityQueue<Match> best = new PriorityQueue<>(limit + 1, RANKING.reversed());
+
+            if (query.length() < 3) {
+                Postings prefixed = postings.get("^" + query);
+                if (prefixed != null) {
+                    for (int i = 0; i < prefixed.size; i++) {
+                        offer(best, rank(slots.get(prefixed.slots[i]), query, 0), limit);
+                    }
+                }
+            } else {
+                List<String> grams = trigrams(query).stream().distinct().toList();
+                // Each edit can break at most three trigrams of the query
+                int required = Math.max(1, grams.size() - 3 * edits);
+                int[] hits = new int[slots.size()];
+                for (String gram : grams) {
+                    Postings list = postings.get(gram);
+                    if (list != null) {
+                        for (int i = 0; i < list.size; i++) {
+                            hits[list.slots[i]]++;
+                        }
+                    }
+                }
+                if (grams.size() <= 3 * edits) {
+                    // Short query: one typo can break every trigram, so assume the first letter is right
+                    Postings sameInitial = postings.get("^" + query.charAt(0));
+                    if (sameInitial != null) {
+                        for (int i = 0; i < sameInitial.size; i++) {
+                            hits[sameInitial.slots[i]] = Math.max(hits[sameInitial.slots[i]], required);
+                        }
+                    }
+                }
+                for (int slot = 0; slot < hits.length; slot++) {
+                    if (hits[slot] >= required) {
+                        offer(best, rank(slots.get(slot), query, edits), limit);
+                    }
+                }
+            }
+
+            List<Match> ordered = new ArrayList<>(best);
+            ordered.sort(RANKING);
+            return ordered.stream().map(Match::user).toList();
+        }
+
+        private static void offer(PriorityQueue<Match> best, Match match, int limit) {
+            if (match == null || (best.size() == limit && RANKING.compare(match, best.peek()) >= 0)) {
+                return;
+            }
+            best.add(match);
+            if (best.size() > limit) {
+                best.poll();
+            }
+        }
+
+        private static Match rank(IndexedUser user, String query, int edits) {
+            if (user.name().startsWith(query)) {
+                return new Match(user, 0, 0);
+            }
+            for (String word : user.words()) {
+                if (word.startsWith(query)) {
+                    return new Match(user, 1, 0);
+                }
+            }
+            if (user.name().contains(query) || user.normalisedEmail().contains(query)) {
+                return new Match(user, 2, 0);
+            }
+            if (edits == 0) {
+                return null;
+            }
+            // Several words are compared with the whole name, a single word with each word
+            if (query.indexOf(' ') >= 0) {
+                int distance = prefixDistance(query, user.name(), edits);
+                return distance <= edits ? new Match(user, 3, distance) : null;
+            }
+            int distance = edits + 1;
+            for (String word : user.words()) {
+                distance = Math.min(distance, prefixDistance(query, word, edits));
+            }
+            return distance <= edits ? new Match(user, 3, distance) : null;
+        }
+
+        private void compact() {
+            List<IndexedUser> live = slots.stream().filter(user -> user != null).toList();
+            slots.clear();
+            slotByUser.clear();
+            postings.clear();
+            removed = 0;
+            live.forEach(this::add);
+        }
+
+        <T> T read(Supplier<T> action) {
+            lock.readLock().lock();
+            try {
+                return action.get();
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        void write(Runnable action) {
+            lock.writeLock().lock();
+            try {
+                action.run();
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+    }
+
+    /**
+     * Sorted, growable list of slot numbers.
+     */
+    private static final class Postings {
+        private int[] slots = new int[4];
+        private int size;
+
+        void append(int slot) {
+            if (size == slots.length) {
+                slots = Arrays.copyOf(slots, size * 2);
+            }
+            slots[size++] = slot;
+        }
+
+        boolean remove(int slot) {
+            int position = Arrays.binarySearch(slots, 0, size, slot);
+            if (position < 0) {
+                return false;
+            }
+            System.arraycopy(slots, position + 1, slots, position, size - position - 1);
+            size--;
+            return true;
+        }
+    }
+}
@@ -1,10 +1,14 @@
 package com.smartattendance.backend.service;
 
+import com.smartattendance.backend.datasource.ReadFromPrimary;
+import com.smartattendance.backend.datasource.UseConnectionPool;
 import com.smartattendance.backend.dto.AdminCreateUserRequest;
 import com.smartattendance.backend.dto.SuperAdminCreateUserRequest;
 import com.smartattendance.backend.dto.LoginResponse;
+import com.smartattendance.backend.dto.UserResponse;
 import com.smartattendance.backend.entity.Organisation;
 import com.smartattendance.backend.entity.Users;
+import com.smartattendance.backend.enums.ConnectionPoolType;
 import com.smartattendance.backend.enums.RoleType;
 import com.smartattendance.backend.enums.UserStatus;
 import com.smartattendance.backend.repository.UserRepository;
@@ -12,6 +16,7 @@ import com.smartattendance.backend.security.CustomUserDetails;
 import com.smartattendance.backend.security.JwtUtil;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.hibernate.Hibernate;
 import org.springframework.boot.context.event.ApplicationReadyEvent;
 import org.springframework.context.event.EventListener;
 import org.springframework.security.access.prepost.PreAuthorize;
@@ -21,6 +26,9 @@ import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
@@ -32,6 +40,18 @@ public class UserService {
 
     private final OrganisationService organisationService;
 
+    private final PresenceBoardService presenceBoardService;
+
+    private final AttendanceHistoryIndex attendanceHistoryIndex;
+
+    private final ReferenceDataCache referenceDataCache;
+
+    private final RefreshTokenService refreshTokenService;
+
+    private final UserSearchIndex userSearchIndex;
+
+    private final AttendanceVersionTracker attendanceVersionTracker;
+
             // Key Principle:
     // Every operation (except login) requires an organisation.
 // SuperAdmin will select which org they want to work with, and that orgId is passed to these methods.
@@ -39,6 +59,7 @@ public class UserService {
     /**
      * Save a new user
      */
+    @Transactional
     public Users save(Users user) {
         log.info("Saving new user: {} for organisation: {}",
                 user.getEmail(),
@@ -82,7 +103,12 @@ public class UserService {
         user.setStatus(UserStatus.ACTIVE);
         user.setLastLogin(LocalDateTime.now());
 
-        return save(user);
+        Users saved = save(user);
+        presenceBoardService.registerUser(saved);
+        attendanceHistoryIndex.registerUser(org.getId(), saved.getId());
+        attendanceVersionTracker.recordUserWrite(org.getId(), saved.getId());
+        userSearchIndex.index(saved);
+        return saved;
     }
 
     @Transactional
@@ -113,11 +139,22 @@ public class UserService {
         user.setStatus(UserStatus.ACTIVE);
         user.setLastLogin(LocalDateTime.now());
 
-        return save(user);
+        Users saved = save(user);
+        presenceBoardService.registerUser(saved);
+        attendanceHistoryIndex.registerUser(org.getId(), saved.getId());
+        attendanceVersionTracker.recordUserWrite(org.getId(), saved.getId());
+        userSearchIndex.index(saved);
+        return saved;
     }
 
+    /**
+     * Primary-key lookup; served from the second-level cache when possible
+     */
+    @Transactional(readOnly = true)
     public Users findById (Long id){
-        return userRepository.findByIdAndDeletedFalse(id)
+        return userRepository.findById(id)
+                .filter(user -> !user.isDeleted())
+                .map(this::withOrganisation)
                 .orElseThrow(() -> new RuntimeException("User not found "));
     }
 
@@ -126,14 +163,30 @@ public class UserService {
      * Get all users in a specific organisation
      * Note: organisation is NEVER null in select organisation approach for admin
      */
+    @Transactional(readOnly = true)
     public List<Users> findAllUsersInOrganisation(Organisation organisation) {
         log.info("Fetching users for organisation: {}", organisation.getName());
         return userRepository.findByOrganisationAndDeletedFalse(organisation);
     }
 
+    /**
+     * Hands every non-deleted user of the organisation to the sink as it is
+     * read from the database cursor, without loading entities. Only the
+     * primary's reporting pool opens cursors, so replicas are not used.
+     */
+    @UseConnectionPool(ConnectionPoolType.REPORTING)
+    @ReadFromPrimary
+    @Transactional(readOnly = true)
+    public void streamUsersInOrganisation(Organisation organisation, Consumer<UserResponse> sink) {
+        try (Stream<UserResponse> users = userRepository.streamResponsesByOrganisation(organisation)) {
+            users.forEach(sink);
+        }
+    }
+
     /**
      * Find a specific user by ID within an organisation
      */
+    @Transactional(readOnly = true)
     public Users findByIdInOrganisation(Long userId, Organisation organisation) {
         return userRepository.findByIdAndOrganisation(userId, organisation)
                 .orElseThrow(() -> new RuntimeException("User not found in this organisation"));
@@ -142,24 +195,24 @@ public class UserService {
     /**
      * Find user by email within an organisation
      */
+    @Transactional(readOnly = true)
     public Users findByEmailAndOrganisation(String email, Organisation organisation) {
         return userRepository.findByEmailAndOrganisationAndDeletedFalse(email, organisation)
                 .orElseThrow(() -> new RuntimeException("User not found in this organisation"));
     }
 
     /**
-     * Search users by name within an organisation
+     * Search users by name or email within an organisation, served from the
+     * in-memory index
      */
-    public List<Users> searchByNameAndOrganisation(String name, Organisation organisation) {
-        log.info("Searching users in organisation {} with name: {}",
-                organisation.getName(), name);
-        return userRepository.searchByNameAndOrganisation(name, organisation);
+    public List<UserResponse> searchInOrganisation(String query, Organisation organisation, int limit, boolean fuzzy) {
+        return userSearchIndex.search(organisation, query, limit, fuzzy);
     }
 
-
     /**
      * Update user within an organisation
      */
+    @Transactional
     public Users updateUser(Long id, Users updatedUser, Organisation organisation) {
         Users existingUser = userRepository.findByIdAndOrganisation(id, organisation)
                 .orElseThrow(() -> new RuntimeException("User not found in this organisation"));
@@ -175,12 +228,18 @@ public class UserService {
 
         log.info("Updating user: {} (ID: {}) in organisation: {}",
                 existingUser.getEmail(), id, organisation.getName());
-        return userRepository.save(existingUser);
+        Users saved = userRepository.save(existingUser);
+        referenceDataCache.evictUser(id);
+        presenceBoardService.registerUser(saved);
+        attendanceVersionTracker.recordUserWrite(organisation.getId(), id);
+        userSearchIndex.index(saved);
+        return saved;
     }
 
     /**
      * Soft delete user within an organisation
      */
+    @Transactional
     public Users softDeleteUser(Long userId, Organisation organisation) {
         Users user = userRepository.findByIdAndOrganisation(userId, organisation)
                 .orElseThrow(() -> new RuntimeException("User not found in this organisation"));
@@ -188,18 +247,62 @@ public class UserService {
         user.setDeleted(true);
         log.info("Soft deleting user: {} (ID: {}) in organisation: {}",
                 user.getEmail(), userId, organisation.getName());
-        return userRepository.save(user);
+        Users saved = userRepository.save(user);
+        referenceDataCache.evictUser(userId);
+        refreshTokenService.revokeAllForUser(userId);
+        presenceBoardService.unregisterUser(organisation.getId(), userId);
+        attendanceHistoryIndex.unregisterUser(organisation.getId(), userId);
+        attendanceVersionTracker.recordUserWrite(organisation.getId(), userId);
+        userSearchIndex.remove(organisation.getId(), userId);
+        return saved;
     }
 
     /**
      * Find user by email (used for login/authentication - no org scope)
      */
+    @Transactional(readOnly = true)
     public Users findByEmail(String email) {
-        return userRepository.findByEmailAndDeletedFalse(email)
+        return userRepository.findCachedByEmail(email)
+                .filter(user -> !user.isDeleted())
+                .map(this::withOrganisation)
                 .orElseThrow(() -> new RuntimeException("User not found"));
     }
 
+    /**
+     * Same as findById but empty instead of failing, for the token refresh path
+     */
+    @ReadFromPrimary
+    @Transactional(readOnly = true)
+    public Optional<Users> findActiveById(Long id) {
+        return userRepository.findById(id)
+                .filter(user -> !user.isDeleted())
+                .map(this::withOrganisation);
+    }
+
+    /**
+     * Single lookup for the login path; empty for unknown or deleted users.
+     * Cache misses read the primary, so a new user or a new password works
+     * at once and an old password stops working at once.
+     */
+    @ReadFromPrimary
+    @Transactional(readOnly = true)
+    public Optional<Users> findForLogin(String email) {
+        return userRepository.findCachedByEmail(email)
+                .filter(user -> !user.isDeleted())
+                .map(this::withOrganisation);
+    }
+
+    /**
+     * Cached lookups return the organisation as a proxy; resolve it (normally
+     * from the second-level cache) while the session is still open.
+     */
+    private Users withOrganisation(Users user) {
+        Hibernate.initialize(user.getOrganisation());
+        return user;
+    }
+
     @EventListener(ApplicationReadyEvent.class)
+    @ReadFromPrimary
     public void initSuperAdmin() {
         long userCount = userRepository.count();
 
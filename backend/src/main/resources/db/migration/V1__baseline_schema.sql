@@ -0,0 +1,81 @@
+-- Schema as Hibernate's ddl-auto=update left it before migrations took over.
+-- Databases created that way are baselined at this version and skip it;
+-- constraint names match the ones Hibernate generated.
+
+CREATE TABLE organisations (
+    id              BIGINT       NOT NULL AUTO_INCREMENT,
+    name            VARCHAR(255) NOT NULL,
+    location        VARCHAR(255) NOT NULL,
+    latitude        FLOAT(53),
+    longitude       FLOAT(53),
+    contact_email   VARCHAR(255) NOT NULL,
+    contact_phone   VARCHAR(255),
+    start_work_time TIME(6),
+    created_by_id   BIGINT,
+    created_at      DATETIME(6)  NOT NULL,
+    updated_at      DATETIME(6),
+    is_deleted      BIT          NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT UKta5buuag18dp5td2teejgalhr UNIQUE (contact_email)
+);
+
+CREATE TABLE users (
+    id              BIGINT       NOT NULL AUTO_INCREMENT,
+    first_name      VARCHAR(255) NOT NULL,
+    last_name       VARCHAR(255) NOT NULL,
+    email           VARCHAR(255) NOT NULL,
+    password        VARCHAR(255) NOT NULL,
+    role            ENUM ('ADMIN','SUPER_ADMIN','USER') NOT NULL,
+    organization_id BIGINT,
+    status          ENUM ('ACTIVE','INACTIVE','PENDING') NOT NULL,
+    last_login      DATETIME(6),
+    created_at      DATETIME(6)  NOT NULL,
+    updated_at      DATETIME(6),
+    is_deleted      BIT          NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT UK6dotkott2kjsp8vw4d0m25fb7 UNIQUE (email),
+    CONSTRAINT FKau0fjkkes4v0y0vav1mdw4eqv FOREIGN KEY (organization_id) REFERENCES organisations (id)
+);
+
+ALTER TABLE organisations
+    ADD CONSTRAINT FKset6a9iqpe4hyo21169us68co FOREIGN KEY (created_by_id) REFERENCES users (id);
+
+CREATE TABLE attendance_records (
+    id               BIGINT      NOT NULL AUTO_INCREMENT,
+    user_id          BIGINT      NOT NULL,
+    check_in_time    DATETIME(6) NOT NULL,
+    check_out_time   DATETIME(6),
+    latitude         FLOAT(53),
+    longitude        FLOAT(53),
+    check_in_method  ENUM ('MANUAL','MOBILE_APP','WEB') NOT NULL,
+    check_out_method ENUM ('MANUAL','MOBILE_APP','WEB'),
+    attendance_date  DATETIME(6) NOT NULL,
+    created_at       DATETIME(6) NOT NULL,
+    updated_at       DATETIME(6),
+    is_deleted       BIT         NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT FK2yka8cp9l26e4kkyab5iyf3ef FOREIGN KEY (user_id) REFERENCES users (id)
+);
+
+CREATE TABLE qr_code_records (
+    id                  BIGINT       NOT NULL AUTO_INCREMENT,
+    code                VARCHAR(128) NOT NULL,
+    payload             VARCHAR(2048),
+    organisation_id     BIGINT       NOT NULL,
+    created_by_admin_id BIGINT       NOT NULL,
+    latitude            FLOAT(53),
+    longitude           FLOAT(53),
+    radius_meters       INTEGER,
+    expires_at          DATETIME(6),
+    active              BIT          NOT NULL,
+    is_auto_generating  BIT          NOT NULL,
+    scan_count          INTEGER      DEFAULT 0 NOT NULL,
+    signature           VARCHAR(128),
+    created_at          DATETIME(6)  NOT NULL,
+    updated_at          DATETIME(6),
+    is_deleted          BIT          NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT UKrgtld9pvc4gnchfanec39y1ha UNIQUE (code),
+    CONSTRAINT FKd5h5px5xbx7fsasa8e2efa2o0 FOREIGN KEY (organisation_id) REFERENCES organisations (id),
+    CONSTRAINT FK9vkjncym4fl7ytuk9k1pg8qaw FOREIGN KEY (created_by_admin_id) REFERENCES users (id)
+);
@@ -0,0 +1,20 @@
+-- Rotating refresh tokens; a family is one login's chain of rotations.
+
+CREATE TABLE refresh_tokens (
+    id          BIGINT      NOT NULL AUTO_INCREMENT,
+    token_hash  VARCHAR(64) NOT NULL,
+    family_id   VARCHAR(36) NOT NULL,
+    user_id     BIGINT      NOT NULL,
+    expires_at  DATETIME(6) NOT NULL,
+    consumed_at DATETIME(6),
+    revoked_at  DATETIME(6),
+    created_at  DATETIME(6) NOT NULL,
+    updated_at  DATETIME(6),
+    is_deleted  BIT         NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT UKo2mlirhldriil2y7krapq4frt UNIQUE (token_hash),
+    CONSTRAINT FK1lih5y2npsf8u5o3vhdb9y0os FOREIGN KEY (user_id) REFERENCES users (id)
+);
+
+CREATE INDEX idx_refresh_tokens_family ON refresh_tokens (family_id);
+CREATE INDEX idx_refresh_tokens_user ON refresh_tokens (user_id);
@@ -0,0 +1,21 @@
+-- Bulk import jobs, with the checkpoint a resumed import continues from.
+
+CREATE TABLE attendance_import_jobs (
+    id                BIGINT      NOT NULL AUTO_INCREMENT,
+    organisation_id   BIGINT      NOT NULL,
+    started_by_id     BIGINT,
+    status            ENUM ('COMPLETED','FAILED','RUNNING') NOT NULL,
+    rows_committed    BIGINT      NOT NULL,
+    checkpoint_digest VARCHAR(64),
+    imported          BIGINT      NOT NULL,
+    skipped           BIGINT      NOT NULL,
+    failed            BIGINT      NOT NULL,
+    last_error        VARCHAR(500),
+    finished_at       DATETIME(6),
+    created_at        DATETIME(6) NOT NULL,
+    updated_at        DATETIME(6),
+    is_deleted        BIT         NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT FKjdui6ywuhj5masgbjmjbbgl80 FOREIGN KEY (organisation_id) REFERENCES organisations (id),
+    CONSTRAINT FKm6cqsf14lfrgvsw13rkemsd98 FOREIGN KEY (started_by_id) REFERENCES users (id)
+);
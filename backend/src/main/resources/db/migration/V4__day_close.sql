@@ -0,0 +1,37 @@
+-- End-of-day close: each organisation's own time zone, sessions the close
+-- checked out, recorded absences and one run row per organisation and day.
+
+ALTER TABLE organisations ADD COLUMN time_zone VARCHAR(64);
+
+ALTER TABLE attendance_records ADD COLUMN auto_closed BIT NOT NULL DEFAULT FALSE;
+
+CREATE TABLE attendance_absences (
+    id              BIGINT      NOT NULL AUTO_INCREMENT,
+    user_id         BIGINT      NOT NULL,
+    organisation_id BIGINT      NOT NULL,
+    absence_date    DATE        NOT NULL,
+    created_at      DATETIME(6) NOT NULL,
+    updated_at      DATETIME(6),
+    is_deleted      BIT         NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT uk_absence_user_date UNIQUE (user_id, absence_date),
+    CONSTRAINT FK1pta5lvumj4jfw9ai2cpffn2e FOREIGN KEY (user_id) REFERENCES users (id),
+    CONSTRAINT FK8n5nealdl0vp9fghxtivxdi48 FOREIGN KEY (organisation_id) REFERENCES organisations (id)
+);
+
+CREATE INDEX idx_absence_org_date ON attendance_absences (organisation_id, absence_date);
+
+CREATE TABLE day_close_runs (
+    id              BIGINT      NOT NULL AUTO_INCREMENT,
+    organisation_id BIGINT      NOT NULL,
+    close_date      DATE        NOT NULL,
+    policy          ENUM ('CHECK_IN','FIXED_TIME','SHIFT_LENGTH') NOT NULL,
+    closed_sessions INTEGER     NOT NULL,
+    absentees       INTEGER     NOT NULL,
+    created_at      DATETIME(6) NOT NULL,
+    updated_at      DATETIME(6),
+    is_deleted      BIT         NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT uk_day_close_org_date UNIQUE (organisation_id, close_date),
+    CONSTRAINT FK5q6cmt60gvyjabos60mbn9u46 FOREIGN KEY (organisation_id) REFERENCES organisations (id)
+);
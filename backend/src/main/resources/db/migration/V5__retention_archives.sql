@@ -0,0 +1,65 @@
+-- Retention archives: no foreign keys, ids are those of the archived rows
+
+CREATE TABLE qr_code_records_archive (
+    id                  BIGINT       NOT NULL,
+    code                VARCHAR(128) NOT NULL,
+    organisation_id     BIGINT       NOT NULL,
+    created_by_admin_id BIGINT,
+    expires_at          DATETIME(6),
+    scan_count          INTEGER,
+    created_at          DATETIME(6),
+    archived_at         DATETIME(6)  NOT NULL,
+    PRIMARY KEY (id)
+);
+
+CREATE TABLE attendance_records_archive (
+    id               BIGINT      NOT NULL,
+    user_id          BIGINT      NOT NULL,
+    check_in_time    DATETIME(6) NOT NULL,
+    check_out_time   DATETIME(6),
+    latitude         FLOAT(53),
+    longitude        FLOAT(53),
+    check_in_method  VARCHAR(20),
+    check_out_method VARCHAR(20),
+    attendance_date  DATETIME(6) NOT NULL,
+    auto_closed      BIT         NOT NULL,
+    is_deleted       BIT         NOT NULL,
+    created_at       DATETIME(6),
+    updated_at       DATETIME(6),
+    archived_at      DATETIME(6) NOT NULL,
+    PRIMARY KEY (id)
+);
+
+CREATE INDEX idx_attendance_archive_user ON attendance_records_archive (user_id);
+
+CREATE TABLE users_archive (
+    id              BIGINT       NOT NULL,
+    first_name      VARCHAR(255) NOT NULL,
+    last_name       VARCHAR(255) NOT NULL,
+    email           VARCHAR(255) NOT NULL,
+    role            VARCHAR(20),
+    organization_id BIGINT,
+    status          VARCHAR(20),
+    last_login      DATETIME(6),
+    created_at      DATETIME(6),
+    updated_at      DATETIME(6),
+    archived_at     DATETIME(6)  NOT NULL,
+    PRIMARY KEY (id)
+);
+
+CREATE TABLE organisations_archive (
+    id              BIGINT       NOT NULL,
+    name            VARCHAR(255) NOT NULL,
+    location        VARCHAR(255),
+    latitude        FLOAT(53),
+    longitude       FLOAT(53),
+    contact_email   VARCHAR(255),
+    contact_phone   VARCHAR(255),
+    start_work_time TIME(6),
+    time_zone       VARCHAR(64),
+    created_by_id   BIGINT,
+    created_at      DATETIME(6),
+    updated_at      DATETIME(6),
+    archived_at     DATETIME(6)  NOT NULL,
+    PRIMARY KEY (id)
+);
@@ -0,0 +1,18 @@
+-- Copy the user's organisation onto each attendance record, so organisation
+-- reports filter attendance_records directly instead of joining users.
+-- Only users with an organisation can check in, so every row gets one.
+
+ALTER TABLE attendance_records ADD COLUMN organisation_id BIGINT;
+
+UPDATE attendance_records
+SET organisation_id = (SELECT u.organization_id FROM users u WHERE u.id = attendance_records.user_id);
+
+ALTER TABLE attendance_records MODIFY COLUMN organisation_id BIGINT NOT NULL;
+
+ALTER TABLE attendance_records
+    ADD CONSTRAINT fk_attendance_records_organisation FOREIGN KEY (organisation_id) REFERENCES organisations (id);
+
+ALTER TABLE attendance_records_archive ADD COLUMN organisation_id BIGINT;
+
+UPDATE attendance_records_archive
+SET organisation_id = (SELECT u.organization_id FROM users u WHERE u.id = attendance_records_archive.user_id);
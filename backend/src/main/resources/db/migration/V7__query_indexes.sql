@@ -0,0 +1,22 @@
+-- One index per repository access path, columns in the order the queries
+-- filter: equality columns first, then the range or sort column.
+
+-- findByOrganisationAndFilters, findByOrganisationAndNotDeleted, day close
+CREATE INDEX idx_attendance_org_date ON attendance_records (organisation_id, is_deleted, attendance_date);
+-- findAllByUser, findLast7ByUser, findByUserAndFilters, findTodayAttendance, hasCheckedInToday
+CREATE INDEX idx_attendance_user_date ON attendance_records (user_id, is_deleted, attendance_date);
+-- findByAttendanceDateBetweenAndDeletedFalse
+CREATE INDEX idx_attendance_date ON attendance_records (attendance_date);
+
+-- findByOrganisationAndActiveTrue, existsByOrganisationAndActiveTrueAndIsAutoGeneratingTrue
+CREATE INDEX idx_qr_org_active ON qr_code_records (organisation_id, active, is_auto_generating);
+-- findByActiveTrueAndIsAutoGeneratingTrue, countActiveByOrganisation
+CREATE INDEX idx_qr_active_auto ON qr_code_records (active, is_auto_generating, organisation_id);
+
+-- findByOrganisation, findByOrganisationAndDeletedFalse, findByOrganisationAndEmailIn
+CREATE INDEX idx_users_org_deleted ON users (organization_id, is_deleted);
+-- existsByRole
+CREATE INDEX idx_users_role ON users (role);
+
+-- deleteExpiredBefore
+CREATE INDEX idx_refresh_tokens_expires ON refresh_tokens (expires_at);
@@ -0,0 +1,4 @@
+-- A consumed refresh token may be answered once more within the reuse grace
+-- window (two tabs refreshing together); this records that it has been.
+
+ALTER TABLE refresh_tokens ADD COLUMN reissued_at DATETIME(6);
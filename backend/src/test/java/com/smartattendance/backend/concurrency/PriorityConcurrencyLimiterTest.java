@@ -0,0 +1,71 @@
+package com.smartattendance.backend.concurrency;
+
+import com.smartattendance.backend.enums.RequestPriority;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Admission order of the concurrency limiter: low priority is shed first,
+ * and a waiting check-in gets the next free slot.
+ */
+class PriorityConcurrencyLimiterTest {
+
+    private static final int LIMIT = 10;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final PriorityConcurrencyLimiter limiter =
+            new PriorityConcurrencyLimiter(meterRegistry, LIMIT, LIMIT, LIMIT, 2_000);
+
+    @Test
+    void shedsLowPriorityBeforeHighPriority() throws Exception {
+        List<PriorityConcurrencyLimiter.Permit> permits = acquire(RequestPriority.NORMAL, 5);
+
+        assertThat(limiter.tryAcquire(RequestPriority.LOW)).isNull();
+        assertThat(limiter.tryAcquire(RequestPriority.NORMAL)).isNotNull();
+        permits.addAll(acquire(RequestPriority.HIGH, 4));
+        assertThat(limiter.getInflight()).isEqualTo(LIMIT);
+
+        assertThat(meterRegistry.get("attendance.concurrency.admission")
+                .tag("priority", "low").tag("decision", "rejected").counter().count()).isEqualTo(1.0);
+    }
+
+    @Test
+    void waitingHighPriorityRequestGetsTheNextSlot() throws Exception {
+        List<PriorityConcurrencyLimiter.Permit> permits = acquire(RequestPriority.HIGH, LIMIT);
+
+        CompletableFuture<PriorityConcurrencyLimiter.Permit> waiting = CompletableFuture.supplyAsync(() -> {
+            try {
+                return limiter.tryAcquire(RequestPriority.HIGH);
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        // Give the request time to start waiting for a slot
+        TimeUnit.MILLISECONDS.sleep(200);
+
+        permits.getFirst().release();
+        // The freed slot is reserved for the waiting check-in
+        assertThat(limiter.tryAcquire(RequestPriority.NORMAL)).isNull();
+        assertThat(waiting.get(1, TimeUnit.SECONDS)).isNotNull();
+        assertThat(meterRegistry.get("attendance.concurrency.admission")
+                .tag("priority", "high").tag("decision", "queued").counter().count()).isEqualTo(1.0);
+    }
+
+    private List<PriorityConcurrencyLimiter.Permit> acquire(RequestPriority priority, int count)
+            throws InterruptedException {
+        List<PriorityConcurrencyLimiter.Permit> permits = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            PriorityConcurrencyLimiter.Permit permit = limiter.tryAcquire(priority);
+            assertThat(permit).isNotNull();
+            permits.add(permit);
+        }
+        return permits;
+    }
+}
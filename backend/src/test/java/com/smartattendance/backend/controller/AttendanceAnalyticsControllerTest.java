@@ -0,0 +1,121 @@
+package com.smartattendance.backend.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.smartattendance.backend.entity.Organisation;
+import com.smartattendance.backend.entity.Users;
+import com.smartattendance.backend.enums.RoleType;
+import com.smartattendance.backend.enums.UserStatus;
+import com.smartattendance.backend.repository.OrganisationRepository;
+import com.smartattendance.backend.repository.UserRepository;
+import com.smartattendance.backend.security.JwtUtil;
+import com.smartattendance.backend.service.AttendanceHistoryIndex;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.time.LocalDate;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+/**
+ * Analytics endpoints answer from the history index for the admin's own
+ * organisation, and refuse date ranges longer than a year.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class AttendanceAnalyticsControllerTest {
+
+    private static final LocalDate MONDAY = LocalDate.of(2025, 3, 3);
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private OrganisationRepository organisationRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private AttendanceHistoryIndex attendanceHistoryIndex;
+
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private Organisation organisation;
+    private Users admin;
+    private String token;
+
+    @BeforeEach
+    void seed() {
+        String suffix = UUID.randomUUID().toString().substring(0, 8);
+        Organisation org = new Organisation();
+        org.setName("Analytics " + suffix);
+        org.setLocation("Kumasi");
+        org.setContactEmail("analytics-" + suffix + "@example.com");
+        organisation = organisationRepository.save(org);
+
+        Users user = new Users();
+        user.setFirstName("Adwoa");
+        user.setLastName(suffix);
+        user.setEmail("analytics-admin-" + suffix + "@example.com");
+        user.setPassword("{noop}unused");
+        user.setRole(RoleType.ADMIN);
+        user.setStatus(UserStatus.ACTIVE);
+        user.setOrganisation(organisation);
+        admin = userRepository.save(user);
+        token = jwtUtil.generateToken(admin);
+
+        attendanceHistoryIndex.registerUser(organisation.getId(), admin.getId());
+        for (int day = 0; day < 3; day++) {
+            attendanceHistoryIndex.recordAttendance(organisation.getId(), admin.getId(), MONDAY.plusDays(day).atTime(8, 0));
+        }
+    }
+
+    @Test
+    void ratesAndStreaksComeFromTheIndex() throws Exception {
+        String range = "&startDate=" + MONDAY + "&endDate=" + MONDAY.plusDays(4);
+
+        JsonNode rates = read("/api/attendance/analytics/rates?orgId=" + organisation.getId() + range);
+        assertThat(rates.path("count").asInt()).isEqualTo(1);
+        assertThat(rates.path("data").get(0).path("attendanceRate").asDouble()).isEqualTo(60.0);
+
+        JsonNode streaks = read("/api/attendance/analytics/streaks?orgId=" + organisation.getId() + "&minLength=3" + range);
+        assertThat(streaks.path("data").get(0).path("userId").asLong()).isEqualTo(admin.getId());
+
+        JsonNode users = read("/api/attendance/analytics/users?orgId=" + organisation.getId()
+                + "&dates=" + MONDAY + "," + MONDAY.plusDays(2) + "&op=AND");
+        assertThat(users.path("data").get(0).asLong()).isEqualTo(admin.getId());
+    }
+
+    @Test
+    void rangesLongerThanAYearAreRejected() throws Exception {
+        String tooLong = "&startDate=" + MONDAY.minusYears(2) + "&endDate=" + MONDAY;
+        for (String path : new String[]{"rates?", "streaks?", "days?userIds=" + admin.getId() + "&"}) {
+            MvcResult result = mockMvc.perform(get("/api/attendance/analytics/" + path + "orgId=" + organisation.getId()
+                    + tooLong).header("Authorization", "Bearer " + token)).andReturn();
+            assertThat(result.getResponse().getStatus()).as(path).isEqualTo(400);
+        }
+
+        String oneYear = "&startDate=" + MONDAY.minusDays(365) + "&endDate=" + MONDAY;
+        assertThat(read("/api/attendance/analytics/rates?orgId=" + organisation.getId() + oneYear)
+                .path("success").asBoolean()).isTrue();
+    }
+
+    private JsonNode read(String path) throws Exception {
+        MvcResult result = mockMvc.perform(get(path).header("Authorization", "Bearer " + token)).andReturn();
+        assertThat(result.getResponse().getStatus()).as(path).isEqualTo(200);
+        return objectMapper.readTree(result.getResponse().getContentAsString());
+    }
+}
@@ -0,0 +1,147 @@
+package com.smartattendance.backend.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.smartattendance.backend.entity.AttendanceRecord;
+import com.smartattendance.backend.entity.Organisation;
+import com.smartattendance.backend.entity.Users;
+import com.smartattendance.backend.enums.AttendanceMethod;
+import com.smartattendance.backend.enums.RoleType;
+import com.smartattendance.backend.enums.UserStatus;
+import com.smartattendance.backend.filter.SqlStatementBudgetFilter;
+import com.smartattendance.backend.repository.AttendanceRecordRepository;
+import com.smartattendance.backend.repository.OrganisationRepository;
+import com.smartattendance.backend.repository.UserRepository;
+import com.smartattendance.backend.security.JwtUtil;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+/**
+ * Polls of unchanged attendance data are answered 304 before anything is
+ * loaded; an attendance write changes the validators.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class ConditionalGetTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private OrganisationRepository organisationRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private AttendanceRecordRepository attendanceRecordRepository;
+
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private Organisation organisation;
+    private String adminToken;
+    private String memberToken;
+    private AttendanceRecord record;
+
+    @BeforeEach
+    void seed() {
+        String suffix = UUID.randomUUID().toString().substring(0, 8);
+        Organisation org = new Organisation();
+        org.setName("Etag " + suffix);
+        org.setLocation("Tamale");
+        org.setContactEmail("etag-" + suffix + "@example.com");
+        organisation = organisationRepository.save(org);
+
+        adminToken = jwtUtil.generateToken(userRepository.save(user("admin-" + suffix, RoleType.ADMIN)));
+        Users member = userRepository.save(user("member-" + suffix, RoleType.USER));
+        memberToken = jwtUtil.generateToken(member);
+
+        AttendanceRecord checkIn = new AttendanceRecord();
+        checkIn.setUser(member);
+        checkIn.setCheckInTime(LocalDateTime.now().minusDays(1));
+        checkIn.setAttendanceDate(LocalDateTime.now().minusDays(1));
+        checkIn.setCheckInMethod(AttendanceMethod.WEB);
+        record = attendanceRecordRepository.save(checkIn);
+    }
+
+    @Test
+    void unchangedPollsAre304WithoutTouchingTheDatabase() throws Exception {
+        for (String path : new String[]{"/api/attendance/today", "/api/attendance/last7",
+                "/api/attendance/reports?period=week"}) {
+            MvcResult first = mockMvc.perform(authorised(get(path), memberToken)).andReturn();
+            assertThat(first.getResponse().getStatus()).as(path).isEqualTo(200);
+            String etag = first.getResponse().getHeader(HttpHeaders.ETAG);
+            assertThat(etag).as(path).isNotNull();
+            assertThat(first.getResponse().getHeader(HttpHeaders.LAST_MODIFIED)).as(path).isNotNull();
+            assertThat(first.getResponse().getHeader(HttpHeaders.CACHE_CONTROL)).as(path).contains("private");
+
+            MvcResult again = mockMvc.perform(authorised(get(path), memberToken)
+                    .header(HttpHeaders.IF_NONE_MATCH, etag)).andReturn();
+            assertThat(again.getResponse().getStatus()).as(path).isEqualTo(304);
+            assertThat(again.getResponse().getContentAsString()).as(path).isEmpty();
+            assertThat(again.getResponse().getHeader(SqlStatementBudgetFilter.STATEMENTS_HEADER)).as(path)
+                    .isEqualTo("0");
+        }
+    }
+
+    @Test
+    void anAttendanceWriteInvalidatesTheUserAndOrganisationTags() throws Exception {
+        MvcResult history = mockMvc.perform(authorised(get("/api/attendance/last7"), memberToken)).andReturn();
+        String historyTag = history.getResponse().getHeader(HttpHeaders.ETAG);
+        String reportPath = "/api/attendance/reports/organisation?orgId=" + organisation.getId();
+        MvcResult report = mockMvc.perform(authorised(get(reportPath), adminToken)).andReturn();
+        assertThat(report.getResponse().getStatus()).isEqualTo(200);
+        String reportTag = report.getResponse().getHeader(HttpHeaders.ETAG);
+        assertThat(mockMvc.perform(authorised(get(reportPath), adminToken)
+                .header(HttpHeaders.IF_NONE_MATCH, reportTag)).andReturn().getResponse().getStatus()).isEqualTo(304);
+
+        MvcResult removed = mockMvc.perform(authorised(
+                delete("/api/attendance/" + record.getId() + "?orgId=" + organisation.getId()), adminToken))
+                .andReturn();
+        assertThat(removed.getResponse().getStatus()).isEqualTo(200);
+
+        MvcResult changed = mockMvc.perform(authorised(get("/api/attendance/last7"), memberToken)
+                .header(HttpHeaders.IF_NONE_MATCH, historyTag)).andReturn();
+        assertThat(changed.getResponse().getStatus()).isEqualTo(200);
+        assertThat(changed.getResponse().getHeader(HttpHeaders.ETAG)).isNotEqualTo(historyTag);
+        assertThat(objectMapper.readTree(changed.getResponse().getContentAsString()).path("count").asInt())
+                .isZero();
+
+        assertThat(mockMvc.perform(authorised(get(reportPath), adminToken)
+                .header(HttpHeaders.IF_NONE_MATCH, reportTag)).andReturn().getResponse().getStatus()).isEqualTo(200);
+    }
+
+    private MockHttpServletRequestBuilder authorised(MockHttpServletRequestBuilder request, String token) {
+        return request.header("Authorization", "Bearer " + token);
+    }
+
+    private Users user(String handle, RoleType role) {
+        Users user = new Users();
+        user.setFirstName(handle);
+        user.setLastName("Etag");
+        user.setEmail(handle + "@example.com");
+        user.setPassword("{noop}unused");
+        user.setRole(role);
+        user.setStatus(UserStatus.ACTIVE);
+        user.setOrganisation(organisation);
+        return user;
+    }
+}
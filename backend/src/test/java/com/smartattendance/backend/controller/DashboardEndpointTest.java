@@ -0,0 +1,148 @@
+package com.smartattendance.backend.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.smartattendance.backend.entity.AttendanceRecord;
+import com.smartattendance.backend.entity.Organisation;
+import com.smartattendance.backend.entity.Users;
+import com.smartattendance.backend.enums.AttendanceMethod;
+import com.smartattendance.backend.enums.RoleType;
+import com.smartattendance.backend.enums.UserStatus;
+import com.smartattendance.backend.filter.SqlStatementBudgetFilter;
+import com.smartattendance.backend.repository.AttendanceRecordRepository;
+import com.smartattendance.backend.repository.OrganisationRepository;
+import com.smartattendance.backend.repository.UserRepository;
+import com.smartattendance.backend.security.JwtUtil;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+/**
+ * The dashboard bootstrap returns what the separate landing-screen endpoints
+ * return, from a single query.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class DashboardEndpointTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private OrganisationRepository organisationRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private AttendanceRecordRepository attendanceRecordRepository;
+
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private String token;
+
+    @BeforeEach
+    void seed() {
+        String suffix = UUID.randomUUID().toString().substring(0, 8);
+        Organisation org = new Organisation();
+        org.setName("Dashboard " + suffix);
+        org.setLocation("Cape Coast");
+        org.setContactEmail("dashboard-" + suffix + "@example.com");
+        Organisation organisation = organisationRepository.save(org);
+
+        Users member = new Users();
+        member.setFirstName("Dash");
+        member.setLastName(suffix);
+        member.setEmail("dashboard-member-" + suffix + "@example.com");
+        member.setPassword("{noop}unused");
+        member.setRole(RoleType.USER);
+        member.setStatus(UserStatus.ACTIVE);
+        member.setOrganisation(organisation);
+        member = userRepository.save(member);
+        token = jwtUtil.generateToken(member);
+
+        // Today is checked in only; the 11 days before it are complete; one older record was removed
+        LocalDate today = LocalDate.now();
+        for (int daysAgo = 0; daysAgo < 12; daysAgo++) {
+            LocalDateTime checkIn = today.minusDays(daysAgo).atTime(LocalTime.of(7, 30 + daysAgo));
+            attendanceRecordRepository.save(record(member, checkIn, daysAgo == 0 ? null : checkIn.plusHours(8)));
+        }
+        AttendanceRecord removed = record(member, today.minusDays(20).atTime(9, 0), null);
+        removed.setDeleted(true);
+        attendanceRecordRepository.save(removed);
+    }
+
+    @Test
+    void dashboardMatchesTheSeparateEndpointsInOneQuery() throws Exception {
+        JsonNode today = read("/api/attendance/today");
+
+        MvcResult result = mockMvc.perform(get("/api/attendance/dashboard?size=10")
+                .header("Authorization", "Bearer " + token)).andReturn();
+        assertThat(result.getResponse().getStatus()).isEqualTo(200);
+        assertThat(result.getResponse().getHeader(SqlStatementBudgetFilter.STATEMENTS_HEADER)).isEqualTo("1");
+        JsonNode dashboard = objectMapper.readTree(result.getResponse().getContentAsString()).path("data");
+
+        assertThat(dashboard.path("hasCheckedIn").asBoolean()).isTrue();
+        assertThat(dashboard.path("hasCheckedOut").asBoolean()).isFalse();
+        assertThat(dashboard.path("today")).isEqualTo(today.path("data"));
+        assertThat(dashboard.path("last7")).isEqualTo(read("/api/attendance/last7").path("data"));
+
+        JsonNode history = read("/api/attendance/history?size=10");
+        assertThat(dashboard.path("history").path("content")).isEqualTo(history.path("content"));
+        assertThat(dashboard.path("history").path("totalElements").asLong()).isEqualTo(12);
+
+        assertWeeklyReportMatches(dashboard);
+    }
+
+    @Test
+    void aWeekLongerThanTheHistoryPageIsStillReportedInFull() throws Exception {
+        JsonNode dashboard = read("/api/attendance/dashboard?size=3").path("data");
+
+        assertThat(dashboard.path("history").path("content")).hasSize(3);
+        assertThat(dashboard.path("history").path("totalElements").asLong()).isEqualTo(12);
+        assertThat(dashboard.path("last7")).hasSize(7);
+        assertWeeklyReportMatches(dashboard);
+    }
+
+    private void assertWeeklyReportMatches(JsonNode dashboard) throws Exception {
+        JsonNode weekly = read("/api/attendance/reports?period=week").path("data");
+        assertThat(dashboard.path("weeklyReport").path("presentDays").asInt()).isEqualTo(7);
+        for (String field : new String[]{"totalDays", "presentDays", "lateArrivals", "averageHours"}) {
+            assertThat(dashboard.path("weeklyReport").path(field)).as(field).isEqualTo(weekly.path(field));
+        }
+        assertThat(dashboard.path("weeklyReport").path("records")).hasSize(7);
+    }
+
+    private JsonNode read(String path) throws Exception {
+        MvcResult result = mockMvc.perform(get(path).header("Authorization", "Bearer " + token)).andReturn();
+        assertThat(result.getResponse().getStatus()).as(path).isEqualTo(200);
+        return objectMapper.readTree(result.getResponse().getContentAsString());
+    }
+
+    private static AttendanceRecord record(Users member, LocalDateTime checkIn, LocalDateTime checkOut) {
+        AttendanceRecord record = new AttendanceRecord();
+        record.setUser(member);
+        record.setCheckInTime(checkIn);
+        record.setAttendanceDate(checkIn);
+        record.setCheckOutTime(checkOut);
+        record.setCheckInMethod(AttendanceMethod.WEB);
+        return record;
+    }
+}
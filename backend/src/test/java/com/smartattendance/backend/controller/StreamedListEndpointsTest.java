@@ -0,0 +1,161 @@
+package com.smartattendance.backend.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.smartattendance.backend.entity.AttendanceRecord;
+import com.smartattendance.backend.entity.Organisation;
+import com.smartattendance.backend.entity.Users;
+import com.smartattendance.backend.enums.AttendanceMethod;
+import com.smartattendance.backend.enums.RoleType;
+import com.smartattendance.backend.enums.UserStatus;
+import com.smartattendance.backend.repository.AttendanceRecordRepository;
+import com.smartattendance.backend.repository.OrganisationRepository;
+import com.smartattendance.backend.repository.UserRepository;
+import com.smartattendance.backend.security.JwtUtil;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+/**
+ * The organisation-wide user and attendance lists are streamed: same
+ * envelope as before, rows written as they are read, count after the data.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class StreamedListEndpointsTest {
+
+    private static final int MEMBERS = 7;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private OrganisationRepository organisationRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private AttendanceRecordRepository attendanceRecordRepository;
+
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private Organisation organisation;
+    private String adminToken;
+    private List<Users> members;
+
+    @BeforeEach
+    void seed() {
+        String suffix = UUID.randomUUID().toString().substring(0, 8);
+        Organisation org = new Organisation();
+        org.setName("Stream " + suffix);
+        org.setLocation("Kumasi");
+        org.setContactEmail("stream-" + suffix + "@example.com");
+        organisation = organisationRepository.save(org);
+
+        adminToken = jwtUtil.generateToken(userRepository.save(user("admin-" + suffix, RoleType.ADMIN)));
+        members = new ArrayList<>();
+        for (int i = 0; i < MEMBERS; i++) {
+            members.add(userRepository.save(user("member-" + i + "-" + suffix, RoleType.USER)));
+        }
+        Users gone = user("gone-" + suffix, RoleType.USER);
+        gone.setDeleted(true);
+        userRepository.save(gone);
+
+        LocalDateTime yesterday = LocalDateTime.now().minusDays(1);
+        for (Users member : members) {
+            attendanceRecordRepository.save(record(member, yesterday));
+        }
+        AttendanceRecord deleted = record(members.get(0), yesterday.minusDays(1));
+        deleted.setDeleted(true);
+        attendanceRecordRepository.save(deleted);
+    }
+
+    @Test
+    void usersAreStreamedWithCountAfterTheData() throws Exception {
+        JsonNode body = stream("/api/users?orgId=" + organisation.getId());
+
+        assertThat(body.path("success").asBoolean()).isTrue();
+        assertThat(body.path("message").asText()).isEqualTo("Users retrieved successfully");
+        assertThat(body.path("data")).hasSize(MEMBERS + 1);
+        assertThat(body.path("count").asLong()).isEqualTo(MEMBERS + 1);
+        JsonNode first = body.path("data").get(0);
+        assertThat(first.path("organisationId").asLong()).isEqualTo(organisation.getId());
+        assertThat(first.path("organisationName").asText()).isEqualTo(organisation.getName());
+        assertThat(first.path("role").asText()).isIn("ADMIN", "USER");
+        assertThat(first.has("password")).isFalse();
+    }
+
+    @Test
+    void attendanceIsStreamedWithoutDeletedRecords() throws Exception {
+        JsonNode body = stream("/api/attendance?orgId=" + organisation.getId());
+
+        assertThat(body.path("data")).hasSize(MEMBERS);
+        assertThat(body.path("count").asLong()).isEqualTo(MEMBERS);
+        List<Long> userIds = new ArrayList<>();
+        body.path("data").forEach(row -> userIds.add(row.path("userId").asLong()));
+        assertThat(userIds).containsExactlyInAnyOrderElementsOf(members.stream().map(Users::getId).toList());
+        JsonNode first = body.path("data").get(0);
+        assertThat(first.path("userName").asText()).startsWith("member-").endsWith(" Stream");
+        assertThat(first.path("checkInMethod").asText()).isEqualTo("WEB");
+    }
+
+    @Test
+    void otherOrganisationsAreRejectedBeforeStreaming() throws Exception {
+        MvcResult result = mockMvc.perform(get("/api/users?orgId=" + (organisation.getId() + 100_000))
+                        .header("Authorization", "Bearer " + adminToken))
+                .andReturn();
+
+        assertThat(result.getRequest().isAsyncStarted()).isFalse();
+        assertThat(result.getResponse().getStatus()).isGreaterThanOrEqualTo(400);
+    }
+
+    private JsonNode stream(String path) throws Exception {
+        MvcResult started = mockMvc.perform(get(path).header("Authorization", "Bearer " + adminToken))
+                .andReturn();
+        assertThat(started.getRequest().isAsyncStarted()).as("%s is streamed", path).isTrue();
+
+        MvcResult result = mockMvc.perform(asyncDispatch(started)).andReturn();
+        assertThat(result.getResponse().getStatus()).isEqualTo(200);
+        return objectMapper.readTree(result.getResponse().getContentAsString());
+    }
+
+    private Users user(String handle, RoleType role) {
+        Users user = new Users();
+        user.setFirstName(handle);
+        user.setLastName("Stream");
+        user.setEmail(handle + "@example.com");
+        user.setPassword("{noop}unused");
+        user.setRole(role);
+        user.setStatus(UserStatus.ACTIVE);
+        user.setOrganisation(organisation);
+        return user;
+    }
+
+    private AttendanceRecord record(Users member, LocalDateTime when) {
+        AttendanceRecord record = new AttendanceRecord();
+        record.setUser(member);
+        record.setCheckInTime(when);
+        record.setAttendanceDate(when);
+        record.setCheckInMethod(AttendanceMethod.WEB);
+        return record;
+    }
+}
@@ -0,0 +1,188 @@
+package com.smartattendance.backend.datasource;
+
+import com.smartattendance.backend.entity.Organisation;
+import com.smartattendance.backend.entity.Users;
+import com.smartattendance.backend.enums.RoleType;
+import com.smartattendance.backend.enums.UserStatus;
+import com.smartattendance.backend.repository.OrganisationRepository;
+import com.smartattendance.backend.repository.UserRepository;
+import com.smartattendance.backend.security.CustomUserDetails;
+import com.smartattendance.backend.service.OrganisationService;
+import com.smartattendance.backend.service.UserService;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Two embedded databases stand in for primary and replica, plus a replica
+ * that cannot be reached. Rows that only exist on one side show where a
+ * query was served from.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@TestPropertySource(properties = {
+        "spring.datasource.url=" + ReadReplicaRoutingTest.PRIMARY_URL,
+        "attendance.datasource.replica.urls=jdbc:h2:tcp://localhost:1/unreachable," + ReadReplicaRoutingTest.REPLICA_URL,
+        "attendance.datasource.replica.connection-timeout=250",
+        "attendance.datasource.replica.retry-after-ms=60000"
+})
+class ReadReplicaRoutingTest {
+
+    static final String PRIMARY_URL = "jdbc:h2:mem:routing_primary;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1";
+    static final String REPLICA_URL = "jdbc:h2:mem:routing_replica;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1";
+
+    private static boolean replicaSchemaCopied;
+
+    @Autowired
+    private OrganisationService organisationService;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private OrganisationRepository organisationRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ReadYourWritesWindow readYourWritesWindow;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @BeforeEach
+    void copySchemaToReplica() throws SQLException {
+        if (replicaSchemaCopied) {
+            return;
+        }
+        List<String> ddl = new ArrayList<>();
+        try (Connection primary = DriverManager.getConnection(PRIMARY_URL, "sa", "");
+             Statement statement = primary.createStatement();
+             ResultSet script = statement.executeQuery("SCRIPT NODATA NOPASSWORDS NOSETTINGS")) {
+            while (script.next()) {
+                String sql = script.getString(1);
+                if (!sql.startsWith("CREATE USER")) {
+                    ddl.add(sql);
+                }
+            }
+        }
+        try (Connection replica = DriverManager.getConnection(REPLICA_URL, "sa", "");
+             Statement statement = replica.createStatement()) {
+            for (String sql : ddl) {
+                statement.execute(sql);
+            }
+        }
+        replicaSchemaCopied = true;
+    }
+
+    @AfterEach
+    void clearAuthentication() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void readOnlyTransactionsAreServedByAHealthyReplica() throws SQLException {
+        String primaryOnly = organisationRepository.save(organisation("Primary")).getName();
+        String replicaOnly = insertOnReplica("Replica");
+
+        // Round robin: across two reads the unreachable replica is tried once and skipped
+        for (int read = 0; read < 2; read++) {
+            List<String> names = organisationService.getAllActiveOrganisations().stream()
+                    .map(Organisation::getName)
+                    .toList();
+            assertThat(names).contains(replicaOnly).doesNotContain(primaryOnly);
+        }
+        assertThat(meterRegistry.get("attendance.datasource.replica.healthy").tag("replica", "replica-0")
+                .gauge().value()).isZero();
+        assertThat(meterRegistry.get("attendance.datasource.replica.healthy").tag("replica", "replica-1")
+                .gauge().value()).isEqualTo(1.0);
+    }
+
+    @Test
+    void readsStayOnThePrimaryRightAfterTheUsersOwnWrite() throws SQLException {
+        Organisation organisation = organisationRepository.save(organisation("Primary"));
+        String replicaOnly = insertOnReplica("Replica");
+
+        Users user = new Users();
+        user.setFirstName("Routing");
+        user.setLastName("Test");
+        user.setEmail("routing-" + UUID.randomUUID() + "@example.com");
+        user.setPassword("unused");
+        user.setRole(RoleType.USER);
+        user.setStatus(UserStatus.ACTIVE);
+        user.setOrganisation(organisation);
+        CustomUserDetails principal = new CustomUserDetails(userRepository.save(user));
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities()));
+
+        readYourWritesWindow.recordWrite(principal.getId());
+
+        List<String> names = organisationService.getAllActiveOrganisations().stream()
+                .map(Organisation::getName)
+                .toList();
+
+        assertThat(names).contains(organisation.getName()).doesNotContain(replicaOnly);
+    }
+
+    @Test
+    void loginLookupsReadThePrimaryOnACacheMiss() {
+        Organisation organisation = organisationRepository.save(organisation("Primary"));
+        Users user = new Users();
+        user.setFirstName("Login");
+        user.setLastName("Routing");
+        user.setEmail("login-" + UUID.randomUUID() + "@example.com");
+        user.setPassword("unused");
+        user.setRole(RoleType.USER);
+        user.setStatus(UserStatus.ACTIVE);
+        user.setOrganisation(organisation);
+        Users saved = userRepository.save(user);
+        entityManagerFactory.getCache().evictAll();
+
+        // Not on the replica yet, but the login must see it
+        assertThat(userService.findForLogin(saved.getEmail())).isPresent();
+        assertThat(userService.findActiveById(saved.getId())).isPresent();
+    }
+
+    private Organisation organisation(String prefix) {
+        String suffix = UUID.randomUUID().toString().substring(0, 8);
+        Organisation organisation = new Organisation();
+        organisation.setName(prefix + " " + suffix);
+        organisation.setLocation("Accra");
+        organisation.setContactEmail(prefix.toLowerCase() + "-" + suffix + "@example.com");
+        return organisation;
+    }
+
+    private String insertOnReplica(String prefix) throws SQLException {
+        String name = prefix + " " + UUID.randomUUID().toString().substring(0, 8);
+        try (Connection replica = DriverManager.getConnection(REPLICA_URL, "sa", "");
+             Statement statement = replica.createStatement()) {
+            statement.executeUpdate("INSERT INTO organisations (name, location, contact_email, created_at, is_deleted) "
+                    + "VALUES ('" + name + "', 'Accra', '" + UUID.randomUUID() + "@example.com', "
+                    + "CURRENT_TIMESTAMP, FALSE)");
+        }
+        return name;
+    }
+}
@@ -0,0 +1,170 @@
+package com.smartattendance.backend.datasource;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.smartattendance.backend.entity.Organisation;
+import com.smartattendance.backend.entity.Users;
+import com.smartattendance.backend.enums.RoleType;
+import com.smartattendance.backend.enums.UserStatus;
+import com.smartattendance.backend.filter.SqlStatementBudgetFilter;
+import com.smartattendance.backend.repository.OrganisationRepository;
+import com.smartattendance.backend.repository.UserRepository;
+import com.smartattendance.backend.security.JwtUtil;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+
+/**
+ * Per-endpoint SQL statement budgets for the check-in and login hot paths.
+ * A failing budget usually means a lazy association started loading per row.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class SqlStatementBudgetTest {
+
+    private static final double LATITUDE = 5.631155029146822;
+    private static final double LONGITUDE = -0.22219213171956173;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private OrganisationRepository organisationRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private String adminToken;
+    private String userToken;
+    private String userEmail;
+
+    @BeforeEach
+    void seed() {
+        String suffix = UUID.randomUUID().toString().substring(0, 8);
+
+        Organisation organisation = new Organisation();
+        organisation.setName("Budget " + suffix);
+        organisation.setLocation("Accra");
+        organisation.setContactEmail("budget-" + suffix + "@example.com");
+        organisation.setLatitude(LATITUDE);
+        organisation.setLongitude(LONGITUDE);
+        organisation = organisationRepository.save(organisation);
+
+        adminToken = jwtUtil.generateToken(userRepository.save(user(organisation, "admin-" + suffix, RoleType.ADMIN)));
+        Users member = user(organisation, "user-" + suffix, RoleType.USER);
+        member.setPassword(passwordEncoder.encode("secret1"));
+        userToken = jwtUtil.generateToken(userRepository.save(member));
+        userEmail = member.getEmail();
+    }
+
+    @Test
+    void checkInFlowStaysWithinStatementBudget() throws Exception {
+        // First request runs on a cold second-level cache: admin and organisation are one select each
+        MvcResult started = withinBudget(post("/api/admin/qr-codes/start")
+                        .header("Authorization", "Bearer " + adminToken)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(json(Map.of("latitude", LATITUDE, "longitude", LONGITUDE, "radiusMeters", 100))),
+                5);
+        String payload = objectMapper.readTree(started.getResponse().getContentAsString()).path("payload").asText();
+        String location = json(Map.of("qrCode", payload, "latitude", LATITUDE, "longitude", LONGITUDE));
+
+        withinBudget(post("/api/attendance/check-in-qr")
+                .header("Authorization", "Bearer " + userToken)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(location), 6);
+
+        withinBudget(get("/api/attendance/today")
+                .header("Authorization", "Bearer " + userToken), 1);
+
+        withinBudget(get("/api/attendance/last7")
+                .header("Authorization", "Bearer " + userToken), 1);
+
+        withinBudget(get("/api/attendance/dashboard")
+                .header("Authorization", "Bearer " + userToken), 1);
+
+        withinBudget(put("/api/attendance/check-out-qr")
+                .header("Authorization", "Bearer " + userToken)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(location), 4);
+    }
+
+    @Test
+    void loginCountsTheWorkDoneOffTheRequestThread() throws Exception {
+        entityManagerFactory.getCache().evictAll();
+        // Cold cache: user and organisation selects on the request thread,
+        // then the refresh token INSERT on the task executor
+        MvcResult login = withinBudget(post("/api/auth/login")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(json(Map.of("email", userEmail, "password", "secret1"))), 3);
+        assertThat(login.getResponse().getHeader(SqlStatementBudgetFilter.STATEMENTS_HEADER))
+                .as("the INSERT on the task executor is counted")
+                .isEqualTo("3");
+    }
+
+    /**
+     * Performs the request (following an async login through to its result) and fails if it ran more SQL statements than allowed.
+     */
+    private MvcResult withinBudget(MockHttpServletRequestBuilder request, int maxStatements) throws Exception {
+        MvcResult result = mockMvc.perform(request).andReturn();
+        if (result.getRequest().isAsyncStarted()) {
+            result = mockMvc.perform(asyncDispatch(result)).andReturn();
+        }
+        String path = result.getRequest().getMethod() + " " + result.getRequest().getRequestURI();
+
+        assertThat(result.getResponse().getStatus())
+                .as("%s status: %s", path, result.getResponse().getContentAsString())
+                .isBetween(200, 299);
+
+        String header = result.getResponse().getHeader(SqlStatementBudgetFilter.STATEMENTS_HEADER);
+        assertThat(header).as("%s is missing %s", path, SqlStatementBudgetFilter.STATEMENTS_HEADER).isNotNull();
+        assertThat(Integer.parseInt(header))
+                .as("%s SQL statement budget", path)
+                .isLessThanOrEqualTo(maxStatements);
+        return result;
+    }
+
+    private Users user(Organisation organisation, String handle, RoleType role) {
+        Users user = new Users();
+        user.setFirstName(handle);
+        user.setLastName("Budget");
+        user.setEmail(handle + "@example.com");
+        user.setPassword("{noop}unused");
+        user.setRole(role);
+        user.setStatus(UserStatus.ACTIVE);
+        user.setOrganisation(organisation);
+        return user;
+    }
+
+    private String json(Object body) throws Exception {
+        return objectMapper.writeValueAsString(body);
+    }
+}
@@ -0,0 +1,36 @@
+package com.smartattendance.backend.filter;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.smartattendance.backend.concurrency.PriorityConcurrencyLimiter;
+import com.smartattendance.backend.enums.RequestPriority;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Which requests the concurrency limiter treats as check-in traffic and
+ * which may be shed first.
+ */
+class AdaptiveConcurrencyFilterTest {
+
+    private final AdaptiveConcurrencyFilter filter = new AdaptiveConcurrencyFilter(
+            new PriorityConcurrencyLimiter(new SimpleMeterRegistry(), 10, 10, 10, 2_000),
+            new ObjectMapper(), true, 1, 10);
+
+    @Test
+    void longRunningRequestsAreLowPriority() {
+        assertThat(filter.priorityOf("/api/attendance")).isEqualTo(RequestPriority.LOW);
+        assertThat(filter.priorityOf("/api/users")).isEqualTo(RequestPriority.LOW);
+        assertThat(filter.priorityOf("/api/attendance/reports/export")).isEqualTo(RequestPriority.LOW);
+        assertThat(filter.priorityOf("/api/users/import")).isEqualTo(RequestPriority.LOW);
+    }
+
+    @Test
+    void checkInsStayHighAndTheRestNormal() {
+        assertThat(filter.priorityOf("/api/attendance/check-in")).isEqualTo(RequestPriority.HIGH);
+        assertThat(filter.priorityOf("/api/attendance/today")).isEqualTo(RequestPriority.HIGH);
+        assertThat(filter.priorityOf("/api/users/search")).isEqualTo(RequestPriority.NORMAL);
+        assertThat(filter.priorityOf("/api/attendance/dashboard")).isEqualTo(RequestPriority.NORMAL);
+    }
+}
@@ -0,0 +1,136 @@
+package com.smartattendance.backend.filter;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.smartattendance.backend.entity.Organisation;
+import com.smartattendance.backend.entity.Users;
+import com.smartattendance.backend.enums.RoleType;
+import com.smartattendance.backend.enums.UserStatus;
+import com.smartattendance.backend.repository.AttendanceRecordRepository;
+import com.smartattendance.backend.repository.OrganisationRepository;
+import com.smartattendance.backend.repository.UserRepository;
+import com.smartattendance.backend.security.JwtUtil;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+
+/**
+ * A retried check-in with the same Idempotency-Key gets the original
+ * response back and runs no SQL.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class IdempotencyFilterTest {
+
+    private static final double LATITUDE = 5.631155029146822;
+    private static final double LONGITUDE = -0.22219213171956173;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private OrganisationRepository organisationRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private AttendanceRecordRepository attendanceRecordRepository;
+
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private Users user;
+    private String userToken;
+    private String checkInBody;
+
+    @BeforeEach
+    void seed() throws Exception {
+        String suffix = UUID.randomUUID().toString().substring(0, 8);
+
+        Organisation organisation = new Organisation();
+        organisation.setName("Idempotency " + suffix);
+        organisation.setLocation("Accra");
+        organisation.setContactEmail("idempotency-" + suffix + "@example.com");
+        organisation.setLatitude(LATITUDE);
+        organisation.setLongitude(LONGITUDE);
+        organisation = organisationRepository.save(organisation);
+
+        String adminToken = jwtUtil.generateToken(userRepository.save(user(organisation, "admin-" + suffix, RoleType.ADMIN)));
+        user = userRepository.save(user(organisation, "user-" + suffix, RoleType.USER));
+        userToken = jwtUtil.generateToken(user);
+
+        MvcResult started = mockMvc.perform(post("/api/admin/qr-codes/start")
+                        .header("Authorization", "Bearer " + adminToken)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(json(Map.of("latitude", LATITUDE, "longitude", LONGITUDE, "radiusMeters", 100))))
+                .andReturn();
+        String payload = objectMapper.readTree(started.getResponse().getContentAsString()).path("payload").asText();
+        checkInBody = json(Map.of("qrCode", payload, "latitude", LATITUDE, "longitude", LONGITUDE));
+    }
+
+    @Test
+    void repeatedKeyReplaysTheOriginalResponse() throws Exception {
+        String key = UUID.randomUUID().toString();
+
+        MvcResult first = checkIn(key, checkInBody);
+        MvcResult retry = checkIn(key, checkInBody);
+
+        assertThat(first.getResponse().getStatus()).isEqualTo(201);
+        assertThat(retry.getResponse().getStatus()).isEqualTo(201);
+        assertThat(retry.getResponse().getContentAsString()).isEqualTo(first.getResponse().getContentAsString());
+        assertThat(retry.getResponse().getHeader(IdempotencyFilter.REPLAYED_HEADER)).isEqualTo("true");
+        assertThat(retry.getResponse().getHeader(SqlStatementBudgetFilter.STATEMENTS_HEADER)).isEqualTo("0");
+        assertThat(attendanceRecordRepository.findAll().stream()
+                .filter(record -> record.getUser().getId().equals(user.getId()))).hasSize(1);
+    }
+
+    @Test
+    void reusingAKeyForADifferentRequestIsRejected() throws Exception {
+        String key = UUID.randomUUID().toString();
+
+        assertThat(checkIn(key, checkInBody).getResponse().getStatus()).isEqualTo(201);
+
+        MvcResult reused = checkIn(key, json(Map.of("qrCode", "other", "latitude", LATITUDE, "longitude", LONGITUDE)));
+        assertThat(reused.getResponse().getStatus()).isEqualTo(422);
+    }
+
+    private MvcResult checkIn(String key, String body) throws Exception {
+        return mockMvc.perform(post("/api/attendance/check-in-qr")
+                        .header("Authorization", "Bearer " + userToken)
+                        .header(IdempotencyFilter.KEY_HEADER, key)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(body))
+                .andReturn();
+    }
+
+    private Users user(Organisation organisation, String handle, RoleType role) {
+        Users user = new Users();
+        user.setFirstName(handle);
+        user.setLastName("Idempotency");
+        user.setEmail(handle + "@example.com");
+        user.setPassword("{noop}unused");
+        user.setRole(role);
+        user.setStatus(UserStatus.ACTIVE);
+        user.setOrganisation(organisation);
+        return user;
+    }
+
+    private String json(Object body) throws Exception {
+        return objectMapper.writeValueAsString(body);
+    }
+}
@@ -0,0 +1,122 @@
+package com.smartattendance.backend.id;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.autoconfigure.AutoConfigurations;
+import org.springframework.boot.autoconfigure.context.PropertyPlaceholderAutoConfiguration;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Layout, ordering and uniqueness of application-assigned ids.
+ */
+class TimeOrderedIdGeneratorTest {
+
+    private static final long START = TimeOrderedIdGenerator.EPOCH_MILLIS + 1_000_000L;
+
+    @Test
+    void idsCarryTheTimestampAndNodeAndFitAJavaScriptNumber() {
+        TimeOrderedIdGenerator generator = new TimeOrderedIdGenerator(7, () -> START);
+
+        long id = generator.nextId();
+
+        assertThat(TimeOrderedIdGenerator.timestampOf(id).toEpochMilli()).isEqualTo(START);
+        assertThat((id >>> TimeOrderedIdGenerator.SEQUENCE_BITS) & TimeOrderedIdGenerator.MAX_NODE_ID)
+                .isEqualTo(7);
+        assertThat(new TimeOrderedIdGenerator(31, () -> TimeOrderedIdGenerator.EPOCH_MILLIS
+                + (1L << TimeOrderedIdGenerator.TIMESTAMP_BITS) - 1).nextId()).isLessThan(1L << 53);
+    }
+
+    @Test
+    void nodesNeverCollideInTheSameMillisecond() {
+        TimeOrderedIdGenerator first = new TimeOrderedIdGenerator(0, () -> START);
+        TimeOrderedIdGenerator second = new TimeOrderedIdGenerator(1, () -> START);
+        Set<Long> ids = new HashSet<>();
+
+        for (int i = 0; i < 1000; i++) {
+            ids.add(first.nextId());
+            ids.add(second.nextId());
+        }
+
+        assertThat(ids).hasSize(2000);
+    }
+
+    @Test
+    void sequenceOverflowAndBackwardClockBorrowTheNextMillisecond() {
+        AtomicLong now = new AtomicLong(START);
+        TimeOrderedIdGenerator generator = new TimeOrderedIdGenerator(3, now::get);
+
+        long previous = generator.nextId();
+        for (int i = 0; i < 1000; i++) {
+            long id = generator.nextId();
+            assertThat(id).isGreaterThan(previous);
+            previous = id;
+        }
+        // 1000 ids at 256 per millisecond ran ahead of the clock
+        assertThat(TimeOrderedIdGenerator.timestampOf(previous).toEpochMilli()).isEqualTo(START + 3);
+
+        now.set(START - 5_000);
+        assertThat(generator.nextId()).isGreaterThan(previous);
+
+        now.set(START + 10_000);
+        assertThat(TimeOrderedIdGenerator.timestampOf(generator.nextId()).toEpochMilli()).isEqualTo(START + 10_000);
+    }
+
+    @Test
+    void concurrentCallersGetDistinctIncreasingIds() {
+        TimeOrderedIdGenerator generator = new TimeOrderedIdGenerator(0);
+        List<CompletableFuture<long[]>> workers = new ArrayList<>();
+        for (int worker = 0; worker < 8; worker++) {
+            workers.add(CompletableFuture.supplyAsync(() -> {
+                long[] ids = new long[20_000];
+                for (int i = 0; i < ids.length; i++) {
+                    ids[i] = generator.nextId();
+                }
+                return ids;
+            }));
+        }
+
+        Set<Long> all = new HashSet<>();
+        for (CompletableFuture<long[]> worker : workers) {
+            long[] ids = worker.join();
+            for (int i = 0; i < ids.length; i++) {
+                if (i > 0) {
+                    assertThat(ids[i]).isGreaterThan(ids[i - 1]);
+                }
+                all.add(ids[i]);
+            }
+        }
+
+        assertThat(all).hasSize(8 * 20_000);
+    }
+
+    @Test
+    void rejectsANodeIdOutsideFiveBits() {
+        assertThatThrownBy(() -> new TimeOrderedIdGenerator(32))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("attendance.ids.node-id");
+        assertThatThrownBy(() -> new TimeOrderedIdGenerator(-1))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void anInstanceWithoutANodeIdFailsToStart() {
+        ApplicationContextRunner runner = new ApplicationContextRunner()
+                .withConfiguration(AutoConfigurations.of(PropertyPlaceholderAutoConfiguration.class))
+                .withUserConfiguration(TimeOrderedIdGenerator.class);
+
+        runner.run(context -> assertThat(context).getFailure()
+                .hasRootCauseMessage("Could not resolve placeholder 'attendance.ids.node-id' in value "
+                        + "\"${attendance.ids.node-id}\""));
+        runner.withPropertyValues("attendance.ids.node-id=3")
+                .run(context -> assertThat(context).hasSingleBean(TimeOrderedIdGenerator.class));
+    }
+}
@@ -0,0 +1,508 @@
+package com.smartattendance.backend.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.smartattendance.backend.entity.Organisation;
+import com.smartattendance.backend.entity.Users;
+import com.smartattendance.backend.enums.RoleType;
+import com.smartattendance.backend.enums.UserStatus;
+import com.smartattendance.backend.repository.OrganisationRepository;
+import com.smartattendance.backend.repository.UserRepository;
+import com.smartattendance.backend.security.JwtUtil;
+import com.smartattendance.backend.service.AttendanceHistoryIndex;
+import com.smartattendance.backend.service.PresenceBoardService;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalManagementPort;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Reproduces the 08:00 check-in storm against an embedded database.
+ *
+ * Seeds N organisations with M users each, starts QR generation for every
+ * organisation (with a kiosk thread rotating the code), then replays each
+ * user's morning on its own virtual thread: check-in-qr along a bell-shaped
+ * arrival curve, a look at /today, sometimes /last7, and for some users an
+ * early check-out-qr. A small share of users scan a rotated QR, stand outside
+ * the geofence or scan twice, so the error paths are exercised too.
+ * Meanwhile a few admins keep exporting a year of attendance, which must
+ * only load the reporting connection pool.
+ *
+ * Opt-in only: mvn -P loadtest test
+ */
+@Tag("loadtest")
+@AutoConfigureObservability
+@ActiveProfiles("test")
+// The results table is logged at INFO, above the test profile's WARN
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = "logging.level.com.smartattendance.backend.loadtest=INFO")
+@Slf4j
+class MorningRushLoadTest {
+
+    private static final int ORGANISATIONS = Integer.getInteger("loadtest.organisations", 5);
+    private static final int USERS_PER_ORGANISATION = Integer.getInteger("loadtest.usersPerOrganisation", 200);
+    private static final int DURATION_SECONDS = Integer.getInteger("loadtest.durationSeconds", 30);
+    private static final long SEED = Long.getLong("loadtest.seed", 42L);
+    private static final int QR_ROTATE_MILLIS = Integer.getInteger("loadtest.qrRotateMillis", 5_000);
+    private static final int EXPORTERS = Integer.getInteger("loadtest.exporters", 2);
+
+    private static final double STALE_QR_SHARE = 0.05;
+    private static final double OUTSIDE_GEOFENCE_SHARE = 0.03;
+    private static final double DOUBLE_SCAN_SHARE = 0.03;
+    private static final double LAST7_SHARE = 0.30;
+    private static final double EARLY_CHECK_OUT_SHARE = 0.25;
+    private static final int MAX_SHED_RETRIES = 3;
+
+    @LocalServerPort
+    private int port;
+
+    @LocalManagementPort
+    private int managementPort;
+
+    @Autowired
+    private OrganisationRepository organisationRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    @Autowired
+    private PresenceBoardService presenceBoardService;
+
+    @Autowired
+    private AttendanceHistoryIndex attendanceHistoryIndex;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final LoadRecorder recorder = new LoadRecorder();
+    private HttpClient client;
+
+    @Test
+    void morningRush() throws Exception {
+        Random random = new Random(SEED);
+        List<Kiosk> kiosks = seed();
+        presenceBoardService.rebuild();
+        attendanceHistoryIndex.rebuild();
+
+        try (ExecutorService virtualThreads = Executors.newVirtualThreadPerTaskExecutor()) {
+            client = HttpClient.newBuilder()
+                    .version(HttpClient.Version.HTTP_1_1)
+                    .executor(virtualThreads)
+                    .connectTimeout(Duration.ofSeconds(10))
+                    .build();
+
+            for (Kiosk kiosk : kiosks) {
+                kiosk.rotate();
+            }
+
+            List<UserScript> scripts = new ArrayList<>();
+            for (Kiosk kiosk : kiosks) {
+                for (String token : kiosk.userTokens) {
+                    scripts.add(UserScript.plan(kiosk, token, random));
+                }
+            }
+
+            AtomicBoolean running = new AtomicBoolean(true);
+            long startNanos = System.nanoTime();
+
+            for (Kiosk kiosk : kiosks) {
+                virtualThreads.submit(() -> {
+                    while (running.get()) {
+                        sleepUntil(System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(QR_ROTATE_MILLIS));
+                        if (running.get()) {
+                            kiosk.rotate();
+                        }
+                    }
+                    return null;
+                });
+            }
+
+            // Year-long exports running alongside the rush must not slow check-ins down
+            for (int e = 0; e < EXPORTERS; e++) {
+                Kiosk kiosk = kiosks.get(e % kiosks.size());
+                virtualThreads.submit(() -> {
+                    while (running.get()) {
+                        send("org-export", "GET", "/api/attendance/reports/organisation/export?orgId="
+                                + kiosk.organisationId + "&startDate=" + LocalDate.now().minusYears(1)
+                                + "&format=csv", kiosk.adminToken, null);
+                    }
+                    return null;
+                });
+            }
+
+            List<Future<?>> users = new ArrayList<>(scripts.size());
+            for (UserScript script : scripts) {
+                users.add(virtualThreads.submit(() -> {
+                    script.run(this, startNanos);
+                    return null;
+                }));
+            }
+            for (Future<?> user : users) {
+                user.get();
+            }
+            running.set(false);
+
+            double elapsedSeconds = (System.nanoTime() - startNanos) / 1e9;
+            Map<String, Object> report = recorder.report(elapsedSeconds);
+            report.put("organisations", ORGANISATIONS);
+            report.put("usersPerOrganisation", USERS_PER_ORGANISATION);
+            report.put("exporters", EXPORTERS);
+            report.put("seed", SEED);
+
+            String json = objectMapper.writerWithDefaultPrettyPrinter().writeValueAsString(report);
+            Files.writeString(Path.of("target", "loadtest-report.json"), json);
+            log.info("Morning rush results:\n{}", recorder.table(elapsedSeconds));
+
+            assertThat(recorder.count("check-in-qr", "OK")).isPositive();
+            assertThat(recorder.unexpectedOutcomes()).isEmpty();
+
+            // The check-in SLO histogram must be scrapeable for alerting, on the management port only
+            HttpResponse<String> publicScrape = client.send(HttpRequest.newBuilder(
+                            URI.create("http://localhost:" + port + "/actuator/prometheus")).build(),
+                    HttpResponse.BodyHandlers.ofString());
+            assertThat(publicScrape.statusCode()).isNotEqualTo(200);
+            HttpResponse<String> scrape = client.send(HttpRequest.newBuilder(
+                            URI.create("http://localhost:" + managementPort + "/actuator/prometheus")).build(),
+                    HttpResponse.BodyHandlers.ofString());
+            assertThat(scrape.body()).contains("attendance_checkin_seconds_bucket");
+            assertThat(scrape.body()).contains("attendance_concurrency_admission_total");
+            assertThat(scrape.body()).contains("hikaricp_connections_pending{application=\"backend\",pool=\"critical\"}");
+            if (EXPORTERS > 0) {
+                assertThat(scrapedValue(scrape.body(),
+                        "hikaricp_connections_acquire_seconds_count{application=\"backend\",pool=\"reporting\"}"))
+                        .isPositive();
+            }
+        }
+    }
+
+    private List<Kiosk> seed() {
+        String password = new BCryptPasswordEncoder().encode("loadtest");
+        List<Kiosk> kiosks = new ArrayList<>(ORGANISATIONS);
+
+        for (int o = 0; o < ORGANISATIONS; o++) {
+            Organisation organisation = new Organisation();
+            organisation.setName("Load Test Organisation " + o);
+            organisation.setLocation("Accra");
+            organisation.setContactEmail("org" + o + "@loadtest.example");
+            organisation.setLatitude(5.6 + o * 0.01);
+            organisation.setLongitude(-0.2 - o * 0.01);
+            organisation = organisationRepository.save(organisation);
+
+            Users admin = userRepository.save(user(organisation, "admin" + o, RoleType.ADMIN, password));
+
+            List<Users> members = new ArrayList<>(USERS_PER_ORGANISATION);
+            for (int u = 0; u < USERS_PER_ORGANISATION; u++) {
+                members.add(user(organisation, "user" + o + "-" + u, RoleType.USER, password));
+            }
+
+            Kiosk kiosk = new Kiosk(organisation.getId(), organisation.getLatitude(), organisation.getLongitude(),
+                    jwtUtil.generateToken(admin));
+            for (Users member : userRepository.saveAll(members)) {
+                kiosk.userTokens.add(jwtUtil.generateToken(member));
+            }
+            kiosks.add(kiosk);
+        }
+        return kiosks;
+    }
+
+    private Users user(Organisation organisation, String handle, RoleType role, String password) {
+        Users user = new Users();
+        user.setFirstName(handle);
+        user.setLastName("LoadTest");
+        user.setEmail(handle + "@loadtest.example");
+        user.setPassword(password);
+        user.setRole(role);
+        user.setStatus(UserStatus.ACTIVE);
+        user.setOrganisation(organisation);
+        return user;
+    }
+
+    private HttpResponse<String> send(String endpoint, String method, String path, String token, Object body) {
+        long start = System.nanoTime();
+        try {
+            HttpRequest.Builder request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + path))
+                    .timeout(Duration.ofSeconds(30))
+                    .header("Authorization", "Bearer " + token)
+                    .header("Content-Type", "application/json");
+            HttpRequest.BodyPublisher publisher = body != null
+                    ? HttpRequest.BodyPublishers.ofString(objectMapper.writeValueAsString(body))
+                    : HttpRequest.BodyPublishers.noBody();
+            HttpResponse<String> response = client.send(request.method(method, publisher).build(),
+                    HttpResponse.BodyHandlers.ofString());
+            recorder.record(endpoint, classify(response), System.nanoTime() - start);
+            return response;
+        } catch (IOException e) {
+            recorder.record(endpoint, "IO_ERROR", System.nanoTime() - start);
+            return null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        }
+    }
+
+    private String classify(HttpResponse<String> response) {
+        if (response.statusCode() / 100 == 2) {
+            return "OK";
+        }
+        if (response.statusCode() == 429) {
+            return "SHED";
+        }
+        try {
+            JsonNode body = objectMapper.readTree(response.body());
+            String code = body.path("errorCode").asText("");
+            return switch (code) {
+                case "DUPLICATE_CHECK_IN" -> "DUPLICATE_CHECK_IN";
+                case "LOCATION_VALIDATION_ERROR" -> "GEOFENCE_REJECT";
+                // The only QR error scripted: a rotated code is deactivated long before it could expire
+                case "QR_CODE_ERROR" -> "ROTATED_QR";
+                default -> "HTTP_" + response.statusCode();
+            };
+        } catch (IOException e) {
+            return "HTTP_" + response.statusCode();
+        }
+    }
+
+    private static double scrapedValue(String scrape, String series) {
+        return scrape.lines()
+                .filter(line -> line.startsWith(series + " "))
+                .mapToDouble(line -> Double.parseDouble(line.substring(series.length() + 1).trim()))
+                .findFirst()
+                .orElse(0.0);
+    }
+
+    private static void sleepUntil(long deadlineNanos) throws InterruptedException {
+        long remaining = deadlineNanos - System.nanoTime();
+        if (remaining > 0) {
+            TimeUnit.NANOSECONDS.sleep(remaining);
+        }
+    }
+
+    /**
+     * An organisation's QR display: rotates the code the way the admin screen
+     * does and remembers the previous payload so stale scans can be replayed.
+     */
+    private final class Kiosk {
+        private final Long organisationId;
+        private final double latitude;
+        private final double longitude;
+        private final String adminToken;
+        private final List<String> userTokens = new ArrayList<>();
+        private volatile String currentPayload;
+        private volatile String previousPayload;
+
+        private Kiosk(Long organisationId, double latitude, double longitude, String adminToken) {
+            this.organisationId = organisationId;
+            this.latitude = latitude;
+            this.longitude = longitude;
+            this.adminToken = adminToken;
+        }
+
+        private void rotate() throws IOException {
+            HttpResponse<String> response = send("qr-start", "POST", "/api/admin/qr-codes/start", adminToken,
+                    Map.of("latitude", latitude, "longitude", longitude, "radiusMeters", 100));
+            if (response != null && response.statusCode() == 200) {
+                String payload = objectMapper.readTree(response.body()).path("payload").asText();
+                previousPayload = currentPayload != null ? currentPayload : payload;
+                currentPayload = payload;
+            }
+        }
+    }
+
+    /**
+     * One user's morning, planned up front from the seeded random source so
+     * runs with the same seed issue the same traffic.
+     */
+    private record UserScript(Kiosk kiosk, String token, long checkInAtNanos, long checkOutAtNanos,
+                              boolean staleQr, boolean outsideGeofence, boolean doubleScan, boolean last7,
+                              double latitudeJitter, double longitudeJitter) {
+
+        static UserScript plan(Kiosk kiosk, String token, Random random) {
+            long window = TimeUnit.SECONDS.toNanos(DURATION_SECONDS);
+            // Bell-shaped arrivals peaking a third of the way into the window
+            double arrival = Math.clamp(0.35 + random.nextGaussian() * 0.12, 0.0, 0.8);
+            long checkInAt = (long) (arrival * window);
+            long checkOutAt = random.nextDouble() < EARLY_CHECK_OUT_SHARE
+                    ? checkInAt + (long) (random.nextDouble() * (window - checkInAt))
+                    : -1;
+            return new UserScript(kiosk, token, checkInAt, checkOutAt,
+                    random.nextDouble() < STALE_QR_SHARE,
+                    random.nextDouble() < OUTSIDE_GEOFENCE_SHARE,
+                    random.nextDouble() < DOUBLE_SCAN_SHARE,
+                    random.nextDouble() < LAST7_SHARE,
+                    (random.nextDouble() - 0.5) * 0.0004,
+                    (random.nextDouble() - 0.5) * 0.0004);
+        }
+
+        void run(MorningRushLoadTest test, long startNanos) throws InterruptedException {
+            sleepUntil(startNanos + checkInAtNanos);
+
+            String payload = staleQr ? kiosk.previousPayload : kiosk.currentPayload;
+            double offset = outsideGeofence ? 0.01 : 0.0;
+            HttpResponse<String> checkIn = test.send("check-in-qr", "POST", "/api/attendance/check-in-qr", token,
+                    location(payload, offset));
+
+            // Shed by the concurrency limiter: back off as told, like the mobile app does
+            for (int attempt = 0; attempt < MAX_SHED_RETRIES && checkIn != null && checkIn.statusCode() == 429;
+                 attempt++) {
+                TimeUnit.SECONDS.sleep(checkIn.headers().firstValueAsLong("Retry-After").orElse(1));
+                checkIn = test.send("check-in-qr", "POST", "/api/attendance/check-in-qr", token,
+                        location(kiosk.currentPayload, offset));
+            }
+
+            if (checkIn != null && checkIn.statusCode() / 100 != 2) {
+                // Walk closer / rescan the live code, as a real user would
+                TimeUnit.MILLISECONDS.sleep(500);
+                checkIn = test.send("check-in-qr", "POST", "/api/attendance/check-in-qr", token,
+                        location(kiosk.currentPayload, 0.0));
+            }
+            if (doubleScan) {
+                test.send("check-in-qr", "POST", "/api/attendance/check-in-qr", token,
+                        location(kiosk.currentPayload, 0.0));
+            }
+
+            test.send("today", "GET", "/api/attendance/today", token, null);
+            if (last7) {
+                test.send("last7", "GET", "/api/attendance/last7", token, null);
+            }
+
+            if (checkOutAtNanos >= 0 && checkIn != null && checkIn.statusCode() / 100 == 2) {
+                sleepUntil(startNanos + checkOutAtNanos);
+                test.send("check-out-qr", "PUT", "/api/attendance/check-out-qr", token,
+                        location(kiosk.currentPayload, 0.0));
+            }
+        }
+
+        private Map<String, Object> location(String payload, double offset) {
+            return Map.of(
+                    "qrCode", payload,
+                    "latitude", kiosk.latitude + latitudeJitter + offset,
+                    "longitude", kiosk.longitude + longitudeJitter + offset);
+        }
+    }
+
+    /**
+     * Latency samples and outcome counts per endpoint.
+     */
+    private static final class LoadRecorder {
+        // SHED is the concurrency limiter answering 429 under overload
+        private static final List<String> EXPECTED = List.of("OK", "DUPLICATE_CHECK_IN", "GEOFENCE_REJECT",
+                "ROTATED_QR", "SHED");
+
+        private final ConcurrentMap<String, ConcurrentLinkedQueue<Long>> latencies = new ConcurrentHashMap<>();
+        private final ConcurrentMap<String, ConcurrentMap<String, LongAdder>> outcomes = new ConcurrentHashMap<>();
+
+        void record(String endpoint, String outcome, long nanos) {
+            latencies.computeIfAbsent(endpoint, key -> new ConcurrentLinkedQueue<>()).add(nanos);
+            outcomes.computeIfAbsent(endpoint, key -> new ConcurrentHashMap<>())
+                    .computeIfAbsent(outcome, key -> new LongAdder())
+                    .increment();
+        }
+
+        long count(String endpoint, String outcome) {
+            LongAdder adder = outcomes.getOrDefault(endpoint, new ConcurrentHashMap<>()).get(outcome);
+            return adder != null ? adder.sum() : 0;
+        }
+
+        Map<String, Long> unexpectedOutcomes() {
+            Map<String, Long> unexpected = new TreeMap<>();
+            outcomes.forEach((endpoint, counts) -> counts.forEach((outcome, adder) -> {
+                if (!EXPECTED.contains(outcome)) {
+                    unexpected.put(endpoint + ":" + outcome, adder.sum());
+                }
+            }));
+            return unexpected;
+        }
+
+        Map<String, Object> report(double elapsedSeconds) {
+            Map<String, Object> endpoints = new TreeMap<>();
+            long total = 0;
+            for (Map.Entry<String, ConcurrentLinkedQueue<Long>> entry : latencies.entrySet()) {
+                long[] samples = entry.getValue().stream().mapToLong(Long::longValue).sorted().toArray();
+                total += samples.length;
+
+                Map<String, Object> stats = new LinkedHashMap<>();
+                stats.put("requests", samples.length);
+                stats.put("throughputPerSecond", round(samples.length / elapsedSeconds));
+                stats.put("p50Millis", percentile(samples, 0.50));
+                stats.put("p99Millis", percentile(samples, 0.99));
+                stats.put("p999Millis", percentile(samples, 0.999));
+                stats.put("maxMillis", samples.length > 0 ? round(samples[samples.length - 1] / 1e6) : 0.0);
+                Map<String, Long> counts = new TreeMap<>();
+                outcomes.getOrDefault(entry.getKey(), new ConcurrentHashMap<>())
+                        .forEach((outcome, adder) -> counts.put(outcome, adder.sum()));
+                stats.put("outcomes", counts);
+                endpoints.put(entry.getKey(), stats);
+            }
+
+            Map<String, Object> report = new LinkedHashMap<>();
+            report.put("elapsedSeconds", round(elapsedSeconds));
+            report.put("requests", total);
+            report.put("throughputPerSecond", round(total / elapsedSeconds));
+            report.put("endpoints", endpoints);
+            return report;
+        }
+
+        @SuppressWarnings("unchecked")
+        String table(double elapsedSeconds) {
+            Map<String, Object> report = report(elapsedSeconds);
+            StringBuilder table = new StringBuilder(String.format(
+                    "%nMorning rush: %s requests in %ss (%s req/s)%n%-14s %8s %8s %9s %9s %10s  %s%n",
+                    report.get("requests"), report.get("elapsedSeconds"), report.get("throughputPerSecond"),
+                    "endpoint", "requests", "req/s", "p50 ms", "p99 ms", "p99.9 ms", "outcomes"));
+            ((Map<String, Object>) report.get("endpoints")).forEach((endpoint, value) -> {
+                Map<String, Object> stats = (Map<String, Object>) value;
+                table.append(String.format("%-14s %8s %8s %9s %9s %10s  %s%n", endpoint,
+                        stats.get("requests"), stats.get("throughputPerSecond"), stats.get("p50Millis"),
+                        stats.get("p99Millis"), stats.get("p999Millis"), stats.get("outcomes")));
+            });
+            return table.toString();
+        }
+
+        private static double percentile(long[] sorted, double percentile) {
+            if (sorted.length == 0) {
+                return 0.0;
+            }
+            int index = (int) Math.ceil(percentile * sorted.length) - 1;
+            return round(sorted[Math.clamp(index, 0, sorted.length - 1)] / 1e6);
+        }
+
+        private static double round(double value) {
+            return Math.round(value * 100.0) / 100.0;
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package com.smartattendance.backend.ratelimit;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.offset;
+
+/**
+ * Burst, refill and lock-free accounting of a single token bucket.
+ */
+class TokenBucketTest {
+
+    private static final long ONE_SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    @Test
+    void allowsABurstThenRefillsAtTheConfiguredRate() {
+        // 5 tokens, 60 per minute = one per second
+        TokenBucket bucket = new TokenBucket(5, 60, 0);
+
+        for (int i = 0; i < 5; i++) {
+            assertThat(bucket.tryConsume(0)).isGreaterThanOrEqualTo(0);
+        }
+        double wait = bucket.tryConsume(0);
+        assertThat(wait).isNegative();
+        assertThat(-wait).isCloseTo(ONE_SECOND, offset(1_000d));
+
+        assertThat(bucket.tryConsume(ONE_SECOND)).isGreaterThanOrEqualTo(0);
+        assertThat(bucket.tryConsume(ONE_SECOND)).isNegative();
+        // Refill never exceeds the capacity
+        assertThat(bucket.tryConsume(3600 * ONE_SECOND)).isEqualTo(4);
+    }
+
+    @Test
+    void concurrentRequestsNeverOverspend() {
+        TokenBucket bucket = new TokenBucket(1_000, 0.0001, 0);
+        AtomicInteger allowed = new AtomicInteger();
+
+        List<CompletableFuture<Void>> workers = new ArrayList<>();
+        for (int worker = 0; worker < 8; worker++) {
+            workers.add(CompletableFuture.runAsync(() -> {
+                for (int i = 0; i < 500; i++) {
+                    if (bucket.tryConsume(0) >= 0) {
+                        allowed.incrementAndGet();
+                    }
+                }
+            }));
+        }
+        workers.forEach(CompletableFuture::join);
+
+        assertThat(allowed.get()).isEqualTo(1_000);
+    }
+}
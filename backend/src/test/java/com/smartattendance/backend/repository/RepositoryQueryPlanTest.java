@@ -0,0 +1,223 @@
+package com.smartattendance.backend.repository;
+
+import com.smartattendance.backend.entity.AttendanceRecord;
+import com.smartattendance.backend.entity.Organisation;
+import com.smartattendance.backend.entity.QrCodeRecord;
+import com.smartattendance.backend.entity.Users;
+import com.smartattendance.backend.enums.AttendanceMethod;
+import com.smartattendance.backend.enums.RoleType;
+import com.smartattendance.backend.enums.UserStatus;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Every keyed repository query is run against the migrated schema, and the
+ * SQL Hibernate sends is EXPLAINed: no table may be read by a full scan.
+ * Queries that list a whole table on purpose (findAll, findByDeletedFalse,
+ * name search with a leading wildcard, the startup index rebuild) are not
+ * included.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@TestPropertySource(properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+        + "com.smartattendance.backend.repository.RepositoryQueryPlanTest$CapturingInspector")
+class RepositoryQueryPlanTest {
+
+    @Autowired
+    private AttendanceRecordRepository attendanceRecordRepository;
+
+    @Autowired
+    private QrCodeRecordRepository qrCodeRecordRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private OrganisationRepository organisationRepository;
+
+    @Autowired
+    private RefreshTokenRepository refreshTokenRepository;
+
+    @Autowired
+    private AttendanceImportJobRepository attendanceImportJobRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private Organisation organisation;
+    private Users user;
+
+    /** Records the SQL of every statement Hibernate prepares. */
+    public static class CapturingInspector implements StatementInspector {
+        static final List<String> statements = new CopyOnWriteArrayList<>();
+
+        @Override
+        public String inspect(String sql) {
+            statements.add(sql);
+            return sql;
+        }
+    }
+
+    @BeforeEach
+    void seed() {
+        String suffix = UUID.randomUUID().toString().substring(0, 8);
+        Organisation org = new Organisation();
+        org.setName("Plan " + suffix);
+        org.setLocation("Ho");
+        org.setContactEmail("plan-" + suffix + "@example.com");
+        organisation = organisationRepository.save(org);
+
+        Users member = new Users();
+        member.setFirstName("Plan");
+        member.setLastName("Test");
+        member.setEmail("plan-" + suffix + "@example.com");
+        member.setPassword("unused");
+        member.setRole(RoleType.ADMIN);
+        member.setStatus(UserStatus.ACTIVE);
+        member.setOrganisation(organisation);
+        user = userRepository.save(member);
+
+        AttendanceRecord record = new AttendanceRecord();
+        record.setUser(user);
+        record.setCheckInTime(LocalDateTime.now());
+        record.setAttendanceDate(LocalDateTime.now());
+        record.setCheckInMethod(AttendanceMethod.WEB);
+        attendanceRecordRepository.save(record);
+
+        qrCodeRecordRepository.save(QrCodeRecord.builder()
+                .code(UUID.randomUUID().toString())
+                .organisation(organisation)
+                .createdBy(user)
+                .createdAt(LocalDateTime.now())
+                .expiresAt(LocalDateTime.now().plusMinutes(5))
+                .build());
+    }
+
+    @Test
+    void everyKeyedRepositoryQueryUsesAnIndex() {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime weekAgo = now.minusDays(7);
+        Map<String, Runnable> queries = new LinkedHashMap<>();
+
+        queries.put("findByUserAndAttendanceDateBetween",
+                () -> attendanceRecordRepository.findByUserAndAttendanceDateBetween(user, weekAgo, now));
+        queries.put("findByAttendanceDateBetweenAndDeletedFalse",
+                () -> attendanceRecordRepository.findByAttendanceDateBetweenAndDeletedFalse(weekAgo, now));
+        queries.put("findByOrganisationAndNotDeleted",
+                () -> attendanceRecordRepository.findByOrganisationAndNotDeleted(organisation));
+        queries.put("findTodayAttendance", () -> attendanceRecordRepository.findTodayAttendance(user, now));
+        queries.put("hasCheckedInToday", () -> attendanceRecordRepository.hasCheckedInToday(user, now));
+        queries.put("findLast7ByUser",
+                () -> attendanceRecordRepository.findLast7ByUser(user, PageRequest.of(0, 7)));
+        queries.put("findAllByUser",
+                () -> attendanceRecordRepository.findAllByUser(user, PageRequest.of(0, 1)));
+        queries.put("findLatestWithTotalByUser",
+                () -> attendanceRecordRepository.findLatestWithTotalByUser(user, PageRequest.of(0, 20)));
+        queries.put("findByUserAndFilters",
+                () -> attendanceRecordRepository.findByUserAndFilters(user, weekAgo, now, null, PageRequest.of(0, 1)));
+        queries.put("findByOrganisationAndFilters",
+                () -> attendanceRecordRepository.findByOrganisationAndFilters(organisation, weekAgo, now, null));
+        queries.put("streamResponsesByOrganisation (attendance)", () -> {
+            try (var rows = attendanceRecordRepository.streamResponsesByOrganisation(organisation)) {
+                rows.forEach(row -> { });
+            }
+        });
+
+        queries.put("findByCode", () -> qrCodeRecordRepository.findByCode("missing"));
+        queries.put("findByOrganisationAndActiveTrue",
+                () -> qrCodeRecordRepository.findByOrganisationAndActiveTrue(organisation));
+        queries.put("findByActiveTrueAndIsAutoGeneratingTrue",
+                () -> qrCodeRecordRepository.findByActiveTrueAndIsAutoGeneratingTrue());
+        queries.put("existsByOrganisationAndActiveTrueAndIsAutoGeneratingTrue",
+                () -> qrCodeRecordRepository.existsByOrganisationAndActiveTrueAndIsAutoGeneratingTrue(organisation));
+        queries.put("countActiveByOrganisation", () -> qrCodeRecordRepository.countActiveByOrganisation());
+
+        queries.put("findByEmail", () -> userRepository.findByEmail(user.getEmail()));
+        queries.put("findByEmailAndOrganisation",
+                () -> userRepository.findByEmailAndOrganisation(user.getEmail(), organisation));
+        queries.put("findByOrganisation", () -> userRepository.findByOrganisation(organisation));
+        queries.put("findByOrganisationAndDeletedFalse",
+                () -> userRepository.findByOrganisationAndDeletedFalse(organisation));
+        queries.put("streamResponsesByOrganisation (users)", () -> {
+            try (var rows = userRepository.streamResponsesByOrganisation(organisation)) {
+                rows.forEach(row -> { });
+            }
+        });
+        queries.put("findByEmailAndDeletedFalse", () -> userRepository.findByEmailAndDeletedFalse(user.getEmail()));
+        queries.put("findByIdAndOrganisation", () -> userRepository.findByIdAndOrganisation(user.getId(), organisation));
+        queries.put("findByOrganisationAndEmailIn",
+                () -> userRepository.findByOrganisationAndEmailIn(organisation, List.of(user.getEmail())));
+        queries.put("existsByEmailAndOrganisationAndDeletedFalse",
+                () -> userRepository.existsByEmailAndOrganisationAndDeletedFalse(user.getEmail(), organisation));
+        queries.put("existsByRole", () -> userRepository.existsByRole(RoleType.SUPER_ADMIN));
+
+        queries.put("findWithCreatorById", () -> organisationRepository.findWithCreatorById(organisation.getId()));
+
+        queries.put("findByTokenHash", () -> refreshTokenRepository.findByTokenHash("missing"));
+        queries.put("revokeFamily", () -> refreshTokenRepository.revokeFamily("missing", now));
+        queries.put("revokeAllForUser", () -> refreshTokenRepository.revokeAllForUser(user.getId(), now));
+        queries.put("deleteExpiredBefore", () -> refreshTokenRepository.deleteExpiredBefore(weekAgo));
+
+        queries.put("lockByIdAndOrganisationId",
+                () -> attendanceImportJobRepository.lockByIdAndOrganisationId(1L, organisation.getId()));
+
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        List<String> scans = new ArrayList<>();
+        queries.forEach((name, query) -> {
+            CapturingInspector.statements.clear();
+            transactionTemplate.executeWithoutResult(tx -> query.run());
+            assertThat(CapturingInspector.statements).as(name).isNotEmpty();
+            for (String sql : CapturingInspector.statements) {
+                String plan = explain(sql);
+                if (plan.contains(".tableScan")) {
+                    scans.add(name + ": " + plan);
+                }
+            }
+        });
+
+        assertThat(scans).isEmpty();
+    }
+
+    private String explain(String sql) {
+        return new TransactionTemplate(transactionManager).execute(tx -> jdbcTemplate.execute(
+                (java.sql.Connection connection) -> connection.prepareStatement("EXPLAIN " + sql),
+                (PreparedStatement statement) -> {
+                    // The plan does not depend on the values; bind nothing but nulls
+                    int parameters = statement.getParameterMetaData().getParameterCount();
+                    for (int index = 1; index <= parameters; index++) {
+                        statement.setObject(index, null);
+                    }
+                    StringBuilder plan = new StringBuilder();
+                    try (ResultSet resultSet = statement.executeQuery()) {
+                        while (resultSet.next()) {
+                            plan.append(resultSet.getString(1));
+                        }
+                    }
+                    return plan.toString();
+                }));
+    }
+}
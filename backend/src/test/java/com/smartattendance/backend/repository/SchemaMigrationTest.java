@@ -0,0 +1,54 @@
+package com.smartattendance.backend.repository;
+
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * A database created by the released ddl-auto=update build is baselined at
+ * V1 and must still receive every later migration, with its rows carried over.
+ */
+class SchemaMigrationTest {
+
+    @Test
+    void aBaselinedReleaseDatabaseGetsEveryLaterMigration() {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                "jdbc:h2:mem:baseline-" + UUID.randomUUID() + ";MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+                "sa", "");
+        new ResourceDatabasePopulator(new ClassPathResource("db/migration/V1__baseline_schema.sql"))
+                .execute(dataSource);
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.update("INSERT INTO organisations (id, name, location, contact_email, created_at, is_deleted) "
+                + "VALUES (1, 'Released', 'Accra', 'released@example.com', NOW(), FALSE)");
+        jdbcTemplate.update("INSERT INTO users (id, first_name, last_name, email, password, role, organization_id, "
+                + "status, created_at, is_deleted) "
+                + "VALUES (1, 'Ama', 'Mensah', 'ama@example.com', 'x', 'USER', 1, 'ACTIVE', NOW(), FALSE)");
+        jdbcTemplate.update("INSERT INTO attendance_records (id, user_id, check_in_time, check_in_method, "
+                + "attendance_date, created_at, is_deleted) VALUES (1, 1, NOW(), 'WEB', NOW(), NOW(), FALSE)");
+
+        Flyway.configure()
+                .dataSource(dataSource)
+                .baselineOnMigrate(true)
+                .baselineVersion("1")
+                .load()
+                .migrate();
+
+        for (String table : new String[]{"refresh_tokens", "attendance_import_jobs", "attendance_absences",
+                "day_close_runs", "qr_code_records_archive", "attendance_records_archive", "users_archive",
+                "organisations_archive"}) {
+            assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM " + table, Integer.class)).as(table).isZero();
+        }
+        assertThat(jdbcTemplate.queryForMap("SELECT organisation_id, auto_closed FROM attendance_records WHERE id = 1"))
+                .containsEntry("organisation_id", 1L)
+                .containsEntry("auto_closed", false);
+        assertThat(jdbcTemplate.queryForObject("SELECT time_zone FROM organisations WHERE id = 1", String.class))
+                .isNull();
+    }
+}
@@ -0,0 +1,198 @@
+package com.smartattendance.backend.retention;
+
+import com.smartattendance.backend.dto.RetentionReport;
+import com.smartattendance.backend.entity.AttendanceRecord;
+import com.smartattendance.backend.entity.Organisation;
+import com.smartattendance.backend.entity.QrCodeRecord;
+import com.smartattendance.backend.entity.Users;
+import com.smartattendance.backend.enums.AttendanceMethod;
+import com.smartattendance.backend.enums.RetentionTarget;
+import com.smartattendance.backend.enums.RoleType;
+import com.smartattendance.backend.enums.UserStatus;
+import com.smartattendance.backend.repository.AttendanceRecordRepository;
+import com.smartattendance.backend.repository.OrganisationRepository;
+import com.smartattendance.backend.repository.QrCodeRecordRepository;
+import com.smartattendance.backend.repository.UserRepository;
+import com.smartattendance.backend.service.AttendanceVersionTracker;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Rows past their retention window are archived or deleted in small chunks;
+ * live rows, and rows still referenced, stay where they are.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@TestPropertySource(properties = "attendance.retention.chunk-size=2")
+class RetentionServiceTest {
+
+    @Autowired
+    private RetentionService retentionService;
+
+    @Autowired
+    private OrganisationRepository organisationRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private AttendanceRecordRepository attendanceRecordRepository;
+
+    @Autowired
+    private QrCodeRecordRepository qrCodeRecordRepository;
+
+    @Autowired
+    private AttendanceVersionTracker attendanceVersionTracker;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void reclaimsExpiredQrCodesAndSoftDeletedRows() {
+        Organisation organisation = organisation();
+        Users admin = user(organisation, RoleType.ADMIN);
+        QrCodeRecord oldCode = qrCode(organisation, admin, false, 40);
+        QrCodeRecord recentCode = qrCode(organisation, admin, false, 5);
+        QrCodeRecord activeCode = qrCode(organisation, admin, true, 40);
+
+        Users member = user(organisation, RoleType.USER);
+        AttendanceRecord live = record(member);
+        AttendanceRecord deletedLongAgo = record(member);
+        AttendanceRecord deletedRecently = record(member);
+        softDelete("attendance_records", deletedLongAgo.getId(), 100);
+        softDelete("attendance_records", deletedRecently.getId(), 10);
+
+        Users leaver = user(organisation, RoleType.USER);
+        softDelete("users", leaver.getId(), 200);
+        Users leaverWithHistory = user(organisation, RoleType.USER);
+        AttendanceRecord historyRecord = record(leaverWithHistory);
+        softDelete("users", leaverWithHistory.getId(), 200);
+
+        Organisation closed = organisation();
+        Users closedMember = user(closed, RoleType.USER);
+        AttendanceRecord closedRecord = record(closedMember);
+        softDelete("organisations", closed.getId(), 400);
+
+        long versionBefore = attendanceVersionTracker.forOrganisation(organisation.getId()).sequence();
+        RetentionReport report = retentionService.run();
+
+        assertThat(report.targets()).allMatch(RetentionReport.TargetResult::complete);
+        assertThat(rows(report, RetentionTarget.QR_CODES)).isGreaterThanOrEqualTo(1);
+        assertThat(rows(report, RetentionTarget.ATTENDANCE_RECORDS)).isGreaterThanOrEqualTo(2);
+        assertThat(rows(report, RetentionTarget.USERS)).isGreaterThanOrEqualTo(2);
+        assertThat(rows(report, RetentionTarget.ORGANISATIONS)).isGreaterThanOrEqualTo(1);
+
+        // QR codes are deleted outright by default
+        assertThat(exists("qr_code_records", oldCode.getId())).isFalse();
+        assertThat(exists("qr_code_records_archive", oldCode.getId())).isFalse();
+        assertThat(exists("qr_code_records", recentCode.getId())).isTrue();
+        assertThat(exists("qr_code_records", activeCode.getId())).isTrue();
+
+        assertThat(exists("attendance_records", live.getId())).isTrue();
+        assertThat(exists("attendance_records", deletedRecently.getId())).isTrue();
+        assertThat(exists("attendance_records", deletedLongAgo.getId())).isFalse();
+        assertThat(exists("attendance_records_archive", deletedLongAgo.getId())).isTrue();
+        assertThat(exists("attendance_records_archive", closedRecord.getId())).isTrue();
+
+        assertThat(exists("users", leaver.getId())).isFalse();
+        assertThat(exists("users_archive", leaver.getId())).isTrue();
+        // A deleted user's own live records are kept, and so is the user they point at
+        assertThat(exists("attendance_records", historyRecord.getId())).isTrue();
+        assertThat(exists("users", leaverWithHistory.getId())).isTrue();
+        assertThat(exists("users", closedMember.getId())).isFalse();
+        assertThat(exists("organisations", closed.getId())).isFalse();
+        assertThat(exists("organisations_archive", closed.getId())).isTrue();
+        assertThat(exists("users", admin.getId())).isTrue();
+        assertThat(exists("organisations", organisation.getId())).isTrue();
+        // Archived rows change what the organisation's conditional GETs would return
+        assertThat(attendanceVersionTracker.forOrganisation(organisation.getId()).sequence()).isGreaterThan(versionBefore);
+    }
+
+    @Test
+    void keepsSoftDeletedUsersThatLiveQrCodesStillReference() {
+        Organisation organisation = organisation();
+        Users admin = user(organisation, RoleType.ADMIN);
+        QrCodeRecord activeCode = qrCode(organisation, admin, true, 40);
+        softDelete("users", admin.getId(), 200);
+
+        retentionService.run();
+
+        assertThat(exists("users", admin.getId())).isTrue();
+        assertThat(exists("qr_code_records", activeCode.getId())).isTrue();
+        assertThat(exists("users_archive", admin.getId())).isFalse();
+    }
+
+    private long rows(RetentionReport report, RetentionTarget target) {
+        return report.targets().stream()
+                .filter(result -> result.target() == target)
+                .mapToLong(RetentionReport.TargetResult::rows)
+                .sum();
+    }
+
+    private boolean exists(String table, Long id) {
+        return new TransactionTemplate(transactionManager).execute(tx -> jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM " + table + " WHERE id = ?", Integer.class, id)) > 0;
+    }
+
+    private void softDelete(String table, Long id, int daysAgo) {
+        new TransactionTemplate(transactionManager).executeWithoutResult(tx -> jdbcTemplate.update(
+                "UPDATE " + table + " SET is_deleted = TRUE, updated_at = ? WHERE id = ?",
+                Timestamp.valueOf(LocalDateTime.now().minusDays(daysAgo)), id));
+    }
+
+    private Organisation organisation() {
+        String suffix = UUID.randomUUID().toString().substring(0, 8);
+        Organisation organisation = new Organisation();
+        organisation.setName("Retention " + suffix);
+        organisation.setLocation("Cape Coast");
+        organisation.setContactEmail("retention-" + suffix + "@example.com");
+        return organisationRepository.save(organisation);
+    }
+
+    private Users user(Organisation organisation, RoleType role) {
+        Users user = new Users();
+        user.setFirstName("Retention");
+        user.setLastName("Test");
+        user.setEmail("retention-" + UUID.randomUUID() + "@example.com");
+        user.setPassword("unused");
+        user.setRole(role);
+        user.setStatus(UserStatus.ACTIVE);
+        user.setOrganisation(organisation);
+        return userRepository.save(user);
+    }
+
+    private QrCodeRecord qrCode(Organisation organisation, Users admin, boolean active, int expiredDaysAgo) {
+        return qrCodeRecordRepository.save(QrCodeRecord.builder()
+                .code(UUID.randomUUID().toString())
+                .organisation(organisation)
+                .createdBy(admin)
+                .createdAt(LocalDateTime.now().minusDays(expiredDaysAgo + 1L))
+                .expiresAt(LocalDateTime.now().minusDays(expiredDaysAgo))
+                .active(active)
+                .build());
+    }
+
+    private AttendanceRecord record(Users user) {
+        AttendanceRecord record = new AttendanceRecord();
+        record.setUser(user);
+        record.setCheckInTime(LocalDateTime.now().minusDays(1));
+        record.setAttendanceDate(LocalDateTime.now().minusDays(1));
+        record.setCheckInMethod(AttendanceMethod.WEB);
+        return attendanceRecordRepository.save(record);
+    }
+}
@@ -0,0 +1,220 @@
+package com.smartattendance.backend.security;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.smartattendance.backend.entity.Organisation;
+import com.smartattendance.backend.entity.Users;
+import com.smartattendance.backend.enums.RoleType;
+import com.smartattendance.backend.enums.UserStatus;
+import com.smartattendance.backend.exception.LoginBusyException;
+import com.smartattendance.backend.repository.OrganisationRepository;
+import com.smartattendance.backend.repository.UserRepository;
+import com.smartattendance.backend.service.LastLoginRecorder;
+import com.smartattendance.backend.service.UserService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+
+/**
+ * Login runs BCrypt on the hashing pool and only queues the last-login
+ * update; the row is written by the next flush. Refresh tokens rotate,
+ * tolerate two tabs refreshing together, and are revoked on later reuse or
+ * when the user is deleted.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class LoginFlowTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private OrganisationRepository organisationRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Autowired
+    private LastLoginRecorder lastLoginRecorder;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void loginRecordsLastLoginOnTheNextFlush() throws Exception {
+        Users user = seedUser("Secret@123");
+
+        assertThat(login(user.getEmail(), "wrong-password").getResponse().getStatus()).isEqualTo(401);
+        assertThat(login("nobody-" + UUID.randomUUID() + "@example.com", "Secret@123").getResponse().getStatus())
+                .isEqualTo(401);
+
+        MvcResult result = login(user.getEmail(), "Secret@123");
+        assertThat(result.getResponse().getStatus()).isEqualTo(200);
+        assertThat(objectMapper.readTree(result.getResponse().getContentAsString()).path("data").path("token").asText())
+                .isNotBlank();
+        assertThat(userRepository.findById(user.getId()).orElseThrow().getLastLogin()).isNull();
+
+        lastLoginRecorder.flush();
+
+        assertThat(userRepository.findById(user.getId()).orElseThrow().getLastLogin()).isNotNull();
+    }
+
+    @Test
+    void refreshRotatesTokensAndRevokesTheFamilyOnReuse() throws Exception {
+        Users user = seedUser("Secret@123");
+        String first = data(login(user.getEmail(), "Secret@123")).path("refreshToken").asText();
+
+        MvcResult refreshed = refresh(first);
+        assertThat(refreshed.getResponse().getStatus()).isEqualTo(200);
+        String second = data(refreshed).path("refreshToken").asText();
+        assertThat(second).isNotBlank().isNotEqualTo(first);
+        assertThat(data(refreshed).path("token").asText()).isNotBlank();
+
+        // Another tab presenting the same token right away gets a token of the same family
+        MvcResult concurrent = refresh(first);
+        assertThat(concurrent.getResponse().getStatus()).isEqualTo(200);
+        String sibling = data(concurrent).path("refreshToken").asText();
+        assertThat(sibling).isNotEqualTo(second);
+
+        // Replaying it later revokes the tokens that replaced it too
+        new TransactionTemplate(transactionManager).executeWithoutResult(tx -> jdbcTemplate.update(
+                "UPDATE refresh_tokens SET consumed_at = ? WHERE user_id = ? AND consumed_at IS NOT NULL",
+                LocalDateTime.now().minusMinutes(1), user.getId()));
+        assertThat(refresh(first).getResponse().getStatus()).isEqualTo(401);
+        assertThat(refresh(second).getResponse().getStatus()).isEqualTo(401);
+        assertThat(refresh(sibling).getResponse().getStatus()).isEqualTo(401);
+    }
+
+    @Test
+    void aSecondReplayInsideTheGraceWindowRevokesTheFamily() throws Exception {
+        Users user = seedUser("Secret@123");
+        String first = data(login(user.getEmail(), "Secret@123")).path("refreshToken").asText();
+        String second = data(refresh(first)).path("refreshToken").asText();
+
+        MvcResult concurrent = refresh(first);
+        assertThat(concurrent.getResponse().getStatus()).isEqualTo(200);
+        String sibling = data(concurrent).path("refreshToken").asText();
+
+        // Only one tab's worth of grace: a copy replayed again right away gets nothing and ends the session
+        assertThat(refresh(first).getResponse().getStatus()).isEqualTo(401);
+        assertThat(refresh(second).getResponse().getStatus()).isEqualTo(401);
+        assertThat(refresh(sibling).getResponse().getStatus()).isEqualTo(401);
+    }
+
+    @Test
+    void deletingAUserRevokesTheirRefreshTokens() throws Exception {
+        Users user = seedUser("Secret@123");
+        String refreshToken = data(login(user.getEmail(), "Secret@123")).path("refreshToken").asText();
+
+        userService.softDeleteUser(user.getId(), user.getOrganisation());
+
+        assertThat(refresh(refreshToken).getResponse().getStatus()).isEqualTo(401);
+    }
+
+    @Test
+    void fullHashingQueueRejectsInsteadOfBlocking() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        PasswordEncoder blockingEncoder = new PasswordEncoder() {
+            @Override
+            public String encode(CharSequence rawPassword) {
+                return rawPassword.toString();
+            }
+
+            @Override
+            public boolean matches(CharSequence rawPassword, String encodedPassword) {
+                try {
+                    release.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return rawPassword.toString().equals(encodedPassword);
+            }
+        };
+        PasswordVerifier verifier = new PasswordVerifier(blockingEncoder, new SimpleMeterRegistry(), 1, 1);
+        try {
+            CompletableFuture<Boolean> running = verifier.matches("a", "a");
+            CompletableFuture<Boolean> queued = verifier.matches("b", "b");
+
+            assertThatThrownBy(() -> verifier.matches("c", "c").join())
+                    .hasCauseInstanceOf(LoginBusyException.class);
+
+            release.countDown();
+            assertThat(running.get(5, TimeUnit.SECONDS)).isTrue();
+            assertThat(queued.get(5, TimeUnit.SECONDS)).isTrue();
+        } finally {
+            verifier.shutdown();
+        }
+    }
+
+    private MvcResult refresh(String refreshToken) throws Exception {
+        return mockMvc.perform(post("/api/auth/refresh")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(Map.of("refreshToken", refreshToken))))
+                .andReturn();
+    }
+
+    private JsonNode data(MvcResult result) throws Exception {
+        return objectMapper.readTree(result.getResponse().getContentAsString()).path("data");
+    }
+
+    private MvcResult login(String email, String password) throws Exception {
+        MvcResult started = mockMvc.perform(post("/api/auth/login")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(Map.of("email", email, "password", password))))
+                .andReturn();
+        return mockMvc.perform(asyncDispatch(started)).andReturn();
+    }
+
+    private Users seedUser(String password) {
+        String suffix = UUID.randomUUID().toString().substring(0, 8);
+        Organisation organisation = new Organisation();
+        organisation.setName("Login " + suffix);
+        organisation.setLocation("Accra");
+        organisation.setContactEmail("login-" + suffix + "@example.com");
+        organisation = organisationRepository.save(organisation);
+
+        Users user = new Users();
+        user.setFirstName("Login");
+        user.setLastName("Test");
+        user.setEmail("login-" + suffix + "@example.com");
+        user.setPassword(passwordEncoder.encode(password));
+        user.setRole(RoleType.USER);
+        user.setStatus(UserStatus.ACTIVE);
+        user.setOrganisation(organisation);
+        return userRepository.save(user);
+    }
+}
@@ -0,0 +1,134 @@
+package com.smartattendance.backend.service;
+
+import com.smartattendance.backend.dto.UserAttendanceStats;
+import com.smartattendance.backend.enums.SetOperation;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Cohort, day, rate and streak queries over the in-memory history bitmaps.
+ */
+class AttendanceHistoryIndexTest {
+
+    private static final Long ORG = 1L;
+    // Monday
+    private static final LocalDate MON = LocalDate.of(2025, 3, 3);
+    private static final LocalDate TUE = MON.plusDays(1);
+    private static final LocalDate WED = MON.plusDays(2);
+
+    private final AttendanceHistoryIndex index = new AttendanceHistoryIndex(null, null);
+
+    @BeforeEach
+    void seed() {
+        // 1: Mon, Tue   2: Mon   3: Tue, Wed   4: never
+        attend(1L, MON, TUE);
+        attend(2L, MON);
+        attend(3L, TUE, WED);
+        index.registerUser(ORG, 4L);
+    }
+
+    @Test
+    void usersMatchingASetOperationOverDates() {
+        assertThat(index.findUsers(ORG, List.of(MON, TUE), SetOperation.AND)).containsExactly(1L);
+        assertThat(index.findUsers(ORG, List.of(MON, TUE), SetOperation.OR)).containsExactly(1L, 2L, 3L);
+        assertThat(index.findUsers(ORG, List.of(MON, TUE), SetOperation.ANDNOT)).containsExactly(2L);
+        assertThat(index.findAbsentOnAll(ORG, List.of(WED))).containsExactly(1L, 2L, 4L);
+        assertThat(index.findAbsentOnAll(ORG, List.of(MON, TUE, WED))).containsExactly(4L);
+        assertThat(index.hasAttended(ORG, 3L, WED)).isTrue();
+        assertThat(index.hasAttended(ORG, 3L, MON)).isFalse();
+    }
+
+    @Test
+    void daysMatchingASetOperationOverUsers() {
+        LocalDate friday = MON.plusDays(4);
+        assertThat(index.findDays(ORG, List.of(1L, 3L), SetOperation.AND, MON, friday)).containsExactly(TUE);
+        assertThat(index.findDays(ORG, List.of(1L, 3L), SetOperation.OR, MON, friday)).containsExactly(MON, TUE, WED);
+        assertThat(index.findDays(ORG, List.of(1L, 3L), SetOperation.ANDNOT, MON, friday)).containsExactly(MON);
+        // A window starting long before anyone's first attendance
+        assertThat(index.findDays(ORG, List.of(2L), SetOperation.OR, MON.minusYears(1), friday)).containsExactly(MON);
+    }
+
+    @Test
+    void ratesCountWorkDaysAndStreaksRunOverWeekends() {
+        Long regular = 5L;
+        LocalDate thursday = MON.plusDays(3);
+        // Thu, Fri, (weekend), Mon, Tue, missed Wed, Thu
+        attend(regular, thursday, thursday.plusDays(1), thursday.plusDays(4), thursday.plusDays(5),
+                thursday.plusDays(7));
+
+        LocalDate to = MON.plusDays(11);
+        UserAttendanceStats stats = index.getStats(ORG, MON, to).stream()
+                .filter(row -> row.userId().equals(regular))
+                .findFirst().orElseThrow();
+        assertThat(stats.workDays()).isEqualTo(10);
+        assertThat(stats.attendedDays()).isEqualTo(5);
+        assertThat(stats.attendanceRate()).isEqualTo(50.0);
+        assertThat(stats.longestStreak()).isEqualTo(4);
+
+        assertThat(index.findStreaks(ORG, 4, MON, to)).extracting(UserAttendanceStats::userId).containsExactly(regular);
+        assertThat(index.findStreaks(ORG, 5, MON, to)).isEmpty();
+        // Weekend attendance is kept but never counted
+        attend(4L, MON.plusDays(5));
+        assertThat(index.getStats(ORG, MON, MON.plusDays(6)).stream()
+                .filter(row -> row.userId().equals(4L)).findFirst().orElseThrow().attendedDays()).isZero();
+    }
+
+    @Test
+    void removedAttendanceAndUsersDropOut() {
+        index.removeAttendance(ORG, 1L, TUE.atTime(9, 0));
+        assertThat(index.findUsers(ORG, List.of(TUE), SetOperation.OR)).containsExactly(3L);
+
+        index.unregisterUser(ORG, 3L);
+        assertThat(index.findUsers(ORG, List.of(TUE), SetOperation.OR)).isEmpty();
+        assertThat(index.findAbsentOnAll(ORG, List.of(WED))).doesNotContain(3L);
+    }
+
+    @Test
+    void unknownOrganisationsReadAsEmpty() {
+        Long unknown = 99L;
+        assertThat(index.findUsers(unknown, List.of(MON), SetOperation.OR)).isEmpty();
+        assertThat(index.findAbsentOnAll(unknown, List.of(MON))).isEmpty();
+        assertThat(index.findDays(unknown, List.of(1L), SetOperation.OR, MON, WED)).isEmpty();
+        assertThat(index.getStats(unknown, MON, WED)).isEmpty();
+        assertThat(index.hasAttended(unknown, 1L, MON)).isFalse();
+        // Other organisations' users are not visible either
+        assertThat(index.findAbsentOnAll(2L, List.of(MON))).isEmpty();
+    }
+
+    @Test
+    void writesInsideATransactionWaitForItsCommit() {
+        LocalDate thursday = MON.plusDays(3);
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            index.recordAttendance(ORG, 2L, thursday.atTime(8, 0));
+            assertThat(index.hasAttended(ORG, 2L, thursday)).isFalse();
+        } finally {
+            // Rolled back: the synchronizations are dropped without running
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        assertThat(index.hasAttended(ORG, 2L, thursday)).isFalse();
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            index.recordAttendance(ORG, 2L, thursday.atTime(8, 0));
+            TransactionSynchronizationUtils.invokeAfterCommit(TransactionSynchronizationManager.getSynchronizations());
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        assertThat(index.hasAttended(ORG, 2L, thursday)).isTrue();
+    }
+
+    private void attend(Long userId, LocalDate... days) {
+        index.registerUser(ORG, userId);
+        for (LocalDate day : days) {
+            index.recordAttendance(ORG, userId, day.atTime(8, 30));
+        }
+    }
+}
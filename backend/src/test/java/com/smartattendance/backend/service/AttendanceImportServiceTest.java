@@ -0,0 +1,198 @@
+package com.smartattendance.backend.service;
+
+import com.smartattendance.backend.dto.AttendanceImportResult;
+import com.smartattendance.backend.dto.ImportReport;
+import com.smartattendance.backend.entity.AttendanceImportJob;
+import com.smartattendance.backend.entity.AttendanceRecord;
+import com.smartattendance.backend.entity.Organisation;
+import com.smartattendance.backend.entity.Users;
+import com.smartattendance.backend.enums.AttendanceMethod;
+import com.smartattendance.backend.enums.ImportJobStatus;
+import com.smartattendance.backend.enums.RoleType;
+import com.smartattendance.backend.enums.UserStatus;
+import com.smartattendance.backend.exception.ImportFormatException;
+import com.smartattendance.backend.repository.AttendanceImportJobRepository;
+import com.smartattendance.backend.repository.AttendanceRecordRepository;
+import com.smartattendance.backend.repository.OrganisationRepository;
+import com.smartattendance.backend.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Historical import: de-duplication on (user, day), per-row errors, and
+ * resuming a failed file from its last committed batch.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@TestPropertySource(properties = "attendance.attendance-import.batch-size=2")
+class AttendanceImportServiceTest {
+
+    @Autowired
+    private AttendanceImportService attendanceImportService;
+
+    @Autowired
+    private AttendanceImportJobRepository jobRepository;
+
+    @Autowired
+    private AttendanceRecordRepository attendanceRecordRepository;
+
+    @Autowired
+    private AttendanceHistoryIndex attendanceHistoryIndex;
+
+    @Autowired
+    private OrganisationRepository organisationRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private Organisation organisation;
+    private Users ama;
+    private Users kofi;
+
+    @BeforeEach
+    void createOrganisation() {
+        String suffix = UUID.randomUUID().toString().substring(0, 8);
+        Organisation org = new Organisation();
+        org.setName("Legacy " + suffix);
+        org.setLocation("Kumasi");
+        org.setContactEmail("legacy-" + suffix + "@example.com");
+        organisation = organisationRepository.save(org);
+        ama = user("ama-" + suffix + "@example.com");
+        kofi = user("kofi-" + suffix + "@example.com");
+    }
+
+    @Test
+    void importsNewDaysAndSkipsDaysThatAlreadyHaveARecord() {
+        AttendanceRecord existing = new AttendanceRecord();
+        existing.setUser(kofi);
+        existing.setCheckInTime(LocalDateTime.of(2024, 3, 5, 8, 0));
+        existing.setAttendanceDate(existing.getCheckInTime());
+        existing.setCheckInMethod(AttendanceMethod.WEB);
+        attendanceRecordRepository.save(existing);
+        attendanceHistoryIndex.recordAttendance(organisation.getId(), kofi.getId(), existing.getAttendanceDate());
+
+        String csv = lines(
+                "email,checkInTime,checkOutTime,method",
+                ama.getEmail() + ",2024-03-04T08:55,2024-03-04T17:05,",
+                ama.getEmail().toUpperCase() + ",2024-03-04 12:00:00,,",
+                kofi.getEmail() + ",2024-03-04 09:10,,mobile_app",
+                kofi.getEmail() + ",2024-03-05 09:00,,",
+                "ghost@example.com,2024-03-04 09:00,,",
+                ama.getEmail() + ",04/03/2024 09:00,,",
+                ama.getEmail() + ",2024-03-06T09:00,2024-03-06T08:00,");
+
+        AttendanceImportResult result = attendanceImportService.importRecords(organisation, null, csv(csv), null);
+
+        ImportReport report = result.report();
+        assertThat(result.status()).isEqualTo(ImportJobStatus.COMPLETED);
+        assertThat(report.rowsRead()).isEqualTo(7);
+        assertThat(report.imported()).isEqualTo(2);
+        assertThat(report.skipped()).isEqualTo(2);
+        assertThat(report.errors()).extracting(ImportReport.RowError::row).containsExactly(5L, 6L, 7L);
+
+        assertThat(attendanceHistoryIndex.hasAttended(organisation.getId(), ama.getId(), LocalDate.of(2024, 3, 4)))
+                .isTrue();
+        assertThat(attendanceRecordRepository.findAll()).filteredOn(record -> record.getUser().getId().equals(kofi.getId()))
+                .extracting(AttendanceRecord::getCheckInMethod)
+                .containsExactlyInAnyOrder(AttendanceMethod.WEB, AttendanceMethod.MOBILE_APP);
+
+        AttendanceImportJob job = jobRepository.findById(result.jobId()).orElseThrow();
+        assertThat(job.getRowsCommitted()).isEqualTo(7);
+        assertThat(job.getImported()).isEqualTo(2);
+        assertThat(job.getFinishedAt()).isNotNull();
+    }
+
+    @Test
+    void daysTheIndexHasNotSeenAreStillSkippedByTheDatabase() {
+        // Written by another instance: in the table, not in this instance's history index
+        AttendanceRecord elsewhere = new AttendanceRecord();
+        elsewhere.setUser(ama);
+        elsewhere.setCheckInTime(LocalDateTime.of(2024, 4, 2, 7, 45));
+        elsewhere.setAttendanceDate(elsewhere.getCheckInTime());
+        elsewhere.setCheckInMethod(AttendanceMethod.MOBILE_APP);
+        attendanceRecordRepository.save(elsewhere);
+
+        String csv = lines(
+                "email,checkInTime",
+                ama.getEmail() + ",2024-04-02 09:00",
+                ama.getEmail() + ",2024-04-03 09:00");
+
+        AttendanceImportResult result = attendanceImportService.importRecords(organisation, null, csv(csv), null);
+
+        assertThat(result.report().imported()).isEqualTo(1);
+        assertThat(result.report().skipped()).isEqualTo(1);
+        assertThat(attendanceRecordRepository.findAll())
+                .filteredOn(record -> record.getUser().getId().equals(ama.getId()))
+                .extracting(AttendanceRecord::getCheckInMethod)
+                .containsExactlyInAnyOrder(AttendanceMethod.MOBILE_APP, AttendanceMethod.MANUAL);
+        AttendanceImportJob job = jobRepository.findById(result.jobId()).orElseThrow();
+        assertThat(job.getImported()).isEqualTo(1);
+        assertThat(job.getSkipped()).isEqualTo(1);
+    }
+
+    @Test
+    void resumesAFailedImportAfterItsLastCheckpoint() {
+        String committed = lines(
+                "email,checkInTime",
+                ama.getEmail() + ",2024-01-08T09:00",
+                kofi.getEmail() + ",2024-01-08T09:00",
+                ama.getEmail() + ",2024-01-09T09:00",
+                kofi.getEmail() + ",2024-01-09T09:00");
+        String broken = committed + "\n" + ama.getEmail() + ",\"2024-01-10T09:00\n";
+
+        assertThatThrownBy(() -> attendanceImportService.importRecords(organisation, null, csv(broken), null))
+                .isInstanceOf(ImportFormatException.class);
+        AttendanceImportJob failed = jobRepository.findAll().stream()
+                .filter(job -> job.getStatus() == ImportJobStatus.FAILED)
+                .max(Comparator.comparing(AttendanceImportJob::getId))
+                .orElseThrow();
+        assertThat(failed.getRowsCommitted()).isEqualTo(4);
+        assertThat(failed.getImported()).isEqualTo(4);
+
+        String otherFile = committed.replace("2024-01-09", "2024-01-11") + "\n";
+        assertThatThrownBy(() -> attendanceImportService.importRecords(organisation, null, csv(otherFile), failed.getId()))
+                .hasMessageContaining("does not match");
+
+        String fixed = committed + "\n" + ama.getEmail() + ",2024-01-10T09:00\n";
+        AttendanceImportResult resumed = attendanceImportService.importRecords(organisation, null, csv(fixed), failed.getId());
+
+        assertThat(resumed.status()).isEqualTo(ImportJobStatus.COMPLETED);
+        assertThat(resumed.resumedAfterRow()).isEqualTo(4);
+        assertThat(resumed.report().rowsRead()).isEqualTo(1);
+        assertThat(jobRepository.findById(failed.getId()).orElseThrow().getImported()).isEqualTo(5);
+    }
+
+    private Users user(String email) {
+        Users user = new Users();
+        user.setFirstName("Legacy");
+        user.setLastName("User");
+        user.setEmail(email);
+        user.setPassword("unused");
+        user.setRole(RoleType.USER);
+        user.setStatus(UserStatus.ACTIVE);
+        user.setOrganisation(organisation);
+        return userRepository.save(user);
+    }
+
+    private static String lines(String... lines) {
+        return String.join("\n", lines);
+    }
+
+    private static ByteArrayInputStream csv(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+}
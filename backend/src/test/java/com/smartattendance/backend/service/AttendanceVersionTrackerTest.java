@@ -0,0 +1,86 @@
+package com.smartattendance.backend.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Which writes move which stamps, and when an ETag is handed out.
+ */
+class AttendanceVersionTrackerTest {
+
+    private static final Instant START = Instant.parse("2026-03-02T08:00:00Z");
+
+    private final AtomicReference<Instant> now = new AtomicReference<>(START);
+    private final Clock clock = new Clock() {
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now.get();
+        }
+    };
+    private final AttendanceVersionTracker tracker = new AttendanceVersionTracker(clock, 5000, true);
+
+    @Test
+    void userWritesMoveThatUserAndTheOrganisationOnly() {
+        AttendanceVersionTracker.Stamp other = tracker.forUser(1L, 11L);
+
+        tracker.recordUserWrite(1L, 10L);
+
+        assertThat(tracker.forUser(1L, 10L).sequence()).isEqualTo(1);
+        assertThat(tracker.forOrganisation(1L).sequence()).isEqualTo(1);
+        assertThat(tracker.forUser(1L, 11L)).isEqualTo(other);
+        assertThat(tracker.forOrganisation(2L).sequence()).isZero();
+    }
+
+    @Test
+    void organisationWritesMoveEveryMember() {
+        tracker.recordUserWrite(1L, 10L);
+        tracker.recordOrganisationWrite(1L);
+
+        assertThat(tracker.forUser(1L, 10L).sequence()).isEqualTo(2);
+        assertThat(tracker.forUser(1L, 11L).sequence()).isEqualTo(2);
+        assertThat(tracker.forUser(2L, 20L).sequence()).isZero();
+    }
+
+    @Test
+    void etagsWaitForTheSettleWindowAndDependOnTheQualifiers() {
+        AttendanceVersionTracker.Stamp initial = tracker.forUser(1L, 10L);
+        assertThat(tracker.etag(initial, "today", 10L)).startsWith("W/\"").isNotEqualTo(tracker.etag(initial, "today", 11L));
+
+        now.set(START.plusSeconds(60));
+        tracker.recordUserWrite(1L, 10L);
+        AttendanceVersionTracker.Stamp written = tracker.forUser(1L, 10L);
+        assertThat(tracker.etag(written, "today", 10L)).isNull();
+
+        now.set(START.plusSeconds(65));
+        assertThat(tracker.etag(written, "today", 10L))
+                .isNotNull()
+                .isNotEqualTo(tracker.etag(initial, "today", 10L))
+                .isEqualTo(tracker.etag(written, "today", 10L));
+    }
+
+    @Test
+    void noValidatorsUnlessThisIsTheOnlyInstance() {
+        AttendanceVersionTracker shared = new AttendanceVersionTracker(clock, 5000, false);
+        now.set(START.plusSeconds(60));
+
+        assertThat(shared.etag(shared.forUser(1L, 10L), "today", 10L)).isNull();
+        assertThat(shared.etag(shared.forOrganisation(1L), "reports")).isNull();
+    }
+}
@@ -0,0 +1,141 @@
+package com.smartattendance.backend.service;
+
+import com.smartattendance.backend.dto.PresenceMember;
+import com.smartattendance.backend.entity.AttendanceRecord;
+import com.smartattendance.backend.entity.Organisation;
+import com.smartattendance.backend.entity.Users;
+import com.smartattendance.backend.enums.AttendanceMethod;
+import com.smartattendance.backend.enums.RoleType;
+import com.smartattendance.backend.enums.UserStatus;
+import com.smartattendance.backend.repository.AttendanceRecordRepository;
+import com.smartattendance.backend.repository.OrganisationRepository;
+import com.smartattendance.backend.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Closing a past day: open sessions get the policy's check-out, users
+ * without a record get an absence, and closing again changes nothing.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class DayCloseServiceTest {
+
+    @Autowired
+    private DayCloseService dayCloseService;
+
+    @Autowired
+    private OrganisationRepository organisationRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private AttendanceRecordRepository attendanceRecordRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    // A Wednesday at least four days back, so it has ended in any zone
+    private final LocalDate day = LocalDate.now().minusWeeks(1).with(DayOfWeek.WEDNESDAY);
+    private Organisation organisation;
+
+    @BeforeEach
+    void createOrganisation() {
+        String suffix = UUID.randomUUID().toString().substring(0, 8);
+        Organisation org = new Organisation();
+        org.setName("Close " + suffix);
+        org.setLocation("Tamale");
+        org.setContactEmail("close-" + suffix + "@example.com");
+        organisation = organisationRepository.save(org);
+    }
+
+    @Test
+    void closesOpenSessionsAndRecordsAbsencesOnce() {
+        Users open = user("Ama", UserStatus.ACTIVE);
+        Users complete = user("Kofi", UserStatus.ACTIVE);
+        Users absent = user("Yaw", UserStatus.ACTIVE);
+        user("Esi", UserStatus.INACTIVE);
+        AttendanceRecord openSession = record(open, day.atTime(8, 30), null);
+        AttendanceRecord lateSession = record(complete, day.atTime(18, 0), null);
+        record(complete, day.minusDays(1).atTime(8, 0), day.minusDays(1).atTime(16, 0));
+
+        DayCloseService.DayCloseResult result = dayCloseService.closeDay(organisation, day);
+
+        assertThat(result.alreadyClosed()).isFalse();
+        assertThat(result.closedSessions()).isEqualTo(2);
+        assertThat(result.absentees()).isEqualTo(1);
+
+        AttendanceRecord closed = attendanceRecordRepository.findById(openSession.getId()).orElseThrow();
+        assertThat(closed.getCheckOutTime()).isEqualTo(day.atTime(17, 0));
+        assertThat(closed.getCheckOutMethod()).isEqualTo(AttendanceMethod.MANUAL);
+        assertThat(closed.isAutoClosed()).isTrue();
+        // Checked in after closing time: the session is closed at its check-in
+        assertThat(attendanceRecordRepository.findById(lateSession.getId()).orElseThrow().getCheckOutTime())
+                .isEqualTo(day.atTime(18, 0));
+
+        List<PresenceMember> absentees = dayCloseService.findAbsentees(organisation.getId(), day);
+        assertThat(absentees).extracting(PresenceMember::userId).containsExactly(absent.getId());
+
+        DayCloseService.DayCloseResult again = dayCloseService.closeDay(organisation, day);
+        assertThat(again.alreadyClosed()).isTrue();
+        assertThat(dayCloseService.findAbsentees(organisation.getId(), day)).hasSize(1);
+    }
+
+    @Test
+    void weekendsAreClosedWithoutAbsences() {
+        Users user = user("Abena", UserStatus.ACTIVE);
+        LocalDate saturday = day.with(DayOfWeek.SATURDAY).minusWeeks(1);
+        record(user, saturday.atTime(10, 0), null);
+
+        DayCloseService.DayCloseResult result = dayCloseService.closeDay(organisation, saturday);
+
+        assertThat(result.closedSessions()).isEqualTo(1);
+        assertThat(result.absentees()).isZero();
+    }
+
+    private Users user(String firstName, UserStatus status) {
+        Users user = new Users();
+        user.setFirstName(firstName);
+        user.setLastName("Close");
+        user.setEmail(firstName.toLowerCase() + "-" + UUID.randomUUID() + "@example.com");
+        user.setPassword("unused");
+        user.setRole(RoleType.USER);
+        user.setStatus(status);
+        user.setOrganisation(organisation);
+        Users saved = userRepository.save(user);
+        // Users only count as absent on days after they were created
+        new TransactionTemplate(transactionManager).executeWithoutResult(tx ->
+                jdbcTemplate.update("UPDATE users SET created_at = ? WHERE id = ?",
+                        Timestamp.valueOf(day.minusMonths(1).atStartOfDay()), saved.getId()));
+        return saved;
+    }
+
+    private AttendanceRecord record(Users user, LocalDateTime checkIn, LocalDateTime checkOut) {
+        AttendanceRecord record = new AttendanceRecord();
+        record.setUser(user);
+        record.setCheckInTime(checkIn);
+        record.setCheckOutTime(checkOut);
+        record.setAttendanceDate(checkIn);
+        record.setCheckInMethod(AttendanceMethod.WEB);
+        return attendanceRecordRepository.save(record);
+    }
+}
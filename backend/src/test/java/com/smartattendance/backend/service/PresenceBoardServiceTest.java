@@ -0,0 +1,170 @@
+package com.smartattendance.backend.service;
+
+import com.smartattendance.backend.dto.PresenceMember;
+import com.smartattendance.backend.dto.PresenceSummary;
+import com.smartattendance.backend.entity.AttendanceRecord;
+import com.smartattendance.backend.entity.Organisation;
+import com.smartattendance.backend.entity.Users;
+import com.smartattendance.backend.enums.AttendanceMethod;
+import com.smartattendance.backend.enums.RoleType;
+import com.smartattendance.backend.enums.UserStatus;
+import com.smartattendance.backend.repository.AttendanceRecordRepository;
+import com.smartattendance.backend.repository.OrganisationRepository;
+import com.smartattendance.backend.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Present, absent and late counts on the board, whose day follows the
+ * organisation's own time zone rather than the server's.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class PresenceBoardServiceTest {
+
+    @Autowired
+    private PresenceBoardService presenceBoardService;
+
+    @Autowired
+    private OrganisationRepository organisationRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private AttendanceRecordRepository attendanceRecordRepository;
+
+    @Test
+    void boardsFollowTheOrganisationsDayOnBothSidesOfTheServer() {
+        for (String timeZone : new String[]{"Pacific/Kiritimati", "Etc/GMT+12"}) {
+            ZoneId zone = ZoneId.of(timeZone);
+            LocalDate today = LocalDate.now(zone);
+            Organisation organisation = organisation(timeZone);
+            Users early = user(organisation, "Ama");
+            Users late = user(organisation, "Kofi");
+            Users yesterday = user(organisation, "Yaw");
+
+            presenceBoardService.recordCheckIn(organisation.getId(), early.getId(), serverTime(today.atTime(7, 0), zone));
+            presenceBoardService.recordCheckIn(organisation.getId(), late.getId(), serverTime(today.atTime(9, 0), zone));
+            presenceBoardService.recordCheckIn(organisation.getId(), yesterday.getId(),
+                    serverTime(today.minusDays(1).atTime(23, 0), zone));
+
+            PresenceSummary summary = presenceBoardService.getSummary(organisation.getId());
+            assertThat(summary.date()).as(timeZone).isEqualTo(today);
+            assertThat(summary.checkedIn()).as(timeZone).isEqualTo(2);
+            assertThat(summary.late()).as(timeZone).isEqualTo(1);
+            assertThat(presenceBoardService.getAbsentees(organisation.getId()))
+                    .extracting(PresenceMember::userId).containsExactly(yesterday.getId());
+        }
+    }
+
+    @Test
+    void rebuildLoadsEachOrganisationsOwnDay() {
+        ZoneId zone = ZoneId.of("Pacific/Kiritimati");
+        LocalDate today = LocalDate.now(zone);
+        Organisation organisation = organisation(zone.getId());
+        Users member = user(organisation, "Esi");
+        Users absent = user(organisation, "Abena");
+        record(member, serverTime(today.atTime(9, 0), zone));
+        record(absent, serverTime(today.minusDays(1).atTime(9, 0), zone));
+
+        presenceBoardService.rebuild();
+
+        PresenceSummary summary = presenceBoardService.getSummary(organisation.getId());
+        assertThat(summary.date()).isEqualTo(today);
+        assertThat(summary.checkedIn()).isEqualTo(1);
+        assertThat(summary.late()).isEqualTo(1);
+        assertThat(presenceBoardService.getAbsentees(organisation.getId()))
+                .extracting(PresenceMember::userId).containsExactly(absent.getId());
+    }
+
+    @Test
+    void checkInsAndCheckOutsMoveMembersBetweenPresentAndAbsent() {
+        ZoneId zone = ZoneId.of("Africa/Accra");
+        LocalDate today = LocalDate.now(zone);
+        Organisation organisation = organisation(zone.getId());
+        Users stays = user(organisation, "Akua");
+        Users leaves = user(organisation, "Kwame");
+        Users absent = user(organisation, "Efua");
+
+        presenceBoardService.recordCheckIn(organisation.getId(), stays.getId(), serverTime(today.atTime(8, 0), zone));
+        presenceBoardService.recordCheckIn(organisation.getId(), leaves.getId(), serverTime(today.atTime(8, 5), zone));
+        presenceBoardService.recordCheckOut(organisation.getId(), leaves.getId(), serverTime(today.atTime(8, 5), zone));
+
+        PresenceSummary summary = presenceBoardService.getSummary(organisation.getId());
+        assertThat(summary.totalUsers()).isEqualTo(3);
+        assertThat(summary.checkedIn()).isEqualTo(2);
+        assertThat(summary.present()).isEqualTo(1);
+        assertThat(summary.checkedOut()).isEqualTo(1);
+        assertThat(summary.absent()).isEqualTo(1);
+        assertThat(summary.late()).isZero();
+        assertThat(presenceBoardService.getPresentMembers(organisation.getId()))
+                .extracting(PresenceMember::userId).containsExactly(stays.getId());
+        assertThat(presenceBoardService.getAbsentees(organisation.getId()))
+                .extracting(PresenceMember::userId).containsExactly(absent.getId());
+
+        presenceBoardService.recordRemoval(organisation.getId(), stays.getId(), serverTime(today.atTime(8, 0), zone));
+        presenceBoardService.unregisterUser(organisation.getId(), leaves.getId());
+        assertThat(presenceBoardService.getAbsentees(organisation.getId()))
+                .extracting(PresenceMember::userId).containsExactly(stays.getId(), absent.getId());
+    }
+
+    @Test
+    void unknownOrganisationsReadAsEmptyAndGetNoBoard() {
+        Long unknown = Long.MAX_VALUE;
+        presenceBoardService.recordCheckIn(unknown, 1L, LocalDateTime.now());
+
+        PresenceSummary summary = presenceBoardService.getSummary(unknown);
+        assertThat(summary.organisationId()).isEqualTo(unknown);
+        assertThat(summary.totalUsers()).isZero();
+        assertThat(summary.checkedIn()).isZero();
+        assertThat(presenceBoardService.getAbsentees(unknown)).isEmpty();
+        assertThat(presenceBoardService.getPresentMembers(unknown)).isEmpty();
+    }
+
+    private Organisation organisation(String timeZone) {
+        String suffix = UUID.randomUUID().toString().substring(0, 8);
+        Organisation org = new Organisation();
+        org.setName("Board " + suffix);
+        org.setLocation("Ho");
+        org.setContactEmail("board-" + suffix + "@example.com");
+        org.setTimeZone(timeZone);
+        return organisationRepository.save(org);
+    }
+
+    private Users user(Organisation organisation, String firstName) {
+        Users user = new Users();
+        user.setFirstName(firstName);
+        user.setLastName("Board");
+        user.setEmail(firstName.toLowerCase() + "-" + UUID.randomUUID() + "@example.com");
+        user.setPassword("unused");
+        user.setRole(RoleType.USER);
+        user.setStatus(UserStatus.ACTIVE);
+        user.setOrganisation(organisation);
+        Users saved = userRepository.save(user);
+        presenceBoardService.registerUser(saved);
+        return saved;
+    }
+
+    private void record(Users user, LocalDateTime checkIn) {
+        AttendanceRecord record = new AttendanceRecord();
+        record.setUser(user);
+        record.setCheckInTime(checkIn);
+        record.setAttendanceDate(checkIn);
+        record.setCheckInMethod(AttendanceMethod.WEB);
+        attendanceRecordRepository.save(record);
+    }
+
+    private static LocalDateTime serverTime(LocalDateTime local, ZoneId zone) {
+        return local.atZone(zone).withZoneSameInstant(ZoneId.systemDefault()).toLocalDateTime();
+    }
+}
@@ -0,0 +1,227 @@
+package com.smartattendance.backend.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.smartattendance.backend.entity.Organisation;
+import com.smartattendance.backend.entity.Users;
+import com.smartattendance.backend.enums.RoleType;
+import com.smartattendance.backend.enums.UserStatus;
+import com.smartattendance.backend.repository.OrganisationRepository;
+import com.smartattendance.backend.repository.UserRepository;
+import com.smartattendance.backend.retention.RetentionService;
+import com.smartattendance.backend.security.JwtUtil;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+/**
+ * Users and organisations are served from the second-level cache, by id and
+ * by email, and never served stale after a write that bypasses Hibernate.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class ReferenceDataCacheTest {
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private OrganisationRepository organisationRepository;
+
+    @Autowired
+    private LastLoginRecorder lastLoginRecorder;
+
+    @Autowired
+    private RetentionService retentionService;
+
+    @Autowired
+    private UserImportService userImportService;
+
+    @Autowired
+    private ReferenceDataCache referenceDataCache;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    private Organisation organisation;
+
+    @BeforeEach
+    void createOrganisation() {
+        organisation = organisation();
+    }
+
+    @Test
+    void usersAreServedByIdAndByEmailFromTheCache() {
+        Users user = user(organisation, RoleType.USER);
+        entityManagerFactory.getCache().evictAll();
+
+        userService.findById(user.getId());
+        assertThat(entityManagerFactory.getCache().contains(Users.class, user.getId())).isTrue();
+        assertThat(entityManagerFactory.getCache().contains(Organisation.class, organisation.getId())).isTrue();
+
+        long hits = userStatistic("hits");
+        assertThat(userService.findForLogin(user.getEmail())).isPresent();
+        assertThat(userService.findById(user.getId()).getEmail()).isEqualTo(user.getEmail());
+        assertThat(userStatistic("hits")).isGreaterThan(hits);
+    }
+
+    @Test
+    void updatedUsersAreNotServedUnderTheirOldEmail() {
+        Users user = user(organisation, RoleType.USER);
+        String oldEmail = user.getEmail();
+        assertThat(userService.findForLogin(oldEmail)).isPresent();
+
+        Users changes = new Users();
+        changes.setFirstName("Renamed");
+        changes.setLastName(user.getLastName());
+        changes.setEmail("renamed-" + UUID.randomUUID() + "@example.com");
+        changes.setRole(RoleType.ADMIN);
+        changes.setStatus(UserStatus.ACTIVE);
+        userService.updateUser(user.getId(), changes, organisation);
+
+        assertThat(userService.findForLogin(oldEmail)).isEmpty();
+        assertThat(userService.findForLogin(changes.getEmail())).get()
+                .extracting(Users::getFirstName).isEqualTo("Renamed");
+        assertThat(userService.findById(user.getId()).getRole()).isEqualTo(RoleType.ADMIN);
+    }
+
+    @Test
+    void lastLoginFlushEvictsTheCachedUser() {
+        Users user = user(organisation, RoleType.USER);
+        userService.findById(user.getId());
+        LocalDateTime loginTime = LocalDateTime.of(2025, 3, 3, 7, 45);
+
+        lastLoginRecorder.record(user.getId(), loginTime);
+        lastLoginRecorder.flush();
+
+        assertThat(userService.findById(user.getId()).getLastLogin()).isEqualTo(loginTime);
+        assertThat(userService.findForLogin(user.getEmail()).orElseThrow().getLastLogin()).isEqualTo(loginTime);
+    }
+
+    @Test
+    void rowsReclaimedByRetentionAreNotServedAndTheirEmailCanBeImportedAgain() {
+        Users leaver = user(organisation, RoleType.USER);
+        Organisation closed = organisation();
+        Organisation founded = organisation();
+        founded.setCreatedBy(leaver);
+        organisationRepository.save(founded);
+        softDelete("users", leaver.getId(), 200);
+        softDelete("organisations", closed.getId(), 400);
+        entityManagerFactory.getCache().evictAll();
+        // Cached as soft-deleted rows
+        assertThat(userRepository.findCachedByEmail(leaver.getEmail())).isPresent();
+        assertThat(organisationRepository.findById(closed.getId())).isPresent();
+        assertThat(organisationRepository.findById(founded.getId()).orElseThrow().getCreatedBy()).isNotNull();
+
+        retentionService.run();
+
+        assertThat(userRepository.findCachedByEmail(leaver.getEmail())).isEmpty();
+        assertThat(userRepository.findById(leaver.getId())).isEmpty();
+        assertThat(organisationRepository.findById(closed.getId())).isEmpty();
+        assertThat(organisationRepository.findById(founded.getId()).orElseThrow().getCreatedBy()).isNull();
+
+        userImportService.importUsers(organisation, csv(leaver.getEmail()), UserImportService.Format.CSV);
+        Users returning = userService.findForLogin(leaver.getEmail()).orElseThrow();
+        assertThat(returning.getId()).isNotEqualTo(leaver.getId());
+        assertThat(returning.getFirstName()).isEqualTo("Returning");
+    }
+
+    @Test
+    void importedUsersCanBeFoundByEmailAtOnce() {
+        String email = "imported-" + UUID.randomUUID() + "@example.com";
+        assertThat(userService.findForLogin(email)).isEmpty();
+
+        userImportService.importUsers(organisation, csv(email), UserImportService.Format.CSV);
+
+        assertThat(userService.findForLogin(email)).isPresent();
+    }
+
+    @Test
+    void statisticsAreForSuperAdminsOnly() throws Exception {
+        String superAdmin = jwtUtil.generateToken(user(organisation, RoleType.SUPER_ADMIN));
+        MvcResult result = mockMvc.perform(get("/api/admin/cache/stats")
+                .header("Authorization", "Bearer " + superAdmin)).andReturn();
+        assertThat(result.getResponse().getStatus()).isEqualTo(200);
+        JsonNode data = new ObjectMapper().readTree(result.getResponse().getContentAsString()).path("data");
+        assertThat(data.has("organisations")).isTrue();
+        assertThat(data.path("usersByEmail").has("hitRatio")).isTrue();
+        assertThat(data.path("overall").has("hits")).isTrue();
+
+        String admin = jwtUtil.generateToken(user(organisation, RoleType.ADMIN));
+        assertThat(mockMvc.perform(get("/api/admin/cache/stats").header("Authorization", "Bearer " + admin))
+                .andReturn().getResponse().getStatus()).isNotEqualTo(200);
+    }
+
+    @SuppressWarnings("unchecked")
+    private long userStatistic(String name) {
+        Map<String, Object> users = (Map<String, Object>) referenceDataCache.getStatistics().get("users");
+        return ((Number) users.getOrDefault(name, 0L)).longValue();
+    }
+
+    private void softDelete(String table, Long id, int daysAgo) {
+        new TransactionTemplate(transactionManager).executeWithoutResult(tx -> jdbcTemplate.update(
+                "UPDATE " + table + " SET is_deleted = TRUE, updated_at = ? WHERE id = ?",
+                Timestamp.valueOf(LocalDateTime.now().minusDays(daysAgo)), id));
+    }
+
+    private Organisation organisation() {
+        String suffix = UUID.randomUUID().toString().substring(0, 8);
+        Organisation org = new Organisation();
+        org.setName("Cache " + suffix);
+        org.setLocation("Tamale");
+        org.setContactEmail("cache-" + suffix + "@example.com");
+        return organisationRepository.save(org);
+    }
+
+    private Users user(Organisation organisation, RoleType role) {
+        Users user = new Users();
+        user.setFirstName("Cached");
+        user.setLastName("User");
+        user.setEmail("cache-" + UUID.randomUUID() + "@example.com");
+        user.setPassword("{noop}unused");
+        user.setRole(role);
+        user.setStatus(UserStatus.ACTIVE);
+        user.setOrganisation(organisation);
+        return userRepository.save(user);
+    }
+
+    private static ByteArrayInputStream csv(String email) {
+        String content = "email,firstName,lastName,password,role\r\n" + email + ",Returning,User,secret1,USER";
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,124 @@
+package com.smartattendance.backend.service;
+
+import com.smartattendance.backend.dto.ImportReport;
+import com.smartattendance.backend.dto.UserResponse;
+import com.smartattendance.backend.entity.Organisation;
+import com.smartattendance.backend.entity.Users;
+import com.smartattendance.backend.enums.RoleType;
+import com.smartattendance.backend.enums.UserStatus;
+import com.smartattendance.backend.repository.OrganisationRepository;
+import com.smartattendance.backend.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Bulk import: valid rows land in the database and the in-memory indexes,
+ * everything else is reported per row without failing the whole file.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class UserImportServiceTest {
+
+    @Autowired
+    private UserImportService userImportService;
+
+    @Autowired
+    private OrganisationRepository organisationRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private UserSearchIndex userSearchIndex;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    private Organisation organisation;
+    private String domain;
+
+    @BeforeEach
+    void createOrganisation() {
+        domain = UUID.randomUUID().toString().substring(0, 8) + ".example.com";
+        Organisation org = new Organisation();
+        org.setName("Import " + domain);
+        org.setLocation("Accra");
+        org.setContactEmail("admin@" + domain);
+        organisation = organisationRepository.save(org);
+    }
+
+    @Test
+    void importsValidCsvRowsAndReportsTheRest() {
+        Users existing = new Users();
+        existing.setFirstName("Existing");
+        existing.setLastName("User");
+        existing.setEmail("existing@" + domain);
+        existing.setPassword("unused");
+        existing.setRole(RoleType.USER);
+        existing.setStatus(UserStatus.ACTIVE);
+        existing.setOrganisation(organisation);
+        userRepository.save(existing);
+
+        String csv = String.join("\r\n",
+                "email,firstName,lastName,password,role",
+                "ama@" + domain + ",Ama,Mensah,secret1,",
+                "kofi@" + domain + ",\"Kofi, Jr\",\"Annan \"\"KA\"\"\",secret2,admin",
+                "EXISTING@" + domain + ",Esi,Boateng,secret3,USER",
+                "ama@" + domain + ",Ama,Again,secret4,USER",
+                "not-an-email,Yaw,Owusu,secret5,USER",
+                "boss@" + domain + ",Big,Boss,secret6,SUPER_ADMIN",
+                "",
+                "short@" + domain + ",Abena,Asante,123,USER");
+
+        ImportReport report = userImportService.importUsers(organisation, stream(csv), UserImportService.Format.CSV);
+
+        assertThat(report.rowsRead()).isEqualTo(7);
+        assertThat(report.imported()).isEqualTo(2);
+        assertThat(report.failed()).isEqualTo(5);
+        assertThat(report.errors()).extracting(ImportReport.RowError::row).containsExactly(3L, 4L, 5L, 6L, 8L);
+        assertThat(report.errors()).extracting(ImportReport.RowError::message).containsExactly(
+                "Email already in use",
+                "Email appears more than once in the file",
+                "Email must be valid",
+                "Cannot create SUPER_ADMIN",
+                "Password must be at least 6 characters");
+
+        Users kofi = userRepository.findByEmail("kofi@" + domain).orElseThrow();
+        assertThat(kofi.getFirstName()).isEqualTo("Kofi, Jr");
+        assertThat(kofi.getLastName()).isEqualTo("Annan \"KA\"");
+        assertThat(kofi.getRole()).isEqualTo(RoleType.ADMIN);
+        assertThat(kofi.getOrganisation().getId()).isEqualTo(organisation.getId());
+        assertThat(passwordEncoder.matches("secret2", kofi.getPassword())).isTrue();
+
+        assertThat(userSearchIndex.search(organisation, "ama mens", 10, false))
+                .extracting(UserResponse::email).containsExactly("ama@" + domain);
+    }
+
+    @Test
+    void importsJsonArrayAndKeepsRowsBeforeMalformedInput() {
+        String json = "[{\"firstName\":\"Akua\",\"lastName\":\"Darko\",\"email\":\"akua@" + domain
+                + "\",\"password\":\"secret1\"}, {\"firstName\":\"Kojo\",\"lastName\":\"Badu\",\"email\":\"kojo@" + domain
+                + "\",\"password\":\"secret2\",\"role\":\"MANAGER\"}, {\"firstName\": ";
+
+        ImportReport report = userImportService.importUsers(organisation, stream(json), UserImportService.Format.JSON);
+
+        assertThat(report.imported()).isEqualTo(1);
+        assertThat(report.errors()).extracting(ImportReport.RowError::message)
+                .containsExactly("Unknown role: MANAGER", "Malformed input, import stopped here");
+        assertThat(userRepository.findByEmail("akua@" + domain)).isPresent();
+    }
+
+    private static ByteArrayInputStream stream(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+}
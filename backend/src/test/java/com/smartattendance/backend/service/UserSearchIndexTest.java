@@ -0,0 +1,140 @@
+package com.smartattendance.backend.service;
+
+import com.smartattendance.backend.dto.UserResponse;
+import com.smartattendance.backend.entity.Organisation;
+import com.smartattendance.backend.entity.Users;
+import com.smartattendance.backend.enums.RoleType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Matching and ranking of the in-memory user search.
+ */
+class UserSearchIndexTest {
+
+    private final UserSearchIndex index = new UserSearchIndex(null);
+    private final Organisation organisation = organisation(1L);
+    private long nextId = 1;
+
+    @BeforeEach
+    void seed() {
+        index.index(user("Kwame", "Mensah", "kwame.mensah@example.com"));
+        index.index(user("Ama", "Kwarteng", "ama.k@example.com"));
+        index.index(user("Kwabena", "Owusu", "kb.owusu@example.com"));
+        index.index(user("Zoë", "Adjei", "zoe@example.com"));
+        index.index(user("Kofi", "Annan", "kofi@example.com"));
+    }
+
+    @Test
+    void ranksWholeNamePrefixBeforeWordPrefixBeforeSubstring() {
+        // Shorter names first within a tier
+        assertThat(names("kwa")).containsExactly("Kwame Mensah", "Kwabena Owusu", "Ama Kwarteng");
+        assertThat(names("ensa")).containsExactly("Kwame Mensah");
+    }
+
+    @Test
+    void firstKeystrokesMatchWordPrefixes() {
+        assertThat(names("k")).containsExactly("Kofi Annan", "Kwame Mensah", "Kwabena Owusu", "Ama Kwarteng");
+        assertThat(names("ow")).containsExactly("Kwabena Owusu");
+    }
+
+    @Test
+    void matchesEmailsAndIgnoresAccentsAndCase() {
+        assertThat(names("kb.ow")).containsExactly("Kwabena Owusu");
+        assertThat(names("ZOE")).containsExactly("Zoë Adjei");
+    }
+
+    @Test
+    void toleratesTyposOnlyWhenFuzzy() {
+        assertThat(names("mensha")).containsExactly("Kwame Mensah");
+        assertThat(names("kwame mensha")).containsExactly("Kwame Mensah");
+        assertThat(names("kofu")).containsExactly("Kofi Annan");
+        assertThat(index.search(organisation, "mensha", 10, false)).isEmpty();
+        // Exact matches still rank ahead of fuzzy ones
+        assertThat(names("kofi")).first().isEqualTo("Kofi Annan");
+    }
+
+    @Test
+    void updatesAndRemovalsAreVisibleImmediately() {
+        Users renamed = user("Akosua", "Boateng", "akosua@example.com");
+        index.index(renamed);
+        renamed.setLastName("Asante");
+        index.index(renamed);
+
+        assertThat(names("boat")).isEmpty();
+        assertThat(names("asan")).containsExactly("Akosua Asante");
+
+        index.remove(organisation.getId(), renamed.getId());
+        assertThat(names("akos")).isEmpty();
+    }
+
+    @Test
+    void writesInsideATransactionWaitForItsCommit() {
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            index.index(user("Yaw", "Darko", "yaw.darko@example.com"));
+            assertThat(names("darko")).isEmpty();
+        } finally {
+            // Rolled back: the synchronizations are dropped without running
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        assertThat(names("darko")).isEmpty();
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            index.index(user("Esi", "Darko", "esi.darko@example.com"));
+            TransactionSynchronizationUtils.invokeAfterCommit(TransactionSynchronizationManager.getSynchronizations());
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        assertThat(names("darko")).containsExactly("Esi Darko");
+    }
+
+    @Test
+    void organisationsAreSearchedSeparately() {
+        Organisation other = organisation(2L);
+        Users user = user("Kwame", "Other", "kwame.other@example.com");
+        user.setOrganisation(other);
+        index.index(user);
+
+        assertThat(index.search(other, "kwame", 10, true)).extracting(UserResponse::lastName).containsExactly("Other");
+        assertThat(index.search(organisation, "other", 10, true)).isEmpty();
+    }
+
+    @Test
+    void prefixDistanceMeasuresTheBestPrefix() {
+        assertThat(UserSearchIndex.prefixDistance("mensha", "mensah", 2)).isEqualTo(1);
+        assertThat(UserSearchIndex.prefixDistance("kwa", "kwabena owusu", 1)).isZero();
+        assertThat(UserSearchIndex.prefixDistance("xyz", "kwame", 1)).isEqualTo(2);
+    }
+
+    private List<String> names(String query) {
+        return index.search(organisation, query, 10, true).stream()
+                .map(user -> user.firstName() + " " + user.lastName())
+                .toList();
+    }
+
+    private Users user(String firstName, String lastName, String email) {
+        Users user = new Users();
+        user.setId(nextId++);
+        user.setFirstName(firstName);
+        user.setLastName(lastName);
+        user.setEmail(email);
+        user.setRole(RoleType.USER);
+        user.setOrganisation(organisation);
+        return user;
+    }
+
+    private static Organisation organisation(Long id) {
+        Organisation organisation = new Organisation();
+        organisation.setId(id);
+        organisation.setName("Org " + id);
+        return organisation;
+    }
+}
@@ -33,14 +33,79 @@ apiClient.interceptors.request.use(
   }
 );
 
-// Handle auth failures
+const clearSession = () => {
+  localStorage.removeItem("token");
+  localStorage.removeItem("refreshToken");
+  localStorage.removeItem("user");
+};
+
+const selectedOrganisationId = (token) => {
+  try {
+    return JSON.parse(atob(token.split(".")[1])).currentOrganisationId ?? null;
+  } catch {
+    return null;
+  }
+};
+
+// One refresh at a time, across tabs as well: the refresh token is shared
+// through localStorage, and presenting it twice revokes the whole family.
+// Concurrent failures in this tab wait for the same new token; other tabs
+// wait for the lock and then pick up the token the first one stored.
+let refreshInFlight = null;
+
+const refreshAccessToken = (staleToken) => {
+  if (!refreshInFlight) {
+    const refresh = async () => {
+      const current = localStorage.getItem("token");
+      if (current && current !== staleToken) {
+        return current;
+      }
+      const response = await axios.post(`${API_BASE_URL()}/auth/refresh`, {
+        refreshToken: localStorage.getItem("refreshToken"),
+        organisationId: selectedOrganisationId(current || ""),
+      });
+      const { data } = response.data;
+      localStorage.setItem("token", data.token);
+      localStorage.setItem("refreshToken", data.refreshToken);
+      return data.token;
+    };
+    refreshInFlight = (navigator.locks
+      ? navigator.locks.request("smart-attendance-token-refresh", refresh)
+      : refresh()
+    ).finally(() => {
+      refreshInFlight = null;
+    });
+  }
+  return refreshInFlight;
+};
+
+// Handle auth failures: an expired access token is renewed once with the
+// refresh token before the user is sent back to the login page
 apiClient.interceptors.response.use(
   (response) => response,
-  (error) => {
-    if (error.response?.status === 401) {
+  async (error) => {
+    const original = error.config;
+    const status = error.response?.status;
+    const expired = (status === 401 || status === 403) && original?.headers?.Authorization
+      && !original.url?.startsWith("/auth/");
+
+    if (expired && !original._retry && localStorage.getItem("refreshToken")) {
+      original._retry = true;
+      try {
+        const token = await refreshAccessToken(original.headers.Authorization.replace(/^Bearer /, ""));
+        original.headers.Authorization = `Bearer ${token}`;
+        return apiClient(original);
+      } catch {
+        console.error("Refresh token rejected. Forcing logout.");
+        clearSession();
+        window.location.href = "/login";
+        return Promise.reject(error);
+      }
+    }
+
+    if (status === 401) {
       console.error("Session terminated by server (401). Forcing logout.");
-      localStorage.removeItem("token");
-      localStorage.removeItem("user");
+      clearSession();
       // Use window.location.href to force a full redirect and state reset
       window.location.href = "/login";
     }
@@ -48,4 +113,10 @@ apiClient.interceptors.response.use(
   }
 );
 
+// One key per user action; a retried request carries the same key so the
+// server replays the first result instead of checking in twice
+export const newIdempotencyKey = () =>
+  window.crypto?.randomUUID?.() ??
+  `${Date.now()}-${Math.random().toString(36).slice(2)}`;
+
 export default apiClient;
@@ -1,6 +1,6 @@
 import { useState, useEffect } from "react";
 import { useAuth } from "../../context/AuthContext";
-import apiClient from "../../api/axios";
+import apiClient, { newIdempotencyKey } from "../../api/axios";
 import AttendanceTable from "../../components/user/AttendanceTable";
 import ReportsTab from "../../components/user/ReportsTab";
 import AttendanceHistory from "../../components/user/AttendanceHistory";
@@ -92,12 +92,16 @@ const UserDashboard = () => {
     setLoading(true);
     try {
       const location = await getUserLocation();
-      const response = await apiClient.post("/attendance/check-in-qr", {
-        qrCode: qrData,
-        latitude: location.latitude,
-        longitude: location.longitude,
-        checkInMethod: "WEB",
-      });
+      const response = await apiClient.post(
+        "/attendance/check-in-qr",
+        {
+          qrCode: qrData,
+          latitude: location.latitude,
+          longitude: location.longitude,
+          checkInMethod: "WEB",
+        },
+        { headers: { "Idempotency-Key": newIdempotencyKey() } }
+      );
 
       fetchTodayAttendance();
       setCheckInModalOpen(false);
@@ -119,7 +123,9 @@ const UserDashboard = () => {
   const handleCheckOut = async () => {
     setLoading(true);
     try {
-      const response = await apiClient.put("/attendance/check-out", {});
+      const response = await apiClient.put("/attendance/check-out", {}, {
+        headers: { "Idempotency-Key": newIdempotencyKey() },
+      });
       fetchTodayAttendance();
       setCheckOutModalOpen(false);
       showStatusModal(